@@ -9,8 +9,10 @@ import de.catma.api.v1.backend.GitlabManagerPrivilegedFactory;
 import de.catma.api.v1.backend.GitlabManagerRestrictedFactory;
 import de.catma.api.v1.backend.interfaces.RemoteGitManagerPrivilegedFactory;
 import de.catma.api.v1.backend.interfaces.RemoteGitManagerRestrictedFactory;
-import de.catma.api.v1.cache.CollectionAnnotationCountCache;
+import de.catma.api.v1.cache.AuthorizationTokenCache;
+import de.catma.api.v1.cache.ProjectExportIndexCache;
 import de.catma.api.v1.cache.ProjectExportSerializerCache;
+import de.catma.api.v1.cache.QueryResultCache;
 import de.catma.api.v1.cache.RemoteGitManagerRestrictedProviderCache;
 import de.catma.api.v1.oauth.DefaultHttpClientFactory;
 import de.catma.api.v1.oauth.HttpServletRequestSessionStorageHandler;
@@ -24,8 +26,10 @@ public class ApiInjectionBinder extends AbstractBinder {
 	protected void configure() {
 		// singletons
 		bind(ProjectExportSerializerCache.class).to(ProjectExportSerializerCache.class).in(Singleton.class);
-		bind(CollectionAnnotationCountCache.class).to(CollectionAnnotationCountCache.class).in(Singleton.class);
+		bind(ProjectExportIndexCache.class).to(ProjectExportIndexCache.class).in(Singleton.class);
+		bind(QueryResultCache.class).to(QueryResultCache.class).in(Singleton.class);
 		bind(RemoteGitManagerRestrictedProviderCache.class).to(RemoteGitManagerRestrictedProviderCache.class).in(Singleton.class);
+		bind(AuthorizationTokenCache.class).to(AuthorizationTokenCache.class).in(Singleton.class);
 		
 		// per request, can be overwritten e.g. for testing purposes with a higher rank like .ranked(2)
 		bind(GitlabManagerRestrictedFactory.class).to(RemoteGitManagerRestrictedFactory.class).ranked(1);
@@ -0,0 +1,109 @@
+package de.catma.api.v1.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+import de.catma.properties.CATMAPropertyKey;
+
+/**
+ * Remembers bearer tokens that have already been validated, so that clients paging through large exports don't pay for
+ * signature verification or GitLab user lookups with every request.
+ * <p>
+ * Tokens are only kept as hashes. A validated JWT stays valid until its expiration time, a GitLab token that is used
+ * directly as an API token is resolved again after {@link CATMAPropertyKey#API_BACKEND_TOKEN_CACHE_TTL_SECONDS}, so
+ * that a revoked token stops working within that time. Concurrent resolutions of the same backend token share a single
+ * GitLab lookup.
+ */
+public class AuthorizationTokenCache {
+
+	private static record Entry(String userIdentifier, long expiresAtMillis) {
+
+		boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAtMillis;
+		}
+	}
+
+	// an upper bound only, entries expire individually, see Entry#expiresAtMillis
+	private static final long MAX_ENTRY_LIFETIME_HOURS = 24;
+
+	private final Cache<String, Entry> tokens = CacheBuilder.newBuilder()
+			.maximumSize(10000)
+			.expireAfterWrite(MAX_ENTRY_LIFETIME_HOURS, TimeUnit.HOURS)
+			.build();
+
+	private final long backendTokenTtlMillis;
+
+	public AuthorizationTokenCache() {
+		this(TimeUnit.SECONDS.toMillis(CATMAPropertyKey.API_BACKEND_TOKEN_CACHE_TTL_SECONDS.getIntValue()));
+	}
+
+	AuthorizationTokenCache(long backendTokenTtlMillis) {
+		this.backendTokenTtlMillis = backendTokenTtlMillis;
+	}
+
+	private String getKey(String issuer, String token) {
+		return Hashing.sha256().newHasher()
+				.putString(issuer, StandardCharsets.UTF_8)
+				.putChar('\n')
+				.putString(token, StandardCharsets.UTF_8)
+				.hash()
+				.toString();
+	}
+
+	/**
+	 * @param issuer the issuer the token has been validated for
+	 * @param token a bearer token
+	 * @return the identifier of the user the token has been validated for or <code>null</code> if the token hasn't been
+	 * validated yet or has expired in the meantime
+	 */
+	public String getUserIdentifier(String issuer, String token) {
+		String key = getKey(issuer, token);
+		Entry entry = tokens.getIfPresent(key);
+		if (entry == null) {
+			return null;
+		}
+
+		if (entry.isExpired()) {
+			tokens.asMap().remove(key, entry);
+			return null;
+		}
+
+		return entry.userIdentifier();
+	}
+
+	/**
+	 * @param issuer the issuer the token has been validated for
+	 * @param token a validated JWT
+	 * @param userIdentifier the subject of the JWT
+	 * @param expiresAtMillis the expiration time of the JWT
+	 */
+	public void putValidatedJwt(String issuer, String token, String userIdentifier, long expiresAtMillis) {
+		tokens.put(getKey(issuer, token), new Entry(userIdentifier, expiresAtMillis));
+	}
+
+	/**
+	 * @param issuer the issuer the token gets used with
+	 * @param token a backend token
+	 * @param resolver resolves the token to the username of its owner, only called if there is no valid entry for the
+	 * token and no other resolution of the same token is in progress, failures are not cached
+	 * @return the username of the owner of the token
+	 * @throws ExecutionException if the resolution fails
+	 */
+	public String resolveBackendToken(String issuer, String token, Callable<String> resolver) throws ExecutionException {
+		String key = getKey(issuer, token);
+		Entry entry = tokens.getIfPresent(key);
+		if (entry != null && entry.isExpired()) {
+			tokens.asMap().remove(key, entry);
+		}
+
+		return tokens.get(
+				key, () -> new Entry(resolver.call(), System.currentTimeMillis() + backendTokenTtlMillis)
+		).userIdentifier();
+	}
+}
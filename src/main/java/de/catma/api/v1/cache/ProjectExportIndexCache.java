@@ -0,0 +1,26 @@
+package de.catma.api.v1.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.catma.api.v1.serialization.ProjectExportIndex;
+
+public class ProjectExportIndexCache {
+	
+	public static record CacheKey(String identifier, String namespace, String catmaProjectId, String rootRevisionHash) {}
+	
+	
+	private final Cache<CacheKey, ProjectExportIndex> indexes = CacheBuilder.newBuilder().maximumSize(100).expireAfterAccess(1, TimeUnit.HOURS).build();
+	
+	public void put(CacheKey key, ProjectExportIndex index) {
+		indexes.put(key, index);
+	}
+	
+	public ProjectExportIndex get(CacheKey key, Callable<ProjectExportIndex> loader) throws ExecutionException {
+		return indexes.get(key, loader);
+	}
+}
@@ -1,30 +1,325 @@
 package de.catma.api.v1.cache;
 
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import de.catma.api.v1.serialization.ProjectExportSerializer;
+import de.catma.properties.CATMAPropertyKey;
 
+/**
+ * Keeps loaded projects for the export API.
+ * <p>
+ * Entries are weighed by their estimated heap size. Instead of expiring, an entry is checked against the head of the
+ * remote branch at most every {@link CATMAPropertyKey#API_PROJECT_CACHE_REVISION_CHECK_INTERVAL_SECONDS}. If the head has
+ * moved, the project is reloaded in the background while the previous revision keeps being served. Concurrent loads of
+ * the same project are coalesced into one, whether they have been triggered by a cache miss or by a refresh.
+ * <p>
+ * Each loaded revision reads from a working copy of its own below {@link #REVISIONS_DIRECTORY_NAME}, so a reload never
+ * changes the files the previous revision is served from. The new revision only replaces the previous one once it has
+ * been loaded completely. Replaced and evicted revisions are closed after {@link #RETIREMENT_DELAY_SECONDS}, which
+ * deletes their working copies, requests that got hold of them before they were replaced get to finish first.
+ * <p>
+ * Hit, miss, load and refresh counts are available through {@link #getStats()} and the platform MBean server.
+ */
 public class ProjectExportSerializerCache {
-	
-	public static record CacheKey(String identifier, String namespace, String catmaProjectId) {}; 
-	
-	
-	private final Cache<CacheKey, ProjectExportSerializer> projects = CacheBuilder.newBuilder().maximumSize(30).expireAfterWrite(1, TimeUnit.HOURS).build();
-	
-	public void put(CacheKey key, ProjectExportSerializer project) {
-		projects.put(key, project);
-	}
-	
-	public ProjectExportSerializer get(CacheKey key, Callable<ProjectExportSerializer> loader) throws ExecutionException {
-		return projects.get(key, loader);
-	}
-	
+
+	public static record CacheKey(String identifier, String namespace, String catmaProjectId) {};
+
+	public static record Stats(
+			long hitCount, long missCount, long loadCount, long loadFailureCount, long coalescedLoadCount,
+			long revisionCheckCount, long refreshCount, long refreshFailureCount, long totalLoadTimeMillis,
+			long entryCount, long evictionCount
+	) {}
+
+	public static interface StatsMXBean {
+		long getHitCount();
+		long getMissCount();
+		long getLoadCount();
+		long getLoadFailureCount();
+		long getCoalescedLoadCount();
+		long getRevisionCheckCount();
+		long getRefreshCount();
+		long getRefreshFailureCount();
+		long getTotalLoadTimeMillis();
+		long getEntryCount();
+		long getEvictionCount();
+	}
+
+	private static class Entry {
+		private final ProjectExportSerializer serializer;
+		private final String remoteRevisionHash;
+		private final long weight;
+		private volatile long lastRevisionCheck;
+
+		public Entry(ProjectExportSerializer serializer, String remoteRevisionHash, long weight) {
+			this.serializer = serializer;
+			this.remoteRevisionHash = remoteRevisionHash;
+			this.weight = weight;
+			this.lastRevisionCheck = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * The directory below {@link CATMAPropertyKey#API_GIT_REPOSITORY_BASE_PATH} with the working copies of the loaded
+	 * revisions.
+	 */
+	public static final String REVISIONS_DIRECTORY_NAME = ".revisions";
+
+	private static final String MBEAN_NAME = "de.catma.api.v1:type=ProjectExportSerializerCache";
+	private static final int KILOBYTE = 1024;
+	private static final long RETIREMENT_DELAY_SECONDS = 60;
+
+	private final Logger logger = Logger.getLogger(ProjectExportSerializerCache.class.getName());
+
+	// weights are in KB, Guava weights are ints
+	private final Cache<CacheKey, Entry> projects = CacheBuilder.newBuilder()
+			.maximumWeight(CATMAPropertyKey.API_PROJECT_CACHE_MAX_SIZE_MB.getIntValue() * 1024L)
+			.weigher((CacheKey key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, entry.weight / KILOBYTE))
+			.expireAfterAccess(1, TimeUnit.HOURS)
+			.removalListener((RemovalNotification<CacheKey, Entry> notification) -> retire(notification.getKey(), notification.getValue()))
+			.recordStats()
+			.build();
+
+	private final ConcurrentHashMap<CacheKey, CompletableFuture<Entry>> loads = new ConcurrentHashMap<>();
+	private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(
+			2, new ThreadFactoryBuilder().setNameFormat("project-export-cache-refresh-%d").setDaemon(true).build()
+	);
+	private final ScheduledExecutorService retirementExecutor = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setNameFormat("project-export-cache-retirement-%d").setDaemon(true).build()
+	);
+	private final long revisionCheckIntervalMillis =
+			TimeUnit.SECONDS.toMillis(CATMAPropertyKey.API_PROJECT_CACHE_REVISION_CHECK_INTERVAL_SECONDS.getIntValue());
+	private final long retirementDelayMillis;
+
+	private final AtomicLong loadCount = new AtomicLong();
+	private final AtomicLong loadFailureCount = new AtomicLong();
+	private final AtomicLong coalescedLoadCount = new AtomicLong();
+	private final AtomicLong revisionCheckCount = new AtomicLong();
+	private final AtomicLong refreshCount = new AtomicLong();
+	private final AtomicLong refreshFailureCount = new AtomicLong();
+	private final AtomicLong totalLoadTimeMillis = new AtomicLong();
+
+	public ProjectExportSerializerCache() {
+		this(TimeUnit.SECONDS.toMillis(RETIREMENT_DELAY_SECONDS));
+	}
+
+	@VisibleForTesting
+	ProjectExportSerializerCache(long retirementDelayMillis) {
+		this.retirementDelayMillis = retirementDelayMillis;
+		deleteStaleRevisions();
+		registerMBean();
+	}
+
+	/**
+	 * @param key the key of the project
+	 * @param remoteRevisionHashLookup returns the current head of the remote branch the project is loaded from, or null if
+	 * it is not known yet
+	 * @param loader loads the project
+	 * @param forceRevisionCheck true to check the remote head right away and wait for the reload if it has moved
+	 * @return the serializer for the most recently loaded revision
+	 * @throws ExecutionException if the project has to be loaded and loading fails
+	 */
+	public ProjectExportSerializer get(
+			CacheKey key, Callable<String> remoteRevisionHashLookup, Callable<ProjectExportSerializer> loader, boolean forceRevisionCheck
+	) throws ExecutionException {
+		Entry entry = projects.getIfPresent(key);
+
+		if (entry == null) {
+			return await(load(key, remoteRevisionHashLookup, loader)).serializer;
+		}
+
+		if (forceRevisionCheck) {
+			revisionCheckCount.incrementAndGet();
+			entry.lastRevisionCheck = System.currentTimeMillis();
+
+			String remoteRevisionHash;
+			try {
+				remoteRevisionHash = remoteRevisionHashLookup.call();
+			}
+			catch (Exception e) {
+				throw new ExecutionException(e);
+			}
+
+			if (!Objects.equals(remoteRevisionHash, entry.remoteRevisionHash)) {
+				refreshCount.incrementAndGet();
+				return await(load(key, remoteRevisionHashLookup, loader)).serializer;
+			}
+		}
+		else if (System.currentTimeMillis() - entry.lastRevisionCheck > revisionCheckIntervalMillis) {
+			// set before submitting so that concurrent requests don't submit checks of their own
+			entry.lastRevisionCheck = System.currentTimeMillis();
+			refreshExecutor.submit(() -> refreshIfMoved(key, entry, remoteRevisionHashLookup, loader));
+		}
+
+		return entry.serializer;
+	}
+
 	public void invalidate(CacheKey key) {
 		projects.invalidate(key);
 	}
+
+	public Stats getStats() {
+		CacheStats cacheStats = projects.stats();
+
+		return new Stats(
+				cacheStats.hitCount(), cacheStats.missCount(), loadCount.get(), loadFailureCount.get(), coalescedLoadCount.get(),
+				revisionCheckCount.get(), refreshCount.get(), refreshFailureCount.get(), totalLoadTimeMillis.get(),
+				projects.size(), cacheStats.evictionCount()
+		);
+	}
+
+	private void refreshIfMoved(CacheKey key, Entry entry, Callable<String> remoteRevisionHashLookup, Callable<ProjectExportSerializer> loader) {
+		try {
+			revisionCheckCount.incrementAndGet();
+			String remoteRevisionHash = remoteRevisionHashLookup.call();
+
+			if (!Objects.equals(remoteRevisionHash, entry.remoteRevisionHash)) {
+				refreshCount.incrementAndGet();
+				logger.info(String.format("Refreshing %s, remote head moved from %s to %s", key, entry.remoteRevisionHash, remoteRevisionHash));
+				await(load(key, remoteRevisionHashLookup, loader));
+			}
+		}
+		catch (Exception e) {
+			refreshFailureCount.incrementAndGet();
+			// the previous revision is still being served, the next check will try again
+			logger.log(Level.WARNING, String.format("Failed to refresh %s", key), e);
+		}
+	}
+
+	private void retire(CacheKey key, Entry entry) {
+		retirementExecutor.schedule(
+				() -> {
+					try {
+						entry.serializer.close();
+					}
+					catch (Exception e) {
+						logger.log(Level.WARNING, String.format("Failed to close a replaced or evicted revision of %s", key), e);
+					}
+				},
+				retirementDelayMillis,
+				TimeUnit.MILLISECONDS
+		);
+	}
+
+	/**
+	 * Deletes the working copies that have been left behind by a previous run, none of them are in use yet.
+	 */
+	private void deleteStaleRevisions() {
+		String basePath = CATMAPropertyKey.API_GIT_REPOSITORY_BASE_PATH.getValue();
+		if (basePath == null) {
+			return;
+		}
+
+		File revisionsDirectory = Paths.get(new File(basePath).toURI()).resolve(REVISIONS_DIRECTORY_NAME).toFile();
+		if (revisionsDirectory.exists() && !FileUtils.deleteQuietly(revisionsDirectory)) {
+			logger.warning(String.format("Failed to delete stale revisions in %s", revisionsDirectory));
+		}
+	}
+
+	private CompletableFuture<Entry> load(CacheKey key, Callable<String> remoteRevisionHashLookup, Callable<ProjectExportSerializer> loader) {
+		CompletableFuture<Entry> future = new CompletableFuture<>();
+		CompletableFuture<Entry> running = loads.putIfAbsent(key, future);
+		if (running != null) {
+			coalescedLoadCount.incrementAndGet();
+			return running;
+		}
+
+		long start = System.currentTimeMillis();
+		try {
+			loadCount.incrementAndGet();
+
+			// looked up before loading, so that changes pushed in the meantime trigger another refresh
+			String remoteRevisionHash = remoteRevisionHashLookup.call();
+			ProjectExportSerializer serializer = loader.call();
+			if (remoteRevisionHash == null) {
+				// the project hadn't been cloned before
+				remoteRevisionHash = remoteRevisionHashLookup.call();
+			}
+
+			Entry entry = new Entry(serializer, remoteRevisionHash, serializer.estimateHeapSize());
+			projects.put(key, entry);
+
+			logger.info(String.format(
+					"Loaded %s at remote revision %s with an estimated size of %d KB in %d ms",
+					key, remoteRevisionHash, entry.weight / KILOBYTE, System.currentTimeMillis() - start
+			));
+
+			future.complete(entry);
+		}
+		catch (Throwable t) {
+			loadFailureCount.incrementAndGet();
+			future.completeExceptionally(t);
+		}
+		finally {
+			totalLoadTimeMillis.addAndGet(System.currentTimeMillis() - start);
+			loads.remove(key, future);
+		}
+
+		return future;
+	}
+
+	private Entry await(CompletableFuture<Entry> future) throws ExecutionException {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ExecutionException(e);
+		}
+	}
+
+	private void registerMBean() {
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName(MBEAN_NAME);
+			// the application can be redeployed within the same JVM
+			if (mBeanServer.isRegistered(objectName)) {
+				mBeanServer.unregisterMBean(objectName);
+			}
+			mBeanServer.registerMBean(
+					new StatsMXBean() {
+						public long getHitCount() { return getStats().hitCount(); }
+						public long getMissCount() { return getStats().missCount(); }
+						public long getLoadCount() { return getStats().loadCount(); }
+						public long getLoadFailureCount() { return getStats().loadFailureCount(); }
+						public long getCoalescedLoadCount() { return getStats().coalescedLoadCount(); }
+						public long getRevisionCheckCount() { return getStats().revisionCheckCount(); }
+						public long getRefreshCount() { return getStats().refreshCount(); }
+						public long getRefreshFailureCount() { return getStats().refreshFailureCount(); }
+						public long getTotalLoadTimeMillis() { return getStats().totalLoadTimeMillis(); }
+						public long getEntryCount() { return getStats().entryCount(); }
+						public long getEvictionCount() { return getStats().evictionCount(); }
+					},
+					objectName
+			);
+		}
+		catch (Exception e) {
+			logger.log(Level.WARNING, "Failed to register the project export cache statistics MBean", e);
+		}
+	}
 }
@@ -0,0 +1,166 @@
+package de.catma.api.v1.cache;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.catma.queryengine.result.QueryResultRow;
+import de.catma.queryengine.result.TagQueryResultRow;
+
+/**
+ * Keeps the rows of recent query results so that they can be paged through without running the query again.
+ * <p>
+ * Results are weighed by their number of rows, at most {@link #MAX_CACHED_ROWS} rows are kept altogether. Queries run on
+ * a pool of {@link #MAX_CONCURRENT_QUERIES} threads with room for {@link #MAX_QUEUED_QUERIES} more, further queries are
+ * rejected. Concurrent requests for the same query share one execution. A query gets cancelled once all of the callers
+ * that wait for it have run into their timeouts.
+ */
+public class QueryResultCache {
+
+	public static record CacheKey(
+			String identifier, String namespace, String catmaProjectId, String rootRevisionHash,
+			String query, List<String> documentIds, List<String> collectionIds
+	) {}
+
+	/**
+	 * A total order of rows, so that offsets into a result stay meaningful even if a query has to be run again.
+	 */
+	public static final Comparator<QueryResultRow> ROW_ORDER = Comparator
+			.comparing(QueryResultRow::getSourceDocumentId)
+			.thenComparing(QueryResultRow::getRange)
+			.thenComparing(
+					row -> row instanceof TagQueryResultRow ? ((TagQueryResultRow) row).getTagInstanceId() : null,
+					Comparator.nullsFirst(Comparator.<String>naturalOrder())
+			)
+			.thenComparing(
+					row -> row instanceof TagQueryResultRow ? ((TagQueryResultRow) row).getPropertyDefinitionId() : null,
+					Comparator.nullsFirst(Comparator.<String>naturalOrder())
+			)
+			.thenComparing(
+					row -> row instanceof TagQueryResultRow ? ((TagQueryResultRow) row).getPropertyValue() : null,
+					Comparator.nullsFirst(Comparator.<String>naturalOrder())
+			)
+			.thenComparing(QueryResultRow::getPhrase, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+	private static final int MAX_CONCURRENT_QUERIES = 4;
+	private static final int MAX_QUEUED_QUERIES = 16;
+	private static final long MAX_CACHED_ROWS = 500000;
+
+	private static class RunningQuery {
+		private final Future<List<QueryResultRow>> future;
+		// guarded by runningQueries
+		private int waiterCount = 0;
+
+		public RunningQuery(Future<List<QueryResultRow>> future) {
+			this.future = future;
+		}
+	}
+
+	private final Cache<CacheKey, List<QueryResultRow>> results;
+	private final Map<CacheKey, RunningQuery> runningQueries = new HashMap<>();
+	private final ThreadPoolExecutor queryExecutor;
+
+	public QueryResultCache() {
+		this(MAX_CONCURRENT_QUERIES, MAX_QUEUED_QUERIES, MAX_CACHED_ROWS);
+	}
+
+	@VisibleForTesting
+	QueryResultCache(int maxConcurrentQueries, int maxQueuedQueries, long maxCachedRows) {
+		results = CacheBuilder.newBuilder()
+				// one segment, otherwise the limit would apply to each segment's share of it
+				.concurrencyLevel(1)
+				.maximumWeight(maxCachedRows)
+				.weigher((CacheKey key, List<QueryResultRow> rows) -> Math.max(1, rows.size()))
+				.expireAfterAccess(10, TimeUnit.MINUTES)
+				.build();
+
+		queryExecutor = new ThreadPoolExecutor(
+				maxConcurrentQueries, maxConcurrentQueries,
+				0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(maxQueuedQueries),
+				new ThreadFactoryBuilder().setNameFormat("api-query-%d").setDaemon(true).build()
+		);
+	}
+
+	/**
+	 * @param key the key of the query
+	 * @param query runs the query and returns its rows in {@link #ROW_ORDER}
+	 * @param timeout how long to wait for the result
+	 * @param unit the unit of the timeout
+	 * @return the rows
+	 * @throws ExecutionException if the query fails, failed queries are not cached
+	 * @throws TimeoutException if the query takes longer than the timeout, it keeps running in the background only if
+	 *         other callers are still waiting for it
+	 * @throws RejectedExecutionException if the query would have to run but too many queries are running or queued already
+	 */
+	public List<QueryResultRow> get(CacheKey key, Callable<List<QueryResultRow>> query, long timeout, TimeUnit unit) throws ExecutionException, TimeoutException {
+		List<QueryResultRow> rows = results.getIfPresent(key);
+		if (rows != null) {
+			return rows;
+		}
+
+		RunningQuery runningQuery;
+		synchronized (runningQueries) {
+			// the query may have finished in the meantime
+			rows = results.getIfPresent(key);
+			if (rows != null) {
+				return rows;
+			}
+
+			runningQuery = runningQueries.get(key);
+			if (runningQuery == null) {
+				runningQuery = new RunningQuery(queryExecutor.submit(query));
+				runningQueries.put(key, runningQuery);
+			}
+			runningQuery.waiterCount++;
+		}
+
+		boolean done = false;
+		try {
+			try {
+				rows = runningQuery.future.get(timeout, unit);
+			}
+			catch (ExecutionException e) {
+				done = true;
+				throw e;
+			}
+
+			done = true;
+			results.put(key, rows);
+			return rows;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ExecutionException(e);
+		}
+		finally {
+			synchronized (runningQueries) {
+				runningQuery.waiterCount--;
+				if (done) {
+					runningQueries.remove(key, runningQuery);
+				}
+				else if (runningQuery.waiterCount == 0) {
+					// nobody is interested in the result anymore
+					runningQuery.future.cancel(true);
+					runningQueries.remove(key, runningQuery);
+					// a cancelled query that hasn't started yet would keep its place in the queue
+					queryExecutor.purge();
+				}
+			}
+		}
+	}
+}
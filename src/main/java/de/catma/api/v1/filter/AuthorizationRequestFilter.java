@@ -31,6 +31,7 @@ import de.catma.api.v1.ApiSecurityContext;
 import de.catma.api.v1.backend.AccessTokenRemoteGitManagerRestrictedProvider;
 import de.catma.api.v1.backend.interfaces.RemoteGitManagerRestrictedFactory;
 import de.catma.api.v1.backend.interfaces.RemoteGitManagerRestrictedProvider;
+import de.catma.api.v1.cache.AuthorizationTokenCache;
 import de.catma.api.v1.cache.RemoteGitManagerRestrictedProviderCache;
 import de.catma.properties.CATMAPropertyKey;
 import de.catma.repository.git.managers.interfaces.RemoteGitManagerRestricted;
@@ -48,6 +49,8 @@ public class AuthorizationRequestFilter implements ContainerRequestFilter {
 	private RemoteGitManagerRestrictedProviderCache remoteGitManagerRestrictedProviderCache;
 	@Inject
 	private RemoteGitManagerRestrictedFactory remoteGitMangerRestrictedFactory;
+	@Inject
+	private AuthorizationTokenCache authorizationTokenCache;
 
 	@Override
 	public void filter(ContainerRequestContext requestContext) throws IOException {
@@ -67,7 +70,18 @@ public class AuthorizationRequestFilter implements ContainerRequestFilter {
 		String bearerToken = authorizationHeader.substring(AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX.length());
 		String scheme = AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX.trim();
 
-		JwtValidationResult jwtValidationResult = validateJwt(bearerToken, requestContext, scheme);
+		JwtValidationResult jwtValidationResult;
+		String cachedUserIdentifier = authorizationTokenCache.getUserIdentifier(getIssuer(requestContext), bearerToken);
+
+		if (cachedUserIdentifier != null) {
+			// the token has been validated before and hasn't expired since, either as a JWT or as a backend token
+			requestContext.setSecurityContext(new ApiSecurityContext(cachedUserIdentifier, requestContext.getSecurityContext().isSecure(), scheme));
+			jwtValidationResult = JwtValidationResult.VALID;
+		}
+		else {
+			jwtValidationResult = validateJwt(bearerToken, requestContext, scheme);
+		}
+
 		boolean isRequestAborted = false;
 
 		switch (jwtValidationResult) {
@@ -126,16 +140,21 @@ public class AuthorizationRequestFilter implements ContainerRequestFilter {
 
 	private boolean attemptToUseTokenDirectlyAsBackendToken(String token, ContainerRequestContext requestContext, String scheme) {
 		try {
-			RemoteGitManagerRestricted remoteGitManagerRestricted = remoteGitMangerRestrictedFactory.create(token);
+			// concurrent requests with the same token share a single lookup
+			String username = authorizationTokenCache.resolveBackendToken(getIssuer(requestContext), token, () -> {
+				RemoteGitManagerRestricted remoteGitManagerRestricted = remoteGitMangerRestrictedFactory.create(token);
 
-			// TODO: test what happens if the cache contains a provider with a token that was valid but that has subsequently expired
-			remoteGitManagerRestrictedProviderCache.put(
-					remoteGitManagerRestricted.getUsername(),
-					new AccessTokenRemoteGitManagerRestrictedProvider(token, remoteGitMangerRestrictedFactory)
-			);
+				// TODO: test what happens if the cache contains a provider with a token that was valid but that has subsequently expired
+				remoteGitManagerRestrictedProviderCache.put(
+						remoteGitManagerRestricted.getUsername(),
+						new AccessTokenRemoteGitManagerRestrictedProvider(token, remoteGitMangerRestrictedFactory)
+				);
+
+				return remoteGitManagerRestricted.getUsername();
+			});
 
 			requestContext.setSecurityContext(
-					new ApiSecurityContext(remoteGitManagerRestricted.getUsername(), requestContext.getSecurityContext().isSecure(), scheme)
+					new ApiSecurityContext(username, requestContext.getSecurityContext().isSecure(), scheme)
 			);
 
 			return true;
@@ -146,6 +165,10 @@ public class AuthorizationRequestFilter implements ContainerRequestFilter {
 		}
 	}
 
+	private String getIssuer(ContainerRequestContext requestContext) {
+		return requestContext.getUriInfo().getBaseUri().toString();
+	}
+
 	private void logSecurityWarning(String failureType, Exception exception, ContainerRequestContext requestContext, String token) {
 		logger.log(
 				Level.WARNING,
@@ -193,7 +216,7 @@ public class AuthorizationRequestFilter implements ContainerRequestFilter {
 
 			JWTClaimsSetVerifier<?> claimsVerifier = new DefaultJWTClaimsVerifier<>(
 					new JWTClaimsSet.Builder()
-							.issuer(requestContext.getUriInfo().getBaseUri().toString()) // must be present and match exactly - did this server issue the token?
+							.issuer(getIssuer(requestContext)) // must be present and match exactly - did this server issue the token?
 							.build(),
 					new HashSet<>(Arrays.asList("exp", "nbf")) // expiration & not-before; must be present and will be checked automatically
 			);
@@ -217,6 +240,9 @@ public class AuthorizationRequestFilter implements ContainerRequestFilter {
 
 			// all checks passed
 			String userIdentifier = signedJWT.getJWTClaimsSet().getSubject();
+			authorizationTokenCache.putValidatedJwt(
+					getIssuer(requestContext), token, userIdentifier, signedJWT.getJWTClaimsSet().getExpirationTime().getTime()
+			);
 			requestContext.setSecurityContext(new ApiSecurityContext(userIdentifier, requestContext.getSecurityContext().isSecure(), scheme));
 			return JwtValidationResult.VALID;
 		}
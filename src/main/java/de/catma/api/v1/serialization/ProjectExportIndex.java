@@ -0,0 +1,224 @@
+package de.catma.api.v1.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import de.catma.document.annotation.AnnotationCollection;
+import de.catma.document.annotation.AnnotationCollectionReference;
+import de.catma.document.annotation.TagReference;
+import de.catma.document.source.SourceDocumentReference;
+import de.catma.repository.git.graph.interfaces.GraphProjectHandler;
+
+/**
+ * A precomputed ordering of all annotations of one project revision, as delivered by the export API.
+ * <p>
+ * Annotations are ordered by document ID, then collection ID, then annotation (tag instance) ID. For every collection
+ * the index keeps the sorted annotation IDs and the number of annotations in all preceding collections, so that the
+ * annotations of a page can be located by binary search instead of re-sorting every preceding collection.
+ */
+public class ProjectExportIndex {
+
+	/**
+	 * An opaque position in the export, pointing right after the annotation with the given keys.
+	 * <p>
+	 * Cursors are based on the ordering keys rather than on offsets, so they stay valid across project revisions.
+	 */
+	public static record Cursor(String documentId, String collectionId, String annotationId) {
+		private static final String VERSION = "1";
+		public static final Cursor START = new Cursor("", "", "");
+
+		public boolean isStart() {
+			return documentId.isEmpty() && collectionId.isEmpty() && annotationId.isEmpty();
+		}
+
+		public String encode() {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(
+					String.join("\n", VERSION, documentId, collectionId, annotationId).getBytes(StandardCharsets.UTF_8)
+			);
+		}
+
+		/**
+		 * @param token an encoded cursor, an empty token denotes the start of the export
+		 * @return the decoded cursor
+		 * @throws IllegalArgumentException if the token is not a valid cursor
+		 */
+		public static Cursor decode(String token) {
+			if (token == null || token.isBlank()) {
+				return START;
+			}
+
+			String[] parts = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8).split("\n", -1);
+			if (parts.length != 4 || !parts[0].equals(VERSION)) {
+				throw new IllegalArgumentException(String.format("Invalid cursor: %s", token));
+			}
+
+			return new Cursor(parts[1], parts[2], parts[3]);
+		}
+	}
+
+	public static record CollectionEntry(String documentId, AnnotationCollectionReference collectionReference, String[] annotationIds, int offset) {
+		public int endOffset() {
+			return offset + annotationIds.length;
+		}
+	}
+
+	public static record DocumentEntry(String documentId, int offset, int endOffset) {}
+
+	private final String rootRevisionHash;
+	private final List<DocumentEntry> documentEntries;
+	private final List<CollectionEntry> collectionEntries;
+	private final int[] collectionOffsets;
+	private final int totalCount;
+
+	private ProjectExportIndex(String rootRevisionHash, List<DocumentEntry> documentEntries, List<CollectionEntry> collectionEntries, int totalCount) {
+		this.rootRevisionHash = rootRevisionHash;
+		this.documentEntries = documentEntries;
+		this.collectionEntries = collectionEntries;
+		this.collectionOffsets = collectionEntries.stream().mapToInt(CollectionEntry::offset).toArray();
+		this.totalCount = totalCount;
+	}
+
+	/**
+	 * Builds the index by loading every collection of the project once.
+	 *
+	 * @param rootRevisionHash the revision the graph has been loaded for
+	 * @param graphProjectHandler the loaded graph
+	 * @return the index
+	 * @throws Exception if collections cannot be loaded
+	 */
+	public static ProjectExportIndex build(String rootRevisionHash, GraphProjectHandler graphProjectHandler) throws Exception {
+		List<SourceDocumentReference> sourceDocumentRefs = graphProjectHandler.getSourceDocumentReferences().stream()
+				.sorted(Comparator.comparing(SourceDocumentReference::getUuid))
+				.toList();
+
+		List<DocumentEntry> documentEntries = new ArrayList<>();
+		List<CollectionEntry> collectionEntries = new ArrayList<>();
+		int offset = 0;
+
+		for (SourceDocumentReference sourceDocumentRef : sourceDocumentRefs) {
+			int documentOffset = offset;
+
+			for (AnnotationCollectionReference annotationCollectionRef : sourceDocumentRef.getUserMarkupCollectionRefs().stream()
+					.sorted(Comparator.comparing(AnnotationCollectionReference::getId))
+					.toList()
+			) {
+				AnnotationCollection annotationCollection = graphProjectHandler.getAnnotationCollection(annotationCollectionRef);
+				// equivalent to sorting the references with ProjectExportSerializer.TAG_REFERENCE_COMPARATOR and keeping one per instance
+				String[] annotationIds = annotationCollection.getTagReferences().stream()
+						.map(TagReference::getTagInstanceId)
+						.distinct()
+						.sorted()
+						.toArray(String[]::new);
+
+				collectionEntries.add(new CollectionEntry(sourceDocumentRef.getUuid(), annotationCollectionRef, annotationIds, offset));
+				offset += annotationIds.length;
+			}
+
+			documentEntries.add(new DocumentEntry(sourceDocumentRef.getUuid(), documentOffset, offset));
+		}
+
+		return new ProjectExportIndex(rootRevisionHash, documentEntries, collectionEntries, offset);
+	}
+
+	public String getRootRevisionHash() {
+		return rootRevisionHash;
+	}
+
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	public List<DocumentEntry> getDocumentEntries() {
+		return documentEntries;
+	}
+
+	/**
+	 * @param offset a global annotation offset, 0 &lt;= offset &lt; {@link #getTotalCount()}
+	 * @return the index of the collection entry that contains the annotation at the given offset
+	 */
+	public int getCollectionEntryIndex(int offset) {
+		int idx = Arrays.binarySearch(collectionOffsets, offset);
+		if (idx < 0) {
+			idx = -idx - 2; // the entry before the insertion point
+		}
+		else {
+			// several entries can share the same offset if collections are empty, the last one is the non-empty one
+			while (idx + 1 < collectionOffsets.length && collectionOffsets[idx + 1] == offset) {
+				idx++;
+			}
+		}
+		return idx;
+	}
+
+	public CollectionEntry getCollectionEntry(int index) {
+		return collectionEntries.get(index);
+	}
+
+	public int getCollectionEntryCount() {
+		return collectionEntries.size();
+	}
+
+	/**
+	 * @param cursor a cursor
+	 * @return the global offset of the first annotation after the cursor
+	 */
+	public int getOffset(Cursor cursor) {
+		if (cursor.isStart()) {
+			return 0;
+		}
+
+		// first collection entry with a key >= the cursor's collection key
+		int low = 0;
+		int high = collectionEntries.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (compareCollectionKey(collectionEntries.get(mid), cursor) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+
+		if (low == collectionEntries.size()) {
+			return totalCount;
+		}
+
+		CollectionEntry collectionEntry = collectionEntries.get(low);
+		if (compareCollectionKey(collectionEntry, cursor) > 0) {
+			return collectionEntry.offset();
+		}
+
+		int idx = Arrays.binarySearch(collectionEntry.annotationIds(), cursor.annotationId());
+		return collectionEntry.offset() + (idx >= 0 ? idx + 1 : -idx - 1);
+	}
+
+	/**
+	 * @param offset a global annotation offset, 0 &lt;= offset &lt;= {@link #getTotalCount()}
+	 * @return a cursor that resumes the export at the given offset
+	 */
+	public Cursor getCursor(int offset) {
+		if (offset <= 0) {
+			return Cursor.START;
+		}
+
+		CollectionEntry collectionEntry = collectionEntries.get(getCollectionEntryIndex(offset - 1));
+		return new Cursor(
+				collectionEntry.documentId(),
+				collectionEntry.collectionReference().getId(),
+				collectionEntry.annotationIds()[offset - 1 - collectionEntry.offset()]
+		);
+	}
+
+	private int compareCollectionKey(CollectionEntry collectionEntry, Cursor cursor) {
+		int result = collectionEntry.documentId().compareTo(cursor.documentId());
+		if (result == 0) {
+			result = collectionEntry.collectionReference().getId().compareTo(cursor.collectionId());
+		}
+		return result;
+	}
+}
@@ -1,13 +1,24 @@
 package de.catma.api.v1.serialization;
 
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -15,36 +26,77 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.zip.CRC32;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 
+import org.apache.commons.io.FileUtils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 
-import de.catma.api.v1.cache.CollectionAnnotationCountCache;
-import de.catma.api.v1.cache.CollectionAnnotationCountCache.CacheKey;
+import de.catma.api.v1.cache.ProjectExportIndexCache;
+import de.catma.api.v1.cache.ProjectExportIndexCache.CacheKey;
+import de.catma.api.v1.serialization.ProjectExportIndex.Cursor;
 import de.catma.api.v1.serialization.model_wrappers.*;
 import de.catma.api.v1.serialization.models.ProjectExport;
 import de.catma.api.v1.serialization.models.ProjectExportDocument;
 import de.catma.api.v1.serialization.models.ProjectExportExtendedMetadata;
+import de.catma.api.v1.serialization.models.ProjectExportStreamEntry;
+import de.catma.backgroundservice.LogProgressListener;
 import de.catma.document.Range;
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
 import de.catma.document.annotation.TagReference;
+import de.catma.document.source.IndexInfoSet;
 import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentReference;
+import de.catma.indexer.IndexedProject;
+import de.catma.queryengine.QueryId;
+import de.catma.queryengine.QueryJob;
+import de.catma.queryengine.QueryJob.QueryException;
+import de.catma.queryengine.QueryOptions;
+import de.catma.queryengine.result.QueryResult;
+import de.catma.queryengine.result.QueryResultRow;
+import de.catma.queryengine.result.json.JSONQueryResultBuilder;
 import de.catma.repository.git.GitProjectHandler;
 import de.catma.repository.git.graph.interfaces.GraphProjectHandler;
 import de.catma.repository.git.serialization.SerializationHelper;
 import de.catma.tag.*;
 
-public class ProjectExportSerializer {
+/**
+ * Serves the export API from one loaded revision of a project.
+ * <p>
+ * The serializer reads documents and collections lazily from a working copy of its own, which is checked out at the
+ * revision the serializer has been loaded for. Reloads of the project don't touch that working copy, it gets deleted
+ * when the serializer is closed.
+ */
+public class ProjectExportSerializer implements Closeable {
 	public static final int DEFAULT_PAGE_SIZE = 100;
+	public static final String APPLICATION_NDJSON = "application/x-ndjson";
 	@VisibleForTesting
 	public static final Comparator<TagReference> TAG_REFERENCE_COMPARATOR = 
 			(tRef1, tRef2) -> tRef1.getTagInstanceId().equals(tRef2.getTagInstanceId())?tRef1.getRange().compareTo(tRef2.getRange()):tRef1.getTagInstanceId().compareTo(tRef2.getTagInstanceId());
 	
+	// rough per-object estimates for estimateHeapSize
+	private static final long ESTIMATED_BASE_SIZE_BYTES = 64 * 1024;
+	private static final long ESTIMATED_TAGSET_SIZE_BYTES = 1024;
+	private static final long ESTIMATED_TAG_SIZE_BYTES = 2 * 1024;
+	private static final long ESTIMATED_DOCUMENT_REFERENCE_SIZE_BYTES = 4 * 1024;
+	private static final long ESTIMATED_COLLECTION_REFERENCE_SIZE_BYTES = 1024;
+	// the cache sizes of LazyGraphProjectHandler
+	private static final int LOADED_DOCUMENTS_LIMIT = 10;
+	private static final int LOADED_COLLECTIONS_LIMIT = 20;
+
 	private final Logger logger = Logger.getLogger(ProjectExportSerializer.class.getName());
 	
 	private final GitProjectHandler gitProjectHandler;
@@ -54,9 +106,20 @@ public class ProjectExportSerializer {
 	private final String namespace;
 	private final String projectId;
 	private final TagManager tagManager;
-	private final CollectionAnnotationCountCache collectionAnnotationCountCache;
+	private final ProjectExportIndexCache projectExportIndexCache;
+	private final IndexedProject queryProject;
+	private final Cache<String, String> fileChecksums = CacheBuilder.newBuilder().maximumSize(1000).build();
+	private final String rootRevisionHash;
+	private final File revisionDirectory;
 	
-	public ProjectExportSerializer(String userName, String namespace, String projectId, TagManager tagManager, GitProjectHandler gitProjectHandler, GraphProjectHandler graphProjectHandler, CollectionAnnotationCountCache collectionAnnotationCountCache) {
+	/**
+	 * @param rootRevisionHash the revision the project has been loaded at
+	 * @param revisionDirectory the directory with the working copy the project has been loaded from, deleted by
+	 *        {@link #close()}, or null if there is nothing to delete
+	 */
+	public ProjectExportSerializer(
+			String userName, String namespace, String projectId, TagManager tagManager, GitProjectHandler gitProjectHandler, GraphProjectHandler graphProjectHandler, ProjectExportIndexCache projectExportIndexCache, IndexedProject queryProject,
+			String rootRevisionHash, File revisionDirectory) {
 		super();
 		this.userName = userName;
 		this.namespace = namespace;
@@ -64,7 +127,10 @@ public class ProjectExportSerializer {
 		this.tagManager = tagManager;
 		this.gitProjectHandler = gitProjectHandler;
 		this.graphProjectHandler = graphProjectHandler;
-		this.collectionAnnotationCountCache = collectionAnnotationCountCache;
+		this.projectExportIndexCache = projectExportIndexCache;
+		this.queryProject = queryProject;
+		this.rootRevisionHash = rootRevisionHash;
+		this.revisionDirectory = revisionDirectory;
 	}
 
 	private ProjectExportSourceDocument getProjectExportSourceDocument(URI requestUri, SourceDocument sourceDocument) throws Exception {
@@ -192,130 +258,247 @@ public class ProjectExportSerializer {
 		
 	}
 
-	// TODO: move to a more general package
-	@FunctionalInterface
-	private interface CheckedFunction<T, R, E extends Exception> {
-		R apply(T t) throws E;
+	private static record ExportPage(
+			int totalPages, int page, int pageSize, String prevPageUrl, String nextPageUrl,
+			int startOffset, int endOffset, ProjectExportIndex exportIndex) {}
+
+	private interface ExportPageVisitor {
+		void visitDocument(ProjectExportDocument projectExportDocument) throws IOException;
+		void visitAnnotation(String documentId, ProjectExportAnnotation projectExportAnnotation) throws IOException;
 	}
 
-    public String serializeProjectResources(URI requestUri, boolean includeExtendedMetadata, int page, int pageSize) {
+    public String serializeProjectResources(URI requestUri, boolean includeExtendedMetadata, int page, int pageSize) throws Exception {
+    	return serializeProjectResources(requestUri, includeExtendedMetadata, page, pageSize, null);
+    }
+
+	/**
+	 * Serializes one page of the project export.
+	 *
+	 * @param requestUri the URI of the current request, used to build the URLs of the previous and next pages
+	 * @param includeExtendedMetadata whether to include metadata about documents, collections, tagsets and tags
+	 * @param page the page number, ignored if a cursor is given
+	 * @param pageSize the maximum number of annotations per page
+	 * @param cursor the position after which the page starts, or null to use the page number. If given, the URLs of the
+	 *               previous and next pages are built with cursors as well.
+	 * @return the serialized page
+	 * @throws Exception if the page cannot be serialized
+	 */
+    public String serializeProjectResources(URI requestUri, boolean includeExtendedMetadata, int page, int pageSize, Cursor cursor) throws Exception {
     	Lock readLock = accessLock.readLock();
         try {
         	readLock.lock();
         	
         	final ProjectExportExtendedMetadata extendedMetadata = includeExtendedMetadata? getExtendedMetadata(requestUri):null;
-        	if (page<1) {
-        		page = 1;
-        	}
-        	if (pageSize<1) {
-        		pageSize = DEFAULT_PAGE_SIZE;
-        	}
-        	
-			// this CheckedFunction and the template CacheKey simply avoid some repetition later
-			CheckedFunction<AnnotationCollectionReference, Integer, Exception> collectionAnnotationCountCacheLoaderFn =
-					(annotationCollectionRef) -> graphProjectHandler.getAnnotationCollection(annotationCollectionRef).getSize();
+        	ExportPage exportPage = getExportPage(requestUri, page, pageSize, cursor);
 
-			CacheKey templateCollectionAnnotationCountCacheKey = new CacheKey(
-					userName, namespace, projectId, null, gitProjectHandler.getRootRevisionHash()
-			);
+            Builder<ProjectExportDocument> documentListBuilder = ImmutableList.builder();
+            Map<String, ProjectExportDocument> projectExportDocumentsById = new HashMap<>();
 
-			List<SourceDocumentReference> sourceDocumentRefs = graphProjectHandler.getSourceDocumentReferences().stream().sorted(
-					Comparator.comparing(SourceDocumentReference::getUuid)
-			).toList();
-
-			// compute total no. of annotations for pagination info, also pre-populates annotationCountCache
-			int totalAnnotationsCount = 0;
-			for (SourceDocumentReference sourceDocumentRef : sourceDocumentRefs) {
-				for (AnnotationCollectionReference annotationCollectionRef : sourceDocumentRef.getUserMarkupCollectionRefs().stream().toList()) {
-					totalAnnotationsCount += collectionAnnotationCountCache.get(
-							templateCollectionAnnotationCountCacheKey.setCollectionId(annotationCollectionRef.getId()),
-							() -> collectionAnnotationCountCacheLoaderFn.apply(annotationCollectionRef)
-					);
+            visitExportPage(exportPage, new ExportPageVisitor() {
+				@Override
+				public void visitDocument(ProjectExportDocument projectExportDocument) {
+					documentListBuilder.add(projectExportDocument);
+					projectExportDocumentsById.put(projectExportDocument.getId(), projectExportDocument);
 				}
-			}
-
-			int totalPagesCount = Math.ceilDiv(totalAnnotationsCount, pageSize);
-			UriBuilder uriBuilder = UriBuilder.fromUri(requestUri);
-			String prevPageUrl = page == 1 ? null : uriBuilder
-					.replaceQueryParam("page", page - 1)
-					.replaceQueryParam("pageSize", pageSize)
-					.build().toString();
-			String nextPageUrl = page >= totalPagesCount ? null : uriBuilder
-					.replaceQueryParam("page", page + 1)
-					.replaceQueryParam("pageSize", pageSize)
-					.build().toString();
-        	
-        	int pageCapacityLeft = pageSize;
-        	int startAnnotationCount = (page-1)*pageSize;
-        	int processedAnnotationsCount = 0;
-        	
-            Builder<ProjectExportDocument> documentListBuilder = ImmutableList.builder();
-            
-            
-            for (SourceDocumentReference sourceDocumentReference : sourceDocumentRefs) {
-            	
-            	SourceDocument sourceDocument = graphProjectHandler.getSourceDocument(sourceDocumentReference.getUuid());
-
-				ProjectExportDocument projectExportDocument = new ProjectExportDocument(
-						sourceDocument.getUuid(),
-						sourceDocument.toString()
-				);
 
-                for (AnnotationCollectionReference annotationCollectionReference : sourceDocumentReference.getUserMarkupCollectionRefs().stream().sorted(Comparator.comparing(AnnotationCollectionReference::getId)).toList()) {
-                	int annotationCount = collectionAnnotationCountCache.get(
-                			templateCollectionAnnotationCountCacheKey.setCollectionId(annotationCollectionReference.getId()),
-                			() -> collectionAnnotationCountCacheLoaderFn.apply(annotationCollectionReference));
-                	                	
-                	// did we reach the collection where we start to include annotations?
-                	if (processedAnnotationsCount+annotationCount >= startAnnotationCount) {
-                		// if the last page already included annotations of this collection we need to skip
-                		int skip = Math.max(startAnnotationCount-processedAnnotationsCount, 0);
-                		
-                		AnnotationCollection annotationCollection = graphProjectHandler.getAnnotationCollection(annotationCollectionReference);
-                		List<ProjectExportAnnotation> annotations =
-	                        annotationCollection.getTagReferences()
-	                        .stream()
-	                        .sorted(TAG_REFERENCE_COMPARATOR)
-	                        .map(TagReference::getTagInstance)
-	                        .distinct() // to compute skip and limit we only need one tag instance per corresponding reference
-	                        .skip(skip)
-	                        .limit(pageCapacityLeft)
-	                        .map(tagInstance -> toProjectExportAnnotation(tagInstance, annotationCollection, sourceDocument))
-	                        .toList();
-                		
-                		pageCapacityLeft -= annotations.size();
-                		
-                		projectExportDocument.addAnnotations(annotations);
-                		
-                	}
-                	
-                	processedAnnotationsCount += annotationCount;
-                	
-                	if (pageCapacityLeft <= 0) {
-                		break;
-                	}
-                }
-
-                documentListBuilder.add(projectExportDocument);
-
-            	if (pageCapacityLeft <= 0) {
-            		break;
-            	}
-            }
+				@Override
+				public void visitAnnotation(String documentId, ProjectExportAnnotation projectExportAnnotation) {
+					projectExportDocumentsById.get(documentId).addAnnotations(List.of(projectExportAnnotation));
+				}
+			});
 
             return new SerializationHelper<ProjectExport>().serialize(
-                    new ProjectExport(totalPagesCount, page, pageSize, prevPageUrl, nextPageUrl, extendedMetadata, documentListBuilder.build())
+                    new ProjectExport(
+                    		exportPage.totalPages(), exportPage.page(), exportPage.pageSize(), 
+                    		exportPage.prevPageUrl(), exportPage.nextPageUrl(), 
+                    		extendedMetadata, documentListBuilder.build())
             );
         }
-        catch (Exception e) {
-            logger.log(Level.SEVERE, "Failed to serialize project resources", e);
-            return "{\"error\": \"Failed to serialize project resources, please contact CATMA support\"}";
-        }
         finally {
         	readLock.unlock();
         }
     }
 
+	/**
+	 * Prepares one page of the project export as newline delimited JSON (NDJSON) that is written while the annotations are
+	 * being produced, so that memory usage does not depend on the page size.
+	 * <p>
+	 * The first line is a {@link ProjectExportStreamEntry} of type <code>page</code> with the paging information and the
+	 * extended metadata, followed by one line per document and one line per annotation of that document.
+	 *
+	 * @param requestUri the URI of the current request, used to build the URLs of the previous and next pages
+	 * @param includeExtendedMetadata whether to include metadata about documents, collections, tagsets and tags
+	 * @param page the page number, ignored if a cursor is given
+	 * @param pageSize the maximum number of annotations per page
+	 * @param cursor the position after which the page starts, or null to use the page number
+	 * @return a {@link StreamingOutput} that writes the page
+	 * @throws Exception if the page cannot be prepared
+	 */
+    public StreamingOutput streamProjectResources(URI requestUri, boolean includeExtendedMetadata, int page, int pageSize, Cursor cursor) throws Exception {
+    	Lock readLock = accessLock.readLock();
+    	final ExportPage exportPage;
+    	final ProjectExportExtendedMetadata extendedMetadata;
+    	try {
+    		readLock.lock();
+    		// anything that can fail before the first byte is written is done here, so that callers can still respond with an error status
+    		extendedMetadata = includeExtendedMetadata? getExtendedMetadata(requestUri):null;
+    		exportPage = getExportPage(requestUri, page, pageSize, cursor);
+    	}
+    	finally {
+    		readLock.unlock();
+    	}
+
+    	return outputStream -> {
+    		Lock streamReadLock = accessLock.readLock();
+    		try {
+    			streamReadLock.lock();
+
+    			Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    			SerializationHelper<ProjectExportStreamEntry> serializationHelper = new SerializationHelper<>();
+
+    			serializationHelper.serializeToLine(
+    					ProjectExportStreamEntry.forPage(
+    							new ProjectExport(
+    									exportPage.totalPages(), exportPage.page(), exportPage.pageSize(), 
+    									exportPage.prevPageUrl(), exportPage.nextPageUrl(), 
+    									extendedMetadata, List.of())),
+    					writer);
+    			writer.flush();
+
+    			visitExportPage(exportPage, new ExportPageVisitor() {
+    				@Override
+    				public void visitDocument(ProjectExportDocument projectExportDocument) throws IOException {
+    					serializationHelper.serializeToLine(ProjectExportStreamEntry.forDocument(projectExportDocument), writer);
+    				}
+
+    				@Override
+    				public void visitAnnotation(String documentId, ProjectExportAnnotation projectExportAnnotation) throws IOException {
+    					serializationHelper.serializeToLine(ProjectExportStreamEntry.forAnnotation(documentId, projectExportAnnotation), writer);
+    				}
+    			});
+
+    			writer.flush();
+    		}
+    		catch (Exception e) {
+    			logger.log(Level.SEVERE, "Failed to stream project resources", e);
+    			// the status has already been sent, all we can do is abort the response
+    			throw new WebApplicationException(e);
+    		}
+    		finally {
+    			streamReadLock.unlock();
+    		}
+    	};
+    }
+
+	private ExportPage getExportPage(URI requestUri, int page, int pageSize, Cursor cursor) throws Exception {
+		if (page<1) {
+			page = 1;
+		}
+		if (pageSize<1) {
+			pageSize = DEFAULT_PAGE_SIZE;
+		}
+
+		ProjectExportIndex exportIndex = projectExportIndexCache.get(
+				new CacheKey(userName, namespace, projectId, rootRevisionHash),
+				() -> ProjectExportIndex.build(rootRevisionHash, graphProjectHandler)
+		);
+
+		int totalAnnotationsCount = exportIndex.getTotalCount();
+		int startOffset = cursor == null ? (page-1)*pageSize : exportIndex.getOffset(cursor);
+		int endOffset = (int) Math.min((long) startOffset + pageSize, totalAnnotationsCount);
+		if (cursor != null) {
+			page = startOffset/pageSize + 1;
+		}
+
+		int totalPagesCount = Math.ceilDiv(totalAnnotationsCount, pageSize);
+		UriBuilder uriBuilder = UriBuilder.fromUri(requestUri);
+		String prevPageUrl;
+		String nextPageUrl;
+		if (cursor == null) {
+			prevPageUrl = page == 1 ? null : uriBuilder
+					.replaceQueryParam("page", page - 1)
+					.replaceQueryParam("pageSize", pageSize)
+					.build().toString();
+			nextPageUrl = page >= totalPagesCount ? null : uriBuilder
+					.replaceQueryParam("page", page + 1)
+					.replaceQueryParam("pageSize", pageSize)
+					.build().toString();
+		}
+		else {
+			prevPageUrl = startOffset == 0 ? null : uriBuilder
+					.replaceQueryParam("page")
+					.replaceQueryParam("cursor", exportIndex.getCursor(Math.max(startOffset - pageSize, 0)).encode())
+					.replaceQueryParam("pageSize", pageSize)
+					.build().toString();
+			nextPageUrl = endOffset >= totalAnnotationsCount ? null : uriBuilder
+					.replaceQueryParam("page")
+					.replaceQueryParam("cursor", exportIndex.getCursor(endOffset).encode())
+					.replaceQueryParam("pageSize", pageSize)
+					.build().toString();
+		}
+
+		return new ExportPage(totalPagesCount, page, pageSize, prevPageUrl, nextPageUrl, startOffset, endOffset, exportIndex);
+	}
+
+	/**
+	 * Visits the documents and annotations of the given page in export order, i.e. each document is followed by its annotations.
+	 */
+	private void visitExportPage(ExportPage exportPage, ExportPageVisitor visitor) throws Exception {
+		ProjectExportIndex exportIndex = exportPage.exportIndex();
+		int startOffset = exportPage.startOffset();
+		int endOffset = exportPage.endOffset();
+		int totalAnnotationsCount = exportIndex.getTotalCount();
+
+		int entryIdx = startOffset < endOffset ? exportIndex.getCollectionEntryIndex(startOffset) : exportIndex.getCollectionEntryCount();
+
+		for (ProjectExportIndex.DocumentEntry documentEntry : exportIndex.getDocumentEntries()) {
+			boolean overlapsPage = documentEntry.endOffset() > startOffset && documentEntry.offset() < endOffset;
+			// documents without annotations are listed on the page where they would start
+			boolean emptyOnPage = documentEntry.offset() == documentEntry.endOffset()
+					&& documentEntry.offset() >= startOffset
+					&& (documentEntry.offset() < endOffset || endOffset >= totalAnnotationsCount);
+
+			if (!overlapsPage && !emptyOnPage) {
+				if (documentEntry.offset() >= endOffset && endOffset < totalAnnotationsCount) {
+					break;
+				}
+				continue;
+			}
+
+			SourceDocument sourceDocument = graphProjectHandler.getSourceDocument(documentEntry.documentId());
+			visitor.visitDocument(new ProjectExportDocument(sourceDocument.getUuid(), sourceDocument.toString()));
+
+			// skip entries of preceding documents, these can only be empty ones
+			while (entryIdx < exportIndex.getCollectionEntryCount()
+					&& exportIndex.getCollectionEntry(entryIdx).documentId().compareTo(documentEntry.documentId()) < 0) {
+				entryIdx++;
+			}
+
+			while (entryIdx < exportIndex.getCollectionEntryCount()
+					&& exportIndex.getCollectionEntry(entryIdx).documentId().equals(documentEntry.documentId())
+					&& exportIndex.getCollectionEntry(entryIdx).offset() < endOffset
+			) {
+				ProjectExportIndex.CollectionEntry collectionEntry = exportIndex.getCollectionEntry(entryIdx++);
+				if (collectionEntry.annotationIds().length == 0) {
+					continue;
+				}
+
+				int from = Math.max(startOffset - collectionEntry.offset(), 0);
+				int to = Math.min(endOffset, collectionEntry.endOffset()) - collectionEntry.offset();
+
+				AnnotationCollection annotationCollection = graphProjectHandler.getAnnotationCollection(collectionEntry.collectionReference());
+
+				for (int idx = from; idx < to; idx++) {
+					TagInstance tagInstance = annotationCollection.getTagInstance(collectionEntry.annotationIds()[idx]);
+					visitor.visitAnnotation(
+							documentEntry.documentId(),
+							toProjectExportAnnotation(tagInstance, annotationCollection, sourceDocument)
+					);
+				}
+			}
+		}
+	}
+
 	private ProjectExportAnnotation toProjectExportAnnotation(TagInstance tagInstance, AnnotationCollection annotationCollection, SourceDocument sourceDocument) {
     	List<Range> ranges = Range.mergeRanges(annotationCollection.getTagReferences(tagInstance).stream().map(TagReference::getRange).sorted());
     	TagDefinition tag = tagManager.getTagLibrary().getTagDefinition(tagInstance.getTagDefinitionId());
@@ -364,4 +547,190 @@ public class ProjectExportSerializer {
 
 	}
 
+	/**
+	 * Runs a query against the loaded graph.
+	 *
+	 * @param query the query
+	 * @param documentIds the IDs of the documents to search, all documents if empty
+	 * @param collectionIds the IDs of the collections to search, all collections of the searched documents if empty
+	 * @return the result
+	 * @throws IllegalArgumentException if one of the documents doesn't exist
+	 * @throws QueryException if the query cannot be parsed
+	 * @throws Exception if the query fails
+	 */
+	public QueryResult executeQuery(String query, List<String> documentIds, List<String> collectionIds) throws Exception {
+		Lock readLock = accessLock.readLock();
+		try {
+			readLock.lock();
+
+			List<SourceDocumentReference> sourceDocumentRefs = new ArrayList<>();
+			if (documentIds.isEmpty()) {
+				sourceDocumentRefs.addAll(graphProjectHandler.getSourceDocumentReferences());
+			}
+			else {
+				for (String documentId : documentIds) {
+					SourceDocumentReference sourceDocumentRef = graphProjectHandler.getSourceDocumentReference(documentId.toUpperCase());
+					if (sourceDocumentRef == null) {
+						throw new IllegalArgumentException(String.format("Unknown document ID: %s", documentId));
+					}
+					sourceDocumentRefs.add(sourceDocumentRef);
+				}
+			}
+
+			List<String> relevantCollectionIds = collectionIds.isEmpty()
+					? sourceDocumentRefs.stream()
+							.flatMap(sourceDocumentRef -> sourceDocumentRef.getUserMarkupCollectionRefs().stream())
+							.map(AnnotationCollectionReference::getId)
+							.collect(Collectors.toList())
+					: collectionIds;
+
+			// same as the analyze module, which takes the settings of the first document of the corpus
+			IndexInfoSet indexInfoSet = sourceDocumentRefs.isEmpty()
+					? new IndexInfoSet(Collections.emptyList(), Collections.emptyList(), Locale.ENGLISH)
+					: sourceDocumentRefs.get(0).getSourceDocumentInfo().getIndexInfoSet();
+
+			QueryOptions queryOptions = new QueryOptions(
+					new QueryId(query),
+					sourceDocumentRefs.stream().map(SourceDocumentReference::getUuid).collect(Collectors.toList()),
+					relevantCollectionIds,
+					indexInfoSet.getUnseparableCharacterSequences(),
+					indexInfoSet.getUserDefinedSeparatingCharacters(),
+					indexInfoSet.getLocale(),
+					queryProject
+			);
+
+			QueryJob queryJob = new QueryJob(query, queryOptions);
+			queryJob.setProgressListener(new LogProgressListener());
+			return queryJob.call();
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Streams query result rows as NDJSON, one row per line.
+	 * <p>
+	 * The rows are resolved against the loaded project while they are written, so the stream holds the read lock until
+	 * the last row has been written, just like {@link #streamProjectResources(URI, boolean, int, int, Cursor)} does.
+	 *
+	 * @param rows the rows to write, usually one page of a result of {@link #executeQuery(String, List, List)}
+	 * @return a {@link StreamingOutput} that writes the rows
+	 */
+	public StreamingOutput streamQueryResult(List<QueryResultRow> rows) {
+		return outputStream -> {
+			Lock streamReadLock = accessLock.readLock();
+			try {
+				streamReadLock.lock();
+
+				JsonGenerator jsonGenerator = new ObjectMapper().getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+				// one row per line, without the generator's default separator between root values
+				jsonGenerator.setRootValueSeparator(null);
+				new JSONQueryResultBuilder().createJSONQueryResult(rows, queryProject, rowNode -> {
+					jsonGenerator.writeTree(rowNode);
+					jsonGenerator.writeRaw('\n');
+				});
+				jsonGenerator.flush();
+			}
+			finally {
+				streamReadLock.unlock();
+			}
+		};
+	}
+
+	/**
+	 * @return the revision hash of the project that export pages are served for, i.e. the revision it has been loaded at
+	 */
+	public String getRootRevisionHash() {
+		return rootRevisionHash;
+	}
+
+	/**
+	 * @param documentId the ID of the document
+	 * @return the SHA-256 checksum of the plain text file of the document, as a hex string
+	 * @throws IOException if the file cannot be read
+	 */
+	public String getFileChecksum(String documentId) throws IOException {
+		File file = new File(getFileUri(documentId));
+		// documents don't change once they have been added, the file attributes only guard against surprises
+		String key = String.format("%s:%d:%d", file.getAbsolutePath(), file.lastModified(), file.length());
+
+		try {
+			return fileChecksums.get(key, () -> Files.asByteSource(file).hash(Hashing.sha256()).toString());
+		}
+		catch (ExecutionException e) {
+			throw new IOException(String.format("Failed to compute the checksum of document %s", documentId), e.getCause());
+		}
+	}
+
+	/**
+	 * Estimates the heap size this serializer occupies once its graph has been loaded and its lazy caches are filled.
+	 * <p>
+	 * Loaded documents and collections are estimated from the size of their largest on-disk counterparts, as many of them
+	 * as the {@link de.catma.repository.git.graph.lazy.LazyGraphProjectHandler} keeps in memory at a time. The estimate is
+	 * only meant for weighing cache entries against each other.
+	 *
+	 * @return the estimated size in bytes
+	 */
+	public long estimateHeapSize() {
+		Lock readLock = accessLock.readLock();
+		try {
+			readLock.lock();
+
+			long size = ESTIMATED_BASE_SIZE_BYTES;
+
+			for (TagsetDefinition tagset : tagManager.getTagLibrary()) {
+				size += ESTIMATED_TAGSET_SIZE_BYTES + (long) tagset.size() * ESTIMATED_TAG_SIZE_BYTES;
+			}
+
+			for (SourceDocumentReference sourceDocumentRef : graphProjectHandler.getSourceDocumentReferences()) {
+				size += ESTIMATED_DOCUMENT_REFERENCE_SIZE_BYTES
+						+ (long) sourceDocumentRef.getUserMarkupCollectionRefs().size() * ESTIMATED_COLLECTION_REFERENCE_SIZE_BYTES;
+			}
+
+			File projectPath = gitProjectHandler.getProjectPath();
+			// content is held as UTF-16 strings and the parsed annotations carry considerable object overhead
+			size += 2 * getLargestSubdirectoriesSize(new File(projectPath, GitProjectHandler.DOCUMENTS_DIRECTORY_NAME), LOADED_DOCUMENTS_LIMIT);
+			size += 4 * getLargestSubdirectoriesSize(new File(projectPath, GitProjectHandler.ANNOTATION_COLLECTIONS_DIRECTORY_NAME), LOADED_COLLECTIONS_LIMIT);
+
+			return size;
+		}
+		finally {
+			readLock.unlock();
+		}
+	}
+
+	private long getLargestSubdirectoriesSize(File directory, int limit) {
+		File[] subdirectories = directory.listFiles(File::isDirectory);
+		if (subdirectories == null) {
+			return 0;
+		}
+
+		return Arrays.stream(subdirectories)
+				.mapToLong(FileUtils::sizeOfDirectory)
+				.boxed()
+				.sorted(Comparator.reverseOrder())
+				.limit(limit)
+				.mapToLong(Long::longValue)
+				.sum();
+	}
+
+	/**
+	 * Waits for running requests and deletes the working copy of the revision. The serializer must not be used anymore
+	 * afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		Lock writeLock = accessLock.writeLock();
+		try {
+			writeLock.lock();
+			if (revisionDirectory != null) {
+				FileUtils.deleteDirectory(revisionDirectory);
+			}
+		}
+		finally {
+			writeLock.unlock();
+		}
+	}
+
 }
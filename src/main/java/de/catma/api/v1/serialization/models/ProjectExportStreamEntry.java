@@ -0,0 +1,48 @@
+package de.catma.api.v1.serialization.models;
+
+import de.catma.api.v1.serialization.model_wrappers.ProjectExportAnnotation;
+
+/**
+ * One line of a project export page in newline delimited JSON format.
+ */
+public class ProjectExportStreamEntry {
+	public enum Type {
+		page,
+		document,
+		annotation,
+	}
+
+	private final Type type;
+	private final String documentId;
+	private final Object data;
+
+	private ProjectExportStreamEntry(Type type, String documentId, Object data) {
+		this.type = type;
+		this.documentId = documentId;
+		this.data = data;
+	}
+
+	public static ProjectExportStreamEntry forPage(ProjectExport projectExport) {
+		return new ProjectExportStreamEntry(Type.page, null, projectExport);
+	}
+
+	public static ProjectExportStreamEntry forDocument(ProjectExportDocument projectExportDocument) {
+		return new ProjectExportStreamEntry(Type.document, projectExportDocument.getId(), projectExportDocument);
+	}
+
+	public static ProjectExportStreamEntry forAnnotation(String documentId, ProjectExportAnnotation projectExportAnnotation) {
+		return new ProjectExportStreamEntry(Type.annotation, documentId, projectExportAnnotation);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public String getDocumentId() {
+		return documentId;
+	}
+
+	public Object getData() {
+		return data;
+	}
+}
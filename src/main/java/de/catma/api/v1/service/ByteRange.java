@@ -0,0 +1,87 @@
+package de.catma.api.v1.service;
+
+/**
+ * A single satisfiable byte range of a representation, as requested with an HTTP <code>Range</code> header.
+ *
+ * @param start the first byte position, inclusive
+ * @param end the last byte position, inclusive
+ */
+public record ByteRange(long start, long end) {
+	// not part of javax.ws.rs.core.HttpHeaders
+	public static final String RANGE = "Range";
+	public static final String IF_RANGE = "If-Range";
+	public static final String ACCEPT_RANGES = "Accept-Ranges";
+	public static final String CONTENT_RANGE = "Content-Range";
+
+	private static final String BYTES_UNIT_PREFIX = "bytes=";
+
+	public static class UnsatisfiableRangeException extends Exception {
+		public UnsatisfiableRangeException(String rangeHeader) {
+			super(String.format("Unsatisfiable range: %s", rangeHeader));
+		}
+	}
+
+	public long length() {
+		return end - start + 1;
+	}
+
+	public String toContentRange(long totalLength) {
+		return String.format("bytes %d-%d/%d", start, end, totalLength);
+	}
+
+	/**
+	 * Parses a <code>Range</code> header.
+	 * <p>
+	 * Only single ranges are supported. Headers with other units, several ranges or invalid syntax are ignored, which is
+	 * what RFC 9110 allows for and means that the full representation is served.
+	 *
+	 * @param rangeHeader the header value, can be null
+	 * @param totalLength the length of the full representation
+	 * @return the range, or null if the header is absent or should be ignored
+	 * @throws UnsatisfiableRangeException if the range lies outside of the representation
+	 */
+	public static ByteRange parse(String rangeHeader, long totalLength) throws UnsatisfiableRangeException {
+		if (rangeHeader == null || !rangeHeader.trim().toLowerCase().startsWith(BYTES_UNIT_PREFIX)) {
+			return null;
+		}
+
+		String spec = rangeHeader.trim().substring(BYTES_UNIT_PREFIX.length()).trim();
+		int dashIdx = spec.indexOf('-');
+		if (spec.contains(",") || dashIdx < 0) {
+			return null;
+		}
+
+		String first = spec.substring(0, dashIdx).trim();
+		String last = spec.substring(dashIdx + 1).trim();
+
+		try {
+			if (first.isEmpty()) { // suffix range, the last n bytes
+				if (last.isEmpty()) {
+					return null;
+				}
+				long suffixLength = Long.parseLong(last);
+				if (suffixLength < 0) {
+					return null;
+				}
+				if (suffixLength == 0 || totalLength == 0) {
+					throw new UnsatisfiableRangeException(rangeHeader);
+				}
+				return new ByteRange(Math.max(0, totalLength - suffixLength), totalLength - 1);
+			}
+
+			long start = Long.parseLong(first);
+			long end = last.isEmpty() ? totalLength - 1 : Long.parseLong(last);
+			if (start < 0 || end < start) {
+				return null;
+			}
+			if (start >= totalLength) {
+				throw new UnsatisfiableRangeException(rangeHeader);
+			}
+
+			return new ByteRange(start, Math.min(end, totalLength - 1));
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -1,12 +1,20 @@
 package de.catma.api.v1.service;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,15 +26,22 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.*;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.eclipse.jgit.lib.Constants;
 
+import com.google.common.hash.Hashing;
+
+import de.catma.api.v1.serialization.ProjectExportIndex.Cursor;
 import de.catma.api.v1.serialization.ProjectExportSerializer;
 import de.catma.api.v1.backend.interfaces.RemoteGitManagerRestrictedProvider;
-import de.catma.api.v1.cache.CollectionAnnotationCountCache;
+import de.catma.api.v1.cache.ProjectExportIndexCache;
 import de.catma.api.v1.cache.ProjectExportSerializerCache;
 import de.catma.api.v1.cache.ProjectExportSerializerCache.CacheKey;
+import de.catma.api.v1.cache.QueryResultCache;
 import de.catma.api.v1.cache.RemoteGitManagerRestrictedProviderCache;
 import de.catma.backgroundservice.DefaultBackgroundService;
 import de.catma.backgroundservice.ExecutionListener;
@@ -34,7 +49,10 @@ import de.catma.backgroundservice.ProgressListener;
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.project.ProjectReference;
 import de.catma.properties.CATMAPropertyKey;
+import de.catma.queryengine.QueryJob.QueryException;
+import de.catma.queryengine.result.QueryResultRow;
 import de.catma.repository.git.GitProjectHandler;
+import de.catma.repository.git.ReadOnlyGraphProject;
 import de.catma.repository.git.graph.interfaces.CollectionProvider;
 import de.catma.repository.git.graph.interfaces.CollectionsProvider;
 import de.catma.repository.git.graph.lazy.LazyGraphProjectHandler;
@@ -50,6 +68,12 @@ import de.catma.user.User;
 @Path("/projects")
 public class ProjectService {
 	
+    private static final int DEFAULT_QUERY_ROW_LIMIT = 1000;
+    private static final int MAX_QUERY_ROW_LIMIT = 10000;
+    private static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 30;
+    private static final int MAX_QUERY_TIMEOUT_SECONDS = 300;
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final Logger logger = Logger.getLogger(ProjectService.class.getName());
 
 	@Inject
@@ -59,12 +83,19 @@ public class ProjectService {
 	private ProjectExportSerializerCache projectExportSerializerCache;
 	
 	@Inject
-	private CollectionAnnotationCountCache collectionAnnotationCountCache;
+	private ProjectExportIndexCache projectExportIndexCache;
+
+	@Inject
+	private QueryResultCache queryResultCache;
 
 	@Context
 	private UriInfo uriInfo;
 	@Context
 	private SecurityContext securityContext;
+	@Context
+	private HttpHeaders httpHeaders;
+	@Context
+	private Request request;
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
@@ -92,38 +123,38 @@ public class ProjectService {
     
     @GET
     @Path("/{namespace}/{catmaProjectId}/export")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, ProjectExportSerializer.APPLICATION_NDJSON})
     public Response getProjectExport(
     		@PathParam("namespace") String namespace, @PathParam("catmaProjectId") String catmaProjectId, 
     		@QueryParam("includeExtendedMetadata") Boolean includeExtendedMetadata, @QueryParam("page") Integer page, @QueryParam("pageSize") Integer pageSize,
-    		@QueryParam("forcePull") Boolean forcePull) {
+    		@QueryParam("cursor") String cursor, @QueryParam("format") String format, @QueryParam("forcePull") Boolean forcePull) {
     	try {
+    		// NDJSON has to be asked for explicitly, wildcards in the Accept header keep getting the regular JSON document
+    		boolean streaming = "ndjson".equalsIgnoreCase(format) || httpHeaders.getAcceptableMediaTypes().stream().anyMatch(
+    				mediaType -> !mediaType.isWildcardSubtype() && mediaType.isCompatible(MediaType.valueOf(ProjectExportSerializer.APPLICATION_NDJSON))
+    		);
+
+    		Cursor exportCursor;
+    		try {
+    			exportCursor = cursor == null ? null : Cursor.decode(cursor);
+    		}
+    		catch (IllegalArgumentException e) {
+    			return Response.status(Status.BAD_REQUEST).entity("Invalid cursor").build();
+    		}
+
     		RemoteGitManagerRestrictedProvider remoteGitManagerRestrictedProvider = remoteGitManagerRestrictedProviderCache.get(
 					securityContext.getUserPrincipal().getName()
 			);
 			RemoteGitManagerRestricted remoteGitManagerRestricted = remoteGitManagerRestrictedProvider.createRemoteGitManagerRestricted();
 
+			ProjectExportSerializer serializer;
 	    	try {
-	    		CacheKey key = new CacheKey(remoteGitManagerRestricted.getUsername(), namespace, catmaProjectId);
-	    		if (forcePull != null && forcePull) {
-	    			projectExportSerializerCache.invalidate(key);
-	    		}
-		    	ProjectExportSerializer serializer = projectExportSerializerCache.get(
+	    		// forcePull only waits for a reload if there actually are new commits
+		    	serializer = projectExportSerializerCache.get(
 						new CacheKey(remoteGitManagerRestricted.getUsername(), namespace, catmaProjectId),
-						getProjectExportSerializerCacheLoader(remoteGitManagerRestricted, namespace, catmaProjectId));
-				return Response.ok(
-						serializer.serializeProjectResources(
-								// strips any query params that should not be present in URLs built based on this one
-								uriInfo.getRequestUriBuilder()
-										.replaceQueryParam("forcePull")
-										.build(),
-								// only include extended metadata on the first page by default
-								includeExtendedMetadata == null ? (page == null || page == 1) : includeExtendedMetadata,
-								page == null ? 1 : page,
-								pageSize == null ? ProjectExportSerializer.DEFAULT_PAGE_SIZE : pageSize
-						),
-						MediaType.APPLICATION_JSON
-				).build();
+						getRemoteRevisionHashLookup(remoteGitManagerRestricted, namespace, catmaProjectId),
+						getProjectExportSerializerCacheLoader(remoteGitManagerRestricted, namespace, catmaProjectId),
+						forcePull != null && forcePull);
 	    	}
 	    	catch (ExecutionException ee) {
 	    		if (ee.getMessage().contains("404")) {
@@ -133,6 +164,58 @@ public class ProjectService {
 	    			throw new Exception(ee);
 	    		}
 	    	}
+
+			// strips any query params that should not be present in URLs built based on this one
+			URI requestUri = uriInfo.getRequestUriBuilder()
+					.replaceQueryParam("forcePull")
+					.build();
+			// only include extended metadata on the first page by default
+			boolean includeMetadata = includeExtendedMetadata == null
+					? (exportCursor == null ? (page == null || page == 1) : exportCursor.isStart())
+					: includeExtendedMetadata;
+
+			// pages only depend on the revision and on what has been asked for, the host and path are part of the links though
+			EntityTag entityTag = new EntityTag(
+					Hashing.sha256().hashString(
+							String.join(
+									"\n",
+									serializer.getRootRevisionHash(),
+									requestUri.toString(),
+									String.valueOf(includeMetadata),
+									streaming ? ProjectExportSerializer.APPLICATION_NDJSON : MediaType.APPLICATION_JSON
+							),
+							StandardCharsets.UTF_8
+					).toString()
+			);
+			ResponseBuilder notModifiedResponseBuilder = request.evaluatePreconditions(entityTag);
+			if (notModifiedResponseBuilder != null) {
+				return notModifiedResponseBuilder.build();
+			}
+
+			if (streaming) {
+				return Response.ok(
+						serializer.streamProjectResources(
+								requestUri,
+								includeMetadata,
+								page == null ? 1 : page,
+								pageSize == null ? ProjectExportSerializer.DEFAULT_PAGE_SIZE : pageSize,
+								exportCursor
+						),
+						MediaType.valueOf(ProjectExportSerializer.APPLICATION_NDJSON).withCharset(StandardCharsets.UTF_8.name())
+				).tag(entityTag).build();
+			}
+
+			// serialization failures end up below as a 500 without an ETag, so that clients don't keep them
+			return Response.ok(
+					serializer.serializeProjectResources(
+							requestUri,
+							includeMetadata,
+							page == null ? 1 : page,
+							pageSize == null ? ProjectExportSerializer.DEFAULT_PAGE_SIZE : pageSize,
+							exportCursor
+					),
+					MediaType.APPLICATION_JSON
+			).tag(entityTag).build();
     	}
     	catch (Exception e) {
     		logger.log(Level.SEVERE, String.format("API: Failed to deliver project export for project %s/%s", namespace, catmaProjectId), e);
@@ -152,12 +235,54 @@ public class ProjectService {
 
 	    	ProjectExportSerializer serializer = projectExportSerializerCache.get(
 					new CacheKey(remoteGitManagerRestricted.getUsername(), namespace, catmaProjectId),
-					getProjectExportSerializerCacheLoader(remoteGitManagerRestricted, namespace, catmaProjectId));
+					getRemoteRevisionHashLookup(remoteGitManagerRestricted, namespace, catmaProjectId),
+					getProjectExportSerializerCacheLoader(remoteGitManagerRestricted, namespace, catmaProjectId),
+					false);
 	    	
 
 	    	File plainTextFile = new File(serializer.getFileUri(documentId));
-	    	
-			return Response.ok(plainTextFile, MediaType.TEXT_PLAIN_TYPE.withCharset(StandardCharsets.UTF_8.name())).build();
+	    	MediaType mediaType = MediaType.TEXT_PLAIN_TYPE.withCharset(StandardCharsets.UTF_8.name());
+	    	EntityTag entityTag = new EntityTag(serializer.getFileChecksum(documentId));
+
+	    	ResponseBuilder notModifiedResponseBuilder = request.evaluatePreconditions(entityTag);
+	    	if (notModifiedResponseBuilder != null) {
+	    		return notModifiedResponseBuilder.build();
+	    	}
+
+	    	long totalLength = plainTextFile.length();
+	    	ByteRange byteRange;
+	    	try {
+	    		byteRange = ByteRange.parse(httpHeaders.getHeaderString(ByteRange.RANGE), totalLength);
+	    	}
+	    	catch (ByteRange.UnsatisfiableRangeException e) {
+	    		return Response.status(Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+	    				.header(ByteRange.CONTENT_RANGE, String.format("bytes */%d", totalLength))
+	    				.build();
+	    	}
+
+	    	// a stale If-Range means the client's partial copy is outdated, so it gets the whole document
+	    	String ifRange = httpHeaders.getHeaderString(ByteRange.IF_RANGE);
+	    	if (byteRange == null || (ifRange != null && !ifRange.equals(entityTag.toString()))) {
+	    		return Response.ok(plainTextFile, mediaType)
+	    				.header(ByteRange.ACCEPT_RANGES, "bytes")
+	    				.tag(entityTag)
+	    				.build();
+	    	}
+
+	    	StreamingOutput partialContent = outputStream -> {
+	    		try (InputStream inputStream = new FileInputStream(plainTextFile)) {
+	    			IOUtils.copyLarge(inputStream, outputStream, byteRange.start(), byteRange.length());
+	    		}
+	    	};
+
+			return Response.status(Status.PARTIAL_CONTENT)
+					.entity(partialContent)
+					.type(mediaType)
+					.header(ByteRange.ACCEPT_RANGES, "bytes")
+					.header(ByteRange.CONTENT_RANGE, byteRange.toContentRange(totalLength))
+					.header(HttpHeaders.CONTENT_LENGTH, byteRange.length())
+					.tag(entityTag)
+					.build();
     	}
     	catch (Exception e) {
     		logger.log(Level.SEVERE, String.format("API: Failed to deliver document %s for project %s/%s", documentId, namespace, catmaProjectId), e);
@@ -165,6 +290,150 @@ public class ProjectService {
     	}    	
     }
     
+    @GET
+    @Path("/{namespace}/{catmaProjectId}/query")
+    @Produces(ProjectExportSerializer.APPLICATION_NDJSON)
+    public Response getQueryResult(
+    		@PathParam("namespace") String namespace, @PathParam("catmaProjectId") String catmaProjectId,
+    		@QueryParam("q") String query, @QueryParam("document") List<String> documentIds, @QueryParam("collection") List<String> collectionIds,
+    		@QueryParam("limit") Integer limit, @QueryParam("cursor") String cursor, @QueryParam("timeout") Integer timeout) {
+    	if (query == null || query.isBlank()) {
+    		return Response.status(Status.BAD_REQUEST).entity("Missing query").build();
+    	}
+
+    	int rowLimit = Math.min(limit == null || limit < 1 ? DEFAULT_QUERY_ROW_LIMIT : limit, MAX_QUERY_ROW_LIMIT);
+    	int timeoutSeconds = Math.min(timeout == null || timeout < 1 ? DEFAULT_QUERY_TIMEOUT_SECONDS : timeout, MAX_QUERY_TIMEOUT_SECONDS);
+
+    	QueryCursor queryCursor;
+    	try {
+    		queryCursor = cursor == null || cursor.isBlank() ? null : QueryCursor.decode(cursor);
+    	}
+    	catch (IllegalArgumentException e) {
+    		return Response.status(Status.BAD_REQUEST).entity("Invalid cursor").build();
+    	}
+
+    	try {
+    		RemoteGitManagerRestrictedProvider remoteGitManagerRestrictedProvider = remoteGitManagerRestrictedProviderCache.get(
+					securityContext.getUserPrincipal().getName()
+			);
+			RemoteGitManagerRestricted remoteGitManagerRestricted = remoteGitManagerRestrictedProvider.createRemoteGitManagerRestricted();
+
+			ProjectExportSerializer serializer;
+	    	try {
+		    	serializer = projectExportSerializerCache.get(
+						new CacheKey(remoteGitManagerRestricted.getUsername(), namespace, catmaProjectId),
+						getRemoteRevisionHashLookup(remoteGitManagerRestricted, namespace, catmaProjectId),
+						getProjectExportSerializerCacheLoader(remoteGitManagerRestricted, namespace, catmaProjectId),
+						false);
+	    	}
+	    	catch (ExecutionException ee) {
+	    		if (ee.getMessage().contains("404")) {
+	    			return Response.status(Status.NOT_FOUND).build();
+	    		}
+	    		throw ee;
+	    	}
+
+	    	String rootRevisionHash = serializer.getRootRevisionHash();
+	    	List<String> sortedDocumentIds = documentIds.stream().sorted().toList();
+	    	List<String> sortedCollectionIds = collectionIds.stream().sorted().toList();
+	    	String queryKey = Hashing.sha256().hashString(
+	    			String.join("\n", query, String.join(",", sortedDocumentIds), String.join(",", sortedCollectionIds)),
+	    			StandardCharsets.UTF_8
+	    	).toString();
+
+	    	if (queryCursor != null && !queryCursor.queryKey().equals(queryKey)) {
+	    		return Response.status(Status.BAD_REQUEST).entity("The cursor belongs to a different query").build();
+	    	}
+	    	if (queryCursor != null && !queryCursor.rootRevisionHash().equals(rootRevisionHash)) {
+	    		return Response.status(Status.CONFLICT).entity("The project has changed since the cursor was created, please start over").build();
+	    	}
+
+	    	List<QueryResultRow> rows;
+	    	try {
+	    		rows = queryResultCache.get(
+	    				new QueryResultCache.CacheKey(
+	    						remoteGitManagerRestricted.getUsername(), namespace, catmaProjectId, rootRevisionHash,
+	    						query, sortedDocumentIds, sortedCollectionIds
+	    				),
+	    				() -> {
+	    					List<QueryResultRow> result = new ArrayList<>();
+	    					serializer.executeQuery(query, sortedDocumentIds, sortedCollectionIds).forEach(result::add);
+	    					result.sort(QueryResultCache.ROW_ORDER);
+	    					return result;
+	    				},
+	    				timeoutSeconds,
+	    				TimeUnit.SECONDS
+	    		);
+	    	}
+	    	catch (TimeoutException e) {
+	    		// the query gets cancelled unless other requests are still waiting for it
+	    		return Response.status(Status.SERVICE_UNAVAILABLE)
+	    				.header(HttpHeaders.RETRY_AFTER, timeoutSeconds)
+	    				.entity("The query did not finish in time, please retry later")
+	    				.build();
+	    	}
+	    	catch (RejectedExecutionException e) {
+	    		return Response.status(Status.SERVICE_UNAVAILABLE)
+	    				.header(HttpHeaders.RETRY_AFTER, timeoutSeconds)
+	    				.entity("Too many queries are running, please retry later")
+	    				.build();
+	    	}
+	    	catch (ExecutionException e) {
+	    		if (e.getCause() instanceof QueryException || e.getCause() instanceof IllegalArgumentException) {
+	    			return Response.status(Status.BAD_REQUEST).entity(String.format("Invalid query: %s", e.getCause().getMessage())).build();
+	    		}
+	    		throw e;
+	    	}
+
+	    	int startOffset = Math.min(queryCursor == null ? 0 : queryCursor.offset(), rows.size());
+	    	int endOffset = Math.min(startOffset + rowLimit, rows.size());
+	    	List<QueryResultRow> pageRows = rows.subList(startOffset, endOffset);
+
+	    	ResponseBuilder responseBuilder = Response.ok(
+	    			serializer.streamQueryResult(pageRows),
+	    			MediaType.valueOf(ProjectExportSerializer.APPLICATION_NDJSON).withCharset(StandardCharsets.UTF_8.name())
+	    	).header(TOTAL_COUNT_HEADER, rows.size());
+
+	    	if (endOffset < rows.size()) {
+	    		responseBuilder.link(
+	    				uriInfo.getRequestUriBuilder()
+	    						.replaceQueryParam("cursor", new QueryCursor(rootRevisionHash, queryKey, endOffset).encode())
+	    						.replaceQueryParam("limit", rowLimit)
+	    						.build(),
+	    				"next"
+	    		);
+	    	}
+
+	    	return responseBuilder.build();
+    	}
+    	catch (Exception e) {
+    		logger.log(Level.SEVERE, String.format("API: Failed to run query for project %s/%s", namespace, catmaProjectId), e);
+    		return Response.status(Status.INTERNAL_SERVER_ERROR).build();
+    	}
+    }
+
+    private Callable<String> getRemoteRevisionHashLookup(final RemoteGitManagerRestricted remoteGitManagerRestricted, final String namespace, final String catmaProjectId) {
+    	return () -> {
+	    	User user = remoteGitManagerRestricted.getUser();
+
+			if (!Paths.get(new File(CATMAPropertyKey.API_GIT_REPOSITORY_BASE_PATH.getValue()).toURI())
+					.resolve(user.getIdentifier())
+					.resolve(namespace)
+					.resolve(catmaProjectId)
+					.toFile()
+					.exists()
+			) {
+				return null; // not cloned yet
+			}
+
+			try (LocalGitRepositoryManager localRepoManager = new JGitRepoManager(CATMAPropertyKey.API_GIT_REPOSITORY_BASE_PATH.getValue(), user)) {
+				localRepoManager.open(namespace, catmaProjectId);
+				// the loader merges the user branch only
+				return localRepoManager.getRemoteRevisionHash(user.getIdentifier(), new JGitCredentialsManager(remoteGitManagerRestricted));
+			}
+    	};
+    }
+
     private Callable<ProjectExportSerializer> getProjectExportSerializerCacheLoader(final RemoteGitManagerRestricted remoteGitManagerRestricted, final String namespace, final String catmaProjectId) {
     	return () -> {    	
 	    	User user = remoteGitManagerRestricted.getUser();
@@ -174,13 +443,13 @@ public class ProjectService {
 	    	JGitRepoManager localGitRepositoryManager = new JGitRepoManager(CATMAPropertyKey.API_GIT_REPOSITORY_BASE_PATH.getValue(), user);
 	    	JGitCredentialsManager jGitCredentialsManager = new JGitCredentialsManager(remoteGitManagerRestricted);
 	    	
-			if (!Paths.get(new File(CATMAPropertyKey.API_GIT_REPOSITORY_BASE_PATH.getValue()).toURI())
+	    	File projectPath = Paths.get(new File(CATMAPropertyKey.API_GIT_REPOSITORY_BASE_PATH.getValue()).toURI())
 					.resolve(user.getIdentifier())
 					.resolve(projectReference.getNamespace())
 					.resolve(projectReference.getProjectId())
-					.toFile()
-					.exists()
-			) {
+					.toFile();
+
+			if (!projectPath.exists()) {
 				try (LocalGitRepositoryManager localRepoManager = localGitRepositoryManager) {
 	
 					// clone the repository locally
@@ -211,24 +480,10 @@ public class ProjectService {
 			GitProjectHandler gitProjectHandler = new GitProjectHandler(
 					user,
 					projectReference,
-					Paths.get(new File(CATMAPropertyKey.API_GIT_REPOSITORY_BASE_PATH.getValue()).toURI())
-							.resolve(user.getIdentifier())
-							.resolve(projectReference.getNamespace())
-							.resolve(projectReference.getProjectId())
-							.toFile(),
+					projectPath,
 					localGitRepositoryManager,
 					remoteGitManagerRestricted
 			);
-			
-			String rootRevisionHash = gitProjectHandler.getRootRevisionHash();
-			logger.info(
-					String.format(
-							"Revision hash for project \"%1$s\" with ID %2$s is: %3$s",
-							projectReference.getName(),
-							projectReference.getProjectId(),
-							rootRevisionHash
-					)
-			);
 	
 			logger.info(
 					String.format("Checking for conflicts in project \"%s\" with ID %s", projectReference.getName(), projectReference.getProjectId())
@@ -254,54 +509,107 @@ public class ProjectService {
 						)
 				);
 			}
-			
-			gitProjectHandler.verifyCollections();
-			
-	        
-	        TagManager tagManager = new TagManager(new TagLibrary());
-	        
-	        LazyGraphProjectHandler graphProjectHandler = 
-	        		new LazyGraphProjectHandler(
-	        				projectReference, 
-	        				user, 
-	        				tagManager, 
-	        				() -> gitProjectHandler.getTagsets(), 
-	        				() -> gitProjectHandler.getDocuments(), 
-	        				documentId -> gitProjectHandler.getDocument(documentId),
-	        				documentId -> gitProjectHandler.getDocumentIndex(documentId), 
-	        				documentIds -> gitProjectHandler.getCommentsWithReplies(documentIds), 
-	        				new CollectionProvider() {
-	        					@Override
-	        					public AnnotationCollection getCollection(String collectionId, TagLibrary tagLibrary)
-	        							throws IOException {
-	        						return gitProjectHandler.getCollection(collectionId, tagLibrary);
-	        					}
-							});
-	        
-			ProgressListener progressListener = new ProgressListener() {
-				@Override
-				public void setProgress(String value, Object... args) {
-					logger.info(String.format(value, args));
+
+			// the clone above gets fetched into and merged by the next reload while the serializer of this revision may
+			// still be serving requests, the serializer therefore reads from a local clone of its own
+			File revisionsPath = Paths.get(new File(CATMAPropertyKey.API_GIT_REPOSITORY_BASE_PATH.getValue()).toURI())
+					.resolve(ProjectExportSerializerCache.REVISIONS_DIRECTORY_NAME)
+					.toFile();
+			revisionsPath.mkdirs();
+			File revisionDirectory = Files.createTempDirectory(revisionsPath.toPath(), catmaProjectId + "_").toFile();
+
+			try {
+				JGitRepoManager revisionGitRepositoryManager = new JGitRepoManager(revisionDirectory.getAbsolutePath(), user);
+				try (LocalGitRepositoryManager localRepoManager = revisionGitRepositoryManager) {
+					localRepoManager.clone(
+							projectReference.getNamespace(),
+							projectReference.getProjectId(),
+							projectPath.toURI().toString(),
+							jGitCredentialsManager
+					);
 				}
-			};
-	
-	        graphProjectHandler.ensureProjectRevisionIsLoaded(
-	        		gitProjectHandler.getRootRevisionHash(), 
-	        		false, 
-	        		new CollectionsProvider() {
-						
-						@Override
-						public List<AnnotationCollection> getCollections(TagLibrary tagLibrary) throws IOException {
-							return gitProjectHandler.getCollections(tagLibrary, progressListener, false);
-						}
-					}, 
-	        		new DefaultBackgroundService(null, false),
-	        		new ExecutionListener<NullType>() {
-						public void done(NullType result) {};
-						public void error(Throwable t) {};
-					},
-					progressListener);
-	        return new ProjectExportSerializer(user.getIdentifier(), namespace, catmaProjectId, tagManager, gitProjectHandler, graphProjectHandler, collectionAnnotationCountCache);
+
+				GitProjectHandler revisionGitProjectHandler = new GitProjectHandler(
+						user,
+						projectReference,
+						Paths.get(revisionDirectory.toURI())
+								.resolve(user.getIdentifier())
+								.resolve(projectReference.getNamespace())
+								.resolve(projectReference.getProjectId())
+								.toFile(),
+						revisionGitRepositoryManager,
+						remoteGitManagerRestricted
+				);
+
+				// the clone checks out the branch that is checked out in the clone above, i.e. the user branch
+				revisionGitProjectHandler.ensureUserBranch();
+
+				revisionGitProjectHandler.verifyCollections();
+
+				// everything below is served for this revision, no matter what happens to the remote branch in the meantime
+				String rootRevisionHash = revisionGitProjectHandler.getRootRevisionHash();
+				logger.info(
+						String.format(
+								"Revision hash for project \"%1$s\" with ID %2$s is: %3$s",
+								projectReference.getName(),
+								projectReference.getProjectId(),
+								rootRevisionHash
+						)
+				);
+		        
+		        TagManager tagManager = new TagManager(new TagLibrary());
+		        
+		        LazyGraphProjectHandler graphProjectHandler = 
+		        		new LazyGraphProjectHandler(
+		        				projectReference, 
+		        				user, 
+		        				tagManager, 
+		        				() -> revisionGitProjectHandler.getTagsets(), 
+		        				() -> revisionGitProjectHandler.getDocuments(), 
+		        				documentId -> revisionGitProjectHandler.getDocument(documentId),
+		        				documentId -> revisionGitProjectHandler.getDocumentIndex(documentId), 
+		        				documentIds -> revisionGitProjectHandler.getCommentsWithReplies(documentIds), 
+		        				new CollectionProvider() {
+		        					@Override
+		        					public AnnotationCollection getCollection(String collectionId, TagLibrary tagLibrary)
+		        							throws IOException {
+		        						return revisionGitProjectHandler.getCollection(collectionId, tagLibrary);
+		        					}
+								});
+		        
+				ProgressListener progressListener = new ProgressListener() {
+					@Override
+					public void setProgress(String value, Object... args) {
+						logger.info(String.format(value, args));
+					}
+				};
+		
+		        graphProjectHandler.ensureProjectRevisionIsLoaded(
+		        		rootRevisionHash, 
+		        		false, 
+		        		new CollectionsProvider() {
+							
+							@Override
+							public List<AnnotationCollection> getCollections(TagLibrary tagLibrary) throws IOException {
+								return revisionGitProjectHandler.getCollections(tagLibrary, progressListener, false);
+							}
+						}, 
+		        		new DefaultBackgroundService(null, false),
+		        		new ExecutionListener<NullType>() {
+							public void done(NullType result) {};
+							public void error(Throwable t) {};
+						},
+						progressListener);
+		        return new ProjectExportSerializer(
+		        		user.getIdentifier(), namespace, catmaProjectId, tagManager, revisionGitProjectHandler, graphProjectHandler, projectExportIndexCache,
+		        		new ReadOnlyGraphProject(projectReference, user, tagManager, revisionGitProjectHandler, graphProjectHandler, rootRevisionHash),
+		        		rootRevisionHash, revisionDirectory
+		        );
+			}
+			catch (Exception e) {
+				FileUtils.deleteQuietly(revisionDirectory);
+				throw e;
+			}
 	    };
     }
     
@@ -0,0 +1,43 @@
+package de.catma.api.v1.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * An opaque position in the result of a query.
+ * <p>
+ * Unlike export cursors, query cursors are offsets, so they are bound to the project revision they have been created
+ * for and to the query they belong to.
+ *
+ * @param rootRevisionHash the revision the query ran against
+ * @param queryKey identifies the query and its parameters
+ * @param offset the number of rows that have already been delivered
+ */
+public record QueryCursor(String rootRevisionHash, String queryKey, int offset) {
+	private static final String VERSION = "1";
+
+	public String encode() {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(
+				String.join("\n", VERSION, rootRevisionHash, queryKey, String.valueOf(offset)).getBytes(StandardCharsets.UTF_8)
+		);
+	}
+
+	/**
+	 * @param token an encoded cursor
+	 * @return the decoded cursor
+	 * @throws IllegalArgumentException if the token is not a valid cursor
+	 */
+	public static QueryCursor decode(String token) {
+		String[] parts = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8).split("\n", -1);
+		if (parts.length != 4 || !parts[0].equals(VERSION)) {
+			throw new IllegalArgumentException(String.format("Invalid cursor: %s", token));
+		}
+
+		int offset = Integer.parseInt(parts[3]); // NumberFormatException is an IllegalArgumentException
+		if (offset < 0) {
+			throw new IllegalArgumentException(String.format("Invalid cursor: %s", token));
+		}
+
+		return new QueryCursor(parts[1], parts[2], offset);
+	}
+}
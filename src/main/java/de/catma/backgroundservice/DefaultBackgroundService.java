@@ -1,19 +1,17 @@
 package de.catma.backgroundservice;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class DefaultBackgroundService implements BackgroundService {
-	private ScheduledExecutorService backgroundThread;
+	private SharedExecutionService.Session session;
 	private boolean background = true;
 	private Object lock;
 
 	/**
-	 * setup the worker thread
+	 * setup a session on the {@link SharedExecutionService}
 	 */
 	public DefaultBackgroundService(Object lock) {
 		this(lock, true);
@@ -23,7 +21,7 @@ public class DefaultBackgroundService implements BackgroundService {
 		this.lock = lock;
 		this.background = background;
 		if (background) {
-			backgroundThread = Executors.newSingleThreadScheduledExecutor();
+			session = SharedExecutionService.getInstance().openSession();
 		}
 	}
 	
@@ -44,7 +42,7 @@ public class DefaultBackgroundService implements BackgroundService {
 			final ProgressListener progressListener) {
 		
         if (background) {
-            backgroundThread.submit( new Runnable() {
+            session.submit( new Runnable() {
                 public void run() {
                     try {
                         callable.setProgressListener( progressListener );
@@ -67,7 +65,7 @@ public class DefaultBackgroundService implements BackgroundService {
                         }
                     }
                 }
-            } );
+            }, callable.getTaskType() );
         }
         else {
             try {
@@ -86,17 +84,17 @@ public class DefaultBackgroundService implements BackgroundService {
 	
 	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
 			long initialDelay, long delay, TimeUnit unit) {
-		return backgroundThread.scheduleWithFixedDelay(command, initialDelay,
+		return session.scheduleWithFixedDelay(command, initialDelay,
 				delay, unit);
 	}
 	
 	public ScheduledFuture<?> schedule(Runnable command,
 			long delay, TimeUnit unit) {
-		return backgroundThread.schedule(command, delay, unit);
+		return session.schedule(command, delay, unit);
 	}
 
 	public void shutdown() {
-		backgroundThread.shutdown();
+		session.close();
 	}
 
 }
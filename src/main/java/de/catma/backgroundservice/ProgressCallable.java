@@ -34,4 +34,12 @@ public interface ProgressCallable<V> extends Callable<V> {
 	 * of the {@link ProgressCallable}.
 	 */
 	public void setProgressListener( ProgressListener progressListener );
+
+	/**
+	 * @return the kind of work this task does, decides where and in which order
+	 * the task gets executed, defaults to {@link TaskType#IO}
+	 */
+	public default TaskType getTaskType() {
+		return TaskType.IO;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,368 @@
+package de.catma.backgroundservice;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import de.catma.properties.CATMAPropertyKey;
+
+/**
+ * Executes the background tasks of all sessions of the server.
+ * <p>
+ * {@link TaskType#IO} tasks of a session run one at a time in the order of submission, as the Git repo of a project is
+ * not safe for concurrent access. JGit pins virtual threads, so the sessions get their IO lanes from a shared pool of
+ * platform threads that only holds a thread while a session has IO tasks to run. IO tasks never wait for the tasks of
+ * other sessions. {@link TaskType#STREAMING} tasks, which mostly wait for a client, start right away on a thread of
+ * their own from the same pool, outside of the IO lane of their session. CPU bound tasks run on a bounded pool of platform
+ * threads, see {@link CATMAPropertyKey#BACKGROUND_COMPUTATION_THREADS}. Queued {@link TaskType#COMPUTATION}s are taken
+ * before queued {@link TaskType#BULK} tasks, which occupy at most half of the pool. Tasks of the same type are taken
+ * round-robin from the sessions that queued them, so a session with many queued tasks doesn't hold back the others.
+ * <p>
+ * Tasks are submitted through a {@link Session}, which cancels the tasks of its owner once it gets closed.
+ */
+public class SharedExecutionService {
+
+	private static final class InstanceHolder {
+		private static final SharedExecutionService INSTANCE = new SharedExecutionService(
+				CATMAPropertyKey.BACKGROUND_COMPUTATION_THREADS.getIntValue(Runtime.getRuntime().availableProcessors())
+		);
+	}
+
+	public static SharedExecutionService getInstance() {
+		return InstanceHolder.INSTANCE;
+	}
+
+	private static record QueuedTask(TaskType taskType, Runnable task) {
+	}
+
+	private static final class ComputationQueue {
+		private final int maxRunningBulkTasks;
+
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Condition changed = lock.newCondition();
+
+		// queued tasks by session, the sessions are kept in round-robin order
+		private final LinkedHashMap<Session, ArrayDeque<Runnable>> computations = new LinkedHashMap<>();
+		private final LinkedHashMap<Session, ArrayDeque<Runnable>> bulkTasks = new LinkedHashMap<>();
+		private int runningBulkTasks = 0;
+
+		private ComputationQueue(int maxRunningBulkTasks) {
+			this.maxRunningBulkTasks = maxRunningBulkTasks;
+		}
+
+		void add(Session session, TaskType taskType, Runnable task) {
+			lock.lock();
+			try {
+				(taskType == TaskType.BULK ? bulkTasks : computations)
+					.computeIfAbsent(session, key -> new ArrayDeque<>())
+					.add(task);
+				changed.signal();
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		QueuedTask take() throws InterruptedException {
+			lock.lock();
+			try {
+				while (true) {
+					Runnable task = poll(computations);
+					if (task != null) {
+						return new QueuedTask(TaskType.COMPUTATION, task);
+					}
+
+					if (runningBulkTasks < maxRunningBulkTasks) {
+						task = poll(bulkTasks);
+						if (task != null) {
+							runningBulkTasks++;
+							return new QueuedTask(TaskType.BULK, task);
+						}
+					}
+
+					changed.await();
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		void finished(TaskType taskType) {
+			if (taskType == TaskType.BULK) {
+				lock.lock();
+				try {
+					runningBulkTasks--;
+					changed.signal();
+				}
+				finally {
+					lock.unlock();
+				}
+			}
+		}
+
+		void remove(Session session) {
+			lock.lock();
+			try {
+				computations.remove(session);
+				bulkTasks.remove(session);
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+
+		private static Runnable poll(LinkedHashMap<Session, ArrayDeque<Runnable>> queues) {
+			Iterator<Map.Entry<Session, ArrayDeque<Runnable>>> iterator = queues.entrySet().iterator();
+			if (!iterator.hasNext()) {
+				return null;
+			}
+
+			Map.Entry<Session, ArrayDeque<Runnable>> next = iterator.next();
+			iterator.remove();
+
+			Runnable task = next.getValue().poll();
+			if (!next.getValue().isEmpty()) {
+				// the session moves to the end of the round
+				queues.put(next.getKey(), next.getValue());
+			}
+
+			return task;
+		}
+	}
+
+	/**
+	 * The tasks of a single owner, e.g. a UI.
+	 */
+	public class Session {
+		private final Set<Future<?>> futures = ConcurrentHashMap.newKeySet();
+		private volatile boolean closed = false;
+
+		private final ArrayDeque<Runnable> queuedIoTasks = new ArrayDeque<>();
+		// guarded by queuedIoTasks
+		private boolean ioTaskRunning = false;
+
+		private Session() {
+		}
+
+		/**
+		 * @param task the task to execute
+		 * @param taskType the kind of work the task does
+		 * @return the future of the task, can be used to cancel the task
+		 * @throws RejectedExecutionException if the session has been closed
+		 */
+		public <T> Future<T> submit(Callable<T> task, TaskType taskType) {
+			FutureTask<T> future = new FutureTask<T>(task) {
+				@Override
+				protected void done() {
+					futures.remove(this);
+				}
+			};
+			track(future);
+
+			if (taskType == TaskType.IO) {
+				executeIo(future);
+			}
+			else if (taskType == TaskType.STREAMING) {
+				ioExecutor.execute(future);
+			}
+			else {
+				computationQueue.add(this, taskType, future);
+			}
+
+			return future;
+		}
+
+		public Future<?> submit(Runnable task, TaskType taskType) {
+			return submit(Executors.callable(task), taskType);
+		}
+
+		/**
+		 * The command runs as an {@link TaskType#IO} task, so that it cannot hold up the commands of other sessions.
+		 */
+		public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+			purge();
+			return track(scheduler.schedule(() -> dispatch(command), delay, unit));
+		}
+
+		/**
+		 * The command runs as an {@link TaskType#IO} task, so that it cannot hold up the commands of other sessions.
+		 * Runs that are due while the previous run is still busy are skipped.
+		 */
+		public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+			purge();
+			AtomicBoolean running = new AtomicBoolean(false);
+			return track(scheduler.scheduleWithFixedDelay(
+					() -> {
+						if (running.compareAndSet(false, true)) {
+							dispatch(() -> {
+								try {
+									command.run();
+								}
+								finally {
+									running.set(false);
+								}
+							});
+						}
+					},
+					initialDelay, delay, unit
+			));
+		}
+
+		private void executeIo(Runnable task) {
+			synchronized (queuedIoTasks) {
+				if (ioTaskRunning) {
+					queuedIoTasks.add(task);
+					return;
+				}
+				ioTaskRunning = true;
+			}
+			ioExecutor.execute(() -> runIo(task));
+		}
+
+		private void runIo(Runnable task) {
+			Runnable next = task;
+			while (next != null) {
+				try {
+					next.run();
+				}
+				finally {
+					// a cancelled task may have been interrupted, that must not affect the next one
+					Thread.interrupted();
+				}
+
+				synchronized (queuedIoTasks) {
+					next = queuedIoTasks.poll();
+					if (next == null) {
+						ioTaskRunning = false;
+					}
+				}
+			}
+		}
+
+		private void dispatch(Runnable command) {
+			if (closed) {
+				return;
+			}
+			try {
+				submit(command, TaskType.IO);
+			}
+			catch (RejectedExecutionException e) {
+				logger.fine("Dropped a scheduled command of a closed session");
+			}
+		}
+
+		private <F extends Future<?>> F track(F future) {
+			futures.add(future);
+			if (closed) {
+				futures.remove(future);
+				future.cancel(false);
+				throw new RejectedExecutionException("The session has been closed");
+			}
+			return future;
+		}
+
+		// scheduled futures don't remove themselves when they are cancelled by their owners
+		private void purge() {
+			futures.removeIf(Future::isDone);
+		}
+
+		/**
+		 * Cancels all scheduled and queued tasks, running tasks finish undisturbed. No more tasks can be submitted.
+		 */
+		public void close() {
+			cancel(false);
+		}
+
+		/**
+		 * Like {@link #close()} but also interrupts the running tasks.
+		 */
+		public void closeNow() {
+			cancel(true);
+		}
+
+		private void cancel(boolean mayInterruptIfRunning) {
+			closed = true;
+			computationQueue.remove(this);
+			synchronized (queuedIoTasks) {
+				queuedIoTasks.clear();
+			}
+			for (Future<?> future : futures) {
+				future.cancel(mayInterruptIfRunning);
+			}
+			futures.clear();
+		}
+
+		public boolean isClosed() {
+			return closed;
+		}
+	}
+
+	private final Logger logger = Logger.getLogger(SharedExecutionService.class.getName());
+
+	private final ExecutorService ioExecutor = Executors.newCachedThreadPool(
+			new ThreadFactoryBuilder().setNameFormat("background-io-%d").setDaemon(true).build()
+	);
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+			new ThreadFactoryBuilder().setNameFormat("background-scheduler-%d").setDaemon(true).build()
+	);
+	private final ComputationQueue computationQueue;
+
+	SharedExecutionService(int computationThreads) {
+		int threadCount = Math.max(1, computationThreads);
+		this.computationQueue = new ComputationQueue(Math.max(1, threadCount / 2));
+
+		ThreadFactory computationThreadFactory =
+				new ThreadFactoryBuilder().setNameFormat("background-computation-%d").setDaemon(true).build();
+		for (int idx = 0; idx < threadCount; idx++) {
+			computationThreadFactory.newThread(this::runComputations).start();
+		}
+	}
+
+	private void runComputations() {
+		while (true) {
+			QueuedTask queuedTask;
+			try {
+				queuedTask = computationQueue.take();
+			}
+			catch (InterruptedException e) {
+				return;
+			}
+
+			try {
+				queuedTask.task().run();
+			}
+			finally {
+				computationQueue.finished(queuedTask.taskType());
+				// a cancelled task may have been interrupted, that must not end the worker
+				Thread.interrupted();
+			}
+		}
+	}
+
+	/**
+	 * @return a new session for the tasks of a single owner, e.g. a UI
+	 */
+	public Session openSession() {
+		return new Session();
+	}
+}
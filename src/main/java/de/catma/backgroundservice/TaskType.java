@@ -0,0 +1,27 @@
+package de.catma.backgroundservice;
+
+/**
+ * The kind of work a background task does, see {@link SharedExecutionService}.
+ */
+public enum TaskType {
+	/**
+	 * Mostly waiting for Git, GitLab or the file system. The IO tasks of a session run one at a time in the order of
+	 * submission on a platform thread, they never wait for the tasks of other sessions.
+	 */
+	IO,
+	/**
+	 * Mostly waiting for a client, e.g. writing a download into a pipe. Starts right away on a platform thread of its
+	 * own, so that it holds up neither the IO tasks of its session nor the computation pool.
+	 */
+	STREAMING,
+	/**
+	 * CPU bound work the user is waiting for, e.g. queries. Runs on the bounded computation pool.
+	 */
+	COMPUTATION,
+	/**
+	 * Long running CPU bound work, e.g. exports. Runs on the bounded computation pool, but only if no
+	 * {@link #COMPUTATION} is waiting and only on part of the pool.
+	 */
+	BULK,
+	;
+}
@@ -1,5 +1,6 @@
 package de.catma.document.comment;
 
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,6 +20,8 @@ public class Comment {
 	private transient Long iid;
 	private transient int replyCount;
 	private transient List<Reply> replies = new ArrayList<Reply>();
+	private transient ZonedDateTime updatedAt;
+	private transient boolean removed;
 
 	public Comment(String uuid, String username, Long userId, String body, List<Range> ranges, String documentId) {
 		this(uuid, username, userId, body, ranges, documentId, null, null);
@@ -47,6 +50,7 @@ public class Comment {
 			comment.id,
 			comment.iid);
 		this.replyCount = comment.replyCount;
+		this.updatedAt = comment.updatedAt;
 	}
 
 	public String getUsername() {
@@ -118,6 +122,28 @@ public class Comment {
 		return ranges.stream().map(Range::getStartPoint).sorted().findFirst().orElse(-1);
 	}
 	
+	/**
+	 * @return the point in time of the last change to this comment or its replies as reported by the backend, can be null
+	 */
+	public ZonedDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+	
+	public void setUpdatedAt(ZonedDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+	
+	/**
+	 * @return true if the backend reported this comment as removed, only relevant for incremental fetches
+	 */
+	public boolean isRemoved() {
+		return removed;
+	}
+	
+	public void setRemoved(boolean removed) {
+		this.removed = removed;
+	}
+
 	public List<Reply> getReplies() {
 		return replies;
 	}
@@ -1,34 +1,102 @@
 package de.catma.document.corpus;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.Charset;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import de.catma.document.annotation.AnnotationCollection;
 import de.catma.document.annotation.AnnotationCollectionReference;
 import de.catma.document.source.SourceDocument;
+import de.catma.document.source.SourceDocumentInfo;
 import de.catma.document.source.SourceDocumentReference;
+import de.catma.document.source.contenthandler.AbstractSourceContentHandler;
 import de.catma.project.Project;
 import de.catma.serialization.tei.TeiUserMarkupCollectionSerializationHandler;
 
+/**
+ * Exports documents and their collections as TEI to a gzipped tar archive.
+ * <p>
+ * Documents and collections are loaded one by one on the calling thread, but encoding and TEI serialization run on
+ * worker threads that spool each entry to a temporary file. Entries are written to the archive in corpus order as soon
+ * as they are complete. Only a bounded number of entries is in flight at any time, which keeps the memory footprint
+ * independent of the size of the project.
+ */
 public class CorpusExporter {
 	private static final SimpleDateFormat FORMATTER = new SimpleDateFormat("yyMMddhhmm");
 
+	private final Logger logger = Logger.getLogger(CorpusExporter.class.getName());
+
+	private static interface EntryWriter {
+		void write(OutputStream outputStream) throws IOException;
+	}
+
+	private static record SpooledEntry(String name, File file) {}
+
+	/**
+	 * Serves content that has been loaded already, so that the workers don't depend on the content of a document that
+	 * the project may unload at any time.
+	 */
+	private static class LoadedContentHandler extends AbstractSourceContentHandler {
+		public LoadedContentHandler(SourceDocumentInfo sourceDocumentInfo, String content) {
+			setSourceDocumentInfo(sourceDocumentInfo);
+			setContent(content);
+		}
+
+		@Override
+		public void load() throws IOException {
+			// the content is loaded already
+		}
+
+		@Override
+		public void unload() {
+			// the content cannot be loaded again
+		}
+	}
+
 	private Project project;
 
 	private String date;
 
 	private boolean simpleEntryStyle;
+
+	private final int parallelism;
 	
 	public CorpusExporter(Project project, boolean simpleEntryStyle) {
+		this(project, simpleEntryStyle, Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+	}
+
+	/**
+	 * @param project the project to export from
+	 * @param simpleEntryStyle <code>true</code> for entry names based on document titles, <code>false</code> for names
+	 * based on the export name, the date and document IDs
+	 * @param parallelism the number of worker threads that serialize entries
+	 */
+	public CorpusExporter(Project project, boolean simpleEntryStyle, int parallelism) {
 		this.project = project;
 		this.simpleEntryStyle = simpleEntryStyle;
+		this.parallelism = parallelism;
 		this.date = FORMATTER.format(new Date());
 	}
 
@@ -38,6 +106,15 @@ public class CorpusExporter {
 		OutputStream tarFileOs = new GZIPOutputStream(os);
 		
 		TarArchiveOutputStream taOut = new TarArchiveOutputStream(tarFileOs, "UTF-8");
+		
+		ExecutorService executorService = Executors.newFixedThreadPool(
+				parallelism, 
+				new ThreadFactoryBuilder().setNameFormat("corpus-export-%d").setDaemon(true).build());
+		
+		// keeps the workers busy while the archive is being written without loading the whole corpus upfront
+		int maxPendingEntries = parallelism * 2;
+		Deque<Future<SpooledEntry>> pendingEntries = new ArrayDeque<>();
+		
 		try {
 			
 			taOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
@@ -45,59 +122,122 @@ public class CorpusExporter {
 			
 			for (SourceDocumentReference sdRef : corpus.getSourceDocuments()) {
 				
-				TarArchiveEntry sdEntry = 
-					new TarArchiveEntry(getSourceDocEntryName(exportName, sdRef));
 				SourceDocument sd = project.getSourceDocument(sdRef.getUuid());
+				// load the content here and give the workers a document of their own, the project may unload its document
+				final String sdContent = sd.getContent();
+				final SourceDocument exportedSd = new SourceDocument(
+						sd.getUuid(),
+						new LoadedContentHandler(sd.getSourceContentHandler().getSourceDocumentInfo(), sdContent));
 				
-				byte[] sdContent = 
-					sd.getContent().getBytes(Charset.forName("UTF8"));
-				
-				sdEntry.setSize(sdContent.length);
-				
-				taOut.putArchiveEntry(sdEntry);
-				
-				taOut.write(sdContent);
-				
-				taOut.closeArchiveEntry();
+				pendingEntries.add(executorService.submit(() -> spool(
+					getSourceDocEntryName(exportName, sdRef),
+					outputStream -> {
+						Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+						writer.write(sdContent);
+						writer.flush();
+					})));
+				writeCompletedEntries(taOut, pendingEntries, maxPendingEntries);
 				
 				for (AnnotationCollectionReference umcRef 
 						: corpus.getUserMarkupCollectionRefs(sdRef)) {
 					
-					AnnotationCollection umc = 
+					final AnnotationCollection umc = 
 							project.getAnnotationCollection(umcRef);
 
-					TeiUserMarkupCollectionSerializationHandler handler =
+					final TeiUserMarkupCollectionSerializationHandler handler =
 							new TeiUserMarkupCollectionSerializationHandler(
 									project.getTagManager(), 
 									project.getVersion(), 
 									false);
-					ByteArrayOutputStream teiDocOut = new ByteArrayOutputStream();
-					handler.serialize(
-						project.getAnnotationCollection(umcRef), sd, teiDocOut);
-
-					byte[] umcContent = teiDocOut.toByteArray();
-					
-					String umcEntryName = getUmcEntryName(exportName, umc, sdRef);
-					
-					TarArchiveEntry umcEntry = 
-						new TarArchiveEntry(umcEntryName);
-					
-					umcEntry.setSize(umcContent.length);
-					
-					taOut.putArchiveEntry(umcEntry);
-					taOut.write(umcContent);
 					
-					taOut.closeArchiveEntry();
+					pendingEntries.add(executorService.submit(() -> spool(
+						getUmcEntryName(exportName, umc, sdRef),
+						outputStream -> handler.serialize(umc, exportedSd, outputStream))));
+					writeCompletedEntries(taOut, pendingEntries, maxPendingEntries);
 				}
 			}
+			
+			writeCompletedEntries(taOut, pendingEntries, 1);
 		}
 		finally {
+			executorService.shutdown();
+			discardPendingEntries(pendingEntries);
+			
 			taOut.finish();
 			taOut.close();
 		}
 		
 	}
 	
+	/**
+	 * Writes the oldest entries to the archive until less than the given number of entries are pending. Waits for
+	 * entries that are still being serialized, so the order of the archive is the order of submission.
+	 */
+	private void writeCompletedEntries(
+			TarArchiveOutputStream taOut, Deque<Future<SpooledEntry>> pendingEntries, int maxPendingEntries) throws Exception {
+		
+		while (!pendingEntries.isEmpty() 
+				&& (pendingEntries.size() >= maxPendingEntries || pendingEntries.peekFirst().isDone())) {
+			
+			SpooledEntry spooledEntry;
+			try {
+				spooledEntry = pendingEntries.removeFirst().get();
+			}
+			catch (ExecutionException e) {
+				if (e.getCause() instanceof Exception) {
+					throw (Exception)e.getCause();
+				}
+				throw e;
+			}
+			
+			try {
+				TarArchiveEntry entry = new TarArchiveEntry(spooledEntry.name());
+				entry.setSize(spooledEntry.file().length());
+				
+				taOut.putArchiveEntry(entry);
+				Files.copy(spooledEntry.file().toPath(), taOut);
+				taOut.closeArchiveEntry();
+			}
+			finally {
+				delete(spooledEntry.file());
+			}
+		}
+	}
+	
+	private SpooledEntry spool(String name, EntryWriter entryWriter) throws IOException {
+		File file = File.createTempFile("corpus_export_entry", ".tmp");
+		try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+			entryWriter.write(outputStream);
+		}
+		catch (IOException | RuntimeException e) {
+			delete(file);
+			throw e;
+		}
+		return new SpooledEntry(name, file);
+	}
+	
+	/**
+	 * Waits for the entries that are still in flight after a failure and removes their temporary files. There are at
+	 * most a few of them, and waiting is the only way to be sure that no file is left behind.
+	 */
+	private void discardPendingEntries(Deque<Future<SpooledEntry>> pendingEntries) {
+		for (Future<SpooledEntry> pendingEntry : pendingEntries) {
+			try {
+				delete(pendingEntry.get().file());
+			}
+			catch (Exception e) {
+				// failed entries have no file
+			}
+		}
+		pendingEntries.clear();
+	}
+	
+	private void delete(File file) {
+		if (!file.delete() && file.exists()) {
+			logger.log(Level.WARNING, String.format("Couldn't delete temporary export file %s", file));
+		}
+	}
+	
 	private String getUmcEntryName(String exportName, AnnotationCollection umc, SourceDocumentReference sd) {
 		if (simpleEntryStyle) {
 			return cleanupName(getFilename(sd, false))
@@ -0,0 +1,205 @@
+package de.catma.document.source;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.tika.Tika;
+import org.apache.tika.detect.AutoDetectReader;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.language.detect.LanguageDetector;
+import org.apache.tika.language.detect.LanguageResult;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+
+/**
+ * Detects the charset and the language of a document without extracting all of its text.
+ * <p>
+ * The charset of text formats is detected from the first {@link #CHARSET_PREFIX_LENGTH} bytes with the encoding
+ * detectors that Tika's parsers use, they don't look any further than that. Other formats like PDF or EPUB don't have a
+ * charset.
+ * <p>
+ * The language is detected from up to {@link #SAMPLE_COUNT} samples of {@link #SAMPLE_LENGTH} characters, one from the
+ * start of each equally sized part of the text, so the middle and the end of the text count as much as its beginning.
+ * Plain text files are sampled directly from the file, other formats and plain text files in a charset that can only be
+ * decoded from the first {@link #PARSE_LIMIT} characters of their text. Detection stops early as soon as two consecutive samples yield the same language with high confidence.
+ * Texts that are not longer than all samples together are detected as a whole.
+ * <p>
+ * Instances keep a {@link LanguageDetector} with its models loaded and are not thread-safe.
+ */
+public class DocumentInspector {
+
+	/**
+	 * The charset and the language of a document, both may be <code>null</code> if they cannot be detected.
+	 */
+	public static record Inspection(Charset charset, LanguageItem language) {
+	}
+
+	private static final int CHARSET_PREFIX_LENGTH = 65536;
+	private static final int SAMPLE_COUNT = 5;
+	private static final int SAMPLE_LENGTH = 4000;
+	// enough text to sample from, a PDF or EPUB doesn't need to be parsed any further
+	private static final int PARSE_LIMIT = 100000;
+
+	private final LanguageDetector languageDetector;
+
+	/**
+	 * @throws IOException if the language models cannot be loaded
+	 */
+	public DocumentInspector() throws IOException {
+		languageDetector = LanguageDetector.getDefaultLanguageDetector();
+		languageDetector.loadModels();
+	}
+
+	/**
+	 * @param file the file to inspect
+	 * @param mimeType the detected type of the file, must not be XML, use {@link #detectLanguage(String)} for the loaded
+	 *        content of XML files instead
+	 * @return the detected charset and language
+	 * @throws IOException if the file cannot be read
+	 * @throws TikaException if the file cannot be parsed
+	 */
+	public Inspection inspect(File file, String mimeType) throws IOException, TikaException {
+		MediaType mediaType = MediaType.parse(mimeType);
+
+		Charset charset = null;
+		if ((mediaType != null) && mediaType.getType().equals("text")) {
+			charset = detectCharset(file);
+		}
+
+		List<String> samples;
+		if ((charset != null) && mediaType.getBaseType().toString().equals(FileType.TEXT.getMimeType())) {
+			samples = readSamples(file, charset);
+		}
+		else {
+			try (InputStream inputStream = new FileInputStream(file)) {
+				samples = getSamples(new Tika().parseToString(inputStream, new Metadata(), PARSE_LIMIT));
+			}
+		}
+
+		return new Inspection(charset, detectLanguage(samples));
+	}
+
+	/**
+	 * @param content the content of a document
+	 * @return the detected language or <code>null</code> if the language cannot be detected with high confidence
+	 */
+	public LanguageItem detectLanguage(String content) {
+		return detectLanguage(getSamples(content));
+	}
+
+	private Charset detectCharset(File file) throws IOException, TikaException {
+		try (InputStream inputStream = new BufferedInputStream(
+				BoundedInputStream.builder()
+					.setInputStream(new FileInputStream(file))
+					.setMaxCount(CHARSET_PREFIX_LENGTH)
+					.get());
+				AutoDetectReader reader = new AutoDetectReader(inputStream, new Metadata())) {
+			return reader.getCharset();
+		}
+	}
+
+	private LanguageItem detectLanguage(List<String> samples) {
+		languageDetector.reset();
+
+		LanguageResult languageResult = null;
+		String previousLanguage = null;
+
+		for (String sample : samples) {
+			languageDetector.addText(sample);
+			languageResult = languageDetector.detect();
+
+			String language = languageResult.isReasonablyCertain() ? languageResult.getLanguage() : null;
+			if ((language != null) && language.equals(previousLanguage)) {
+				break;
+			}
+			previousLanguage = language;
+		}
+
+		if ((languageResult != null) && languageResult.isReasonablyCertain() && (languageResult.getLanguage() != null)) {
+			return new LanguageItem(new Locale(languageResult.getLanguage()));
+		}
+		return null;
+	}
+
+	private static List<String> getSamples(String text) {
+		List<String> samples = new ArrayList<>();
+
+		if (text.length() <= SAMPLE_COUNT * SAMPLE_LENGTH) {
+			samples.add(text);
+			return samples;
+		}
+
+		int stratumLength = text.length() / SAMPLE_COUNT;
+		for (int idx = 0; idx < SAMPLE_COUNT; idx++) {
+			int start = idx * stratumLength;
+			samples.add(trimSample(text.substring(start, start + SAMPLE_LENGTH), idx > 0));
+		}
+
+		return samples;
+	}
+
+	private static List<String> readSamples(File file, Charset charset) throws IOException {
+		if (!charset.canEncode()) {
+			// decode-only charsets like ISO-2022-CN are stateful and cannot be entered in the middle of a file, and
+			// without an encoder there is no code unit length to align to either
+			try (Reader reader = new InputStreamReader(new FileInputStream(file), charset)) {
+				char[] buffer = new char[PARSE_LIMIT];
+				int count = IOUtils.read(reader, buffer);
+				return getSamples(new String(buffer, 0, count));
+			}
+		}
+
+		long length = file.length();
+
+		if (length <= SAMPLE_COUNT * SAMPLE_LENGTH * charset.newEncoder().maxBytesPerChar()) {
+			try (Reader reader = new InputStreamReader(new FileInputStream(file), charset)) {
+				return getSamples(IOUtils.toString(reader));
+			}
+		}
+
+		// multi-byte encodings like UTF-16 need to be sampled at the start of a code unit
+		long codeUnitLength = Math.max(1, Math.round(charset.newEncoder().averageBytesPerChar()));
+		long stratumLength = length / SAMPLE_COUNT;
+
+		List<String> samples = new ArrayList<>();
+		char[] buffer = new char[SAMPLE_LENGTH];
+
+		for (int idx = 0; idx < SAMPLE_COUNT; idx++) {
+			long start = idx * stratumLength;
+			start -= start % codeUnitLength;
+
+			try (FileInputStream fileInputStream = new FileInputStream(file)) {
+				IOUtils.skipFully(fileInputStream, start);
+				int count = IOUtils.read(new InputStreamReader(fileInputStream, charset), buffer);
+				samples.add(trimSample(new String(buffer, 0, count), idx > 0));
+			}
+		}
+
+		return samples;
+	}
+
+	/**
+	 * Samples from the middle of a text start with a partial word or, in a file, even with a partial character.
+	 */
+	private static String trimSample(String sample, boolean partialStart) {
+		if (partialStart) {
+			for (int idx = 0; idx < sample.length(); idx++) {
+				if (Character.isWhitespace(sample.charAt(idx))) {
+					return sample.substring(idx + 1);
+				}
+			}
+		}
+		return sample;
+	}
+}
@@ -19,6 +19,9 @@
 
 package de.catma.document.source;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -73,10 +76,67 @@ public enum FileOSType {
 	 * @return the type of the content.
 	 */
 	public static FileOSType getFileOSType( String fileContent ) {
+		try {
+			return getFileOSType(new StringReader(fileContent));
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e); // reading from a string does not fail
+		}
+	}
+
+	/**
+	 * Like {@link #getFileOSType(String)} but reads the content chunk by chunk, so that it doesn't need to fit into
+	 * memory.
+	 * 
+	 * @param fileContentReader the content to analyze, not closed by this method
+	 * @return the type of the content.
+	 * @throws IOException if reading the content fails
+	 */
+	public static FileOSType getFileOSType( Reader fileContentReader ) throws IOException {
+		// the separators are counted like non-overlapping matches of \r\n, [^\r]\n and \r[^\n] would be,
+		// i.e. a character that ends a match cannot start another match of the same kind
+		int dosPatternCounter = 0;
+		int unixPatternCounter = 0;
+		int macPatternCounter = 0;
+		
+		boolean dosStartAvailable = false;
+		boolean unixStartAvailable = false;
+		boolean macStartAvailable = false;
+		char previous = 0;
 		
-		int dosPatternCounter = getPatternCount( "\\r\\n", fileContent );
-		int unixPatternCounter = getPatternCount( "[^\\r]\\n", fileContent );
-		int macPatternCounter = getPatternCount( "\\r[^\\n]", fileContent );
+		char[] buffer = new char[8192];
+		int charsRead;
+		while ((charsRead = fileContentReader.read(buffer)) != -1) {
+			for (int idx = 0; idx < charsRead; idx++) {
+				char current = buffer[idx];
+				
+				if (dosStartAvailable && (previous == '\r') && (current == '\n')) {
+					dosPatternCounter++;
+					dosStartAvailable = false;
+				}
+				else {
+					dosStartAvailable = true;
+				}
+				
+				if (unixStartAvailable && (previous != '\r') && (current == '\n')) {
+					unixPatternCounter++;
+					unixStartAvailable = false;
+				}
+				else {
+					unixStartAvailable = true;
+				}
+				
+				if (macStartAvailable && (previous == '\r') && (current != '\n')) {
+					macPatternCounter++;
+					macStartAvailable = false;
+				}
+				else {
+					macStartAvailable = true;
+				}
+				
+				previous = current;
+			}
+		}
 		
 		if( dosPatternCounter >= unixPatternCounter ) {
 			if ( dosPatternCounter >= macPatternCounter ) {
@@ -96,29 +156,6 @@ public enum FileOSType {
 		}
 	}
 	
-	/**
-	 * counts the occurrences of the given pattern in the given content
-	 * @param patternString the pattern to count
-	 * @param fileContent the content ot analyze
-	 * @return number of occurrences
-	 */
-	private static int getPatternCount( 
-			String patternString, String fileContent ) {
-		
-		Pattern pattern = Pattern.compile( patternString );
-		
-		Matcher patternMatcher = 
-			pattern.matcher( fileContent );
-		
-		int patternCounter = 0;
-		
-		while( patternMatcher.find() ) {
-			patternCounter++;
-		}
-		
-		return patternCounter;
-	}
-
     /**
      * Converts old McOS 9 linefeeds to unix linfeeds.
      * @param input the content to convert
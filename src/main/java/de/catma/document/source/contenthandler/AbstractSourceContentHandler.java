@@ -21,11 +21,14 @@ package de.catma.document.source.contenthandler;
 import de.catma.document.source.SourceDocumentInfo;
 
 import java.io.IOException;
+import java.io.Reader;
 
 /**
  * Basic implementation that provides lazy loading.
  */
 public abstract class AbstractSourceContentHandler implements SourceContentHandler {
+	private static final int KB64 = 65536;
+
 	private SourceDocumentInfo sourceDocumentInfo;
 	private String content;
 
@@ -56,6 +59,26 @@ public abstract class AbstractSourceContentHandler implements SourceContentHandl
 		this.content = content;
 	}
 
+	/**
+	 * To be used by concrete implementations to set the content from a stream of characters.
+	 * <p>
+	 * Characters that are not allowed in XML get replaced, see {@link XmlCharacterFilterReader}. The content is read
+	 * chunk by chunk, so that only the resulting content needs to fit into memory.
+	 *
+	 * @param reader the entire document text, not closed by this method
+	 * @throws IOException if reading fails
+	 */
+	protected void setContent(Reader reader) throws IOException {
+		Reader filteredReader = new XmlCharacterFilterReader(reader);
+		char[] charBuffer = new char[KB64];
+		int charsRead;
+		StringBuilder contentBuilder = new StringBuilder();
+		while ((charsRead = filteredReader.read(charBuffer)) != -1) {
+			contentBuilder.append(charBuffer, 0, charsRead);
+		}
+		setContent(contentBuilder.toString());
+	}
+
 	@Override
 	public void unload() {
 		content = null;
@@ -21,48 +21,33 @@ package de.catma.document.source.contenthandler;
 import java.io.*;
 import java.nio.charset.Charset;
 
+import org.apache.commons.io.IOUtils;
+
 /**
  * The standard content handler that handles plain text files.
  *
  * @see de.catma.document.source.TechInfoSet
  */
 public class StandardContentHandler extends AbstractSourceContentHandler {
-	private static final int KB64 = 65536;
-
 	private void load(BufferedInputStream bufferedInputStream) throws IOException {
-		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-		byte[] inputByteBuffer = new byte[KB64];
-		int bytesRead;
-		while ((bytesRead = bufferedInputStream.read(inputByteBuffer)) != -1) {
-			byteArrayOutputStream.write(inputByteBuffer, 0, bytesRead);
-		}
-
-		byte[] allBytes = byteArrayOutputStream.toByteArray();
-		ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(allBytes);
-
 		Charset charset = getSourceDocumentInfo().getTechInfoSet().getCharset();
 
+		// peek at the start of the stream to look for a BOM
+		byte[] startBytes = new byte[BOMFilterInputStream.UTF_8_BOM.length];
+		bufferedInputStream.mark(startBytes.length);
+		int startBytesRead = IOUtils.read(bufferedInputStream, startBytes);
+		bufferedInputStream.reset();
+
 		InputStream conditionallyFilteredInputStream;
-		if (BOMFilterInputStream.hasBOM(allBytes)) {
-			conditionallyFilteredInputStream = new BOMFilterInputStream(byteArrayInputStream, charset);
+		if ((startBytesRead == startBytes.length) && BOMFilterInputStream.hasBOM(startBytes)) {
+			conditionallyFilteredInputStream = new BOMFilterInputStream(bufferedInputStream, charset);
 		}
 		else {
-			conditionallyFilteredInputStream = byteArrayInputStream;
-		}
-
-		BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(conditionallyFilteredInputStream, charset));
-		char[] charBuffer = new char[KB64];
-		int charsRead;
-		StringBuilder contentBuilder = new StringBuilder();
-		while ((charsRead = bufferedReader.read(charBuffer)) != -1) {
-			contentBuilder.append(charBuffer, 0, charsRead);
+			conditionallyFilteredInputStream = bufferedInputStream;
 		}
 
-		setContent(
-				// some texts seem to include invalid unicode characters and this causes problems when converting text to HTML for GUI delivery and during
-				// indexing
-				contentBuilder.toString().replaceAll("[^\\x09\\x0A\\x0D\\x20-\\uD7FF\\uE000-\\uFFFD\\u10000-\\u10FFFF]", "?")
-		);
+		// invalid characters get replaced while reading, see XmlCharacterFilterReader
+		setContent(new InputStreamReader(conditionallyFilteredInputStream, charset));
 	}
 
 	@Override
@@ -2,13 +2,13 @@ package de.catma.document.source.contenthandler;
 
 import de.catma.document.source.FileType;
 import org.apache.tika.Tika;
-import org.apache.tika.exception.TikaException;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 
 /**
  * The content handler that initially handles all uploaded files that are not XML.
@@ -26,19 +26,11 @@ public class TikaContentHandler extends AbstractSourceContentHandler {
 		}
 
 		Tika tika = new Tika();
-		tika.setMaxStringLength(-1);
 
-		try {
-			setContent(
-					// some texts seem to include invalid unicode characters and this causes problems when converting text to HTML for GUI delivery and during
-					// indexing
-					tika.parseToString(inputStream, metadata)
-							.replaceAll("[^\\x09\\x0A\\x0D\\x20-\\uD7FF\\uE000-\\uFFFD\\u10000-\\u10FFFF]", "?")
-			);
+		// the reader gets fed chunk by chunk while Tika parses the document, parsing errors surface as IOExceptions
+		try (Reader reader = tika.parse(inputStream, metadata)) {
+			setContent(reader);
 		}
-		catch (TikaException e) {
-			throw new IOException(e);
-		} 
 	}
 
 	@Override
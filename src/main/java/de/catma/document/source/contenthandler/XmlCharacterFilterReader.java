@@ -0,0 +1,129 @@
+package de.catma.document.source.contenthandler;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Objects;
+
+/**
+ * A {@link FilterReader} that replaces every character that is not allowed in XML with a '?'.
+ * <p>
+ * Some texts seem to include invalid unicode characters and this causes problems when converting text to HTML for GUI
+ * delivery and during indexing.
+ * <p>
+ * Allowed are tab, line feed, carriage return and U+0020 - U+D7FF, U+E000 - U+FFFD. Supplementary characters, i.e.
+ * surrogate pairs, are replaced with a single '?', as are unpaired surrogates. That is exactly what the regular
+ * expression that has been used before did, so that the content of existing documents and with it the positions of
+ * their annotations don't change.
+ */
+public class XmlCharacterFilterReader extends FilterReader {
+	private static final char REPLACEMENT_CHARACTER = '?';
+
+	private final char[] buffer = new char[8192];
+	private int position = 0;
+	private int limit = 0;
+
+	public XmlCharacterFilterReader(Reader in) {
+		super(in);
+	}
+
+	private static boolean isAllowed(char c) {
+		if (c >= 0x20) {
+			return (c <= 0xD7FF) || ((c >= 0xE000) && (c <= 0xFFFD));
+		}
+		return (c == 0x09) || (c == 0x0A) || (c == 0x0D);
+	}
+
+	/**
+	 * @return <code>false</code> if the end of the stream has been reached
+	 */
+	private boolean fill() throws IOException {
+		int count;
+		do {
+			count = in.read(buffer, 0, buffer.length);
+		} while (count == 0);
+
+		position = 0;
+		limit = Math.max(0, count);
+
+		return count != -1;
+	}
+
+	@Override
+	public int read() throws IOException {
+		char[] c = new char[1];
+		return (read(c, 0, 1) == -1) ? -1 : c[0];
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		Objects.checkFromIndexSize(off, len, cbuf.length);
+		if (len == 0) {
+			return 0;
+		}
+
+		int count = 0;
+		while (count < len) {
+			if (position == limit) {
+				// don't block for more input if there is already something to return
+				if ((count > 0) || !fill()) {
+					break;
+				}
+			}
+
+			char c = buffer[position++];
+			if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c)
+						&& ((position < limit) || fill())
+						&& Character.isLowSurrogate(buffer[position])) {
+					position++;
+				}
+				c = REPLACEMENT_CHARACTER;
+			}
+			else if (!isAllowed(c)) {
+				c = REPLACEMENT_CHARACTER;
+			}
+
+			cbuf[off + count++] = c;
+		}
+
+		return (count == 0) ? -1 : count;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n < 0L) {
+			throw new IllegalArgumentException("skip value is negative");
+		}
+		char[] skipBuffer = new char[(int) Math.min(n, buffer.length)];
+		long skipped = 0;
+		while (skipped < n) {
+			int count = read(skipBuffer, 0, (int) Math.min(n - skipped, skipBuffer.length));
+			if (count == -1) {
+				break;
+			}
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean ready() throws IOException {
+		return (position < limit) || in.ready();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void mark(int readAheadLimit) throws IOException {
+		throw new IOException("mark() not supported");
+	}
+
+	@Override
+	public void reset() throws IOException {
+		throw new IOException("reset() not supported");
+	}
+}
@@ -47,7 +47,7 @@ public final class HazelcastConfiguration {
 		PROJECT_INVITATION, // invited user sends join request -> inviting user executes the necessary permission changes
 		PROJECT_JOINED, // inviting user sends info about successful permission changes -> invited user gets informed about having joined a project
 		
-		// informing other active users about new comments on a document
+		// informing other active users about new comments on a document, one topic per project (see CommentMessageListener)
 		COMMENT,
 		;
 	}
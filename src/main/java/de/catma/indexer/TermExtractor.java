@@ -30,9 +30,15 @@ import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 
+import de.catma.document.source.IndexInfoSet;
+import de.catma.document.source.SourceDocument;
 
 public class TermExtractor {
 
+	private static interface TokenConsumer {
+		public void accept(String term, int startOffset, int endOffset, int tokenOffset) throws IOException;
+	}
+
 	private Map<String, List<TermInfo>> terms;
 	private List<String> termsInOrder;
 
@@ -44,6 +50,33 @@ public class TermExtractor {
 			userDefinedSeparatingCharacters, locale);
 	}
 
+	/**
+	 * Extracts the terms of the given document with the settings of its {@link IndexInfoSet}. The tokens go straight
+	 * into a {@link TermIndex}, neither a {@link TermInfo} per token nor the list of terms in order get created.
+	 * 
+	 * @param sourceDocument the document to tokenize, the content gets loaded if necessary
+	 * @return the terms of the document, to be closed by the caller
+	 * @throws IOException if the content cannot be loaded or the index cannot be spilled to disk
+	 */
+	public static TermIndex extractTermIndex(SourceDocument sourceDocument) throws IOException {
+		IndexInfoSet indexInfoSet = sourceDocument.getSourceContentHandler().getSourceDocumentInfo().getIndexInfoSet();
+
+		TermIndex termIndex = new TermIndex();
+		try {
+			tokenize(
+					sourceDocument.getContent(),
+					indexInfoSet.getUnseparableCharacterSequences(),
+					indexInfoSet.getUserDefinedSeparatingCharacters(),
+					indexInfoSet.getLocale(),
+					termIndex::add);
+		}
+		catch (IOException | RuntimeException e) {
+			termIndex.close();
+			throw e;
+		}
+		return termIndex;
+	}
+
 	private void extractTermInfos(
 			String content,
 			List<String> unseparableCharacterSequences,
@@ -51,6 +84,29 @@ public class TermExtractor {
 		
 		terms = new HashMap<String, List<TermInfo>>();
 		termsInOrder = new ArrayList<String>();
+
+		tokenize(
+			content, 
+			unseparableCharacterSequences, 
+			userDefinedSeparatingCharacters, 
+			locale,
+			(term, startOffset, endOffset, tokenOffset) -> {
+				TermInfo ti = new TermInfo(term, startOffset, endOffset, tokenOffset);
+	
+				if (!terms.containsKey(ti.getTerm())) {
+					terms.put(ti.getTerm(), new ArrayList<TermInfo>());
+				}
+				terms.get(ti.getTerm()).add(ti);
+				
+				termsInOrder.add(ti.getTerm());
+			});
+	}
+
+	private static void tokenize(
+			String content,
+			List<String> unseparableCharacterSequences,
+			List<Character> userDefinedSeparatingCharacters, Locale locale,
+			TokenConsumer tokenConsumer) throws IOException {
 		
 		if (locale == null) {
 			locale = Locale.getDefault();
@@ -71,17 +127,11 @@ public class TermExtractor {
 				OffsetAttribute offsetAttr = (OffsetAttribute) ts
 						.getAttribute(OffsetAttribute.class);
 	
-				TermInfo ti = new TermInfo(termAttr.toString(),
+				tokenConsumer.accept(
+						termAttr.toString(),
 						offsetAttr.startOffset(), offsetAttr.endOffset(),
 						positionCounter);
-	
-				if (!terms.containsKey(ti.getTerm())) {
-					terms.put(ti.getTerm(), new ArrayList<TermInfo>());
-				}
-				terms.get(ti.getTerm()).add(ti);
 				positionCounter++;
-				
-				termsInOrder.add(ti.getTerm());
 			}
 		}
 	}
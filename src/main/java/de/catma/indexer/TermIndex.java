@@ -0,0 +1,313 @@
+package de.catma.indexer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * The terms of a document with the positions of all of their occurrences, collected token by token, e.g. straight
+ * from the token stream of the {@link TermExtractor}.
+ * <p>
+ * Only the vocabulary is kept on the heap. The positions are buffered in an int array of at most
+ * {@link #MAX_BUFFER_TOKENS} tokens and get spilled to a temp file whenever the buffer is full.
+ * {@link #forEachTerm(TermConsumer)} groups the positions by term in a memory mapped temp file, so the heap that is
+ * needed to tokenize a document and to write its index scales with the number of distinct terms rather than with the
+ * number of tokens.
+ * <p>
+ * Instances are not thread-safe and have to be closed to delete the temp files.
+ */
+public class TermIndex implements Closeable {
+
+	/**
+	 * The positions of the occurrences of a single term in the order they have been added.
+	 */
+	public static interface TermPositions {
+		public int size();
+
+		public int getStartOffset(int idx);
+
+		public int getEndOffset(int idx);
+
+		public int getTokenOffset(int idx);
+	}
+
+	public static interface TermConsumer {
+		/**
+		 * @param term the term
+		 * @param positions the positions of the term, only valid during this call
+		 */
+		public void accept(String term, TermPositions positions) throws IOException;
+	}
+
+	// term ID, start offset, end offset, token offset
+	private static final int VALUES_PER_TOKEN = 4;
+	// start offset, end offset, token offset
+	private static final int VALUES_PER_POSITION = 3;
+	private static final int MAX_BUFFER_TOKENS = 65536;
+	// a power of 2 and a multiple of the int size, so ints never cross regions
+	private static final long REGION_SIZE = 1L << 30;
+
+	private final int maxBufferTokens;
+	private final long regionSize;
+
+	private final Map<String, Integer> termIds = new HashMap<>();
+	private final List<String> terms = new ArrayList<>();
+	private int[] counts = new int[256];
+
+	private int[] buffer;
+	private int bufferSize = 0;
+	private int tokenCount = 0;
+
+	private File spillFile;
+	private DataOutputStream spillOutputStream;
+
+	public TermIndex() {
+		this(MAX_BUFFER_TOKENS, REGION_SIZE);
+	}
+
+	/**
+	 * @param maxBufferTokens the number of tokens that are buffered before they get spilled
+	 * @param regionSize the size in bytes of the memory mapped regions, a power of 2 and at least the int size
+	 */
+	@VisibleForTesting
+	TermIndex(int maxBufferTokens, long regionSize) {
+		this.maxBufferTokens = maxBufferTokens;
+		this.regionSize = regionSize;
+		this.buffer = new int[VALUES_PER_TOKEN * Math.min(256, maxBufferTokens)];
+	}
+
+	/**
+	 * @param terms a map term-&gt;list of terminfo (range, tokenoffset) as created by {@link TermExtractor#getTerms()}
+	 * @return a new index with the terms of the given map in the iteration order of the map
+	 * @throws IOException if the positions cannot be spilled to disk
+	 */
+	public static TermIndex of(Map<String, List<TermInfo>> terms) throws IOException {
+		TermIndex termIndex = new TermIndex();
+		try {
+			for (Map.Entry<String, List<TermInfo>> entry : terms.entrySet()) {
+				for (TermInfo termInfo : entry.getValue()) {
+					termIndex.add(
+							entry.getKey(),
+							termInfo.getRange().getStartPoint(), termInfo.getRange().getEndPoint(),
+							termInfo.getTokenOffset());
+				}
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			termIndex.close();
+			throw e;
+		}
+		return termIndex;
+	}
+
+	/**
+	 * Adds an occurrence of the given term.
+	 *
+	 * @throws IOException if the positions cannot be spilled to disk
+	 */
+	public void add(String term, int startOffset, int endOffset, int tokenOffset) throws IOException {
+		Integer termId = termIds.get(term);
+		if (termId == null) {
+			termId = terms.size();
+			termIds.put(term, termId);
+			terms.add(term);
+			if (termId == counts.length) {
+				counts = Arrays.copyOf(counts, counts.length * 2);
+			}
+		}
+		counts[termId]++;
+
+		if (bufferSize == buffer.length) {
+			if (buffer.length < VALUES_PER_TOKEN * maxBufferTokens) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			else {
+				spill();
+			}
+		}
+
+		buffer[bufferSize++] = termId;
+		buffer[bufferSize++] = startOffset;
+		buffer[bufferSize++] = endOffset;
+		buffer[bufferSize++] = tokenOffset;
+		tokenCount++;
+	}
+
+	private void spill() throws IOException {
+		if (spillOutputStream == null) {
+			spillFile = File.createTempFile("term_index", ".tmp");
+			spillOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile), 65536));
+		}
+
+		for (int idx = 0; idx < bufferSize; idx++) {
+			spillOutputStream.writeInt(buffer[idx]);
+		}
+		bufferSize = 0;
+	}
+
+	/**
+	 * @return the number of distinct terms
+	 */
+	public int getTermCount() {
+		return terms.size();
+	}
+
+	/**
+	 * @return the number of added occurrences
+	 */
+	public int getTokenCount() {
+		return tokenCount;
+	}
+
+	/**
+	 * Hands the terms with their positions to the given consumer, the terms in the order of their first occurrence.
+	 *
+	 * @param consumer the consumer of the terms
+	 * @throws IOException if the positions cannot be read from or grouped on disk or if the consumer fails
+	 */
+	public void forEachTerm(TermConsumer consumer) throws IOException {
+		// the positions of each term get a contiguous range in the order of the terms
+		long[] termStarts = new long[terms.size()];
+		long[] cursors = new long[terms.size()];
+		long position = 0;
+		for (int termId = 0; termId < terms.size(); termId++) {
+			termStarts[termId] = position;
+			cursors[termId] = position;
+			position += counts[termId];
+		}
+
+		if (spillOutputStream == null) {
+			int[] positions = new int[VALUES_PER_POSITION * tokenCount];
+			for (int idx = 0; idx < bufferSize; idx += VALUES_PER_TOKEN) {
+				int offset = (int) (VALUES_PER_POSITION * cursors[buffer[idx]]++);
+				positions[offset] = buffer[idx + 1];
+				positions[offset + 1] = buffer[idx + 2];
+				positions[offset + 2] = buffer[idx + 3];
+			}
+
+			forEachTerm(consumer, termStarts, idx -> positions[(int) idx]);
+			return;
+		}
+
+		spillOutputStream.flush();
+
+		File groupedFile = File.createTempFile("term_index_grouped", ".tmp");
+		try {
+			MappedByteBuffer[] regions = mapRegions(groupedFile, 4L * VALUES_PER_POSITION * tokenCount);
+
+			// spilled tokens come before the buffered ones
+			long spilledTokenCount = spillFile.length() / (4L * VALUES_PER_TOKEN);
+			try (DataInputStream spillInputStream = new DataInputStream(
+					new BufferedInputStream(new FileInputStream(spillFile), 65536))) {
+				for (long tokenIdx = 0; tokenIdx < spilledTokenCount; tokenIdx++) {
+					long offset = VALUES_PER_POSITION * cursors[spillInputStream.readInt()]++;
+					putInt(regions, offset, spillInputStream.readInt());
+					putInt(regions, offset + 1, spillInputStream.readInt());
+					putInt(regions, offset + 2, spillInputStream.readInt());
+				}
+			}
+			for (int idx = 0; idx < bufferSize; idx += VALUES_PER_TOKEN) {
+				long offset = VALUES_PER_POSITION * cursors[buffer[idx]]++;
+				putInt(regions, offset, buffer[idx + 1]);
+				putInt(regions, offset + 1, buffer[idx + 2]);
+				putInt(regions, offset + 2, buffer[idx + 3]);
+			}
+
+			forEachTerm(consumer, termStarts, idx -> getInt(regions, idx));
+		}
+		finally {
+			if (!groupedFile.delete()) {
+				// the file is still mapped on some platforms
+				groupedFile.deleteOnExit();
+			}
+		}
+	}
+
+	private static interface IntStore {
+		public int get(long idx);
+	}
+
+	private void forEachTerm(TermConsumer consumer, long[] termStarts, IntStore positions) throws IOException {
+		for (int termId = 0; termId < terms.size(); termId++) {
+			final long start = termStarts[termId];
+			final int size = counts[termId];
+
+			consumer.accept(terms.get(termId), new TermPositions() {
+				@Override
+				public int size() {
+					return size;
+				}
+
+				@Override
+				public int getStartOffset(int idx) {
+					return positions.get(VALUES_PER_POSITION * (start + idx));
+				}
+
+				@Override
+				public int getEndOffset(int idx) {
+					return positions.get(VALUES_PER_POSITION * (start + idx) + 1);
+				}
+
+				@Override
+				public int getTokenOffset(int idx) {
+					return positions.get(VALUES_PER_POSITION * (start + idx) + 2);
+				}
+			});
+		}
+	}
+
+	private MappedByteBuffer[] mapRegions(File file, long size) throws IOException {
+		MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((size + regionSize - 1) / regionSize)];
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+				FileChannel fileChannel = randomAccessFile.getChannel()) {
+			for (int regionIdx = 0; regionIdx < regions.length; regionIdx++) {
+				long regionStart = regionIdx * regionSize;
+				regions[regionIdx] = fileChannel.map(
+						FileChannel.MapMode.READ_WRITE, regionStart, Math.min(regionSize, size - regionStart));
+			}
+		}
+		return regions;
+	}
+
+	private void putInt(MappedByteBuffer[] regions, long idx, int value) {
+		long byteIdx = 4L * idx;
+		regions[(int) (byteIdx / regionSize)].putInt((int) (byteIdx % regionSize), value);
+	}
+
+	private int getInt(MappedByteBuffer[] regions, long idx) {
+		long byteIdx = 4L * idx;
+		return regions[(int) (byteIdx / regionSize)].getInt((int) (byteIdx % regionSize));
+	}
+
+	/**
+	 * Deletes the temp files.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (spillOutputStream != null) {
+			try {
+				spillOutputStream.close();
+			}
+			finally {
+				spillOutputStream = null;
+				spillFile.delete();
+			}
+		}
+	}
+}
@@ -26,6 +26,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.catma.backgroundservice.ProgressListener;
@@ -36,6 +37,8 @@ import de.catma.document.comment.Comment;
 import de.catma.document.comment.Reply;
 import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentReference;
+import de.catma.indexer.TermExtractor;
+import de.catma.indexer.TermIndex;
 import de.catma.rbac.RBACPermission;
 import de.catma.rbac.RBACRole;
 import de.catma.rbac.RBACSubject;
@@ -327,6 +330,23 @@ public interface Project {
 	 */
 	void addSourceDocument(SourceDocument sourceDocument, boolean deleteTempFile) throws Exception;
 
+	/**
+	 * Adds several documents to this project with a single commit and push. The associated temp files get deleted.
+	 * <p>
+	 * Unlike {@link #addSourceDocument(SourceDocument)} failures are thrown instead of being reported as
+	 * {@link ProjectEvent#exceptionOccurred}, so that callers know that the documents of the batch have not been added.
+	 *
+	 * @param sourceDocuments the {@link SourceDocument}s to add
+	 * @param termIndicesBySourceDocumentId the terms of the documents by document ID as extracted by
+	 *        {@link TermExtractor#extractTermIndex(SourceDocument)}, documents without terms get tokenized here, the
+	 *        indices stay open and have to be closed by the caller
+	 * @throws Exception if an error occurs when adding the documents
+	 */
+	void addSourceDocuments(
+			List<SourceDocument> sourceDocuments,
+			Map<String, TermIndex> termIndicesBySourceDocumentId
+	) throws Exception;
+
 	/**
 	 * Updates the metadata for a document.
 	 *
@@ -81,6 +81,15 @@ public enum CATMAPropertyKey {
 	
 	API_GIT_REPOSITORY_BASE_PATH,
 	API_HMAC_SECRET,
+	// the estimated heap size that loaded projects may occupy in the project export cache
+	API_PROJECT_CACHE_MAX_SIZE_MB("2048"),
+	// how often the remote branch of a cached project is checked for new commits, the check itself is a single 'ls-remote'
+	API_PROJECT_CACHE_REVISION_CHECK_INTERVAL_SECONDS("30"),
+	// how long a GitLab token that is used directly as an API token is trusted before it is resolved against GitLab again
+	API_BACKEND_TOKEN_CACHE_TTL_SECONDS("300"),
+
+	// the number of threads for CPU bound background work like queries and exports, defaults to the number of processors
+	BACKGROUND_COMPUTATION_THREADS,
 	;
 
 	private final String defaultValue;
@@ -28,6 +28,7 @@ import org.antlr.runtime.tree.CommonTreeNodeStream;
 import org.antlr.runtime.tree.Tree;
 
 import de.catma.backgroundservice.DefaultProgressCallable;
+import de.catma.backgroundservice.TaskType;
 import de.catma.queryengine.parser.CatmaQueryLexer;
 import de.catma.queryengine.parser.CatmaQueryParser;
 import de.catma.queryengine.parser.CatmaQueryWalker;
@@ -57,6 +58,11 @@ public class QueryJob extends DefaultProgressCallable<QueryResult> {
         this.queryOptions = queryOptions;
     }
 
+    @Override
+    public TaskType getTaskType() {
+    	return TaskType.COMPUTATION;
+    }
+
     public QueryResult call() throws Exception {
         try {
         	StopWatch stopWatch = new StopWatch();
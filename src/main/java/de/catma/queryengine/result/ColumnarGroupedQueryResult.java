@@ -0,0 +1,76 @@
+package de.catma.queryengine.result;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A group of {@link ColumnarQueryResult#asGroupedSet(java.util.function.Function)}, shares the columns of the
+ * grouped result.
+ */
+class ColumnarGroupedQueryResult implements GroupedQueryResult {
+
+	private final Object group;
+	private final ColumnarQueryResult rows;
+
+	ColumnarGroupedQueryResult(Object group, ColumnarQueryResult rows) {
+		this.group = group;
+		this.rows = rows;
+	}
+
+	ColumnarQueryResult getRows() {
+		return rows;
+	}
+
+	@Override
+	public Object getGroup() {
+		return group;
+	}
+
+	@Override
+	public int getTotalFrequency() {
+		return rows.size();
+	}
+
+	@Override
+	public int getFrequency(String sourceDocumentID) {
+		return rows.getFrequency(sourceDocumentID);
+	}
+
+	@Override
+	public Set<String> getSourceDocumentIDs() {
+		return rows.getSourceDocumentIDs();
+	}
+
+	@Override
+	public GroupedQueryResult getSubResult(String... sourceDocumentID) {
+		return new ColumnarGroupedQueryResult(group, rows.getSubResult(new HashSet<>(Arrays.asList(sourceDocumentID))));
+	}
+
+	@Override
+	public void add(QueryResultRow row) {
+		rows.add(row);
+	}
+
+	@Override
+	public boolean contains(QueryResultRow row) {
+		return rows.contains(row);
+	}
+
+	@Override
+	public boolean remove(QueryResultRow row) {
+		return rows.remove(row);
+	}
+
+	@Override
+	public Iterator<QueryResultRow> iterator() {
+		return rows.iterator();
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnarGroupedQueryResult [group=" + group + ", sourceDocumentIDs="
+				+ Arrays.toString(getSourceDocumentIDs().toArray()) + "]";
+	}
+}
@@ -0,0 +1,305 @@
+package de.catma.queryengine.result;
+
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+import de.catma.queryengine.result.ColumnarRowStore.IntColumn;
+import de.catma.queryengine.result.ColumnarRowStore.RowPosition;
+
+/**
+ * A {@link QueryResult} that keeps its rows in columns instead of as row objects.
+ * <p>
+ * Document IDs, phrases, tag and collection IDs etc. are kept once per result and referenced by int IDs, ranges are
+ * kept as int offsets. This is much smaller than a {@link QueryResultRowArray} for large results, as the same phrases
+ * and IDs show up in many rows and the range sets of the tag rows are comparatively big.
+ * <p>
+ * The rows are created on every access. They are equal to the rows that have been added but they are not the same
+ * instances, changes like {@link QueryResultRow#setPhrase(String)} don't affect the result. The groups of
+ * {@link #asGroupedSet(Function)} share the columns of this result.
+ * <p>
+ * Removed rows are only marked as removed at first, so that removing rows one by one, e.g. through the
+ * {@link #iterator()}, doesn't shift the remaining rows with each removal. The marked rows get dropped in a single pass
+ * when rows are accessed by index or by {@link #removeAll(Collection)}, which invalidates running iterators.
+ * <p>
+ * Like {@link QueryResultRowArray} this class is not thread-safe.
+ */
+public class ColumnarQueryResult implements QueryResult {
+
+	private final ColumnarRowStore store;
+	// the IDs of the rows of this result within the store
+	private final IntColumn rowIds = new IntColumn();
+	// marks a removed row in the row IDs until the next compaction
+	private static final int REMOVED = -1;
+	private int removedCount = 0;
+	private int compactionCount = 0;
+
+	public ColumnarQueryResult() {
+		this(new ColumnarRowStore());
+	}
+
+	/**
+	 * @param queryResult the rows to copy
+	 */
+	public ColumnarQueryResult(QueryResult queryResult) {
+		this();
+		addAll(queryResult);
+		store.trimToSize();
+		rowIds.trimToSize();
+	}
+
+	private ColumnarQueryResult(ColumnarRowStore store) {
+		this.store = store;
+	}
+
+	public void add(QueryResultRow row) {
+		rowIds.add(store.add(row));
+	}
+
+	public void addAll(Iterable<QueryResultRow> rows) {
+		for (QueryResultRow row : rows) {
+			add(row);
+		}
+	}
+
+	/**
+	 * @param idx the index of the row, 0 &lt;= idx &lt; {@link #size()}
+	 * @return a new instance of the row at the given index
+	 */
+	public QueryResultRow get(int idx) {
+		if ((idx < 0) || (idx >= size())) {
+			throw new IndexOutOfBoundsException("Index " + idx + " out of bounds for size " + size());
+		}
+		compact();
+		return store.get(rowIds.get(idx));
+	}
+
+	/**
+	 * @return the index of the row within the row IDs including the removed rows or -1
+	 */
+	private int indexOf(QueryResultRow row) {
+		RowPosition position = store.getPosition(row);
+		if (position.documentId() == ColumnarRowStore.UNKNOWN_ID) {
+			return -1;
+		}
+
+		for (int idx = 0; idx < rowIds.size(); idx++) {
+			int rowId = rowIds.get(idx);
+			if ((rowId != REMOVED) && store.mightEqual(rowId, position) && row.equals(store.get(rowId))) {
+				return idx;
+			}
+		}
+		return -1;
+	}
+
+	public boolean contains(QueryResultRow row) {
+		return indexOf(row) != -1;
+	}
+
+	/**
+	 * @param row the row to remove
+	 * @return <code>true</code> if a row equal to the given row has been removed
+	 */
+	public boolean remove(QueryResultRow row) {
+		int idx = indexOf(row);
+		if (idx == -1) {
+			return false;
+		}
+		removeIndex(idx);
+		return true;
+	}
+
+	private void removeIndex(int idx) {
+		rowIds.set(idx, REMOVED);
+		removedCount++;
+		// the columns of the store are append-only, removed rows keep their space
+	}
+
+	/**
+	 * Drops the rows that have been marked as removed.
+	 */
+	private void compact() {
+		if (removedCount == 0) {
+			return;
+		}
+
+		int size = 0;
+		for (int idx = 0; idx < rowIds.size(); idx++) {
+			int rowId = rowIds.get(idx);
+			if (rowId != REMOVED) {
+				rowIds.set(size++, rowId);
+			}
+		}
+		rowIds.setSize(size);
+		removedCount = 0;
+		compactionCount++;
+	}
+
+	/**
+	 * @param rows the rows to remove
+	 * @return <code>true</code> if at least one row has been removed
+	 */
+	public boolean removeAll(Collection<? extends QueryResultRow> rows) {
+		Set<QueryResultRow> rowsToBeRemoved = new HashSet<>(rows);
+		int previousSize = size();
+
+		int size = 0;
+		for (int idx = 0; idx < rowIds.size(); idx++) {
+			int rowId = rowIds.get(idx);
+			if ((rowId != REMOVED) && !rowsToBeRemoved.contains(store.get(rowId))) {
+				rowIds.set(size++, rowId);
+			}
+		}
+
+		rowIds.setSize(size);
+		removedCount = 0;
+		compactionCount++;
+		return size < previousSize;
+	}
+
+	@Override
+	public int size() {
+		return rowIds.size() - removedCount;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public Iterator<QueryResultRow> iterator() {
+		return new Iterator<QueryResultRow>() {
+			private final int expectedCompactionCount = compactionCount;
+			private int nextIdx = 0;
+			private int lastIdx = -1;
+
+			@Override
+			public boolean hasNext() {
+				if (compactionCount != expectedCompactionCount) {
+					throw new ConcurrentModificationException();
+				}
+				while ((nextIdx < rowIds.size()) && (rowIds.get(nextIdx) == REMOVED)) {
+					nextIdx++;
+				}
+				return nextIdx < rowIds.size();
+			}
+
+			@Override
+			public QueryResultRow next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				lastIdx = nextIdx++;
+				return store.get(rowIds.get(lastIdx));
+			}
+
+			@Override
+			public void remove() {
+				if (lastIdx == -1) {
+					throw new IllegalStateException();
+				}
+				if (compactionCount != expectedCompactionCount) {
+					throw new ConcurrentModificationException();
+				}
+				removeIndex(lastIdx);
+				lastIdx = -1;
+			}
+		};
+	}
+
+	public int getFrequency(String sourceDocumentID) {
+		int documentId = store.findDocumentId(sourceDocumentID);
+		int sum = 0;
+		for (int idx = 0; idx < rowIds.size(); idx++) {
+			int rowId = rowIds.get(idx);
+			if ((rowId != REMOVED) && (store.getDocumentId(rowId) == documentId)) {
+				sum++;
+			}
+		}
+		return sum;
+	}
+
+	public Set<String> getSourceDocumentIDs() {
+		Set<Integer> documentIds = new HashSet<>();
+		for (int idx = 0; idx < rowIds.size(); idx++) {
+			int rowId = rowIds.get(idx);
+			if (rowId != REMOVED) {
+				documentIds.add(store.getDocumentId(rowId));
+			}
+		}
+
+		Set<String> sourceDocumentIDs = new HashSet<>();
+		for (Integer documentId : documentIds) {
+			sourceDocumentIDs.add(store.getDocumentIdValue(documentId));
+		}
+		return sourceDocumentIDs;
+	}
+
+	/**
+	 * @param sourceDocumentIDs the documents to keep
+	 * @return a new result with the rows of the given documents that shares the columns of this result
+	 */
+	ColumnarQueryResult getSubResult(Set<String> sourceDocumentIDs) {
+		Set<Integer> documentIds = new HashSet<>();
+		for (String sourceDocumentID : sourceDocumentIDs) {
+			documentIds.add(store.findDocumentId(sourceDocumentID));
+		}
+
+		ColumnarQueryResult subResult = new ColumnarQueryResult(store);
+		for (int idx = 0; idx < rowIds.size(); idx++) {
+			int rowId = rowIds.get(idx);
+			if ((rowId != REMOVED) && documentIds.contains(store.getDocumentId(rowId))) {
+				subResult.rowIds.add(rowId);
+			}
+		}
+		return subResult;
+	}
+
+	@Override
+	public Set<GroupedQueryResult> asGroupedSet(Function<QueryResultRow, Object> groupingKeyProvider) {
+		Map<Object, ColumnarGroupedQueryResult> groupedQueryResultsByKey = new HashMap<>();
+
+		for (int idx = 0; idx < rowIds.size(); idx++) {
+			int rowId = rowIds.get(idx);
+			if (rowId == REMOVED) {
+				continue;
+			}
+			Object key = groupingKeyProvider.apply(store.get(rowId));
+
+			groupedQueryResultsByKey.computeIfAbsent(
+					key, k -> new ColumnarGroupedQueryResult(k, new ColumnarQueryResult(store))
+			).getRows().rowIds.add(rowId);
+		}
+
+		return new HashSet<GroupedQueryResult>(groupedQueryResultsByKey.values());
+	}
+
+	@Override
+	public Set<GroupedQueryResult> asGroupedSet() {
+		return asGroupedSet(QueryResultRow::getPhrase);
+	}
+
+	/**
+	 * @return a new {@link QueryResultRowArray} with all rows, changes to the array don't affect this result
+	 */
+	@Override
+	public QueryResultRowArray asQueryResultRowArray() {
+		QueryResultRowArray result = new QueryResultRowArray();
+		result.ensureCapacity(size());
+		for (QueryResultRow row : this) {
+			result.add(row);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return asQueryResultRowArray().toString();
+	}
+}
@@ -0,0 +1,289 @@
+package de.catma.queryengine.result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.catma.document.Range;
+import de.catma.document.comment.Comment;
+import de.catma.queryengine.QueryId;
+
+/**
+ * Append-only column storage for {@link QueryResultRow}s, see {@link ColumnarQueryResult}.
+ * <p>
+ * Every row gets an int row ID. Strings are kept once per store in dictionaries and referenced by int IDs, ranges are
+ * kept as int offsets. The columns that only tag rows have are kept in a separate table, so that plain rows don't pay
+ * for them.
+ */
+final class ColumnarRowStore {
+
+	static final int UNKNOWN_ID = -2;
+	private static final int NULL_ID = -1;
+
+	private static final byte PLAIN_ROW = 0;
+	private static final byte TAG_ROW = 1;
+	private static final byte COMMENT_ROW = 2;
+
+	private static final class Dictionary<T> {
+		private final Map<T, Integer> idsByValue = new HashMap<>();
+		private final List<T> values = new ArrayList<>();
+
+		int add(T value) {
+			if (value == null) {
+				return NULL_ID;
+			}
+			return idsByValue.computeIfAbsent(value, key -> {
+				values.add(key);
+				return values.size() - 1;
+			});
+		}
+
+		/**
+		 * @return the ID of the value or {@link ColumnarRowStore#UNKNOWN_ID} if the value is not part of the dictionary
+		 */
+		int find(T value) {
+			if (value == null) {
+				return NULL_ID;
+			}
+			return idsByValue.getOrDefault(value, UNKNOWN_ID);
+		}
+
+		T get(int id) {
+			return (id == NULL_ID) ? null : values.get(id);
+		}
+	}
+
+	static final class IntColumn {
+		private int[] values = new int[16];
+		private int size = 0;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		int get(int idx) {
+			return values[idx];
+		}
+
+		void set(int idx, int value) {
+			values[idx] = value;
+		}
+
+		int size() {
+			return size;
+		}
+
+		void setSize(int size) {
+			this.size = size;
+		}
+
+		void trimToSize() {
+			values = Arrays.copyOf(values, Math.max(1, size));
+		}
+	}
+
+	private final Dictionary<QueryId> queryIds = new Dictionary<>();
+	private final Dictionary<String> documentIds = new Dictionary<>();
+	private final Dictionary<String> phrases = new Dictionary<>();
+	private final Dictionary<String> collectionIds = new Dictionary<>();
+	private final Dictionary<String> tagIds = new Dictionary<>();
+	private final Dictionary<String> tagPaths = new Dictionary<>();
+	private final Dictionary<String> tagVersions = new Dictionary<>();
+	private final Dictionary<String> tagInstanceIds = new Dictionary<>();
+	private final Dictionary<String> propertyIds = new Dictionary<>();
+	private final Dictionary<String> propertyNames = new Dictionary<>();
+	private final Dictionary<String> propertyValues = new Dictionary<>();
+
+	// one entry per row
+	private byte[] kinds = new byte[16];
+	private final IntColumn queryIdColumn = new IntColumn();
+	private final IntColumn documentIdColumn = new IntColumn();
+	// start and end of the (enclosing) range, -1 if the row has no range
+	private final IntColumn startColumn = new IntColumn();
+	private final IntColumn endColumn = new IntColumn();
+	private final IntColumn phraseColumn = new IntColumn();
+	// the index into the tag row table or into the comments
+	private final IntColumn detailColumn = new IntColumn();
+
+	// one entry per tag row
+	private final IntColumn collectionIdColumn = new IntColumn();
+	private final IntColumn tagIdColumn = new IntColumn();
+	private final IntColumn tagPathColumn = new IntColumn();
+	private final IntColumn tagVersionColumn = new IntColumn();
+	private final IntColumn tagInstanceIdColumn = new IntColumn();
+	private final IntColumn propertyIdColumn = new IntColumn();
+	private final IntColumn propertyNameColumn = new IntColumn();
+	private final IntColumn propertyValueColumn = new IntColumn();
+	// the ranges of the tag row at idx are the start/end pairs from rangeOffsetColumn[idx] to rangeOffsetColumn[idx+1]
+	private final IntColumn rangeOffsetColumn = new IntColumn();
+	private final IntColumn rangeColumn = new IntColumn();
+
+	private final List<Comment> comments = new ArrayList<>();
+
+	ColumnarRowStore() {
+		rangeOffsetColumn.add(0);
+	}
+
+	/**
+	 * @param row the row to add
+	 * @return the row ID of the added row
+	 */
+	int add(QueryResultRow row) {
+		int rowId = queryIdColumn.size();
+
+		queryIdColumn.add(queryIds.add(row.getQueryId()));
+		documentIdColumn.add(documentIds.add(row.getSourceDocumentId()));
+		Range range = row.getRange();
+		startColumn.add((range == null) ? -1 : range.getStartPoint());
+		endColumn.add((range == null) ? -1 : range.getEndPoint());
+		phraseColumn.add(phrases.add(row.getPhrase()));
+
+		byte kind;
+		if (row instanceof TagQueryResultRow) {
+			kind = TAG_ROW;
+			detailColumn.add(addTagRow((TagQueryResultRow) row));
+		}
+		else if (row instanceof CommentQueryResultRow) {
+			kind = COMMENT_ROW;
+			comments.add(((CommentQueryResultRow) row).getComment());
+			detailColumn.add(comments.size() - 1);
+		}
+		else {
+			kind = PLAIN_ROW;
+			detailColumn.add(NULL_ID);
+		}
+
+		if (rowId == kinds.length) {
+			kinds = Arrays.copyOf(kinds, rowId * 2);
+		}
+		kinds[rowId] = kind;
+
+		return rowId;
+	}
+
+	private int addTagRow(TagQueryResultRow row) {
+		int tagRowIdx = collectionIdColumn.size();
+
+		collectionIdColumn.add(collectionIds.add(row.getMarkupCollectionId()));
+		tagIdColumn.add(tagIds.add(row.getTagDefinitionId()));
+		tagPathColumn.add(tagPaths.add(row.getTagDefinitionPath()));
+		tagVersionColumn.add(tagVersions.add(row.getTagDefinitionVersion()));
+		tagInstanceIdColumn.add(tagInstanceIds.add(row.getTagInstanceId()));
+		propertyIdColumn.add(propertyIds.add(row.getPropertyDefinitionId()));
+		propertyNameColumn.add(propertyNames.add(row.getPropertyName()));
+		propertyValueColumn.add(propertyValues.add(row.getPropertyValue()));
+
+		for (Range range : row.getRanges()) { // sorted
+			rangeColumn.add(range.getStartPoint());
+			rangeColumn.add(range.getEndPoint());
+		}
+		rangeOffsetColumn.add(rangeColumn.size());
+
+		return tagRowIdx;
+	}
+
+	/**
+	 * @param rowId the ID of a row of this store
+	 * @return a new row instance that equals the row that has been added with that ID
+	 */
+	QueryResultRow get(int rowId) {
+		QueryId queryId = queryIds.get(queryIdColumn.get(rowId));
+		String documentId = documentIds.get(documentIdColumn.get(rowId));
+
+		QueryResultRow row;
+		switch (kinds[rowId]) {
+		case TAG_ROW: {
+			int tagRowIdx = detailColumn.get(rowId);
+			List<Range> ranges = new ArrayList<>();
+			for (int idx = rangeOffsetColumn.get(tagRowIdx); idx < rangeOffsetColumn.get(tagRowIdx + 1); idx += 2) {
+				ranges.add(new Range(rangeColumn.get(idx), rangeColumn.get(idx + 1)));
+			}
+			row = new TagQueryResultRow(
+					queryId, documentId, ranges,
+					collectionIds.get(collectionIdColumn.get(tagRowIdx)),
+					tagIds.get(tagIdColumn.get(tagRowIdx)),
+					tagPaths.get(tagPathColumn.get(tagRowIdx)),
+					tagVersions.get(tagVersionColumn.get(tagRowIdx)),
+					tagInstanceIds.get(tagInstanceIdColumn.get(tagRowIdx)),
+					propertyIds.get(propertyIdColumn.get(tagRowIdx)),
+					propertyNames.get(propertyNameColumn.get(tagRowIdx)),
+					propertyValues.get(propertyValueColumn.get(tagRowIdx)));
+			break;
+		}
+		case COMMENT_ROW: {
+			row = new CommentQueryResultRow(queryId, comments.get(detailColumn.get(rowId)));
+			break;
+		}
+		default: {
+			int start = startColumn.get(rowId);
+			row = new QueryResultRow(
+					queryId, documentId, (start == -1) ? null : new Range(start, endColumn.get(rowId)));
+		}
+		}
+
+		row.setPhrase(phrases.get(phraseColumn.get(rowId)));
+
+		return row;
+	}
+
+	/**
+	 * The document and the (enclosing) range of a row in terms of the columns of a store.
+	 */
+	static record RowPosition(int documentId, int start, int end) {}
+
+	/**
+	 * @param row any row
+	 * @return the position of the row, its document ID is {@link #UNKNOWN_ID} if no row of this store belongs to the
+	 * document of the row
+	 */
+	RowPosition getPosition(QueryResultRow row) {
+		Range range = row.getRange();
+		return new RowPosition(
+				documentIds.find(row.getSourceDocumentId()),
+				(range == null) ? -1 : range.getStartPoint(),
+				(range == null) ? -1 : range.getEndPoint());
+	}
+
+	/**
+	 * A cheap check that rules out most rows without creating them.
+	 *
+	 * @param position the position of a row, see {@link #getPosition(QueryResultRow)}
+	 * @return <code>false</code> if the row with the given ID cannot be equal to the row with the given position
+	 */
+	boolean mightEqual(int rowId, RowPosition position) {
+		return (documentIdColumn.get(rowId) == position.documentId())
+				&& (startColumn.get(rowId) == position.start())
+				&& (endColumn.get(rowId) == position.end());
+	}
+
+	/**
+	 * @return the dictionary ID of the given document ID or {@link #UNKNOWN_ID} if no row of this store belongs to
+	 * that document
+	 */
+	int findDocumentId(String documentId) {
+		return documentIds.find(documentId);
+	}
+
+	int getDocumentId(int rowId) {
+		return documentIdColumn.get(rowId);
+	}
+
+	String getDocumentIdValue(int documentId) {
+		return documentIds.get(documentId);
+	}
+
+	void trimToSize() {
+		kinds = Arrays.copyOf(kinds, Math.max(1, queryIdColumn.size()));
+		for (IntColumn column : Arrays.asList(
+				queryIdColumn, documentIdColumn, startColumn, endColumn, phraseColumn, detailColumn,
+				collectionIdColumn, tagIdColumn, tagPathColumn, tagVersionColumn, tagInstanceIdColumn,
+				propertyIdColumn, propertyNameColumn, propertyValueColumn, rangeOffsetColumn, rangeColumn)) {
+			column.trimToSize();
+		}
+	}
+}
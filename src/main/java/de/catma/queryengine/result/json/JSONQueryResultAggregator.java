@@ -0,0 +1,242 @@
+package de.catma.queryengine.result.json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.Hashing;
+
+import de.catma.document.Range;
+import de.catma.project.Project;
+import de.catma.queryengine.result.QueryResultRow;
+import de.catma.queryengine.result.TagQueryResultRow;
+import de.catma.queryengine.result.json.JSONQueryResultBuilder.SourceDocInfo;
+
+/**
+ * Counts query result rows per document and phrase, tag path or relative position, so that visualizations get the
+ * counts instead of the rows and don't have to aggregate client-side.
+ * <p>
+ * Rows are counted the way {@link JSONQueryResultBuilder} emits them, i.e. one per row, and the position of a tag row is
+ * the start of its last merged range. Every aggregated entry carries a {@link Field#selectionKey} that selects the rows
+ * of the entry with {@link #getRows(Iterable, Project, String)}.
+ */
+public class JSONQueryResultAggregator {
+
+	public enum Aggregation {
+		phrase,
+		tag,
+		document,
+		distribution,
+		;
+
+		/**
+		 * @param name the name of an aggregation, case-insensitive
+		 * @return the aggregation with that name
+		 * @throws IllegalArgumentException if there is no aggregation with that name
+		 */
+		public static Aggregation parse(String name) {
+			for (Aggregation aggregation : values()) {
+				if (aggregation.name().equalsIgnoreCase(name.trim())) {
+					return aggregation;
+				}
+			}
+			throw new IllegalArgumentException(String.format("Unknown aggregation: %s", name));
+		}
+	}
+
+	public enum Field {
+		count,
+		binStart,
+		binEnd,
+		selectionKey,
+	}
+
+	public static final int DEFAULT_BIN_COUNT = 10;
+
+	private static final int MAX_BIN_COUNT = 100;
+
+	private static record Group(String sourceDocumentId, String value, int bin) {
+
+		String getSelectionKey() {
+			return Hashing.murmur3_128().newHasher()
+					.putString(sourceDocumentId, StandardCharsets.UTF_8)
+					.putBoolean(value != null)
+					.putString(value == null ? "" : value, StandardCharsets.UTF_8)
+					.putInt(bin)
+					.hash()
+					.toString();
+		}
+	}
+
+	private final static class GroupCount {
+		private final QueryResultRow firstRow;
+		private int count;
+
+		public GroupCount(QueryResultRow firstRow) {
+			this.firstRow = firstRow;
+		}
+	}
+
+	private final Logger logger = Logger.getLogger(JSONQueryResultAggregator.class.getName());
+
+	private final Aggregation aggregation;
+	private final Aggregation distributionGroup;
+	private final int binCount;
+
+	/**
+	 * @param aggregation what to count by, always per document
+	 * @param distributionGroup what to count by within the bins of a {@link Aggregation#distribution}, one of
+	 * {@link Aggregation#phrase}, {@link Aggregation#tag} or {@link Aggregation#document}, ignored for other aggregations
+	 * @param binCount the number of equally sized bins of the relative start offsets of a {@link Aggregation#distribution}
+	 * @throws IllegalArgumentException for a distribution group of {@link Aggregation#distribution} or an invalid bin count
+	 */
+	public JSONQueryResultAggregator(Aggregation aggregation, Aggregation distributionGroup, int binCount) {
+		if (distributionGroup == Aggregation.distribution) {
+			throw new IllegalArgumentException("A distribution cannot be grouped by distribution");
+		}
+		if (binCount < 1 || binCount > MAX_BIN_COUNT) {
+			throw new IllegalArgumentException(String.format("The bin count has to be between 1 and %d", MAX_BIN_COUNT));
+		}
+		this.aggregation = aggregation;
+		this.distributionGroup = distributionGroup;
+		this.binCount = binCount;
+	}
+
+	public ArrayNode createJSONAggregation(final Iterable<QueryResultRow> queryResult, final Project project) throws IOException {
+		LoadingCache<String, SourceDocInfo> sourceDocInfoCache = JSONQueryResultBuilder.createSourceDocInfoCache(project);
+		LoadingCache<String, String> colorCache = JSONQueryResultBuilder.createColorCache(project);
+
+		Map<Group, GroupCount> groupCounts = new LinkedHashMap<>();
+		for (QueryResultRow row : queryResult) {
+			groupCounts.computeIfAbsent(getGroup(row, sourceDocInfoCache), group -> new GroupCount(row)).count++;
+		}
+
+		JsonNodeFactory factory = JsonNodeFactory.instance;
+		ArrayNode valuesArray = factory.arrayNode();
+
+		for (Map.Entry<Group, GroupCount> entry : groupCounts.entrySet()) {
+			Group group = entry.getKey();
+			QueryResultRow firstRow = entry.getValue().firstRow;
+			SourceDocInfo info = getSourceDocInfo(group.sourceDocumentId(), sourceDocInfoCache);
+
+			ObjectNode groupNode = factory.objectNode();
+			groupNode.put(JSONQueryResultBuilder.Field.sourceDocumentId.name(), group.sourceDocumentId());
+			groupNode.put(JSONQueryResultBuilder.Field.sourceDocumentTitle.name(), info.contentInfoSet.getTitle());
+			groupNode.put(JSONQueryResultBuilder.Field.sourceDocumentSize.name(), info.size);
+
+			switch (getValueAggregation()) {
+				case phrase: {
+					groupNode.put(JSONQueryResultBuilder.Field.phrase.name(), group.value());
+					break;
+				}
+				case tag: {
+					groupNode.put(JSONQueryResultBuilder.Field.tagPath.name(), group.value());
+					if (firstRow instanceof TagQueryResultRow) {
+						try {
+							groupNode.put(
+									JSONQueryResultBuilder.Field.tagColor.name(),
+									colorCache.get(((TagQueryResultRow) firstRow).getTagDefinitionId()));
+						} catch (ExecutionException e) {
+							logger.log(Level.SEVERE, "Couldn't load tag color for JSON aggregation", e);
+						}
+					}
+					break;
+				}
+				default: break;
+			}
+
+			if (aggregation == Aggregation.distribution) {
+				groupNode.put(Field.binStart.name(), group.bin() * 100.0 / binCount);
+				groupNode.put(Field.binEnd.name(), (group.bin() + 1) * 100.0 / binCount);
+			}
+
+			groupNode.put(Field.count.name(), entry.getValue().count);
+			groupNode.put(Field.selectionKey.name(), group.getSelectionKey());
+
+			valuesArray.add(groupNode);
+		}
+
+		return valuesArray;
+	}
+
+	/**
+	 * @param queryResult the rows that have been aggregated
+	 * @param project the project the rows belong to
+	 * @param selectionKey the {@link Field#selectionKey} of an aggregated entry
+	 * @return the rows that have been counted for the entry with the given key
+	 * @throws IOException if a document cannot be loaded
+	 */
+	public List<QueryResultRow> getRows(final Iterable<QueryResultRow> queryResult, final Project project, String selectionKey) throws IOException {
+		LoadingCache<String, SourceDocInfo> sourceDocInfoCache = JSONQueryResultBuilder.createSourceDocInfoCache(project);
+		Map<Group, String> selectionKeys = new LinkedHashMap<>();
+
+		List<QueryResultRow> result = new ArrayList<>();
+		for (QueryResultRow row : queryResult) {
+			if (selectionKeys.computeIfAbsent(getGroup(row, sourceDocInfoCache), Group::getSelectionKey).equals(selectionKey)) {
+				result.add(row);
+			}
+		}
+
+		return result;
+	}
+
+	private Aggregation getValueAggregation() {
+		return aggregation == Aggregation.distribution ? distributionGroup : aggregation;
+	}
+
+	private Group getGroup(QueryResultRow row, LoadingCache<String, SourceDocInfo> sourceDocInfoCache) throws IOException {
+		String value = null;
+		switch (getValueAggregation()) {
+			case phrase: {
+				value = row.getPhrase();
+				break;
+			}
+			case tag: {
+				if (row instanceof TagQueryResultRow) {
+					value = ((TagQueryResultRow) row).getTagDefinitionPath();
+				}
+				break;
+			}
+			default: break;
+		}
+
+		int bin = -1;
+		if (aggregation == Aggregation.distribution) {
+			long size = getSourceDocInfo(row.getSourceDocumentId(), sourceDocInfoCache).size;
+			long startOffset = getStartOffset(row);
+			bin = size <= 0 ? 0 : (int) Math.min(binCount - 1, Math.max(0, startOffset) * binCount / size);
+		}
+
+		return new Group(row.getSourceDocumentId(), value, bin);
+	}
+
+	private long getStartOffset(QueryResultRow row) {
+		if (row instanceof TagQueryResultRow) {
+			List<Range> mergedRanges =
+					Range.mergeRanges(new TreeSet<>(((TagQueryResultRow) row).getRanges()));
+			if (!mergedRanges.isEmpty()) {
+				return mergedRanges.get(mergedRanges.size() - 1).getStartPoint();
+			}
+		}
+		return row.getRange().getStartPoint();
+	}
+
+	private SourceDocInfo getSourceDocInfo(String sourceDocumentId, LoadingCache<String, SourceDocInfo> sourceDocInfoCache) throws IOException {
+		try {
+			return sourceDocInfoCache.get(sourceDocumentId);
+		} catch (ExecutionException e) {
+			throw new IOException(e);
+		}
+	}
+}
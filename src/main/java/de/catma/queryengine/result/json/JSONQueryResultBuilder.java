@@ -1,12 +1,16 @@
 package de.catma.queryengine.result.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -24,7 +28,7 @@ import de.catma.util.ColorConverter;
 
 public class JSONQueryResultBuilder {
 	
-	private final static class SourceDocInfo {
+	final static class SourceDocInfo {
 		public long size;
 		public ContentInfoSet contentInfoSet;
 
@@ -54,40 +58,56 @@ public class JSONQueryResultBuilder {
 		tagColor, 
 	}
 	
+	/**
+	 * Receives the JSON nodes of query result rows one by one.
+	 */
+	public interface RowHandler {
+		void handle(ObjectNode rowNode) throws IOException;
+	}
+
+	/**
+	 * Writes the rows as a JSON array to the given stream without holding the whole result in memory. The stream is
+	 * flushed but not closed.
+	 *
+	 * @param queryResult the rows
+	 * @param project the project the rows belong to
+	 * @param outputStream the target
+	 * @throws IOException if a document cannot be loaded or writing fails
+	 */
+	public void createJSONQueryResult(final Iterable<QueryResultRow> queryResult, final Project project, OutputStream outputStream) throws IOException {
+		try (JsonGenerator jsonGenerator = new ObjectMapper().getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+			jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			
+			jsonGenerator.writeStartArray();
+			createJSONQueryResult(queryResult, project, rowNode -> jsonGenerator.writeTree(rowNode));
+			jsonGenerator.writeEndArray();
+		}
+	}
+
 	public ArrayNode createJSONQueryResult(final Iterable<QueryResultRow> queryResult, final Project project) throws IOException {
+		ArrayNode valuesArray = JsonNodeFactory.instance.arrayNode();
 
-		LoadingCache<String, SourceDocInfo> sourceDocInfoCache = 
-				CacheBuilder.newBuilder().maximumSize(10).build(new CacheLoader<String, SourceDocInfo>() {
-					
-			@Override
-			public SourceDocInfo load(String key) throws Exception {
-				SourceDocument sd = project.getSourceDocument(key);
-				
-				boolean unload = !sd.isLoaded();
-				try {
-					long size = sd.getLength();
-					return new SourceDocInfo(size, sd.getSourceContentHandler().getSourceDocumentInfo().getContentInfoSet());
-				}
-				finally {
-					if (unload) {
-						sd.unload();
-					}
-				}
-			}
-		});
+		createJSONQueryResult(queryResult, project, rowNode -> valuesArray.add(rowNode));
 		
-		LoadingCache<String, String> colorCache = 
-				CacheBuilder.newBuilder().build(new CacheLoader<String, String>() {
-					@Override
-					public String load(String tagDefinitionId) throws Exception {
-						return "#"+ColorConverter.toHex(project.getTagManager().getTagLibrary().getTagDefinition(tagDefinitionId).getColor());
-					}
-				});
+		return valuesArray;
+	}
+
+	/**
+	 * Creates the JSON nodes of the given rows and hands each of them to the handler as soon as it has been created, so
+	 * that callers can write them out without holding the whole result.
+	 *
+	 * @param queryResult the rows
+	 * @param project the project the rows belong to
+	 * @param rowHandler receives the JSON node of each row
+	 * @throws IOException if a document cannot be loaded or the handler fails
+	 */
+	public void createJSONQueryResult(final Iterable<QueryResultRow> queryResult, final Project project, RowHandler rowHandler) throws IOException {
+
+		LoadingCache<String, SourceDocInfo> sourceDocInfoCache = createSourceDocInfoCache(project);
+		LoadingCache<String, String> colorCache = createColorCache(project);
 		
 		JsonNodeFactory factory = JsonNodeFactory.instance;
 
-		ArrayNode valuesArray = factory.arrayNode();
-
 		for (QueryResultRow row : queryResult) {
 			ObjectNode rowNode = factory.objectNode();
 			addQueryResultRowFields(rowNode, row);
@@ -112,11 +132,42 @@ public class JSONQueryResultBuilder {
 			rowNode.put(Field.sourceDocumentSize.name(), info.size);
 			rowNode.put(Field.sourceDocumentTitle.name(), info.contentInfoSet.getTitle());
 			
-			valuesArray.add(rowNode);
+			rowHandler.handle(rowNode);
 		}
-		
-		return valuesArray;
-		
+	}
+
+	/**
+	 * The cache lives as long as a single result is processed, so it is not bounded and holds one small entry per
+	 * distinct document of the result, which keeps documents from being loaded again for unsorted rows.
+	 */
+	static LoadingCache<String, SourceDocInfo> createSourceDocInfoCache(final Project project) {
+		return CacheBuilder.newBuilder().build(new CacheLoader<String, SourceDocInfo>() {
+					
+			@Override
+			public SourceDocInfo load(String key) throws Exception {
+				SourceDocument sd = project.getSourceDocument(key);
+				
+				boolean unload = !sd.isLoaded();
+				try {
+					long size = sd.getLength();
+					return new SourceDocInfo(size, sd.getSourceContentHandler().getSourceDocumentInfo().getContentInfoSet());
+				}
+				finally {
+					if (unload) {
+						sd.unload();
+					}
+				}
+			}
+		});
+	}
+	
+	static LoadingCache<String, String> createColorCache(final Project project) {
+		return CacheBuilder.newBuilder().build(new CacheLoader<String, String>() {
+			@Override
+			public String load(String tagDefinitionId) throws Exception {
+				return "#"+ColorConverter.toHex(project.getTagManager().getTagLibrary().getTagDefinition(tagDefinitionId).getColor());
+			}
+		});
 	}
 
 	private void addTagQueryResultRowFields(ObjectNode rowNode, TagQueryResultRow row, Range range, LoadingCache<String,String> colorCache) {
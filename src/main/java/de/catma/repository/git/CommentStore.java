@@ -0,0 +1,238 @@
+package de.catma.repository.git;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import de.catma.document.comment.Comment;
+import de.catma.document.comment.Reply;
+import de.catma.project.ProjectReference;
+import de.catma.repository.git.managers.interfaces.RemoteGitManagerRestricted;
+
+/**
+ * Provides the comments and replies of a project from a cache that is shared by all handlers of that project.
+ * <p>
+ * The comments of all documents are fetched in one paginated pass. Subsequent calls only fetch the comments that have
+ * been updated since the newest update time seen so far, and replies are only re-fetched for comments whose update time
+ * has changed. Write operations don't need to touch the cache, because the backend reports every change to a comment
+ * or its replies as an update of that comment.
+ * <p>
+ * Every call still goes to the backend with the credentials of the current user, so that access to the project is
+ * verified for each user.
+ */
+public class CommentStore {
+	private static final Logger logger = Logger.getLogger(CommentStore.class.getName());
+
+	// comments deleted in the backend (as opposed to removed through CATMA) don't show up as updates
+	private static final long FULL_REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+	private static final Cache<String, ProjectComments> projectCommentsCache =
+			CacheBuilder.newBuilder().maximumSize(200).expireAfterAccess(1, TimeUnit.HOURS).build();
+
+	private static class CachedComment {
+		private final Comment comment;
+		private List<Reply> replies; // null if not loaded yet
+
+		public CachedComment(Comment comment) {
+			this.comment = comment;
+		}
+	}
+
+	private static class ProjectComments {
+		private final Map<Long, CachedComment> commentsByIid = new HashMap<>();
+		private ZonedDateTime lastUpdatedAt;
+		private long lastFullRefresh;
+	}
+
+	private final ProjectReference projectReference;
+	private final RemoteGitManagerRestricted remoteGitServerManager;
+
+	public CommentStore(ProjectReference projectReference, RemoteGitManagerRestricted remoteGitServerManager) {
+		this.projectReference = projectReference;
+		this.remoteGitServerManager = remoteGitServerManager;
+	}
+
+	/**
+	 * Gets the comments for a particular document. Replies are included only if they have been loaded before.
+	 *
+	 * @param documentId the ID of the document to get comments for
+	 * @return a {@link List} of {@link Comment}s
+	 * @throws IOException if an error occurs when refreshing the comments
+	 */
+	public List<Comment> getComments(String documentId) throws IOException {
+		ProjectComments projectComments = getProjectComments();
+
+		synchronized (projectComments) {
+			refresh(projectComments);
+
+			return copy(
+					projectComments.commentsByIid.values().stream()
+					.filter(cachedComment -> cachedComment.comment.getDocumentId().equals(documentId))
+					.collect(Collectors.toList())
+			);
+		}
+	}
+
+	/**
+	 * Gets the comments for the given documents including all of their replies.
+	 *
+	 * @param documentIds the IDs of the documents to get comments for
+	 * @return a {@link List} of {@link Comment}s
+	 * @throws IOException if an error occurs when refreshing the comments or loading replies
+	 */
+	public List<Comment> getCommentsWithReplies(Collection<String> documentIds) throws IOException {
+		Set<String> documentIdSet = new HashSet<>(documentIds);
+		ProjectComments projectComments = getProjectComments();
+
+		synchronized (projectComments) {
+			refresh(projectComments);
+
+			List<CachedComment> cachedComments = projectComments.commentsByIid.values().stream()
+					.filter(cachedComment -> documentIdSet.contains(cachedComment.comment.getDocumentId()))
+					.collect(Collectors.toList());
+
+			for (CachedComment cachedComment : cachedComments) {
+				ensureRepliesLoaded(cachedComment);
+			}
+
+			return copy(cachedComments);
+		}
+	}
+
+	/**
+	 * Gets the replies for the given comment and sets them on the comment.
+	 *
+	 * @param comment the {@link Comment} whose replies should be returned
+	 * @return a {@link List} of {@link Reply}
+	 * @throws IOException if an error occurs when refreshing the comments or loading the replies
+	 */
+	public List<Reply> getCommentReplies(Comment comment) throws IOException {
+		ProjectComments projectComments = getProjectComments();
+
+		synchronized (projectComments) {
+			refresh(projectComments);
+
+			CachedComment cachedComment = projectComments.commentsByIid.get(comment.getIid());
+			if (cachedComment == null) { // comment has been removed in the meantime or is not known yet
+				return remoteGitServerManager.getCommentReplies(projectReference, comment);
+			}
+
+			ensureRepliesLoaded(cachedComment);
+
+			List<Reply> replies = copyReplies(cachedComment.replies);
+			comment.setReplies(replies);
+			comment.setReplyCount(replies.size());
+
+			return replies;
+		}
+	}
+
+	private ProjectComments getProjectComments() throws IOException {
+		try {
+			return projectCommentsCache.get(projectReference.getFullPath(), ProjectComments::new);
+		}
+		catch (ExecutionException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private void refresh(ProjectComments projectComments) throws IOException {
+		List<Comment> comments;
+
+		if (projectComments.lastUpdatedAt == null
+				|| System.currentTimeMillis() - projectComments.lastFullRefresh > FULL_REFRESH_INTERVAL_MILLIS
+		) {
+			comments = remoteGitServerManager.getProjectComments(projectReference, null);
+
+			Map<Long, CachedComment> previous = new HashMap<>(projectComments.commentsByIid);
+			projectComments.commentsByIid.clear();
+			projectComments.lastUpdatedAt = null;
+
+			for (Comment comment : comments) {
+				update(projectComments, previous.get(comment.getIid()), comment);
+			}
+
+			projectComments.lastFullRefresh = System.currentTimeMillis();
+			logger.fine(String.format("Fetched %d comments for project \"%s\"", comments.size(), projectReference.getName()));
+		}
+		else {
+			comments = remoteGitServerManager.getProjectComments(projectReference, projectComments.lastUpdatedAt);
+
+			for (Comment comment : comments) {
+				if (comment.isRemoved()) {
+					projectComments.commentsByIid.remove(comment.getIid());
+				}
+				else {
+					update(projectComments, projectComments.commentsByIid.get(comment.getIid()), comment);
+				}
+			}
+		}
+
+		// removed comments count as well, otherwise they would be reported again with every incremental fetch
+		for (Comment comment : comments) {
+			ZonedDateTime updatedAt = comment.getUpdatedAt();
+			if (updatedAt != null && (projectComments.lastUpdatedAt == null || updatedAt.isAfter(projectComments.lastUpdatedAt))) {
+				projectComments.lastUpdatedAt = updatedAt;
+			}
+		}
+	}
+
+	private void update(ProjectComments projectComments, CachedComment existing, Comment comment) {
+		CachedComment cachedComment = new CachedComment(comment);
+
+		// the update time covers the replies, so unchanged comments can keep theirs
+		if (existing != null && existing.replies != null && Objects.equals(existing.comment.getUpdatedAt(), comment.getUpdatedAt())) {
+			cachedComment.replies = existing.replies;
+		}
+
+		projectComments.commentsByIid.put(comment.getIid(), cachedComment);
+	}
+
+	private void ensureRepliesLoaded(CachedComment cachedComment) throws IOException {
+		if (cachedComment.replies != null) {
+			return;
+		}
+
+		if (cachedComment.comment.getReplyCount() > 0) {
+			cachedComment.replies = new ArrayList<>(remoteGitServerManager.getCommentReplies(projectReference, cachedComment.comment));
+		}
+		else {
+			cachedComment.replies = new ArrayList<>();
+		}
+	}
+
+	private List<Comment> copy(List<CachedComment> cachedComments) {
+		// comments and replies are mutable and are handed out to different sessions, so we never return the cached instances
+		return cachedComments.stream()
+				.sorted(Comparator.comparing((CachedComment cachedComment) -> cachedComment.comment.getIid()).reversed())
+				.map(cachedComment -> {
+					Comment comment = new Comment(cachedComment.comment, 0);
+					comment.setReplies(cachedComment.replies == null ? new ArrayList<>() : copyReplies(cachedComment.replies));
+					return comment;
+				})
+				.collect(Collectors.toList());
+	}
+
+	private List<Reply> copyReplies(List<Reply> replies) {
+		return replies.stream()
+				.map(reply -> new Reply(
+						reply.getUuid(), reply.getBody(), reply.getUsername(), reply.getUserId(), reply.getCommentUuid(), reply.getId()
+				))
+				.collect(Collectors.toList());
+	}
+}
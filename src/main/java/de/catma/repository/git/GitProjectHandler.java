@@ -33,6 +33,7 @@ import de.catma.document.comment.Reply;
 import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentInfo;
 import de.catma.document.source.SourceDocumentReference;
+import de.catma.indexer.TermIndex;
 import de.catma.indexer.TermInfo;
 import de.catma.project.BackendPager;
 import de.catma.project.CommitInfo;
@@ -76,6 +77,7 @@ public class GitProjectHandler {
 
 	private final IDGenerator idGenerator;
 	private final JGitCredentialsManager jGitCredentialsManager;
+	private final CommentStore commentStore;
 	private GitProjectResourceProvider resourceProvider;
 
 	public GitProjectHandler(
@@ -94,6 +96,7 @@ public class GitProjectHandler {
 
 		this.idGenerator = new IDGenerator();
 		this.jGitCredentialsManager = new JGitCredentialsManager(this.remoteGitServerManager);
+		this.commentStore = new CommentStore(this.projectReference, this.remoteGitServerManager);
 		this.resourceProvider = new SynchronizedResourceProvider(
 				this.projectId,
 				this.projectReference,
@@ -570,6 +573,30 @@ public class GitProjectHandler {
 			InputStream convertedSourceDocumentStream, String convertedSourceDocumentFileName,
 			Map<String, List<TermInfo>> terms, String tokenizedSourceDocumentFileName,
 			SourceDocumentInfo sourceDocumentInfo
+	) throws IOException {
+		try (TermIndex termIndex = TermIndex.of(terms)) {
+			return createSourceDocument(
+					documentId,
+					originalSourceDocumentStream, originalSourceDocumentFileName,
+					convertedSourceDocumentStream, convertedSourceDocumentFileName,
+					termIndex, tokenizedSourceDocumentFileName,
+					sourceDocumentInfo
+			);
+		}
+	}
+
+	/**
+	 * Like {@link #createSourceDocument(String, InputStream, String, InputStream, String, Map, String, SourceDocumentInfo)}
+	 * but the terms are written straight from the given {@link TermIndex}.
+	 *
+	 * @throws IOException if an error occurs when creating the document
+	 */
+	public String createSourceDocument(
+			String documentId,
+			InputStream originalSourceDocumentStream, String originalSourceDocumentFileName,
+			InputStream convertedSourceDocumentStream, String convertedSourceDocumentFileName,
+			TermIndex termIndex, String tokenizedSourceDocumentFileName,
+			SourceDocumentInfo sourceDocumentInfo
 	) throws IOException {
 		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
 			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
@@ -594,7 +621,7 @@ public class GitProjectHandler {
 					documentDirectory, documentId,
 					originalSourceDocumentStream, originalSourceDocumentFileName,
 					convertedSourceDocumentStream, convertedSourceDocumentFileName,
-					terms, tokenizedSourceDocumentFileName,
+					termIndex, tokenizedSourceDocumentFileName,
 					sourceDocumentInfo
 			);
 
@@ -604,6 +631,106 @@ public class GitProjectHandler {
 		}
 	}
 
+	/**
+	 * Like {@link #createSourceDocument(String, InputStream, String, InputStream, String, TermIndex, String, SourceDocumentInfo)}
+	 * but the files of the document only get staged. Several documents can then be committed and pushed at once with
+	 * {@link #commitAndPushSourceDocuments(Collection, String)} or be dropped again with
+	 * {@link #discardUncommittedSourceDocuments(Collection)}.
+	 *
+	 * @throws IOException if an error occurs when creating the document
+	 */
+	public void createSourceDocumentWithoutCommit(
+			String documentId,
+			InputStream originalSourceDocumentStream, String originalSourceDocumentFileName,
+			InputStream convertedSourceDocumentStream, String convertedSourceDocumentFileName,
+			TermIndex termIndex, String tokenizedSourceDocumentFileName,
+			SourceDocumentInfo sourceDocumentInfo
+	) throws IOException {
+		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
+			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
+
+			GitSourceDocumentHandler gitSourceDocumentHandler = new GitSourceDocumentHandler(
+					localGitRepoManager,
+					projectPath,
+					remoteGitServerManager.getUsername(),
+					remoteGitServerManager.getEmail()
+			);
+
+			File documentDirectory = Paths.get(
+					projectPath.getAbsolutePath(),
+					DOCUMENTS_DIRECTORY_NAME,
+					documentId
+			).toFile();
+
+			sourceDocumentInfo.getTechInfoSet().setResponsibleUser(user.getIdentifier());
+
+			gitSourceDocumentHandler.createWithoutCommit(
+					documentDirectory, documentId,
+					originalSourceDocumentStream, originalSourceDocumentFileName,
+					convertedSourceDocumentStream, convertedSourceDocumentFileName,
+					termIndex, tokenizedSourceDocumentFileName,
+					sourceDocumentInfo
+			);
+		}
+	}
+
+	/**
+	 * Commits the documents that have been created with
+	 * {@link #createSourceDocumentWithoutCommit(String, InputStream, String, InputStream, String, TermIndex, String, SourceDocumentInfo)}
+	 * and pushes. Any other uncommitted changes within the project remain uncommitted.
+	 *
+	 * @param documentIds the IDs of the documents to commit
+	 * @param commitMessage the commit message
+	 * @return the new project revision
+	 * @throws IOException if an error occurs when committing or pushing
+	 */
+	public String commitAndPushSourceDocuments(Collection<String> documentIds, String commitMessage) throws IOException {
+		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
+			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
+
+			List<File> documentDirectories = documentIds.stream()
+					.map(documentId -> Paths.get(projectPath.getAbsolutePath(), DOCUMENTS_DIRECTORY_NAME, documentId).toFile())
+					.collect(Collectors.toList());
+
+			String projectRevision = localGitRepoManager.commit(
+					documentDirectories,
+					commitMessage,
+					remoteGitServerManager.getUsername(),
+					remoteGitServerManager.getEmail()
+			);
+
+			localGitRepoManager.push(jGitCredentialsManager);
+
+			return projectRevision;
+		}
+	}
+
+	/**
+	 * Unstages and deletes the files of documents that have been created with
+	 * {@link #createSourceDocumentWithoutCommit(String, InputStream, String, InputStream, String, TermIndex, String, SourceDocumentInfo)}
+	 * but are not going to be committed.
+	 *
+	 * @param documentIds the IDs of the documents to discard
+	 * @throws IOException if an error occurs when removing the files
+	 */
+	public void discardUncommittedSourceDocuments(Collection<String> documentIds) throws IOException {
+		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
+			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
+
+			for (String documentId : documentIds) {
+				File documentDirectory = Paths.get(
+						projectPath.getAbsolutePath(),
+						DOCUMENTS_DIRECTORY_NAME,
+						documentId
+				).toFile();
+
+				if (documentDirectory.exists()) {
+					localGitRepoManager.remove(documentDirectory);
+				}
+			}
+		}
+	}
+
 	public String updateSourceDocument(SourceDocumentReference sourceDocumentReference) throws IOException {
 		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
 			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
@@ -751,27 +878,15 @@ public class GitProjectHandler {
 
 	// comment operations
 	public List<Comment> getComments(String documentId) throws IOException {
-		return remoteGitServerManager.getComments(projectReference, documentId);
+		return commentStore.getComments(documentId);
 	}
 
 	public List<Reply> getCommentReplies(Comment comment) throws IOException {
-		return remoteGitServerManager.getCommentReplies(projectReference, comment);
+		return commentStore.getCommentReplies(comment);
 	}
 
 	public List<Comment> getCommentsWithReplies(List<String> documentIds) throws IOException {
-		List<Comment> comments = new ArrayList<>();
-
-		for (String documentId : documentIds) {
-			comments.addAll(remoteGitServerManager.getComments(projectReference, documentId));
-		}
-
-		for (Comment comment : comments) {
-			if (comment.getReplyCount() > 0) {
-				getCommentReplies(comment);
-			}
-		}
-
-		return comments;
+		return commentStore.getCommentsWithReplies(documentIds);
 	}
 
 	public void addComment(Comment comment) throws IOException {
@@ -853,6 +968,10 @@ public class GitProjectHandler {
 		}
 	}
 
+	public File getProjectPath() {
+		return projectPath;
+	}
+
 	public String getRootRevisionHash() throws Exception {
 		try (LocalGitRepositoryManager localGitRepoManager = localGitRepositoryManager) {
 			localGitRepoManager.open(projectReference.getNamespace(), projectReference.getProjectId());
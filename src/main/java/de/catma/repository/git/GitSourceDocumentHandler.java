@@ -1,25 +1,26 @@
 package de.catma.repository.git;
 
-import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import de.catma.document.source.*;
 import de.catma.document.source.contenthandler.SourceContentHandler;
 import de.catma.document.source.contenthandler.StandardContentHandler;
+import de.catma.indexer.TermIndex;
 import de.catma.indexer.TermInfo;
 import de.catma.repository.git.managers.interfaces.LocalGitRepositoryManager;
 import de.catma.repository.git.serialization.SerializationHelper;
-import de.catma.repository.git.serialization.model_wrappers.GitTermInfo;
+import de.catma.repository.git.serialization.TermIndexWriter;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class GitSourceDocumentHandler {
 	private static final String HEADER_FILE_NAME = "header.json";
@@ -53,6 +54,62 @@ public class GitSourceDocumentHandler {
 			Map<String, List<TermInfo>> terms,
 			String tokenizedSourceDocumentFileName,
 			SourceDocumentInfo sourceDocumentInfo
+	) throws IOException {
+		try (TermIndex termIndex = TermIndex.of(terms)) {
+			return create(
+					sourceDocumentDirectory, sourceDocumentId,
+					originalSourceDocumentStream, originalSourceDocumentFileName,
+					convertedSourceDocumentStream, convertedSourceDocumentFileName,
+					termIndex, tokenizedSourceDocumentFileName,
+					sourceDocumentInfo
+			);
+		}
+	}
+
+	public String create(
+			File sourceDocumentDirectory,
+			String sourceDocumentId,
+			InputStream originalSourceDocumentStream,
+			String originalSourceDocumentFileName,
+			InputStream convertedSourceDocumentStream,
+			String convertedSourceDocumentFileName,
+			TermIndex termIndex,
+			String tokenizedSourceDocumentFileName,
+			SourceDocumentInfo sourceDocumentInfo
+	) throws IOException {
+		createWithoutCommit(
+				sourceDocumentDirectory, sourceDocumentId,
+				originalSourceDocumentStream, originalSourceDocumentFileName,
+				convertedSourceDocumentStream, convertedSourceDocumentFileName,
+				termIndex, tokenizedSourceDocumentFileName,
+				sourceDocumentInfo
+		);
+
+		// commit newly added files
+		String commitMessage = String.format(
+				"Created document \"%s\" with ID %s",
+				sourceDocumentInfo.getContentInfoSet().getTitle(), 
+				sourceDocumentId
+		);
+
+		String revisionHash = localGitRepositoryManager.commit(commitMessage, username, email, false);
+		return revisionHash;
+	}
+
+	/**
+	 * Writes the files of a new document into the local repo and stages them, see
+	 * {@link #create(File, String, InputStream, String, InputStream, String, TermIndex, String, SourceDocumentInfo)}.
+	 */
+	public void createWithoutCommit(
+			File sourceDocumentDirectory,
+			String sourceDocumentId,
+			InputStream originalSourceDocumentStream,
+			String originalSourceDocumentFileName,
+			InputStream convertedSourceDocumentStream,
+			String convertedSourceDocumentFileName,
+			TermIndex termIndex,
+			String tokenizedSourceDocumentFileName,
+			SourceDocumentInfo sourceDocumentInfo
 	) throws IOException {
 		sourceDocumentDirectory.mkdirs();
 
@@ -61,18 +118,15 @@ public class GitSourceDocumentHandler {
 		File targetConvertedSourceDocumentFile = new File(sourceDocumentDirectory, convertedSourceDocumentFileName);
 		File targetTokenizedSourceDocumentFile = new File(sourceDocumentDirectory, tokenizedSourceDocumentFileName);
 
-		localGitRepositoryManager.add(targetOriginalSourceDocumentFile, IOUtils.toByteArray(originalSourceDocumentStream));
-		byte[] convertedSourceDocumentBytes = IOUtils.toByteArray(convertedSourceDocumentStream);
-		localGitRepositoryManager.add(targetConvertedSourceDocumentFile, convertedSourceDocumentBytes);
+		// the files are copied chunk by chunk, large documents don't need to fit into memory as byte arrays
+		localGitRepositoryManager.add(targetOriginalSourceDocumentFile, originalSourceDocumentStream);
+		localGitRepositoryManager.add(targetConvertedSourceDocumentFile, convertedSourceDocumentStream);
 
-		Map<String, List<GitTermInfo>> gitTermInfos = Maps.newHashMap();
-		terms.forEach((term, termInfos) -> gitTermInfos.put(
-				term,
-				termInfos.stream().map(GitTermInfo::new).collect(Collectors.toList())
-		));
+		// the terms are written one by one, neither the positions nor the JSON have to be held in memory as a whole
+		TermIndexWriter termIndexWriter = new TermIndexWriter();
 		localGitRepositoryManager.add(
 				targetTokenizedSourceDocumentFile,
-				new SerializationHelper<Map<String, List<GitTermInfo>>>().serialize(gitTermInfos).getBytes(StandardCharsets.UTF_8)
+				outputStream -> termIndexWriter.write(termIndex, outputStream)
 		);
 
 		// write header.json into the local repo
@@ -80,9 +134,10 @@ public class GitSourceDocumentHandler {
 
 		sourceDocumentInfo.getTechInfoSet().setCharset(StandardCharsets.UTF_8);
 		sourceDocumentInfo.getTechInfoSet().setFileType(FileType.TEXT);
-		sourceDocumentInfo.getTechInfoSet().setFileOSType(
-				FileOSType.getFileOSType(new String(convertedSourceDocumentBytes, StandardCharsets.UTF_8))
-		);
+		try (Reader convertedSourceDocumentReader = new InputStreamReader(
+				new FileInputStream(targetConvertedSourceDocumentFile), StandardCharsets.UTF_8)) {
+			sourceDocumentInfo.getTechInfoSet().setFileOSType(FileOSType.getFileOSType(convertedSourceDocumentReader));
+		}
 		sourceDocumentInfo.getTechInfoSet().setMimeType("text/plain");
 		// the source document file URI in the supplied SourceDocumentInfo initially points to a temp file (same as originalSourceDocumentStream)
 		// we update it here to point to the converted file within the current user's local copy of the repo (not persisted)
@@ -90,16 +145,6 @@ public class GitSourceDocumentHandler {
 
 		String serializedSourceDocumentInfo = new SerializationHelper<SourceDocumentInfo>().serialize(sourceDocumentInfo);
 		localGitRepositoryManager.add(targetHeaderFile, serializedSourceDocumentInfo.getBytes(StandardCharsets.UTF_8));
-
-		// commit newly added files
-		String commitMessage = String.format(
-				"Created document \"%s\" with ID %s",
-				sourceDocumentInfo.getContentInfoSet().getTitle(), 
-				sourceDocumentId
-		);
-
-		String revisionHash = localGitRepositoryManager.commit(commitMessage, username, email, false);
-		return revisionHash;
 	}
 
 	public SourceDocument open(String sourceDocumentId) throws IOException {
@@ -3,11 +3,11 @@ package de.catma.repository.git;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.time.LocalDate;
@@ -15,7 +15,6 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
@@ -24,6 +23,7 @@ import java.util.stream.Collectors;
 
 import javax.lang.model.type.NullType;
 
+import org.apache.commons.io.input.ReaderInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.tika.mime.MediaType;
 
@@ -48,7 +48,7 @@ import de.catma.document.source.contenthandler.StandardContentHandler;
 import de.catma.indexer.IndexedProject;
 import de.catma.indexer.Indexer;
 import de.catma.indexer.TermExtractor;
-import de.catma.indexer.TermInfo;
+import de.catma.indexer.TermIndex;
 import de.catma.project.BackendPager;
 import de.catma.project.CommitInfo;
 import de.catma.project.OpenProjectListener;
@@ -712,8 +712,11 @@ public class GraphWorktreeProject implements IndexedProject {
 		// delete tagset and corresponding annotations from repo and commit
 		rootRevisionHash = gitProjectHandler.removeTagset(tagsetDefinition, tagInstancesByCollectionId);
 
-		// update revision hash on GraphProjectHandler
+		// update revision hash and tag usage on GraphProjectHandler
 		graphProjectHandler.updateProjectRevision(oldRootRevisionHash, rootRevisionHash);
+		for (String collectionId : tagInstancesByCollectionId.keySet()) {
+			graphProjectHandler.removeTagInstances(collectionId, tagInstancesByCollectionId.get(collectionId));
+		}
 	}
 
 	private void updateTagDefinition(TagDefinition tagDefinition, TagsetDefinition tagsetDefinition) throws Exception {
@@ -839,8 +842,11 @@ public class GraphWorktreeProject implements IndexedProject {
 		// delete tag and corresponding annotations from repo and commit
 		rootRevisionHash = gitProjectHandler.removeTagAndAnnotations(tagDefinition, tagInstancesByCollectionId);
 
-		// update revision hash on GraphProjectHandler
+		// update revision hash and tag usage on GraphProjectHandler
 		graphProjectHandler.updateProjectRevision(oldRootRevisionHash, rootRevisionHash);
+		for (String collectionId : tagInstancesByCollectionId.keySet()) {
+			graphProjectHandler.removeTagInstances(collectionId, tagInstancesByCollectionId.get(collectionId));
+		}
 
 		// fire annotation change events for each collection
 		for (String collectionId : tagInstancesByCollectionId.keySet()) {
@@ -1260,6 +1266,7 @@ public class GraphWorktreeProject implements IndexedProject {
 
 			// add annotations to repo (no commit - annotations are committed in bulk later on)
 			gitProjectHandler.addTagReferencesToCollection(annotationCollection.getUuid(), tagReferences, tagManager.getTagLibrary());
+			graphProjectHandler.addTagReferences(annotationCollection.getUuid(), tagReferences);
 
 			// fire annotation change event for the collection
 			propertyChangeSupport.firePropertyChange(
@@ -1300,6 +1307,7 @@ public class GraphWorktreeProject implements IndexedProject {
 			// delete annotations from repo (no commit - annotations are committed in bulk later on)
 			Collection<TagInstance> tagInstances = tagReferences.stream().map(TagReference::getTagInstance).collect(Collectors.toSet());
 			gitProjectHandler.removeTagInstances(annotationCollection.getUuid(), tagInstances);
+			graphProjectHandler.removeTagInstances(annotationCollection.getUuid(), tagInstances);
 
 			// fire annotation change event for the collection
 			Collection<String> tagInstanceIds = tagInstances.stream().map(TagInstance::getUuid).collect(Collectors.toList());
@@ -1523,79 +1531,114 @@ public class GraphWorktreeProject implements IndexedProject {
 		}
 
 		try {
-			logger.info(String.format(
-					"Starting tokenization of document \"%s\" with ID %s",
+			String oldRootRevisionHash = rootRevisionHash;
+
+			try (TermIndex termIndex = extractTermIndex(sourceDocument)) {
+				rootRevisionHash = createSourceDocument(sourceDocument, termIndex, true);
+			}
+
+			graphProjectHandler.addSourceDocument(
 					sourceDocument,
-					sourceDocument.getUuid()
-			));
-
-			List<String> unseparableCharacterSequences = sourceDocument.getSourceContentHandler()
-					.getSourceDocumentInfo().getIndexInfoSet().getUnseparableCharacterSequences();
-			List<Character> userDefinedSeparatingCharacters = sourceDocument.getSourceContentHandler()
-					.getSourceDocumentInfo().getIndexInfoSet().getUserDefinedSeparatingCharacters();
-			Locale locale = sourceDocument.getSourceContentHandler()
-					.getSourceDocumentInfo().getIndexInfoSet().getLocale();
-
-			TermExtractor termExtractor = new TermExtractor(
-					sourceDocument.getContent(),
-					unseparableCharacterSequences,
-					userDefinedSeparatingCharacters,
-					locale
+					oldRootRevisionHash,
+					rootRevisionHash
 			);
 
-			final Map<String, List<TermInfo>> terms = termExtractor.getTerms();
+			if (deleteTempFile) {
+				getDocumentTempFile(sourceDocument).delete();
+			}
 
-			logger.info(String.format(
-					"Finished tokenization of document \"%s\" with ID %s",
-					sourceDocument,
-					sourceDocument.getUuid()
-			));
+			eventBus.post(
+					new DocumentChangeEvent(
+							new SourceDocumentReference(sourceDocument.getUuid(), sourceDocument.getSourceContentHandler()),
+							ChangeType.CREATED
+					)
+			);
+		}
+		catch (Exception e) {
+			propertyChangeSupport.firePropertyChange(
+					ProjectEvent.exceptionOccurred.name(),
+					null,
+					e
+			);
+		}
+	}
 
-			String oldRootRevisionHash = rootRevisionHash;
+	@Override
+	public void addSourceDocuments(
+			List<SourceDocument> sourceDocuments,
+			Map<String, TermIndex> termIndicesBySourceDocumentId
+	) throws Exception {
+		if (isReadOnly()) {
+			throw new IllegalStateException(
+					String.format(
+							"Project \"%s\" is in read-only mode! Cannot create %d documents.",
+							projectReference.getName(),
+							sourceDocuments.size()
+					)
+			);
+		}
 
-			File documentTempFile = Paths.get(new File(tempDir).toURI())
-					.resolve(sourceDocument.getUuid())
-					.toFile();
+		if (sourceDocuments.isEmpty()) {
+			return;
+		}
 
-			String convertedFilename = sourceDocument.getUuid() + "." + UTF8_CONVERSION_FILE_EXTENSION;
+		StringBuilder commitMessageBuilder = new StringBuilder(String.format("Created %d documents", sourceDocuments.size()));
+		List<String> writtenDocumentIds = new ArrayList<>();
 
-			try (FileInputStream documentFileInputStream = new FileInputStream(documentTempFile)) {
-				MediaType mediaType = MediaType.parse(
-						sourceDocument.getSourceContentHandler().getSourceDocumentInfo().getTechInfoSet().getMimeType()
-				);
-				String extension = mediaType.getBaseType().getType();
+		try {
+			for (SourceDocument sourceDocument : sourceDocuments) {
+				// a partially written document gets discarded as well
+				writtenDocumentIds.add(sourceDocument.getUuid());
 
-				if (StringUtils.isBlank(extension)) {
-					extension = "unknown";
+				TermIndex termIndex = termIndicesBySourceDocumentId.get(sourceDocument.getUuid());
+				if (termIndex != null) {
+					createSourceDocument(sourceDocument, termIndex, false);
+				}
+				else {
+					try (TermIndex extractedTermIndex = extractTermIndex(sourceDocument)) {
+						createSourceDocument(sourceDocument, extractedTermIndex, false);
+					}
 				}
 
-				rootRevisionHash = gitProjectHandler.createSourceDocument(
-						sourceDocument.getUuid(),
-						documentFileInputStream,
-						sourceDocument.getUuid() + ORIG_INFIX + "." + extension,
-						new ByteArrayInputStream(sourceDocument.getContent().getBytes(StandardCharsets.UTF_8)),
-						convertedFilename,
-						terms,
-						sourceDocument.getUuid() + "." + TOKENIZED_FILE_EXTENSION,
-						sourceDocument.getSourceContentHandler().getSourceDocumentInfo()
+				commitMessageBuilder.append("\n");
+				commitMessageBuilder.append(
+						String.format(
+								"Created document \"%s\" with ID %s",
+								sourceDocument.getSourceContentHandler().getSourceDocumentInfo().getContentInfoSet().getTitle(),
+								sourceDocument.getUuid()
+						)
 				);
+			}
+		}
+		catch (Exception e) {
+			try {
+				gitProjectHandler.discardUncommittedSourceDocuments(writtenDocumentIds);
+			}
+			catch (Exception discardException) {
+				e.addSuppressed(discardException);
+			}
+			throw e;
+		}
 
-				sourceDocument.unload();
-				StandardContentHandler standardContentHandler = new StandardContentHandler();
-				standardContentHandler.setSourceDocumentInfo(sourceDocument.getSourceContentHandler().getSourceDocumentInfo());
-				sourceDocument.setSourceContentHandler(standardContentHandler);
+		String oldRootRevisionHash = rootRevisionHash;
 
-				graphProjectHandler.addSourceDocument(
-						sourceDocument,
-						oldRootRevisionHash,
-						rootRevisionHash
-				);
-			}
+		// one commit and one push for all documents, other uncommitted changes are left alone
+		rootRevisionHash = gitProjectHandler.commitAndPushSourceDocuments(
+				writtenDocumentIds,
+				commitMessageBuilder.toString()
+		);
 
-			if (deleteTempFile) {
-				documentTempFile.delete();
-			}
+		for (SourceDocument sourceDocument : sourceDocuments) {
+			graphProjectHandler.addSourceDocument(
+					sourceDocument,
+					oldRootRevisionHash,
+					rootRevisionHash
+			);
 
+			getDocumentTempFile(sourceDocument).delete();
+		}
+
+		for (SourceDocument sourceDocument : sourceDocuments) {
 			eventBus.post(
 					new DocumentChangeEvent(
 							new SourceDocumentReference(sourceDocument.getUuid(), sourceDocument.getSourceContentHandler()),
@@ -1603,13 +1646,96 @@ public class GraphWorktreeProject implements IndexedProject {
 					)
 			);
 		}
-		catch (Exception e) {
-			propertyChangeSupport.firePropertyChange(
-					ProjectEvent.exceptionOccurred.name(),
-					null,
-					e
+	}
+
+	private TermIndex extractTermIndex(SourceDocument sourceDocument) throws IOException {
+		logger.info(String.format(
+				"Starting tokenization of document \"%s\" with ID %s",
+				sourceDocument,
+				sourceDocument.getUuid()
+		));
+
+		TermIndex termIndex = TermExtractor.extractTermIndex(sourceDocument);
+
+		logger.info(String.format(
+				"Finished tokenization of document \"%s\" with ID %s, %d tokens, %d distinct terms",
+				sourceDocument,
+				sourceDocument.getUuid(),
+				termIndex.getTokenCount(),
+				termIndex.getTermCount()
+		));
+
+		return termIndex;
+	}
+
+	private File getDocumentTempFile(SourceDocument sourceDocument) {
+		return Paths.get(new File(tempDir).toURI())
+				.resolve(sourceDocument.getUuid())
+				.toFile();
+	}
+
+	/**
+	 * Writes the files of the document into the project and switches the document to a {@link StandardContentHandler}
+	 * for the converted content.
+	 *
+	 * @param withCommit whether to commit and push the document right away
+	 * @return the new project revision or <code>null</code> if the document hasn't been committed
+	 */
+	private String createSourceDocument(
+			SourceDocument sourceDocument, TermIndex termIndex, boolean withCommit) throws IOException {
+		File documentTempFile = getDocumentTempFile(sourceDocument);
+
+		String convertedFilename = sourceDocument.getUuid() + "." + UTF8_CONVERSION_FILE_EXTENSION;
+
+		String projectRevision = null;
+
+		try (FileInputStream documentFileInputStream = new FileInputStream(documentTempFile);
+				// encodes the content chunk by chunk while the converted file gets written
+				InputStream convertedDocumentInputStream = ReaderInputStream.builder()
+						.setReader(new StringReader(sourceDocument.getContent()))
+						.setCharset(StandardCharsets.UTF_8)
+						.get()) {
+			MediaType mediaType = MediaType.parse(
+					sourceDocument.getSourceContentHandler().getSourceDocumentInfo().getTechInfoSet().getMimeType()
 			);
+			String extension = mediaType.getBaseType().getType();
+
+			if (StringUtils.isBlank(extension)) {
+				extension = "unknown";
+			}
+
+			if (withCommit) {
+				projectRevision = gitProjectHandler.createSourceDocument(
+						sourceDocument.getUuid(),
+						documentFileInputStream,
+						sourceDocument.getUuid() + ORIG_INFIX + "." + extension,
+						convertedDocumentInputStream,
+						convertedFilename,
+						termIndex,
+						sourceDocument.getUuid() + "." + TOKENIZED_FILE_EXTENSION,
+						sourceDocument.getSourceContentHandler().getSourceDocumentInfo()
+				);
+			}
+			else {
+				gitProjectHandler.createSourceDocumentWithoutCommit(
+						sourceDocument.getUuid(),
+						documentFileInputStream,
+						sourceDocument.getUuid() + ORIG_INFIX + "." + extension,
+						convertedDocumentInputStream,
+						convertedFilename,
+						termIndex,
+						sourceDocument.getUuid() + "." + TOKENIZED_FILE_EXTENSION,
+						sourceDocument.getSourceContentHandler().getSourceDocumentInfo()
+				);
+			}
 		}
+
+		sourceDocument.unload();
+		StandardContentHandler standardContentHandler = new StandardContentHandler();
+		standardContentHandler.setSourceDocumentInfo(sourceDocument.getSourceContentHandler().getSourceDocumentInfo());
+		sourceDocument.setSourceContentHandler(standardContentHandler);
+
+		return projectRevision;
 	}
 
 	@Override
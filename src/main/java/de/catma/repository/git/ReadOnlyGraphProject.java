@@ -0,0 +1,377 @@
+package de.catma.repository.git;
+
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.catma.document.annotation.AnnotationCollection;
+import de.catma.document.annotation.AnnotationCollectionReference;
+import de.catma.document.annotation.TagReference;
+import de.catma.document.comment.Comment;
+import de.catma.document.comment.Reply;
+import de.catma.document.source.SourceDocument;
+import de.catma.document.source.SourceDocumentReference;
+import de.catma.indexer.IndexedProject;
+import de.catma.indexer.Indexer;
+import de.catma.indexer.TermIndex;
+import de.catma.project.BackendPager;
+import de.catma.project.CommitInfo;
+import de.catma.project.OpenProjectListener;
+import de.catma.project.ProjectReference;
+import de.catma.rbac.RBACPermission;
+import de.catma.rbac.RBACRole;
+import de.catma.rbac.RBACSubject;
+import de.catma.repository.git.graph.interfaces.GraphProjectHandler;
+import de.catma.serialization.TagsetDefinitionImportStatus;
+import de.catma.tag.Property;
+import de.catma.tag.TagInstance;
+import de.catma.tag.TagManager;
+import de.catma.tag.TagsetDefinition;
+import de.catma.user.Member;
+import de.catma.user.SharedGroup;
+import de.catma.user.User;
+import de.catma.util.Pair;
+
+/**
+ * A {@link de.catma.project.Project} view of an already loaded graph that only supports read operations, e.g. to run
+ * queries outside of a UI session.
+ * <p>
+ * Unlike {@link GraphWorktreeProject} it doesn't open, synchronize or publish events, every modifying operation throws an
+ * {@link IllegalStateException}.
+ */
+public class ReadOnlyGraphProject implements IndexedProject {
+	private final ProjectReference projectReference;
+	private final User user;
+	private final TagManager tagManager;
+	private final GitProjectHandler gitProjectHandler;
+	private final GraphProjectHandler graphProjectHandler;
+	private final Indexer indexer;
+	private final String rootRevisionHash;
+
+	public ReadOnlyGraphProject(
+			ProjectReference projectReference,
+			User user,
+			TagManager tagManager,
+			GitProjectHandler gitProjectHandler,
+			GraphProjectHandler graphProjectHandler,
+			String rootRevisionHash
+	) {
+		this.projectReference = projectReference;
+		this.user = user;
+		this.tagManager = tagManager;
+		this.gitProjectHandler = gitProjectHandler;
+		this.graphProjectHandler = graphProjectHandler;
+		this.indexer = graphProjectHandler.createIndexer();
+		this.rootRevisionHash = rootRevisionHash;
+	}
+
+	private IllegalStateException readOnly(String operation) {
+		return new IllegalStateException(
+				String.format("Project \"%s\" is in read-only mode! Cannot %s.", projectReference.getName(), operation)
+		);
+	}
+
+	@Override
+	public Indexer getIndexer() {
+		return indexer;
+	}
+
+	@Override
+	public void addEventListener(ProjectEvent projectEvent, PropertyChangeListener propertyChangeListener) {
+		// there are no events, the project never changes
+	}
+
+	@Override
+	public void removeEventListener(ProjectEvent projectEvent, PropertyChangeListener propertyChangeListener) {
+		// there are no events, the project never changes
+	}
+
+	@Override
+	public String getId() {
+		return projectReference.getProjectId();
+	}
+
+	@Override
+	public String getNamespace() {
+		return projectReference.getNamespace();
+	}
+
+	@Override
+	public String getName() {
+		return projectReference.getName();
+	}
+
+	@Override
+	public String getDescription() {
+		return projectReference.getDescription();
+	}
+
+	@Override
+	public String getVersion() {
+		return rootRevisionHash;
+	}
+
+	@Override
+	public User getCurrentUser() {
+		return user;
+	}
+
+	@Override
+	public TagManager getTagManager() {
+		return tagManager;
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return true;
+	}
+
+	@Override
+	public void setLatestContributionsView(boolean enabled, OpenProjectListener openProjectListener) throws Exception {
+		throw readOnly("switch to the latest contributions view");
+	}
+
+	@Override
+	public void open(OpenProjectListener openProjectListener) {
+		throw new IllegalStateException("The graph of a read-only project is loaded by its creator");
+	}
+
+	@Override
+	public void close() {
+		// nothing to release, the graph is owned by its creator
+	}
+
+	@Override
+	public Collection<TagsetDefinition> getTagsets() {
+		return tagManager.getTagLibrary().getTagsetDefinitions();
+	}
+
+	@Override
+	public List<TagsetDefinitionImportStatus> prepareTagLibraryForImport(InputStream inputStream) throws IOException {
+		throw readOnly("import tagsets");
+	}
+
+	@Override
+	public void importTagsets(List<TagsetDefinitionImportStatus> tagsetDefinitionImportStatuses) throws IOException {
+		throw readOnly("import tagsets");
+	}
+
+	@Override
+	public AnnotationCollection getAnnotationCollection(AnnotationCollectionReference annotationCollectionRef) throws IOException {
+		try {
+			return graphProjectHandler.getAnnotationCollection(annotationCollectionRef);
+		}
+		catch (Exception e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void createAnnotationCollection(String name, SourceDocumentReference sourceDocumentRef) {
+		throw readOnly(String.format("create collection \"%s\"", name));
+	}
+
+	@Override
+	public void updateAnnotationCollectionMetadata(AnnotationCollectionReference annotationCollectionRef) throws IOException {
+		throw readOnly(String.format("update collection \"%s\"", annotationCollectionRef.getName()));
+	}
+
+	@Override
+	public void deleteAnnotationCollection(AnnotationCollectionReference annotationCollectionRef) throws Exception {
+		throw readOnly(String.format("delete collection \"%s\"", annotationCollectionRef.getName()));
+	}
+
+	@Override
+	public void addTagReferencesToCollection(AnnotationCollection annotationCollection, List<TagReference> tagReferences) {
+		throw readOnly("add annotations");
+	}
+
+	@Override
+	public void removeTagReferencesFromCollection(AnnotationCollection annotationCollection, List<TagReference> tagReferences) {
+		throw readOnly("remove annotations");
+	}
+
+	@Override
+	public void updateTagInstanceProperties(AnnotationCollection annotationCollection, TagInstance tagInstance, Collection<Property> properties) {
+		throw readOnly("update annotation properties");
+	}
+
+	@Override
+	public Pair<AnnotationCollection, List<TagsetDefinitionImportStatus>> prepareAnnotationCollectionForImport(
+			InputStream inputStream,
+			SourceDocumentReference sourceDocumentRef
+	) throws IOException {
+		throw readOnly("import collections");
+	}
+
+	@Override
+	public void importAnnotationCollection(
+			List<TagsetDefinitionImportStatus> tagsetDefinitionImportStatuses,
+			AnnotationCollection annotationCollection
+	) throws IOException {
+		throw readOnly("import collections");
+	}
+
+	@Override
+	public boolean hasSourceDocument(String sourceDocumentId) {
+		return graphProjectHandler.hasSourceDocument(sourceDocumentId);
+	}
+
+	@Override
+	public Collection<SourceDocumentReference> getSourceDocumentReferences() throws Exception {
+		return graphProjectHandler.getSourceDocumentReferences();
+	}
+
+	@Override
+	public SourceDocumentReference getSourceDocumentReference(String sourceDocumentId) {
+		return graphProjectHandler.getSourceDocumentReference(sourceDocumentId);
+	}
+
+	@Override
+	public SourceDocument getSourceDocument(String sourceDocumentId) throws Exception {
+		return graphProjectHandler.getSourceDocument(sourceDocumentId);
+	}
+
+	@Override
+	public void addSourceDocument(SourceDocument sourceDocument) throws Exception {
+		throw readOnly("add documents");
+	}
+
+	@Override
+	public void addSourceDocument(SourceDocument sourceDocument, boolean deleteTempFile) throws Exception {
+		throw readOnly("add documents");
+	}
+
+	@Override
+	public void addSourceDocuments(
+			List<SourceDocument> sourceDocuments,
+			Map<String, TermIndex> termIndicesBySourceDocumentId
+	) throws Exception {
+		throw readOnly("add documents");
+	}
+
+	@Override
+	public void updateSourceDocumentMetadata(SourceDocumentReference sourceDocumentRef) throws IOException {
+		throw readOnly("update documents");
+	}
+
+	@Override
+	public void deleteSourceDocument(SourceDocumentReference sourceDocument) throws Exception {
+		throw readOnly("delete documents");
+	}
+
+	@Override
+	public List<Comment> getComments(String sourceDocumentId) throws IOException {
+		return gitProjectHandler.getComments(sourceDocumentId);
+	}
+
+	@Override
+	public void addComment(Comment comment) throws IOException {
+		throw readOnly("add comments");
+	}
+
+	@Override
+	public void updateComment(Comment comment) throws IOException {
+		throw readOnly("update comments");
+	}
+
+	@Override
+	public void removeComment(Comment comment) throws IOException {
+		throw readOnly("remove comments");
+	}
+
+	@Override
+	public List<Reply> getCommentReplies(Comment comment) throws IOException {
+		return gitProjectHandler.getCommentReplies(comment);
+	}
+
+	@Override
+	public void addCommentReply(Comment comment, Reply reply) throws IOException {
+		throw readOnly("add replies");
+	}
+
+	@Override
+	public void updateCommentReply(Comment comment, Reply reply) throws IOException {
+		throw readOnly("update replies");
+	}
+
+	@Override
+	public void deleteCommentReply(Comment comment, Reply reply) throws IOException {
+		throw readOnly("delete replies");
+	}
+
+	@Override
+	public boolean hasPermission(RBACRole role, RBACPermission permission) {
+		return gitProjectHandler.hasPermission(role, permission);
+	}
+
+	@Override
+	public RBACRole getCurrentUserProjectRole() throws IOException {
+		return gitProjectHandler.getRoleOnProject(user);
+	}
+
+	@Override
+	public Set<Member> getProjectMembers() throws IOException {
+		return gitProjectHandler.getProjectMembers();
+	}
+
+	@Override
+	public RBACSubject assignRoleToSubject(RBACSubject subject, RBACRole role, LocalDate expiresAt) throws IOException {
+		throw readOnly("assign roles");
+	}
+
+	@Override
+	public SharedGroup assignRoleToGroup(SharedGroup group, RBACRole projectRole, LocalDate expiresAt, boolean reassign) throws IOException {
+		throw readOnly("assign roles");
+	}
+
+	@Override
+	public void removeSubject(RBACSubject subject) throws IOException {
+		throw readOnly("remove members");
+	}
+
+	@Override
+	public void removeGroup(SharedGroup sharedGroup) throws IOException {
+		throw readOnly("remove groups");
+	}
+
+	@Override
+	public boolean hasUntrackedChanges() throws IOException {
+		return false;
+	}
+
+	@Override
+	public boolean hasUncommittedChanges() throws Exception {
+		return false;
+	}
+
+	@Override
+	public void commitAndPushChanges(String commitMessage) throws IOException {
+		throw readOnly("commit changes");
+	}
+
+	@Override
+	public void synchronizeWithRemote(OpenProjectListener openProjectListener) throws Exception {
+		throw readOnly("synchronize");
+	}
+
+	@Override
+	public void addAndCommitCollections(Collection<AnnotationCollectionReference> annotationCollectionRefs, String commitMessage) throws IOException {
+		throw readOnly("commit collections");
+	}
+
+	@Override
+	public BackendPager<CommitInfo> getCommits(LocalDate after, LocalDate before, String branch, String author) throws IOException {
+		return gitProjectHandler.getCommits(after, before, branch, author);
+	}
+
+	@Override
+	public String toString() {
+		return projectReference.toString();
+	}
+}
@@ -11,6 +11,7 @@ import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentReference;
 import de.catma.indexer.Indexer;
 import de.catma.tag.TagDefinition;
+import de.catma.tag.TagInstance;
 import de.catma.tag.TagLibrary;
 import de.catma.tag.TagsetDefinition;
 
@@ -49,6 +50,11 @@ public interface GraphProjectHandler {
 
 	Multimap<String, TagReference> getTagReferencesByCollectionId(TagDefinition tag) throws Exception;
 
+	// annotation operations, keep the tag usage of the collections up to date
+	void addTagReferences(String annotationCollectionId, Collection<TagReference> tagReferences);
+
+	void removeTagInstances(String annotationCollectionId, Collection<TagInstance> tagInstances);
+
 	// document operations
 	boolean hasSourceDocument(String sourceDocumentId);
 
@@ -0,0 +1,55 @@
+package de.catma.repository.git.graph.lazy;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import de.catma.document.annotation.AnnotationCollection;
+import de.catma.document.annotation.TagReference;
+import de.catma.tag.TagInstance;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The number of annotations per tag of a single collection.
+ * <p>
+ * Maintained alongside every annotation write, so that operations that concern a single tag (deletion, move, property
+ * removal) only need to load the collections that actually contain annotations with that tag.
+ */
+class CollectionTagUsage {
+	// tag ID by tag instance ID, each annotation is counted once regardless of its number of ranges
+	private final Map<String, String> tagIdByTagInstanceId = new HashMap<>();
+	private final Multiset<String> tagInstanceCountByTagId = HashMultiset.create();
+
+	CollectionTagUsage() {
+	}
+
+	CollectionTagUsage(AnnotationCollection collection) {
+		addTagReferences(collection.getTagReferences());
+	}
+
+	void addTagReferences(Collection<TagReference> tagReferences) {
+		for (TagReference tagReference : tagReferences) {
+			if (tagIdByTagInstanceId.putIfAbsent(tagReference.getTagInstanceId(), tagReference.getTagDefinitionId()) == null) {
+				tagInstanceCountByTagId.add(tagReference.getTagDefinitionId());
+			}
+		}
+	}
+
+	void removeTagInstances(Collection<TagInstance> tagInstances) {
+		for (TagInstance tagInstance : tagInstances) {
+			String tagId = tagIdByTagInstanceId.remove(tagInstance.getUuid());
+			if (tagId != null) {
+				tagInstanceCountByTagId.remove(tagId);
+			}
+		}
+	}
+
+	/**
+	 * @param tagId the ID of a tag
+	 * @return <code>true</code> if there is at least one annotation with that tag
+	 */
+	boolean containsTag(String tagId) {
+		return tagInstanceCountByTagId.contains(tagId);
+	}
+}
@@ -4,6 +4,7 @@ import com.google.common.cache.*;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Streams;
 import de.catma.backgroundservice.BackgroundService;
 import de.catma.backgroundservice.ExecutionListener;
 import de.catma.backgroundservice.ProgressListener;
@@ -18,6 +19,7 @@ import de.catma.project.ProjectReference;
 import de.catma.repository.git.graph.interfaces.*;
 import de.catma.tag.*;
 import de.catma.user.User;
+import de.catma.util.Pair;
 
 import javax.lang.model.type.NullType;
 import java.io.IOException;
@@ -47,6 +49,8 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 	private final LoadingCache<String, AnnotationCollection> collectionCache;
 
 	private Map<String, SourceDocumentReference> sourceDocumentRefsById = Maps.newHashMap();
+	// collections without an entry (which shouldn't happen) are always loaded
+	private Map<String, CollectionTagUsage> tagUsageByCollectionId = Maps.newHashMap();
 	private String revisionHash = "";
 
 	public LazyGraphProjectHandler(
@@ -163,9 +167,9 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 
 		backgroundService.submit(
 				loadJob,
-				new ExecutionListener<Map<String, SourceDocumentReference>>() {
+				new ExecutionListener<Pair<Map<String, SourceDocumentReference>, Map<String, CollectionTagUsage>>>() {
 					@Override
-					public void done(Map<String, SourceDocumentReference> sourceDocumentRefsById) {
+					public void done(Pair<Map<String, SourceDocumentReference>, Map<String, CollectionTagUsage>> result) {
 						logger.info(
 								String.format(
 										"LoadJob has finished for project \"%s\" with ID %s",
@@ -174,7 +178,8 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 								)
 						);
 
-						LazyGraphProjectHandler.this.sourceDocumentRefsById = sourceDocumentRefsById;
+						LazyGraphProjectHandler.this.sourceDocumentRefsById = result.getFirst();
+						LazyGraphProjectHandler.this.tagUsageByCollectionId = result.getSecond();
 						LazyGraphProjectHandler.this.revisionHash = revisionHash;
 
 						documentCache.invalidateAll();
@@ -237,6 +242,7 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 				user.getIdentifier()
 		);
 		collectionCache.put(annotationCollectionId, collection);
+		tagUsageByCollectionId.put(annotationCollectionId, new CollectionTagUsage());
 
 		sourceDocumentRef.addUserMarkupCollectionReference(
 				new AnnotationCollectionReference(
@@ -254,6 +260,7 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 	@Override
 	public void removeAnnotationCollection(AnnotationCollectionReference annotationCollectionRef, String oldRevisionHash, String newRevisionHash) {
 		collectionCache.invalidate(annotationCollectionRef.getId());
+		tagUsageByCollectionId.remove(annotationCollectionRef.getId());
 		updateProjectRevision(oldRevisionHash, newRevisionHash);
 	}
 
@@ -268,6 +275,11 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 				.collect(Collectors.toSet());
 
 		for (AnnotationCollectionReference collectionReference : collectionReferences) {
+			CollectionTagUsage tagUsage = tagUsageByCollectionId.get(collectionReference.getId());
+			if (tagUsage != null && Streams.stream(tagsetDefinition).map(TagDefinition::getUuid).noneMatch(tagUsage::containsTag)) {
+				continue; // don't load collections that don't use the tagset
+			}
+
 			AnnotationCollection collection = collectionCache.get(collectionReference.getId());
 			collection.getTagReferences(tagsetDefinition)
 					.stream()
@@ -288,6 +300,11 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 				.collect(Collectors.toSet());
 
 		for (AnnotationCollectionReference collectionReference : collectionReferences) {
+			CollectionTagUsage tagUsage = tagUsageByCollectionId.get(collectionReference.getId());
+			if (tagUsage != null && !tagUsage.containsTag(tag.getUuid())) {
+				continue; // don't load collections that don't use the tag
+			}
+
 			AnnotationCollection collection = collectionCache.get(collectionReference.getId());
 			collection.getTagReferences(tag)
 					.stream()
@@ -297,6 +314,22 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 		return result;
 	}
 
+	@Override
+	public void addTagReferences(String annotationCollectionId, Collection<TagReference> tagReferences) {
+		CollectionTagUsage tagUsage = tagUsageByCollectionId.get(annotationCollectionId);
+		if (tagUsage != null) {
+			tagUsage.addTagReferences(tagReferences);
+		}
+	}
+
+	@Override
+	public void removeTagInstances(String annotationCollectionId, Collection<TagInstance> tagInstances) {
+		CollectionTagUsage tagUsage = tagUsageByCollectionId.get(annotationCollectionId);
+		if (tagUsage != null) {
+			tagUsage.removeTagInstances(tagInstances);
+		}
+	}
+
 	// document operations
 	@Override
 	public boolean hasSourceDocument(String sourceDocumentId) {
@@ -334,6 +367,9 @@ public class LazyGraphProjectHandler implements GraphProjectHandler {
 						.map(AnnotationCollectionReference::getId)
 						.collect(Collectors.toSet())
 		);
+		sourceDocumentRef.getUserMarkupCollectionRefs().forEach(
+				collectionRef -> tagUsageByCollectionId.remove(collectionRef.getId())
+		);
 		documentCache.invalidate(sourceDocumentRef.getUuid());
 		sourceDocumentRefsById.remove(sourceDocumentRef.getUuid());
 
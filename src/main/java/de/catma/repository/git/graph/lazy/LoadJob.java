@@ -11,10 +11,12 @@ import de.catma.repository.git.graph.interfaces.CollectionsProvider;
 import de.catma.repository.git.graph.interfaces.DocumentsProvider;
 import de.catma.repository.git.graph.interfaces.TagsetsProvider;
 import de.catma.tag.TagManager;
+import de.catma.util.Pair;
 
+import java.util.HashMap;
 import java.util.Map;
 
-class LoadJob extends DefaultProgressCallable<Map<String, SourceDocumentReference>> {
+class LoadJob extends DefaultProgressCallable<Pair<Map<String, SourceDocumentReference>, Map<String, CollectionTagUsage>>> {
 	private final ProjectReference projectReference;
 	private final TagManager tagManager;
 	private final TagsetsProvider tagsetsProvider;
@@ -36,8 +38,9 @@ class LoadJob extends DefaultProgressCallable<Map<String, SourceDocumentReferenc
 	}
 
 	@Override
-	public Map<String, SourceDocumentReference> call() throws Exception {
+	public Pair<Map<String, SourceDocumentReference>, Map<String, CollectionTagUsage>> call() throws Exception {
 		Map<String, SourceDocumentReference> sourceDocumentRefsById = Maps.newHashMap();
+		Map<String, CollectionTagUsage> tagUsageByCollectionId = new HashMap<>();
 
 		getProgressListener().setProgress(
 				"Loading tagsets for project \"%s\" with ID %s", projectReference.getName(), projectReference.getProjectId()
@@ -56,8 +59,10 @@ class LoadJob extends DefaultProgressCallable<Map<String, SourceDocumentReferenc
 		);
 		for (AnnotationCollection collection : collectionsProvider.getCollections(tagManager.getTagLibrary())) {
 			sourceDocumentRefsById.get(collection.getSourceDocumentId()).addUserMarkupCollectionReference(new AnnotationCollectionReference(collection));
+			// the collections are fully loaded here anyway, summarize them while we have them
+			tagUsageByCollectionId.put(collection.getUuid(), new CollectionTagUsage(collection));
 		}
 
-		return sourceDocumentRefsById;
+		return new Pair<>(sourceDocumentRefsById, tagUsageByCollectionId);
 	}
 }
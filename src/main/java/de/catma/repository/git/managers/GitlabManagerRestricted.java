@@ -8,10 +8,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -44,6 +46,7 @@ import org.gitlab4j.api.models.IssueFilter;
 import org.gitlab4j.api.models.MergeRequest;
 import org.gitlab4j.api.models.MergeRequestFilter;
 import org.gitlab4j.api.models.Note;
+import org.gitlab4j.api.models.Permissions;
 import org.gitlab4j.api.models.Project;
 import org.gitlab4j.api.models.ProjectFilter;
 import org.gitlab4j.api.models.ProjectSharedGroup;
@@ -84,6 +87,8 @@ public class GitlabManagerRestricted extends GitlabManagerCommon implements Remo
 
 	private final GitLabApi restrictedGitLabApi;
 	private final Cache<String, List<?>> gitlabModelsCache;
+	// roles of the current user by project path, filled by getProjectReferences
+	private final Cache<String, RBACRole> projectRolesCache;
 
 	private GitUser user;
 
@@ -100,6 +105,7 @@ public class GitlabManagerRestricted extends GitlabManagerCommon implements Remo
 
 		// cache rapid calls to getProjectReferences, like getProjectReferences().size() and getProjectReferences() from DashboardView
 		this.gitlabModelsCache = CacheBuilder.newBuilder().expireAfterWrite(5, TimeUnit.MINUTES).build();
+		this.projectRolesCache = CacheBuilder.newBuilder().expireAfterWrite(5, TimeUnit.MINUTES).build();
 
 		try {
 			this.user = new GitUser(this.restrictedGitLabApi.getUserApi().getCurrentUser());
@@ -452,20 +458,23 @@ public class GitlabManagerRestricted extends GitlabManagerCommon implements Remo
 			String cacheKey = "projects" + minAccessLevel + owned; 
 			if (forceRefresh) {
 				gitlabModelsCache.invalidate(cacheKey);
+				projectRolesCache.invalidateAll();
 			}
 			return (List<ProjectReference>) gitlabModelsCache.get(
 					cacheKey,
+					// not simple, the full representation carries the permissions of the current user,
+					// which saves two requests per project when the roles are needed (see getRoleOnProject)
 					() -> projectApi.getProjects(
 								new ProjectFilter()
 								.withMinAccessLevel(minAccessLevel)
 								.withMembership(true)
-								.withSimple(true)
+								.withSimple(false)
 								.withOwned(owned))
 							.stream()
 							.filter(project -> !project.getNamespace().getName().startsWith("CATMA_")) // filter legacy projects
 							.map(project -> {
 								try {
-									return getProjectReference(
+									ProjectReference projectReference = getProjectReference(
 											project.getNamespace().getPath(),
 											project.getPath(),
 											project.getDescription(),
@@ -474,6 +483,8 @@ public class GitlabManagerRestricted extends GitlabManagerCommon implements Remo
 											project.getLastActivityAt() == null?null:project.getLastActivityAt().toInstant()
 												      .atZone(ZoneId.systemDefault())
 									);
+									cacheRoleOnProject(projectReference, project);
+									return projectReference;
 								}
 								catch (IOException e) {
 									logger.log(
@@ -496,6 +507,51 @@ public class GitlabManagerRestricted extends GitlabManagerCommon implements Remo
 		}
 	}
 
+	private void cacheRoleOnProject(ProjectReference projectReference, Project project) {
+		Permissions permissions = project.getPermissions();
+		// access via shared groups is not part of the permissions, the role of projects that are shared with groups
+		// gets looked up on demand including inherited memberships
+		if (permissions == null || (project.getSharedWithGroups() != null && !project.getSharedWithGroups().isEmpty())) {
+			return;
+		}
+
+		// the effective access level is the higher one of the direct and the namespace membership
+		int accessLevel = Math.max(
+				(permissions.getProjectAccess() == null || permissions.getProjectAccess().getAccessLevel() == null) ?
+						0 : permissions.getProjectAccess().getAccessLevel().value,
+				(permissions.getGroupAccess() == null || permissions.getGroupAccess().getAccessLevel() == null) ?
+						0 : permissions.getGroupAccess().getAccessLevel().value
+		);
+
+		if (accessLevel >= AccessLevel.GUEST.value) {
+			try {
+				projectRolesCache.put(projectReference.getFullPath(), RBACRole.forValue(accessLevel));
+			}
+			catch (IllegalArgumentException e) {
+				logger.log(
+						Level.FINE,
+						String.format("Unexpected access level %d on project %s", accessLevel, projectReference.getFullPath()),
+						e
+				);
+			}
+		}
+	}
+
+	@Override
+	public RBACRole getRoleOnProject(ProjectReference projectReference) throws IOException {
+		try {
+			return projectRolesCache.get(projectReference.getFullPath(), () -> getRoleOnProject(user, projectReference));
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(
+					String.format("Failed to get role on project \"%s\"", projectReference.getName()), e.getCause()
+			);
+		}
+	}
+
 	@Override
 	public List<ProjectReference> getProjectReferences() throws IOException {
 		return getProjectReferences(AccessLevel.forValue(RBACRole.ASSISTANT.getAccessLevel()), null, false);
@@ -656,6 +712,7 @@ public class GitlabManagerRestricted extends GitlabManagerCommon implements Remo
 			) {
 				projectApi.removeMember(projectReference.getFullPath(), user.getUserId());
 			}
+			projectRolesCache.invalidate(projectReference.getFullPath());
 		}
 		catch (GitLabApiException e) {
 			throw new IOException("Failed to leave project", e);
@@ -667,6 +724,7 @@ public class GitlabManagerRestricted extends GitlabManagerCommon implements Remo
 		try {
 			ProjectApi projectApi = restrictedGitLabApi.getProjectApi();
 			projectApi.deleteProject(projectReference.getFullPath());
+			projectRolesCache.invalidate(projectReference.getFullPath());
 		}
 		catch (GitLabApiException e) {
 			throw new IOException("Failed to delete remote Git repository", e);
@@ -690,38 +748,10 @@ public class GitlabManagerRestricted extends GitlabManagerCommon implements Remo
 			List<Comment> comments = new ArrayList<>();
 
 			for (Issue issue : issuePager.all()) {
-				Comment comment;
-				String issueDescription = issue.getDescription();
-
-				try {
-					comment = new SerializationHelper<Comment>().deserialize(issueDescription, Comment.class);
+				Comment comment = toComment(projectReference, issue);
+				if (comment != null) {
+					comments.add(comment);
 				}
-				catch (Exception e) {
-					logger.log(
-							Level.SEVERE,
-							String.format(
-									"Failed to deserialize comment from issue with IID %1$d for document with ID %2$s in project \"%3$s\". " +
-											"The issue description was: %4$s",
-									issue.getIid(),
-									documentId,
-									projectReference.getName(),
-									issueDescription
-							),
-							e
-					);
-					continue;
-				}
-
-				comment.setId(issue.getId());
-				comment.setIid(issue.getIid());
-				comment.setUserId(issue.getAuthor().getId());
-				comment.setUsername(issue.getAuthor().getName()); // TODO: if we're using the public name it shouldn't be called 'username' on the Comment class
-				comment.setReplyCount(issue.getUserNotesCount());
-				
-				// gson doesn't initialize transient fields, so we need to do it explicitly
-				comment.setReplies(new ArrayList<>());
-				
-				comments.add(comment);
 			}
 
 			return comments;
@@ -738,6 +768,82 @@ public class GitlabManagerRestricted extends GitlabManagerCommon implements Remo
 		}
 	}
 
+	@Override
+	public List<Comment> getProjectComments(ProjectReference projectReference, ZonedDateTime updatedAfter) throws IOException {
+		try {
+			IssuesApi issuesApi = restrictedGitLabApi.getIssuesApi();
+
+			IssueFilter issueFilter = new IssueFilter().withLabels(Arrays.asList(CATMA_COMMENT_LABEL));
+			if (updatedAfter == null) {
+				issueFilter = issueFilter.withState(IssueState.OPENED);
+			}
+			else {
+				// no state filter, closed issues are removed comments and need to be reported as such
+				issueFilter = issueFilter.withUpdatedAfter(Date.from(updatedAfter.toInstant()));
+			}
+
+			Pager<Issue> issuePager = issuesApi.getIssues(projectReference.getFullPath(), issueFilter, 100);
+
+			List<Comment> comments = new ArrayList<>();
+
+			while (issuePager.hasNext()) {
+				for (Issue issue : issuePager.next()) {
+					Comment comment = toComment(projectReference, issue);
+					if (comment != null) {
+						comment.setRemoved(issue.getState() == IssueState.CLOSED);
+						comments.add(comment);
+					}
+				}
+			}
+
+			return comments;
+		}
+		catch (GitLabApiException e) {
+			throw new IOException(
+					String.format("Failed to fetch comments for project \"%s\"", projectReference.getName()),
+					e
+			);
+		}
+	}
+
+	private Comment toComment(ProjectReference projectReference, Issue issue) {
+		Comment comment;
+		String issueDescription = issue.getDescription();
+
+		try {
+			comment = new SerializationHelper<Comment>().deserialize(issueDescription, Comment.class);
+		}
+		catch (Exception e) {
+			logger.log(
+					Level.SEVERE,
+					String.format(
+							"Failed to deserialize comment from issue with IID %1$d with labels %2$s in project \"%3$s\". " +
+									"The issue description was: %4$s",
+							issue.getIid(),
+							issue.getLabels(),
+							projectReference.getName(),
+							issueDescription
+					),
+					e
+			);
+			return null;
+		}
+
+		comment.setId(issue.getId());
+		comment.setIid(issue.getIid());
+		comment.setUserId(issue.getAuthor().getId());
+		comment.setUsername(issue.getAuthor().getName()); // TODO: if we're using the public name it shouldn't be called 'username' on the Comment class
+		comment.setReplyCount(issue.getUserNotesCount());
+		comment.setUpdatedAt(
+				issue.getUpdatedAt() == null ? null : issue.getUpdatedAt().toInstant().atZone(ZoneId.systemDefault())
+		);
+
+		// gson doesn't initialize transient fields, so we need to do it explicitly
+		comment.setReplies(new ArrayList<>());
+
+		return comment;
+	}
+
 	@Override
 	public void addComment(ProjectReference projectReference, Comment comment) throws IOException {
 		String documentId = comment.getDocumentId();
@@ -10,6 +10,8 @@ import de.catma.repository.git.managers.jgit.RelativeJGitCommandFactory;
 import de.catma.user.User;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.function.IOConsumer;
 import org.eclipse.jgit.api.*;
 import org.eclipse.jgit.api.ListBranchCommand.ListMode;
 import org.eclipse.jgit.api.MergeCommand.FastForwardMode;
@@ -37,6 +39,8 @@ import org.eclipse.jgit.util.FS;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
@@ -279,6 +283,37 @@ public class JGitRepoManager implements LocalGitRepositoryManager, AutoCloseable
 		}
 	}
 
+	@Override
+	public String getRemoteRevisionHash(String branch, JGitCredentialsManager jGitCredentialsManager) throws IOException {
+		return getRemoteRevisionHash(branch, jGitCredentialsManager, 0);
+	}
+
+	private String getRemoteRevisionHash(String branch, JGitCredentialsManager jGitCredentialsManager, int refreshCredentialsTryCount) throws IOException {
+		if (!isAttached()) {
+			throw new IllegalStateException("Can't call `getRemoteRevisionHash` on a detached instance");
+		}
+
+		try {
+			Map<String, Ref> refs = gitApi.lsRemote()
+					.setRemote(Constants.DEFAULT_REMOTE_NAME)
+					.setHeads(true)
+					.setCredentialsProvider(jGitCredentialsManager.getCredentialsProvider())
+					.callAsMap();
+
+			Ref ref = refs.get(Constants.R_HEADS + branch);
+			return ref == null || ref.getObjectId() == null ? null : ref.getObjectId().getName();
+		}
+		catch (GitAPIException e) {
+			if (e instanceof TransportException && e.getMessage().contains("not authorized") && refreshCredentialsTryCount < 1) {
+				// see fetch
+				jGitCredentialsManager.refreshTransientCredentials();
+				return getRemoteRevisionHash(branch, jGitCredentialsManager, refreshCredentialsTryCount + 1);
+			}
+
+			throw new IOException(String.format("Failed to get the remote revision hash of branch %s", branch), e);
+		}
+	}
+
 	@Override
 	public Set<String> verifyDeletedResourcesViaLog(String resourceDir, String resourceTypeKeywords, Set<String> resourceIds) throws IOException {
 		if (!isAttached()) {
@@ -452,7 +487,39 @@ public class JGitRepoManager implements LocalGitRepositoryManager, AutoCloseable
 
 		try (FileOutputStream fileOutputStream = FileUtils.openOutputStream(targetFile)) {
 			fileOutputStream.write(bytes);
+		}
+
+		addWrittenFile(targetFile);
+	}
+
+	@Override
+	public void add(File targetFile, InputStream inputStream) throws IOException {
+		if (!isAttached()) {
+			throw new IllegalStateException("Can't call `add` on a detached instance");
+		}
+
+		try (FileOutputStream fileOutputStream = FileUtils.openOutputStream(targetFile)) {
+			IOUtils.copy(inputStream, fileOutputStream);
+		}
+
+		addWrittenFile(targetFile);
+	}
 
+	@Override
+	public void add(File targetFile, IOConsumer<OutputStream> contentWriter) throws IOException {
+		if (!isAttached()) {
+			throw new IllegalStateException("Can't call `add` on a detached instance");
+		}
+
+		try (FileOutputStream fileOutputStream = FileUtils.openOutputStream(targetFile)) {
+			contentWriter.accept(fileOutputStream);
+		}
+
+		addWrittenFile(targetFile);
+	}
+
+	private void addWrittenFile(File targetFile) throws IOException {
+		try {
 			Path basePath = gitApi.getRepository().getWorkTree().toPath();
 			Path absoluteFilePath = Paths.get(targetFile.getAbsolutePath());
 			Path relativeFilePath = basePath.relativize(absoluteFilePath);
@@ -604,6 +671,31 @@ public class JGitRepoManager implements LocalGitRepositoryManager, AutoCloseable
 		}
 	}
 
+	@Override
+	public String commit(Collection<File> targetFiles, String message, String committerName, String committerEmail) throws IOException {
+		if (!isAttached()) {
+			throw new IllegalStateException("Can't call `commit` on a detached instance");
+		}
+
+		try {
+			Path basePath = gitApi.getRepository().getWorkTree().toPath();
+
+			CommitCommand commitCommand = gitApi.commit()
+					.setMessage(message)
+					.setCommitter(committerName, committerEmail);
+
+			for (File targetFile : targetFiles) {
+				Path relativeFilePath = basePath.relativize(Paths.get(targetFile.getAbsolutePath()));
+				commitCommand.setOnly(FilenameUtils.separatorsToUnix(relativeFilePath.toString()));
+			}
+
+			return commitCommand.call().getName();
+		}
+		catch (GitAPIException e) {
+			throw new IOException("Failed to commit", e);
+		}
+	}
+
 	@Override
 	public boolean canMerge(String branch) throws IOException {
 		if (!isAttached()) {
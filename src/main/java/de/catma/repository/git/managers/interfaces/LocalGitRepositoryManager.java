@@ -3,12 +3,16 @@ package de.catma.repository.git.managers.interfaces;
 import de.catma.project.CommitInfo;
 import de.catma.repository.git.managers.JGitCredentialsManager;
 import de.catma.user.User;
+import org.apache.commons.io.function.IOConsumer;
 import org.eclipse.jgit.api.MergeResult;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.transport.PushResult;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -103,6 +107,16 @@ public interface LocalGitRepositoryManager extends AutoCloseable {
 	 */
 	void fetch(JGitCredentialsManager jGitCredentialsManager) throws IOException;
 
+	/**
+	 * Gets the revision hash of a branch in the associated remote repository ('origin' remote) without fetching anything.
+	 *
+	 * @param branch the name of the branch
+	 * @param jGitCredentialsManager a {@link JGitCredentialsManager} to use for authentication
+	 * @return the hash, or null if the remote repository doesn't have the branch
+	 * @throws IOException if an error occurs when listing the remote refs
+	 */
+	String getRemoteRevisionHash(String branch, JGitCredentialsManager jGitCredentialsManager) throws IOException;
+
 	/**
 	 * Searches the Git log of the user branch for commits that affect <code>resourceDir</code> and
 	 * whose message indicates that one of the resources in <code>resourceIds</code> was deleted.
@@ -178,6 +192,26 @@ public interface LocalGitRepositoryManager extends AutoCloseable {
 	 */
 	void add(File targetFile, byte[] bytes) throws IOException;
 
+	/**
+	 * Like {@link #add(File, byte[])} but copies the file contents from <code>inputStream</code> chunk by chunk, so
+	 * that large files don't need to fit into memory.
+	 *
+	 * @param targetFile a {@link File} representing the target path
+	 * @param inputStream the file contents, not closed by this method
+	 * @throws IOException if an error occurs when adding
+	 */
+	void add(File targetFile, InputStream inputStream) throws IOException;
+
+	/**
+	 * Like {@link #add(File, byte[])} but lets <code>contentWriter</code> stream the file contents, so that contents
+	 * that are generated on the fly, e.g. serialized indices, don't need to fit into memory.
+	 *
+	 * @param targetFile a {@link File} representing the target path
+	 * @param contentWriter writes the file contents to the given stream, which gets closed by this method
+	 * @throws IOException if an error occurs when writing or adding
+	 */
+	void add(File targetFile, IOConsumer<OutputStream> contentWriter) throws IOException;
+
 	/**
 	 * Writes a new file with contents <code>bytes</code> to disk at path <code>targetFile</code>,
 	 * adds it and commits.
@@ -252,6 +286,18 @@ public interface LocalGitRepositoryManager extends AutoCloseable {
 	 */
 	String commit(String message, String committerName, String committerEmail, boolean all, boolean force) throws IOException;
 
+	/**
+	 * Commits the staged changes of the given files and directories only, any other changes remain uncommitted.
+	 *
+	 * @param targetFiles the files/directories to commit
+	 * @param message the commit message
+	 * @param committerName the name of the committer
+	 * @param committerEmail the email address of the committer
+	 * @return the revision hash of the new commit
+	 * @throws IOException if an error occurs when committing
+	 */
+	String commit(Collection<File> targetFiles, String message, String committerName, String committerEmail) throws IOException;
+
 	/**
 	 * Checks whether the given branch can be merged into the user branch.
 	 *
@@ -2,6 +2,7 @@ package de.catma.repository.git.managers.interfaces;
 
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Set;
 
@@ -69,6 +70,20 @@ public interface RemoteGitManagerRestricted extends RemoteGitManagerCommon, GitU
 	 */
 	List<ProjectReference> getProjectReferences(boolean forceRefetch) throws IOException;
 
+	/**
+	 * Gets the role of the current user on the given project.
+	 * <p>
+	 * Roles that have been loaded along with {@link #getProjectReferences()} are returned without another request, so
+	 * that lists of projects don't need a request per project.
+	 *
+	 * @param projectReference a {@link ProjectReference} indicating the project
+	 * @return the {@link RBACRole} of the current user on the project
+	 * @throws IOException if an error occurs when getting the role
+	 */
+	default RBACRole getRoleOnProject(ProjectReference projectReference) throws IOException {
+		return getRoleOnProject(getUser(), projectReference);
+	}
+
 	
 	/**
 	 * Get a list of the IDs of all projects owned by the current user.
@@ -218,6 +233,19 @@ public interface RemoteGitManagerRestricted extends RemoteGitManagerCommon, GitU
 	 */
 	List<Comment> getComments(ProjectReference projectReference, String documentId) throws IOException;
 
+	/**
+	 * Gets the comments for all documents in a project in a single paginated pass.
+	 * <p>
+	 * If <code>updatedAfter</code> is given, only comments that have been added, updated or removed since then are returned.
+	 * Removed comments are included in that case and can be identified via {@link Comment#isRemoved()}.
+	 *
+	 * @param projectReference a {@link ProjectReference} indicating the project to fetch comments from
+	 * @param updatedAfter only comments updated at or after this point in time, or null to fetch all current comments
+	 * @return a {@link List} of {@link Comment}s with {@link Comment#getUpdatedAt()} set
+	 * @throws IOException if an error occurs when getting the comments
+	 */
+	List<Comment> getProjectComments(ProjectReference projectReference, ZonedDateTime updatedAfter) throws IOException;
+
 	/**
 	 * Adds a comment to a project.
 	 *
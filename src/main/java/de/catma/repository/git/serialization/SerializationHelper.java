@@ -1,5 +1,6 @@
 package de.catma.repository.git.serialization;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.time.ZonedDateTime;
@@ -10,6 +11,7 @@ import java.util.Locale;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 import com.google.gson.internal.ConstructorConstructor;
 import com.google.gson.internal.Excluder;
 import com.google.gson.internal.bind.JsonAdapterAnnotationTypeAdapterFactory;
@@ -19,10 +21,35 @@ import de.catma.document.source.FileOSType;
 import de.catma.document.source.FileType;
 
 public class SerializationHelper<T> {
+	private Gson lineGson;
+
 	public String serialize(T object) {
 		return toJson(object);
 	}
 
+	/**
+	 * Serializes the given object without pretty printing and appends it to the given writer followed by a newline,
+	 * e.g. to produce one line of newline delimited JSON. Null values are omitted.
+	 * <p>
+	 * The underlying {@link Gson} instance is reused for subsequent calls on the same helper.
+	 *
+	 * @param object the object to serialize
+	 * @param writer the writer to append to
+	 * @throws IOException if an error occurs when writing
+	 */
+	public void serializeToLine(T object, Appendable writer) throws IOException {
+		if (lineGson == null) {
+			lineGson = createSerializationGsonBuilder().create();
+		}
+		try {
+			lineGson.toJson(object, writer);
+		}
+		catch (JsonIOException e) {
+			throw new IOException(e);
+		}
+		writer.append('\n');
+	}
+
 	public String serialize(Collection<T> objects) {
 		return toJson(objects);
 	}
@@ -36,6 +63,10 @@ public class SerializationHelper<T> {
 	}
 
 	private String toJson(T object) {
+		return createSerializationGsonBuilder().setPrettyPrinting().serializeNulls().create().toJson(object);
+	}
+
+	private GsonBuilder createSerializationGsonBuilder() {
 		GsonBuilder gson = new GsonBuilder();
 		gson.registerTypeAdapter(Charset.class, new CharsetAdapter());
 		gson.registerTypeAdapter(Locale.class, new LocaleAdapter());
@@ -53,7 +84,7 @@ public class SerializationHelper<T> {
 				)
 			)
 		); 
-		return gson.setPrettyPrinting().serializeNulls().create().toJson(object);
+		return gson;
 	}
 	
 	private T fromJson(String json, Class<T> clazz) {
@@ -0,0 +1,50 @@
+package de.catma.repository.git.serialization;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.stream.JsonWriter;
+
+import de.catma.indexer.TermIndex;
+
+/**
+ * Writes the tokenized form of a document, i.e. the <code>&lt;documentId&gt;.json</code> file of a document in the
+ * project repo, term by term straight from a {@link TermIndex}.
+ * <p>
+ * The output is the same as that of serializing a map term-&gt;list of term infos with the {@link SerializationHelper}:
+ * pretty printed with the properties of each position in alphabetical order.
+ */
+public class TermIndexWriter {
+
+	/**
+	 * @param termIndex the terms to write
+	 * @param outputStream the target, flushed but not closed by this method
+	 * @throws IOException if an error occurs when writing
+	 */
+	public void write(TermIndex termIndex, OutputStream outputStream) throws IOException {
+		JsonWriter jsonWriter = new JsonWriter(
+				new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+		jsonWriter.setIndent("  ");
+		jsonWriter.setHtmlSafe(true);
+		jsonWriter.setSerializeNulls(true);
+
+		jsonWriter.beginObject();
+		termIndex.forEachTerm((term, positions) -> {
+			jsonWriter.name(term);
+			jsonWriter.beginArray();
+			for (int idx = 0; idx < positions.size(); idx++) {
+				jsonWriter.beginObject();
+				jsonWriter.name("endOffset").value(positions.getEndOffset(idx));
+				jsonWriter.name("startOffset").value(positions.getStartOffset(idx));
+				jsonWriter.name("tokenOffset").value(positions.getTokenOffset(idx));
+				jsonWriter.endObject();
+			}
+			jsonWriter.endArray();
+		});
+		jsonWriter.endObject();
+		jsonWriter.flush();
+	}
+}
@@ -1,7 +1,5 @@
 package de.catma.ui;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -13,7 +11,12 @@ import de.catma.backgroundservice.BackgroundService;
 import de.catma.backgroundservice.ExecutionListener;
 import de.catma.backgroundservice.ProgressCallable;
 import de.catma.backgroundservice.ProgressListener;
+import de.catma.backgroundservice.SharedExecutionService;
 
+/**
+ * Executes the background tasks of a UI on the {@link SharedExecutionService}, listeners are notified under the lock
+ * of the UI.
+ */
 public class UIBackgroundService implements BackgroundService {
 	
 	public static class UIProgressListener implements ProgressListener {
@@ -35,13 +38,13 @@ public class UIBackgroundService implements BackgroundService {
 		}
 	}
 
-	private ScheduledExecutorService backgroundThread;
+	private SharedExecutionService.Session session;
 	private boolean background;
 	
 	public UIBackgroundService(boolean background) {
 		this.background = background;
 		if (background) {
-			backgroundThread = Executors.newScheduledThreadPool(2);
+			session = SharedExecutionService.getInstance().openSession();
 		}
 	}
 
@@ -51,7 +54,7 @@ public class UIBackgroundService implements BackgroundService {
 			final ExecutionListener<T> listener, final ProgressListener progressListener) {
         if (background) {
         	final UI ui = UI.getCurrent();
-            backgroundThread.submit( new Runnable() {
+            session.submit( new Runnable() {
                 public void run() {
                     try {
                         callable.setProgressListener( progressListener );
@@ -91,7 +94,7 @@ public class UIBackgroundService implements BackgroundService {
                         }
                     }
                 }
-            } );
+            }, callable.getTaskType() );
         }
         else {
             try {
@@ -109,16 +112,16 @@ public class UIBackgroundService implements BackgroundService {
 
 	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
 			long initialDelay, long delay, TimeUnit unit) {
-		return backgroundThread.scheduleWithFixedDelay(command, initialDelay,
+		return session.scheduleWithFixedDelay(command, initialDelay,
 				delay, unit);
 	}
 	
 	public ScheduledFuture<?> schedule(Runnable command,
 			long delay, TimeUnit unit) {
-		return backgroundThread.schedule(command, delay, unit);
+		return session.schedule(command, delay, unit);
 	}
 	
 	public void shutdown() {
-		backgroundThread.shutdown();
+		session.close();
 	}
 }
@@ -16,10 +16,25 @@ public abstract class UIMessageListener<T> implements MessageListener<T> {
 	
 	@Override
 	public final void onMessage(Message<T> message) {
+		if (!accept(message)) {
+			return;
+		}
 		ui.access( () -> {
 			uiOnMessage(message);
 		});
 	}
+
+	/**
+	 * Called on the Hazelcast listener thread, i.e. without holding the session lock, for every message of the topic.
+	 * Only accepted messages are passed on to {@link #uiOnMessage(Message)}, so that listeners of busy topics can
+	 * drop irrelevant messages without locking their session. Implementations must not access UI state.
+	 *
+	 * @param message the incoming message
+	 * @return <code>true</code> if the message should be handled by {@link #uiOnMessage(Message)}
+	 */
+	protected boolean accept(Message<T> message) {
+		return true;
+	}
 	
 	protected UI getUi() {
 		return ui;
@@ -126,4 +126,14 @@ public class ClientTagInstanceJSONSerializer extends JSONSerializer {
 		}
 		return result.toString();
 	}
+
+	public List<String> fromInstanceIDsJSONArrayString(String jsonArrayString) {
+		JSONArray instanceIDsJSON = 
+				(JSONArray)JSONParser.parseStrict(jsonArrayString);
+		List<String> tagInstanceIDs = new ArrayList<String>();
+		for (int i=0; i<instanceIDsJSON.size(); i++) {
+			tagInstanceIDs.add(getStringValueFromStringObject(instanceIDsJSON.get(i)));
+		}
+		return tagInstanceIDs;
+	}
 }
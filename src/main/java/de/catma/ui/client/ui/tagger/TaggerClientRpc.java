@@ -6,6 +6,7 @@ public interface TaggerClientRpc extends ClientRpc {
 	public void setTaggerId(String taggerId);
 	public void setPage(String page, int lineCount, String comments);
 	public void removeTagInstances(String tagInstancesJson);
+	public void updateTagInstances(String tagInstancesJson, String removedTagInstanceIDsJson);
 	public void addTagInstanceWith(String tagDefinitionJson);
 	public void setTagInstanceSelected(String tagInstanceId);
 	public void setTraceSelection(boolean traceSelection);
@@ -40,6 +40,11 @@ public class TaggerConnector extends AbstractComponentConnector {
 				getWidget().removeTagInstances(tagInstancesJson);
 			}
 			
+			@Override
+			public void updateTagInstances(String tagInstancesJson, String removedTagInstanceIDsJson) {
+				getWidget().updateTagInstances(tagInstancesJson, removedTagInstanceIDsJson);
+			}
+			
 			@Override
 			public void addTagInstanceWith(String tagDefinitionJson) {
 				getWidget().addTagInstanceWith(tagDefinitionJson);
@@ -18,12 +18,14 @@
  */   
 package de.catma.ui.client.ui.tagger;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.logging.Logger;
 
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.FlowPanel;
@@ -60,6 +62,10 @@ public class VTagger extends Composite {
 
 	private FlowPanel taggerPanel;
 	
+	// the page content gets set with a delay, updates for the new page have to wait for it
+	private Timer pageTimer;
+	private List<Command> pendingPageUpdates = new ArrayList<>();
+	
 	/**
 	 * The constructor should first call super() to initialize the component and
 	 * then handle any initialization relevant to Vaadin.
@@ -199,9 +205,17 @@ public class VTagger extends Composite {
 	public void setPage(String page, int lineCount, List<ClientComment> comments) {
 
 		logger.info("Setting page content");
-		Timer timer = new Timer() {
+		
+		// the new content supersedes any content and updates that are still pending
+		if (pageTimer != null) {
+			pageTimer.cancel();
+		}
+		pendingPageUpdates.clear();
+		
+		pageTimer = new Timer() {
 			@Override
 			public void run() {
+				pageTimer = null;
 				taggerEditor.setHTML(new HTML(page), lineCount);
 				taggerPanel.remove(commentPanel); // removing the panel before setting the lines increases the performance
 				commentPanel.setLines(taggerEditor.getLines());
@@ -210,10 +224,36 @@ public class VTagger extends Composite {
 				}
 				
 				taggerPanel.add(commentPanel);
+				
+				for (Command pageUpdate : pendingPageUpdates) {
+					pageUpdate.execute();
+				}
+				pendingPageUpdates.clear();
+			}
+		};
+		
+		pageTimer.schedule(100);
+	}
+	
+	public void updateTagInstances(String tagInstancesJson, String removedTagInstanceIDsJson) {
+		List<ClientTagInstance> relativeTagInstances = 
+				tagInstanceJSONSerializer.fromJSONArray(tagInstancesJson);
+		List<String> removedTagInstanceIDs = 
+				tagInstanceJSONSerializer.fromInstanceIDsJSONArrayString(removedTagInstanceIDsJson);
+		
+		Command pageUpdate = new Command() {
+			@Override
+			public void execute() {
+				taggerEditor.updateTagInstances(relativeTagInstances, removedTagInstanceIDs);
 			}
 		};
 		
-		timer.schedule(100);
+		if (pageTimer != null) {
+			pendingPageUpdates.add(pageUpdate);
+		}
+		else {
+			pageUpdate.execute();
+		}
 	}
 
 	public void removeTagInstances(String tagInstancesJson) {
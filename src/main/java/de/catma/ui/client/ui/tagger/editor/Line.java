@@ -385,6 +385,30 @@ public class Line implements Comparable<Line> {
 		absoluteTagIntances.add(clientTagInstance);
 		tagInstanceTextRanges.addAll(clientTagInstance.getRanges());
 	}
+	
+	/**
+	 * @param tagInstanceID the ID of the tag instance to remove
+	 * @return <code>true</code> if this line showed the tag instance, i.e. the line element needs an update
+	 */
+	public boolean removeTagInstance(String tagInstanceID) {
+		boolean removed = false;
+		for (ClientTagInstance tagInstance : new ArrayList<>(absoluteTagIntances)) {
+			if (tagInstance.getInstanceID().equals(tagInstanceID)) {
+				absoluteTagIntances.remove(tagInstance);
+				removed = true;
+			}
+		}
+		
+		if (removed) {
+			// ranges can be shared by several tag instances
+			tagInstanceTextRanges.clear();
+			for (ClientTagInstance tagInstance : absoluteTagIntances) {
+				tagInstanceTextRanges.addAll(tagInstance.getRanges());
+			}
+		}
+		
+		return removed;
+	}
 
 	public int getLineOffset() {
 		return textRange.getStartPos();
@@ -199,6 +199,10 @@ public class TaggerEditor extends FocusWidget
 		}
 		
 		if (!ranges.isEmpty()) {
+			// show the new annotation right away, the server only confirms it with an update of its tag instances
+			resetLines();
+			lastTagInstancePartID = null;
+			
 			ClientTagInstance ti = 
 					new ClientTagInstance(
 							tagDefinition.getId(),
@@ -209,6 +213,63 @@ public class TaggerEditor extends FocusWidget
 		}
 	}
 	
+	/**
+	 * Patches the current page with changed tag instances. Only the lines that show or showed one of the affected
+	 * tag instances get rebuilt.
+	 * 
+	 * @param relativeTagInstances added or changed tag instances with ranges relative to the current page, 
+	 * they replace the tag instances with the same ID
+	 * @param removedTagInstanceIDs the IDs of the tag instances that are no longer part of the current page
+	 */
+	public void updateTagInstances(
+			List<ClientTagInstance> relativeTagInstances, List<String> removedTagInstanceIDs) {
+		if (lineIdToLineMap == null) {
+			return; // no page yet
+		}
+		
+		Set<Line> modifiedLines = new HashSet<>();
+		
+		for (String tagInstanceID : removedTagInstanceIDs) {
+			for (Line line : lineIdToLineMap.values()) {
+				if (line.removeTagInstance(tagInstanceID)) {
+					modifiedLines.add(line);
+				}
+			}
+		}
+		
+		for (ClientTagInstance relativeTagInstance : relativeTagInstances) {
+			for (Line line : lineIdToLineMap.values()) {
+				if (line.removeTagInstance(relativeTagInstance.getInstanceID())) {
+					modifiedLines.add(line);
+				}
+				
+				List<TextRange> lineRanges = new ArrayList<>();
+				for (TextRange range : relativeTagInstance.getRanges()) {
+					TextRange lineRange = line.getTextRange().getOverlappingRange(range);
+					if (lineRange != null) {
+						lineRanges.add(lineRange);
+					}
+				}
+				
+				if (!lineRanges.isEmpty()) {
+					line.addTagInstance(new ClientTagInstance(
+						relativeTagInstance.getTagDefinitionID(), 
+						relativeTagInstance.getInstanceID(), 
+						relativeTagInstance.getColor(), 
+						lineRanges));
+					modifiedLines.add(line);
+				}
+			}
+		}
+		
+		if (!modifiedLines.isEmpty()) {
+			lastTagInstancePartID = null;
+			for (Line line : modifiedLines) {
+				line.updateLineElement();
+			}
+		}
+	}
+	
 	private List<NodeRange> getLastNodeRanges() {
 		
 		if (lastTextRanges != null) {
@@ -1,67 +1,124 @@
 package de.catma.ui.client.ui.tagger.shared;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Table;
-import com.google.common.collect.TreeMultimap;
 
+/**
+ * Assigns the tag instances of a line to annotation layers.
+ * <p>
+ * Each range part gets the tag instances that cover it, ordered by the size of their longest range, largest first,
+ * equal sizes in the order of the given tag instances. The n-th tag instance of a range part goes to layer n.
+ * <p>
+ * The range parts covered by a range are found by a sweep over the range parts sorted by their start positions instead
+ * of testing every range part against every range, and the layer of a tag instance is its position in the ordered list
+ * of its range part instead of the result of probing the occupied layers. This code is shared by the server side pager
+ * and the client side editor, so it is restricted to GWT compatible Java.
+ */
 public class AnnotationLayerBuilder {
+	
+	private static final class Entry {
+		private final ClientTagInstance tagInstance;
+		private final int longestRangeSize;
+		
+		public Entry(ClientTagInstance tagInstance, int longestRangeSize) {
+			this.tagInstance = tagInstance;
+			this.longestRangeSize = longestRangeSize;
+		}
+	}
+	
+	private static final Comparator<TextRange> START_POS_ORDER = new Comparator<TextRange>() {
+		@Override
+		public int compare(TextRange o1, TextRange o2) {
+			return Integer.compare(o1.getStartPos(), o2.getStartPos());
+		}
+	};
+	
+	// largest first, the sort is stable so equal sizes keep their insertion order
+	private static final Comparator<Entry> LONGEST_RANGE_SIZE_ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry o1, Entry o2) {
+			return Integer.compare(o2.longestRangeSize, o1.longestRangeSize);
+		}
+	};
 
-	private List<TextRange> rangeParts;
-	private Multimap<TextRange, ClientTagInstance> relativeTagInstanceByTextRange;
 	private Table<Integer, TextRange, ClientTagInstance> layerTable; // rowIdx (zero-based), textRange, tagInstance 
 
 	public AnnotationLayerBuilder(
 			Collection<ClientTagInstance> relativeTagInstances, 
 			List<TextRange> rangeParts) {
-
-		this.rangeParts = rangeParts;
 		
-		relativeTagInstanceByTextRange = TreeMultimap.create(new Comparator<TextRange>() {
-			@Override
-			public int compare(TextRange o1, TextRange o2) {
-				return o1.compareTo(o2);
-			}
-		},
-		new Comparator<ClientTagInstance>() {
-			@Override
-			public int compare(ClientTagInstance o1, ClientTagInstance o2) {
-				int result = o2.getLongestRangeSize()-o1.getLongestRangeSize();
-				if (result == 0) {
-					return 1; //equal sized longest range
-				}
-				return result;
-			}
-		});
+		List<TextRange> sortedRangeParts = new ArrayList<TextRange>(rangeParts);
+		Collections.sort(sortedRangeParts, START_POS_ORDER);
 		
+		Map<TextRange, List<Entry>> entriesByRangePart = new HashMap<TextRange, List<Entry>>();
 		
 		for (ClientTagInstance relativeTagInstance : relativeTagInstances) {
+			int longestRangeSize = -1;
 			for (TextRange textRange : relativeTagInstance.getRanges()) {
-				for (TextRange rangePart : rangeParts) {
+				// only range parts that start within the range can be covered by it
+				for (int idx = getFirstIndexStartingAtOrAfter(sortedRangeParts, textRange.getStartPos()); 
+						idx < sortedRangeParts.size() && sortedRangeParts.get(idx).getStartPos() <= textRange.getEndPos(); 
+						idx++) {
+					TextRange rangePart = sortedRangeParts.get(idx);
 					if (rangePart.isCoveredBy(textRange)) {
-						relativeTagInstanceByTextRange.put(rangePart, relativeTagInstance);
+						if (longestRangeSize == -1) {
+							longestRangeSize = relativeTagInstance.getLongestRangeSize();
+						}
+						List<Entry> entries = entriesByRangePart.get(rangePart);
+						if (entries == null) {
+							entries = new ArrayList<Entry>();
+							entriesByRangePart.put(rangePart, entries);
+						}
+						entries.add(new Entry(relativeTagInstance, longestRangeSize));
 					}
 				}
 			}
 		}
 		
-		build();
+		for (List<Entry> entries : entriesByRangePart.values()) {
+			Collections.sort(entries, LONGEST_RANGE_SIZE_ORDER);
+		}
+		
+		build(rangeParts, entriesByRangePart);
+	}
+	
+	private int getFirstIndexStartingAtOrAfter(List<TextRange> sortedRangeParts, int startPos) {
+		int low = 0;
+		int high = sortedRangeParts.size();
+		while (low < high) {
+			int mid = (low+high) >>> 1;
+			if (sortedRangeParts.get(mid).getStartPos() < startPos) {
+				low = mid+1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
 	}
 
-	private void build() {
-		layerTable = HashBasedTable.create(); 
+	private void build(List<TextRange> rangeParts, Map<TextRange, List<Entry>> entriesByRangePart) {
+		layerTable = HashBasedTable.create();
+		// the next free layer of each range part
+		Map<TextRange, Integer> rowCountByRangePart = new HashMap<TextRange, Integer>();
+		
 		for (TextRange textRange : rangeParts) {
-			for (ClientTagInstance relativeTagInstance : relativeTagInstanceByTextRange.get(textRange)) {
-				int rowIdx = 0;
-				while (layerTable.contains(rowIdx, textRange)) {
-					rowIdx++;
+			List<Entry> entries = entriesByRangePart.get(textRange);
+			if (entries != null) {
+				Integer rowCount = rowCountByRangePart.get(textRange);
+				int rowIdx = rowCount == null ? 0 : rowCount;
+				for (Entry entry : entries) {
+					layerTable.put(rowIdx++, textRange, entry.tagInstance);
 				}
-				
-				layerTable.put(rowIdx, textRange, relativeTagInstance);
+				rowCountByRangePart.put(textRange, rowIdx);
 			}
 		}
 	}
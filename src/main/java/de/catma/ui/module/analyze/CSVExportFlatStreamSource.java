@@ -1,11 +1,17 @@
 package de.catma.ui.module.analyze;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -17,8 +23,6 @@ import java.util.logging.Logger;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.vaadin.server.StreamResource.StreamSource;
 import com.vaadin.ui.UI;
@@ -26,6 +30,8 @@ import com.vaadin.ui.UI;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
+import de.catma.backgroundservice.ProgressListener;
+import de.catma.backgroundservice.TaskType;
 import de.catma.document.Range;
 import de.catma.document.comment.Reply;
 import de.catma.indexer.KeywordInSpanContext;
@@ -35,6 +41,7 @@ import de.catma.queryengine.result.CommentQueryResultRow;
 import de.catma.queryengine.result.QueryResult;
 import de.catma.queryengine.result.QueryResultRow;
 import de.catma.queryengine.result.TagQueryResultRow;
+import de.catma.ui.UIBackgroundService.UIProgressListener;
 import de.catma.ui.module.main.ErrorHandler;
 import de.catma.util.ColorConverter;
 
@@ -61,24 +68,39 @@ public class CSVExportFlatStreamSource implements StreamSource {
 	@Override
 	public InputStream getStream() {
 		final QueryResult queryResult = queryResultSupplier.get();
+		final int contextSize = contextSizeSupplier.get();
         final PipedInputStream in = new PipedInputStream();
         final UI ui = UI.getCurrent();
         final Lock lock = new ReentrantLock();
         final Condition sending  = lock.newCondition();
+        final CSVExportProgressWindow progressWindow = new CSVExportProgressWindow();
+        final ProgressListener progressListener = new UIProgressListener(progressWindow);
+        progressWindow.show();
         lock.lock();
 
         backgroundServiceProvider.submit("csv-export", new DefaultProgressCallable<Void>() {
+        	@Override
+        	public TaskType getTaskType() {
+        		// blocks on the pipe until the browser has downloaded the export
+        		return TaskType.STREAMING;
+        	}
+
         	@Override
         	public Void call() throws Exception {
             	PipedOutputStream out = new PipedOutputStream(in);
             	OutputStreamWriter writer = new OutputStreamWriter(out, "UTF-8");
-        		LoadingCache<String, String> colorCache = 
-        				CacheBuilder.newBuilder().build(new CacheLoader<String, String>() {
-        					@Override
-        					public String load(String tagDefinitionId) throws Exception {
-        						return "#"+ColorConverter.toHex(project.getTagManager().getTagLibrary().getTagDefinition(tagDefinitionId).getColor());
-        					}
-        				});
+
+            	// colors are resolved up front as the records get created concurrently
+            	List<QueryResultRow> rows = new ArrayList<>();
+            	Map<String, String> colorsByTagDefinitionId = new HashMap<>();
+            	for (QueryResultRow row : queryResult) {
+            		rows.add(row);
+            		if (row instanceof TagQueryResultRow) {
+            			colorsByTagDefinitionId.computeIfAbsent(
+            					((TagQueryResultRow) row).getTagDefinitionId(), 
+            					tagDefinitionId -> "#"+ColorConverter.toHex(project.getTagManager().getTagLibrary().getTagDefinition(tagDefinitionId).getColor()));
+            		}
+            	}
         		
                 try (CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.EXCEL.builder().setDelimiter(';').build())) {
                 	// we add all possible headers as we do not know which kind of rows we get
@@ -92,101 +114,24 @@ public class CSVExportFlatStreamSource implements StreamSource {
 							"Comment ID", "Comment/Reply", "Comment Author", "Reply Count", "Reply ID"
                 			).build().getHeader());
                 	
-    	            for (QueryResultRow row : queryResult) {
-    	            	KwicProvider kwicProvider = kwicProviderCache.get(row.getSourceDocumentId());
-    	            	if (row instanceof TagQueryResultRow) {
-    	            		TagQueryResultRow tRow = (TagQueryResultRow) row;
-    	    				List<Range> mergedRanges = 
-    	    						Range.mergeRanges(new TreeSet<>((tRow).getRanges()));
-    	            		for (Range range : mergedRanges) {
-    	            			KeywordInSpanContext kwic = kwicProvider.getKwic(range, contextSizeSupplier.get());
-        	            		csvPrinter.printRecord(
-        	            				row.getQueryId().toSerializedString(),
-        	            				row.getSourceDocumentId(),
-        	            				kwicProvider.getSourceDocumentName(),
-        	            				kwicProvider.getDocumentLength(),
-        	            				kwic.getKeyword(),
-        	            				kwic.toString(),
-        	            				range.getStartPoint(),
-        	            				range.getEndPoint(),
-        	            				tRow.getMarkupCollectionId(),        	            				
-        	            				kwicProvider.getSourceDocumentReference().getUserMarkupCollectionReference(tRow.getMarkupCollectionId()).toString(),
-        	            				tRow.getTagDefinitionPath(),
-        	            				tRow.getTagDefinitionVersion(),
-        	            				colorCache.get(tRow.getTagDefinitionId()),
-        	            				tRow.getTagInstanceId(),
-        	            				tRow.getPropertyDefinitionId(),
-        	            				tRow.getPropertyName(),
-        	            				tRow.getPropertyValue());
-    	            		}
-    	            	}
-    	            	else if (row instanceof CommentQueryResultRow) {
-    	            		CommentQueryResultRow cRow = (CommentQueryResultRow)row;
-
-    	    				List<Range> mergedRanges = 
-    	    						Range.mergeRanges(new TreeSet<>((cRow).getRanges()));
-    	            		for (Range range : mergedRanges) {
-    	            			KeywordInSpanContext kwic = kwicProvider.getKwic(row.getRange(), contextSizeSupplier.get());
-
-        	            		csvPrinter.printRecord(
-        	            				row.getQueryId().toSerializedString(),
-        	            				row.getSourceDocumentId(),
-        	            				kwicProvider.getSourceDocumentName(),
-        	            				kwicProvider.getDocumentLength(),
-        	            				kwic.getKeyword(),
-        	            				kwic.toString(),
-        	            				range.getStartPoint(),
-        	            				range.getEndPoint(),
-        	            				"", "", "", "", "", "", "", "", "", // empty fields for tag rows
-        	            				cRow.getComment().getUuid(),
-        	            				cRow.getComment().getBody(),
-        	            				cRow.getComment().getUsername(),
-        	            				cRow.getComment().getReplyCount(),
-        	            				""
-        	            		);
-        	            		
-        	            		for (Reply reply : cRow.getComment().getReplies()) {
-            	            		csvPrinter.printRecord(
-            	            				row.getQueryId().toSerializedString(),
-            	            				row.getSourceDocumentId(),
-            	            				kwicProvider.getSourceDocumentName(),
-            	            				kwicProvider.getDocumentLength(),
-            	            				kwic.getKeyword(),
-            	            				kwic.toString(),
-            	            				range.getStartPoint(),
-            	            				range.getEndPoint(),
-            	            				"", "", "", "", "", "", "", "", "", // empty fields for tag rows
-            	            				cRow.getComment().getUuid(),
-            	            				reply.getBody(),
-            	            				reply.getUsername(),
-            	            				0,
-            	            				reply.getUuid()
-            	            		);
-        	            		}
-    	            		}    	            		
-    	            	}
-    	            	else {
-	            			KeywordInSpanContext kwic = kwicProvider.getKwic(row.getRange(), 5);
-    	            		csvPrinter.printRecord(
-    	            				row.getQueryId().toSerializedString(),
-    	            				row.getSourceDocumentId(),
-    	            				kwicProvider.getSourceDocumentName(),
-    	            				kwicProvider.getDocumentLength(),
-    	            				kwic.getKeyword(),
-    	            				kwic.toString(),
-    	            				row.getRange().getStartPoint(),
-    	            				row.getRange().getEndPoint());
-    	            	}
-    	
-    	                csvPrinter.flush();
-    	                lock.lock();
-    	                try {
-    	                	sending.signal();
-    	                }
-    	                finally {
-    	                	lock.unlock();
-    	                }
-    	            }
+                	new CSVExportPipeline(kwicProviderCache, progressListener, progressWindow::isCancelled).export(
+                			rows, 
+                			QueryResultRow::getSourceDocumentId, 
+                			(row, kwicProvider) -> createRecords(row, kwicProvider, contextSize, colorsByTagDefinitionId), 
+                			records -> {
+                				for (List<Object> record : records) {
+                					csvPrinter.printRecord(record);
+                				}
+        	
+        		                csvPrinter.flush();
+        		                lock.lock();
+        		                try {
+        		                	sending.signal();
+        		                }
+        		                finally {
+        		                	lock.unlock();
+        		                }
+                			});
                 }
 
         		return null; //intended
@@ -195,11 +140,14 @@ public class CSVExportFlatStreamSource implements StreamSource {
         new ExecutionListener<Void>() {
 			@Override
 			public void done(Void result) {
-				// noop
+				progressWindow.close();
 			}
 			@Override
 			public void error(Throwable t) {
-				((ErrorHandler) ui).showAndLogError("Error exporting data to CSV", t);
+				progressWindow.close();
+				if (!(t instanceof CancellationException)) {
+					((ErrorHandler) ui).showAndLogError("Error exporting data to CSV", t);
+				}
 			}
 		});
         
@@ -218,4 +166,96 @@ public class CSVExportFlatStreamSource implements StreamSource {
         
         return in;
 	}
+
+	private List<List<Object>> createRecords(
+			QueryResultRow row, KwicProvider kwicProvider, int contextSize, Map<String, String> colorsByTagDefinitionId) 
+					throws IOException {
+		List<List<Object>> records = new ArrayList<>();
+
+    	if (row instanceof TagQueryResultRow) {
+    		TagQueryResultRow tRow = (TagQueryResultRow) row;
+			List<Range> mergedRanges = 
+					Range.mergeRanges(new TreeSet<>((tRow).getRanges()));
+    		for (Range range : mergedRanges) {
+    			KeywordInSpanContext kwic = kwicProvider.getKwic(range, contextSize);
+        		records.add(Arrays.asList(
+        				row.getQueryId().toSerializedString(),
+        				row.getSourceDocumentId(),
+        				kwicProvider.getSourceDocumentName(),
+        				kwicProvider.getDocumentLength(),
+        				kwic.getKeyword(),
+        				kwic.toString(),
+        				range.getStartPoint(),
+        				range.getEndPoint(),
+        				tRow.getMarkupCollectionId(),        	            				
+        				kwicProvider.getSourceDocumentReference().getUserMarkupCollectionReference(tRow.getMarkupCollectionId()).toString(),
+        				tRow.getTagDefinitionPath(),
+        				tRow.getTagDefinitionVersion(),
+        				colorsByTagDefinitionId.get(tRow.getTagDefinitionId()),
+        				tRow.getTagInstanceId(),
+        				tRow.getPropertyDefinitionId(),
+        				tRow.getPropertyName(),
+        				tRow.getPropertyValue()));
+    		}
+    	}
+    	else if (row instanceof CommentQueryResultRow) {
+    		CommentQueryResultRow cRow = (CommentQueryResultRow)row;
+
+			List<Range> mergedRanges = 
+					Range.mergeRanges(new TreeSet<>((cRow).getRanges()));
+    		for (Range range : mergedRanges) {
+    			KeywordInSpanContext kwic = kwicProvider.getKwic(row.getRange(), contextSize);
+
+        		records.add(Arrays.asList(
+        				row.getQueryId().toSerializedString(),
+        				row.getSourceDocumentId(),
+        				kwicProvider.getSourceDocumentName(),
+        				kwicProvider.getDocumentLength(),
+        				kwic.getKeyword(),
+        				kwic.toString(),
+        				range.getStartPoint(),
+        				range.getEndPoint(),
+        				"", "", "", "", "", "", "", "", "", // empty fields for tag rows
+        				cRow.getComment().getUuid(),
+        				cRow.getComment().getBody(),
+        				cRow.getComment().getUsername(),
+        				cRow.getComment().getReplyCount(),
+        				""
+        		));
+        		
+        		for (Reply reply : cRow.getComment().getReplies()) {
+            		records.add(Arrays.asList(
+            				row.getQueryId().toSerializedString(),
+            				row.getSourceDocumentId(),
+            				kwicProvider.getSourceDocumentName(),
+            				kwicProvider.getDocumentLength(),
+            				kwic.getKeyword(),
+            				kwic.toString(),
+            				range.getStartPoint(),
+            				range.getEndPoint(),
+            				"", "", "", "", "", "", "", "", "", // empty fields for tag rows
+            				cRow.getComment().getUuid(),
+            				reply.getBody(),
+            				reply.getUsername(),
+            				0,
+            				reply.getUuid()
+            		));
+        		}
+    		}    	            		
+    	}
+    	else {
+			KeywordInSpanContext kwic = kwicProvider.getKwic(row.getRange(), 5);
+    		records.add(Arrays.asList(
+    				row.getQueryId().toSerializedString(),
+    				row.getSourceDocumentId(),
+    				kwicProvider.getSourceDocumentName(),
+    				kwicProvider.getDocumentLength(),
+    				kwic.getKeyword(),
+    				kwic.toString(),
+    				row.getRange().getStartPoint(),
+    				row.getRange().getEndPoint()));
+    	}
+
+    	return records;
+	}
 }
@@ -29,6 +29,7 @@ import com.vaadin.ui.UI;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
+import de.catma.backgroundservice.TaskType;
 import de.catma.indexer.KwicProvider;
 import de.catma.project.Project;
 import de.catma.queryengine.result.QueryResult;
@@ -107,6 +108,12 @@ public class CSVExportGroupedStreamSource implements StreamSource {
         lock.lock();
 
         backgroundServiceProvider.submit("csv-export", new DefaultProgressCallable<Void>() {
+        	@Override
+        	public TaskType getTaskType() {
+        		// blocks on the pipe until the browser has downloaded the export
+        		return TaskType.STREAMING;
+        	}
+
         	@Override
         	public Void call() throws Exception {
             	PipedOutputStream out = new PipedOutputStream(in);
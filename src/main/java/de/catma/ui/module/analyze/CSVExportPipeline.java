@@ -0,0 +1,184 @@
+package de.catma.ui.module.analyze;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+
+import de.catma.backgroundservice.ProgressListener;
+import de.catma.backgroundservice.SharedExecutionService;
+import de.catma.backgroundservice.TaskType;
+import de.catma.indexer.KwicProvider;
+
+/**
+ * Creates the records of a CSV export in parallel and writes them in the original order of the exported units, e.g.
+ * query result rows.
+ * <p>
+ * Units are processed in windows of at most {@link #WINDOW_SIZE} units. The units of a window are grouped by document,
+ * the {@link KwicProvider} of each document is loaded once on the exporting thread and the records, i.e. mostly the
+ * KWICs, are computed in batches as {@link TaskType#BULK} tasks of the {@link SharedExecutionService}, so that exports
+ * don't slow down queries of other users. The exporting thread writes the records of a window in order
+ * while the workers compute the next window, so at most two windows are buffered at any time.
+ * <p>
+ * The export stops with a {@link CancellationException} as soon as it gets cancelled and with an {@link IOException}
+ * as soon as the reading end of the output goes away, e.g. because the download has been aborted.
+ */
+public class CSVExportPipeline {
+
+	/**
+	 * Creates the CSV records of a single unit.
+	 * <p>
+	 * Producers are called concurrently and must not access the project, everything they need has to be loaded up front
+	 * or has to come from the given {@link KwicProvider}.
+	 */
+	public static interface RecordProducer<T> {
+		public List<List<Object>> createRecords(T unit, KwicProvider kwicProvider) throws Exception;
+	}
+
+	/**
+	 * Writes the CSV records of a single unit, called on the exporting thread in the original order of the units.
+	 */
+	public static interface RecordWriter {
+		public void write(List<List<Object>> records) throws IOException;
+	}
+
+	private static final int WINDOW_SIZE = 2000;
+	private static final int BATCH_SIZE = 250;
+
+	private final static class Window {
+		private final int start;
+		private final int end;
+		private final AtomicReferenceArray<List<List<Object>>> records;
+		private final List<Future<?>> batchByUnit;
+
+		public Window(int start, int end) {
+			this.start = start;
+			this.end = end;
+			this.records = new AtomicReferenceArray<>(end - start);
+			this.batchByUnit = new ArrayList<>(end - start);
+			for (int idx = start; idx < end; idx++) {
+				batchByUnit.add(null);
+			}
+		}
+
+		public List<List<Object>> getRecords(int index) throws Exception {
+			try {
+				batchByUnit.get(index - start).get();
+			}
+			catch (ExecutionException e) {
+				if (e.getCause() instanceof Exception) {
+					throw (Exception) e.getCause();
+				}
+				throw e;
+			}
+			return records.get(index - start);
+		}
+	}
+
+	private final LoadingCache<String, KwicProvider> kwicProviderCache;
+	private final ProgressListener progressListener;
+	private final Supplier<Boolean> cancelledSupplier;
+
+	/**
+	 * @param kwicProviderCache the {@link KwicProvider}s by document ID, only accessed from the exporting thread
+	 * @param progressListener gets the number of exported units after each window
+	 * @param cancelledSupplier tells whether the export has been cancelled
+	 */
+	public CSVExportPipeline(
+			LoadingCache<String, KwicProvider> kwicProviderCache,
+			ProgressListener progressListener, Supplier<Boolean> cancelledSupplier) {
+		this.kwicProviderCache = kwicProviderCache;
+		this.progressListener = progressListener;
+		this.cancelledSupplier = cancelledSupplier;
+	}
+
+	/**
+	 * @param units the units to export in the order they should appear in the output
+	 * @param documentIdProvider provides the ID of the document a unit belongs to
+	 * @param recordProducer creates the records of a unit
+	 * @param recordWriter writes the records of a unit
+	 * @throws CancellationException if the export has been cancelled
+	 * @throws Exception if a {@link KwicProvider} cannot be loaded or if records cannot be created or written
+	 */
+	public <T> void export(
+			List<T> units, Function<T, String> documentIdProvider,
+			RecordProducer<T> recordProducer, RecordWriter recordWriter) throws Exception {
+
+		SharedExecutionService.Session session = SharedExecutionService.getInstance().openSession();
+		try {
+			Window current = submitWindow(0, units, documentIdProvider, recordProducer, session);
+			while (current != null) {
+				Window next = null;
+				for (int idx = current.start; idx < current.end; idx++) {
+					checkCancelled();
+					recordWriter.write(current.getRecords(idx));
+
+					// the first records of a window go out before the next window gets submitted,
+					// so that loading the next KwicProviders doesn't hold back the download
+					if (idx == current.start && current.end < units.size()) {
+						next = submitWindow(current.end, units, documentIdProvider, recordProducer, session);
+					}
+				}
+				progressListener.setProgress("Exported %1$d of %2$d rows", current.end, units.size());
+				current = next;
+			}
+		}
+		finally {
+			session.closeNow();
+		}
+	}
+
+	private <T> Window submitWindow(
+			int start, List<T> units, Function<T, String> documentIdProvider,
+			RecordProducer<T> recordProducer, SharedExecutionService.Session session) throws Exception {
+		if (start >= units.size()) {
+			return null;
+		}
+
+		Window window = new Window(start, Math.min(units.size(), start + WINDOW_SIZE));
+
+		Map<String, List<Integer>> indicesByDocumentId = new LinkedHashMap<>();
+		for (int idx = window.start; idx < window.end; idx++) {
+			indicesByDocumentId.computeIfAbsent(
+					documentIdProvider.apply(units.get(idx)), documentId -> new ArrayList<>()).add(idx);
+		}
+
+		for (Map.Entry<String, List<Integer>> entry : indicesByDocumentId.entrySet()) {
+			checkCancelled();
+			final KwicProvider kwicProvider = kwicProviderCache.get(entry.getKey());
+
+			for (final List<Integer> batch : Lists.partition(entry.getValue(), BATCH_SIZE)) {
+				Future<?> batchFuture = session.submit(() -> {
+					for (int idx : batch) {
+						if (Thread.currentThread().isInterrupted()) {
+							throw new CancellationException("CSV export has been cancelled");
+						}
+						window.records.set(idx - window.start, recordProducer.createRecords(units.get(idx), kwicProvider));
+					}
+					return null;
+				}, TaskType.BULK);
+				for (int idx : batch) {
+					window.batchByUnit.set(idx - window.start, batchFuture);
+				}
+			}
+		}
+
+		return window;
+	}
+
+	private void checkCancelled() {
+		if (cancelledSupplier.get() || Thread.currentThread().isInterrupted()) {
+			throw new CancellationException("CSV export has been cancelled");
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package de.catma.ui.module.analyze;
+
+import com.vaadin.ui.Button;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.ProgressBar;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.VerticalLayout;
+import com.vaadin.ui.Window;
+import com.vaadin.ui.themes.ValoTheme;
+
+import de.catma.backgroundservice.ProgressListener;
+
+/**
+ * Shows the progress of a running CSV export and lets the user cancel it.
+ * <p>
+ * Progress has to be reported from the UI thread, wrap it with a
+ * {@link de.catma.ui.UIBackgroundService.UIProgressListener} when reporting from a background thread.
+ */
+public class CSVExportProgressWindow extends Window implements ProgressListener {
+
+	private Label progressLabel;
+	private Button btCancel;
+	private volatile boolean cancelled;
+
+	public CSVExportProgressWindow() {
+		super("CSV Export");
+		initComponents();
+		initActions();
+		setWidth("300px"); //$NON-NLS-1$
+		setClosable(false);
+		setResizable(false);
+		center();
+	}
+
+	private void initActions() {
+		btCancel.addClickListener(clickEvent -> {
+			cancelled = true;
+			btCancel.setEnabled(false);
+			progressLabel.setValue("Cancelling...");
+		});
+	}
+
+	private void initComponents() {
+		VerticalLayout content = new VerticalLayout();
+		content.setMargin(true);
+		content.setSpacing(true);
+
+		ProgressBar progressBar = new ProgressBar();
+		progressBar.setIndeterminate(true);
+		progressBar.setWidth("100%");
+		content.addComponent(progressBar);
+
+		progressLabel = new Label("Preparing export...");
+		content.addComponent(progressLabel);
+
+		btCancel = new Button("Cancel");
+		btCancel.addStyleName(ValoTheme.BUTTON_SMALL);
+		content.addComponent(btCancel);
+
+		setContent(content);
+	}
+
+	public void show() {
+		UI.getCurrent().addWindow(this);
+	}
+
+	@Override
+	public void setProgress(String value, Object... args) {
+		if (!cancelled) {
+			progressLabel.setValue(String.format(value, args));
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
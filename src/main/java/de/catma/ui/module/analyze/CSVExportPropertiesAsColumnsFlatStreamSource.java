@@ -1,17 +1,19 @@
 package de.catma.ui.module.analyze;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -24,8 +26,6 @@ import java.util.stream.Collectors;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.vaadin.server.StreamResource.StreamSource;
 import com.vaadin.ui.UI;
@@ -33,6 +33,8 @@ import com.vaadin.ui.UI;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
+import de.catma.backgroundservice.ProgressListener;
+import de.catma.backgroundservice.TaskType;
 import de.catma.document.Range;
 import de.catma.document.comment.Reply;
 import de.catma.indexer.KeywordInSpanContext;
@@ -43,6 +45,8 @@ import de.catma.queryengine.result.QueryResult;
 import de.catma.queryengine.result.QueryResultRow;
 import de.catma.queryengine.result.QueryResultRowArray;
 import de.catma.queryengine.result.TagQueryResultRow;
+import de.catma.ui.UIBackgroundService.UIProgressListener;
+import de.catma.ui.module.analyze.CSVExportPipeline.RecordWriter;
 import de.catma.ui.module.main.ErrorHandler;
 import de.catma.util.ColorConverter;
 
@@ -70,20 +74,24 @@ public class CSVExportPropertiesAsColumnsFlatStreamSource implements StreamSourc
         final UI ui = UI.getCurrent();
         final Lock lock = new ReentrantLock();
         final Condition sending  = lock.newCondition();
+        final CSVExportProgressWindow progressWindow = new CSVExportProgressWindow();
+        final ProgressListener progressListener = new UIProgressListener(progressWindow);
+        progressWindow.show();
         lock.lock();
 
         backgroundServiceProvider.submit("csv-export", new DefaultProgressCallable<Void>() {
+        	@Override
+        	public TaskType getTaskType() {
+        		// blocks on the pipe until the browser has downloaded the export
+        		return TaskType.STREAMING;
+        	}
+
         	@Override
         	public Void call() throws Exception {
             	PipedOutputStream out = new PipedOutputStream(in);
             	OutputStreamWriter writer = new OutputStreamWriter(out, "UTF-8");
-        		LoadingCache<String, String> colorCache = 
-        				CacheBuilder.newBuilder().build(new CacheLoader<String, String>() {
-        					@Override
-        					public String load(String tagDefinitionId) throws Exception {
-        						return "#"+ColorConverter.toHex(project.getTagManager().getTagLibrary().getTagDefinition(tagDefinitionId).getColor());
-        					}
-        				});
+            	// colors are resolved up front as the records get created concurrently
+            	Map<String, String> colorsByTagDefinitionId = new HashMap<>();
         		
         		// group all rows by their tagInstanceId
     			HashMap<String, QueryResultRowArray> rowsGroupedByTagInstance = 
@@ -106,6 +114,9 @@ public class CSVExportPropertiesAsColumnsFlatStreamSource implements StreamSourc
     					if (tRow.getPropertyName() != null) {
     						propertyNames.add(tRow.getPropertyName());
     					}
+            			colorsByTagDefinitionId.computeIfAbsent(
+            					tRow.getTagDefinitionId(), 
+            					tagDefinitionId -> "#"+ColorConverter.toHex(project.getTagManager().getTagLibrary().getTagDefinition(tagDefinitionId).getColor()));
     				}
     				else {
     					// in case we have a result which is not tag based we simply collect the rows for further processing
@@ -138,157 +149,37 @@ public class CSVExportPropertiesAsColumnsFlatStreamSource implements StreamSourc
                     
                 	csvPrinter.printRecord((Object[])CSVFormat.EXCEL.builder().setHeader(headerNames.toArray(new String[] {})).build().getHeader());
                 	
-                	// handle tag based rows 
-                	for (QueryResultRowArray group : rowsGroupedByTagInstance.values()) {
-                    	Iterator<QueryResultRow> peekIter = group.iterator();
-                    	if (peekIter.hasNext()) {
-                    		// get a master Row for the common fields
-                    		QueryResultRow peekRow = peekIter.next();
-                    		
-    	            		TagQueryResultRow tRow = (TagQueryResultRow) peekRow;
-        	            	KwicProvider kwicProvider = kwicProviderCache.get(tRow.getSourceDocumentId());
-
-	            			// get all property values grouped by their name for this group
-	            			Map<String, Set<String>> propertyValuesByPropertyName = 
-	            					group.stream()
-	            					.map(r -> (TagQueryResultRow)r)
-	            					.filter(r -> r.getPropertyName() != null && r.getPropertyValue() != null)
-	            					.collect(
-	            							Collectors.groupingBy(
-	            									TagQueryResultRow::getPropertyName, 
-	            									TreeMap::new, 
-	            									Collectors.mapping(
-	            											TagQueryResultRow::getPropertyValue, Collectors.toSet())));
-        	            	List<Range> mergedRanges = 
-    	    						Range.mergeRanges(new TreeSet<>((tRow).getRanges()));
-    	            		for (Range range : mergedRanges) {
-    	            			KeywordInSpanContext kwic = kwicProvider.getKwic(range, 5);
-    	            			List<Object> values = new ArrayList<>();
-    	            			// add common field values
-    	            			values.addAll(List.of(
-    	            					tRow.getQueryId().toSerializedString(),
-    	            					tRow.getSourceDocumentId(),
-        	            				kwicProvider.getSourceDocumentName(),
-        	            				kwicProvider.getDocumentLength(),
-        	            				kwic.getKeyword(),
-        	            				kwic.toString(),
-        	            				range.getStartPoint(),
-        	            				range.getEndPoint(),
-        	            				tRow.getMarkupCollectionId(),        	            				
-        	            				kwicProvider.getSourceDocumentReference().getUserMarkupCollectionReference(tRow.getMarkupCollectionId()).toString(),
-        	            				tRow.getTagDefinitionPath(),
-        	            				tRow.getTagDefinitionVersion(),
-        	            				colorCache.get(tRow.getTagDefinitionId()),
-        	            				tRow.getTagInstanceId()));
-    	            			
-    	            			// add property field values
-    	            			for (String propertyName : propertyNames) {
-    	            				if (propertyValuesByPropertyName.containsKey(propertyName)) {
-    	            					values.add(propertyValuesByPropertyName.get(propertyName).stream().collect(Collectors.joining(",")));
-    	            				}
-    	            				else {
-    	            					values.add("");
-    	            				}
-    	            			}
-    	            			
-    	            			csvPrinter.printRecord(values.toArray());
-    	            		}
-                    	}
-                	}
+                	RecordWriter recordWriter = records -> {
+        				for (List<Object> record : records) {
+        					csvPrinter.printRecord(record);
+        				}
+	
+		                csvPrinter.flush();
+		                lock.lock();
+		                try {
+		                	sending.signal();
+		                }
+		                finally {
+		                	lock.unlock();
+		                }
+                	};
                 	
-    	            for (QueryResultRow row : untaggedRows) {
-    	            	KwicProvider kwicProvider = kwicProviderCache.get(row.getSourceDocumentId());
-    	            	if (row instanceof CommentQueryResultRow) {
-    	            		CommentQueryResultRow cRow = (CommentQueryResultRow)row;
-
-    	    				List<Range> mergedRanges = 
-    	    						Range.mergeRanges(new TreeSet<>((cRow).getRanges()));
-    	            		for (Range range : mergedRanges) {
-    	            			KeywordInSpanContext kwic = kwicProvider.getKwic(range, 5);
-    	            			
-    	            			List<Object> values = new ArrayList<>();
+                	// the progress is reported per pass, tag based rows first, then the other rows
+                	CSVExportPipeline pipeline = 
+                			new CSVExportPipeline(kwicProviderCache, progressListener, progressWindow::isCancelled);
 
-    	            			// add common fields
-        	            		values.addAll(List.of(
-        	            				row.getQueryId().toSerializedString(),
-        	            				row.getSourceDocumentId(),
-        	            				kwicProvider.getSourceDocumentName(),
-        	            				kwicProvider.getDocumentLength(),
-        	            				kwic.getKeyword(),
-        	            				kwic.toString(),
-        	            				range.getStartPoint(),
-        	            				range.getEndPoint()
-        	            		));
-        	            		
-        	            		// add empty common tag fields
-        	            		values.addAll(List.of("","","","","",""));
-        	            		// add empty property fields
-        	            		propertyNames.forEach(ign -> values.add(""));
-        	            		
-        	            		// add comment fields
-        	            		values.addAll(List.of(
-        	            				cRow.getComment().getUuid(),
-        	            				cRow.getComment().getBody(),
-        	            				cRow.getComment().getUsername(),
-        	            				cRow.getComment().getReplyCount(),
-        	            				""
-	            				));
-        	            		
-        	            		csvPrinter.printRecord(values);
-        	            		
-        	            		for (Reply reply : cRow.getComment().getReplies()) {
-        	            			List<Object> replyValues = new ArrayList<>();
-            	            		replyValues.addAll(List.of(
-            	            				row.getQueryId().toSerializedString(),
-            	            				row.getSourceDocumentId(),
-            	            				kwicProvider.getSourceDocumentName(),
-            	            				kwicProvider.getDocumentLength(),
-            	            				kwic.getKeyword(),
-            	            				kwic.toString(),
-            	            				range.getStartPoint(),
-            	            				range.getEndPoint()
-            	            		));
-            	            		
-            	            		
-            	            		// add empty common tag fields
-            	            		replyValues.addAll(List.of("","","","","",""));
-            	            		// add empty property fields
-            	            		propertyNames.forEach(ign -> replyValues.add(""));
-            	            		
-            	            		// add comment fields
-            	            		replyValues.addAll(List.of(
-            	            				cRow.getComment().getUuid(),
-            	            				reply.getBody(),
-            	            				reply.getUsername(),
-            	            				0,
-            	            				reply.getUuid()
-    	            				));
-            	            		csvPrinter.printRecord(replyValues);
-        	            		}
-    	            		}    	            		
-    	            	}
-    	            	else {
-	            			KeywordInSpanContext kwic = kwicProvider.getKwic(row.getRange(), 5);
-    	            		csvPrinter.printRecord(
-    	            				row.getQueryId().toSerializedString(),
-    	            				row.getSourceDocumentId(),
-    	            				kwicProvider.getSourceDocumentName(),
-    	            				kwicProvider.getDocumentLength(),
-    	            				kwic.getKeyword(),
-    	            				kwic.toString(),
-    	            				row.getRange().getStartPoint(),
-    	            				row.getRange().getEndPoint());
-    	            	}
-    	
-    	                csvPrinter.flush();
-    	                lock.lock();
-    	                try {
-    	                	sending.signal();
-    	                }
-    	                finally {
-    	                	lock.unlock();
-    	                }
-    	            }
+                	// handle tag based rows 
+                	pipeline.export(
+                			rowsGroupedByTagInstance.values().stream().filter(group -> !group.isEmpty()).collect(Collectors.toList()), 
+                			group -> group.get(0).getSourceDocumentId(), 
+                			(group, kwicProvider) -> createTagRecords(group, kwicProvider, propertyNames, colorsByTagDefinitionId), 
+                			recordWriter);
+                	
+                	pipeline.export(
+                			untaggedRows, 
+                			QueryResultRow::getSourceDocumentId, 
+                			(row, kwicProvider) -> createUntaggedRecords(row, kwicProvider, propertyNames), 
+                			recordWriter);
                 }
 
         		return null; //intended
@@ -297,11 +188,14 @@ public class CSVExportPropertiesAsColumnsFlatStreamSource implements StreamSourc
         new ExecutionListener<Void>() {
 			@Override
 			public void done(Void result) {
-				// noop
+				progressWindow.close();
 			}
 			@Override
 			public void error(Throwable t) {
-				((ErrorHandler) ui).showAndLogError("Error exporting data to CSV", t);
+				progressWindow.close();
+				if (!(t instanceof CancellationException)) {
+					((ErrorHandler) ui).showAndLogError("Error exporting data to CSV", t);
+				}
 			}
 		});
         
@@ -320,4 +214,150 @@ public class CSVExportPropertiesAsColumnsFlatStreamSource implements StreamSourc
         
         return in;
 	}
+
+	private List<List<Object>> createTagRecords(
+			QueryResultRowArray group, KwicProvider kwicProvider, 
+			Set<String> propertyNames, Map<String, String> colorsByTagDefinitionId) throws IOException {
+		List<List<Object>> records = new ArrayList<>();
+		
+		// get a master Row for the common fields
+		TagQueryResultRow tRow = (TagQueryResultRow) group.get(0);
+
+		// get all property values grouped by their name for this group
+		Map<String, Set<String>> propertyValuesByPropertyName = 
+				group.stream()
+				.map(r -> (TagQueryResultRow)r)
+				.filter(r -> r.getPropertyName() != null && r.getPropertyValue() != null)
+				.collect(
+						Collectors.groupingBy(
+								TagQueryResultRow::getPropertyName, 
+								TreeMap::new, 
+								Collectors.mapping(
+										TagQueryResultRow::getPropertyValue, Collectors.toSet())));
+    	List<Range> mergedRanges = 
+				Range.mergeRanges(new TreeSet<>((tRow).getRanges()));
+		for (Range range : mergedRanges) {
+			KeywordInSpanContext kwic = kwicProvider.getKwic(range, 5);
+			List<Object> values = new ArrayList<>();
+			// add common field values
+			values.addAll(List.of(
+					tRow.getQueryId().toSerializedString(),
+					tRow.getSourceDocumentId(),
+    				kwicProvider.getSourceDocumentName(),
+    				kwicProvider.getDocumentLength(),
+    				kwic.getKeyword(),
+    				kwic.toString(),
+    				range.getStartPoint(),
+    				range.getEndPoint(),
+    				tRow.getMarkupCollectionId(),        	            				
+    				kwicProvider.getSourceDocumentReference().getUserMarkupCollectionReference(tRow.getMarkupCollectionId()).toString(),
+    				tRow.getTagDefinitionPath(),
+    				tRow.getTagDefinitionVersion(),
+    				colorsByTagDefinitionId.get(tRow.getTagDefinitionId()),
+    				tRow.getTagInstanceId()));
+			
+			// add property field values
+			for (String propertyName : propertyNames) {
+				if (propertyValuesByPropertyName.containsKey(propertyName)) {
+					values.add(propertyValuesByPropertyName.get(propertyName).stream().collect(Collectors.joining(",")));
+				}
+				else {
+					values.add("");
+				}
+			}
+			
+			records.add(values);
+		}
+		
+		return records;
+	}
+
+	private List<List<Object>> createUntaggedRecords(
+			QueryResultRow row, KwicProvider kwicProvider, Set<String> propertyNames) throws IOException {
+		List<List<Object>> records = new ArrayList<>();
+
+    	if (row instanceof CommentQueryResultRow) {
+    		CommentQueryResultRow cRow = (CommentQueryResultRow)row;
+
+			List<Range> mergedRanges = 
+					Range.mergeRanges(new TreeSet<>((cRow).getRanges()));
+    		for (Range range : mergedRanges) {
+    			KeywordInSpanContext kwic = kwicProvider.getKwic(range, 5);
+    			
+    			List<Object> values = new ArrayList<>();
+
+    			// add common fields
+        		values.addAll(List.of(
+        				row.getQueryId().toSerializedString(),
+        				row.getSourceDocumentId(),
+        				kwicProvider.getSourceDocumentName(),
+        				kwicProvider.getDocumentLength(),
+        				kwic.getKeyword(),
+        				kwic.toString(),
+        				range.getStartPoint(),
+        				range.getEndPoint()
+        		));
+        		
+        		// add empty common tag fields
+        		values.addAll(List.of("","","","","",""));
+        		// add empty property fields
+        		propertyNames.forEach(ign -> values.add(""));
+        		
+        		// add comment fields
+        		values.addAll(List.of(
+        				cRow.getComment().getUuid(),
+        				cRow.getComment().getBody(),
+        				cRow.getComment().getUsername(),
+        				cRow.getComment().getReplyCount(),
+        				""
+				));
+        		
+        		records.add(values);
+        		
+        		for (Reply reply : cRow.getComment().getReplies()) {
+        			List<Object> replyValues = new ArrayList<>();
+            		replyValues.addAll(List.of(
+            				row.getQueryId().toSerializedString(),
+            				row.getSourceDocumentId(),
+            				kwicProvider.getSourceDocumentName(),
+            				kwicProvider.getDocumentLength(),
+            				kwic.getKeyword(),
+            				kwic.toString(),
+            				range.getStartPoint(),
+            				range.getEndPoint()
+            		));
+            		
+            		
+            		// add empty common tag fields
+            		replyValues.addAll(List.of("","","","","",""));
+            		// add empty property fields
+            		propertyNames.forEach(ign -> replyValues.add(""));
+            		
+            		// add comment fields
+            		replyValues.addAll(List.of(
+            				cRow.getComment().getUuid(),
+            				reply.getBody(),
+            				reply.getUsername(),
+            				0,
+            				reply.getUuid()
+    				));
+            		records.add(replyValues);
+        		}
+    		}    	            		
+    	}
+    	else {
+			KeywordInSpanContext kwic = kwicProvider.getKwic(row.getRange(), 5);
+    		records.add(Arrays.asList(
+    				row.getQueryId().toSerializedString(),
+    				row.getSourceDocumentId(),
+    				kwicProvider.getSourceDocumentName(),
+    				kwicProvider.getDocumentLength(),
+    				kwic.getKeyword(),
+    				kwic.toString(),
+    				row.getRange().getStartPoint(),
+    				row.getRange().getEndPoint()));
+    	}
+    	
+    	return records;
+	}
 }
@@ -1,9 +1,10 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import com.google.common.cache.LoadingCache;
-import com.vaadin.data.TreeData;
 import com.vaadin.ui.UI;
 
 import de.catma.document.source.SourceDocumentReference;
@@ -26,8 +27,8 @@ public class AnnotatedDocumentQueryResultRowItem extends DocumentQueryResultRowI
 	}
 
 	@Override
-	public void addChildRowItems(TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
+	public List<QueryResultRowItem> createChildRowItems(LoadingCache<String, KwicProvider> kwicProviderCache) {
+		List<QueryResultRowItem> childRowItems = new ArrayList<>();
 		try {
 			HashMap<String, QueryResultRowArray> rowsByCollectionId = new HashMap<String, QueryResultRowArray>();
 	
@@ -55,23 +56,19 @@ public class AnnotatedDocumentQueryResultRowItem extends DocumentQueryResultRowI
 				SourceDocumentReference documentRef = kwicProviderCache.get(getDocumentId()).getSourceDocumentReference();
 				String collectionName = documentRef.getUserMarkupCollectionReference(collectionId).getName();
 				QueryResultRowArray rows = rowsByCollectionId.get(collectionId);
-				CollectionQueryResultRowItem item = 
+				childRowItems.add(
 					new CollectionQueryResultRowItem(
 						identity,
 						collectionName,
 						getDocumentId(), collectionId, 
 						rows, project,
-						contextSize);
-				
-				if (!treeData.contains(item)) {
-					treeData.addItem(this, item);
-					treeData.addItem(item, new DummyQueryResultRowItem());
-				}
+						contextSize));
 			}
 		}
 		catch (Exception e) {
 			((ErrorHandler) UI.getCurrent()).showAndLogError("Error displaying annotated query results", e);
 		}
+		return childRowItems;
 	}
 	
 	@Override
@@ -1,7 +1,9 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.google.common.cache.LoadingCache;
-import com.vaadin.data.TreeData;
 import com.vaadin.ui.UI;
 
 import de.catma.indexer.KwicProvider;
@@ -20,26 +22,23 @@ public class AnnotatedQueryIdQueryResultRowItem extends QueryIdQueryResultRowIte
 	}
 
 	@Override
-	public void addChildRowItems(
-		TreeData<QueryResultRowItem> treeData, LoadingCache<String, KwicProvider> kwicProviderCache) {
+	public List<QueryResultRowItem> createChildRowItems(LoadingCache<String, KwicProvider> kwicProviderCache) {
+		List<QueryResultRowItem> childRowItems = new ArrayList<>();
 		try {
 			for (String documentId : groupedQueryResult.getSourceDocumentIDs()) {
 				String documentName = kwicProviderCache.get(documentId).getSourceDocumentName();
-				AnnotatedDocumentQueryResultRowItem item = new AnnotatedDocumentQueryResultRowItem(
+				childRowItems.add(new AnnotatedDocumentQueryResultRowItem(
 						identity,
 						documentName, documentId, 
 						groupedQueryResult.getSubResult(documentId), 
 						project,
-						contextSize);
-				if (!treeData.contains(item)) {
-					treeData.addItem(this, item);
-					treeData.addItem(item, new DummyQueryResultRowItem());
-				}
+						contextSize));
 			}
 		}
 		catch (Exception e) {
 			((ErrorHandler) UI.getCurrent()).showAndLogError("Error displaying annotated query results", e);
 		}
+		return childRowItems;
 	}
 
 }
@@ -1,9 +1,9 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import com.google.common.cache.LoadingCache;
-import com.vaadin.data.TreeData;
 import com.vaadin.ui.UI;
 
 import de.catma.indexer.KwicProvider;
@@ -77,13 +77,13 @@ public class CollectionQueryResultRowItem implements QueryResultRowItem {
 	}
 
 	@Override
-	public boolean isExpansionDummy() {
-		return false;
+	public boolean hasChildRowItems() {
+		return true;
 	}
 
 	@Override
-	public void addChildRowItems(TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
+	public List<QueryResultRowItem> createChildRowItems(LoadingCache<String, KwicProvider> kwicProviderCache) {
+		List<QueryResultRowItem> childRowItems = new ArrayList<>();
 		try {
 			for (QueryResultRow row : getRows()) {
 				if (row instanceof TagQueryResultRow) {
@@ -92,31 +92,29 @@ public class CollectionQueryResultRowItem implements QueryResultRowItem {
 					KwicProvider kwicProvider = kwicProviderCache.get(row.getSourceDocumentId());
 					TagDefinition tagDefinition = 
 						project.getTagManager().getTagLibrary().getTagDefinition(tRow.getTagDefinitionId());
-					KwicQueryResultRowItem item = 
+					childRowItems.add(
 							new KwicQueryResultRowItem(
 									tRow, 
-									AnnotatedTextProvider.buildAnnotatedText(
+									() -> AnnotatedTextProvider.buildAnnotatedText(
 											new ArrayList<>(tRow.getRanges()), 
 											kwicProvider, 
 											tagDefinition,
 											contextSize),
-									AnnotatedTextProvider.buildAnnotatedKeywordInContext(
+									() -> AnnotatedTextProvider.buildAnnotatedKeywordInContext(
 											new ArrayList<>(tRow.getRanges()), 
 											kwicProvider, 
 											tagDefinition, 
 											tRow.getTagDefinitionPath(),
 											contextSize),
 									true
-								);
-					if (!treeData.contains(item)) {
-						treeData.addItem(this, item);
-					}
+								));
 				}
 			}
 		}
 		catch (Exception e) {
 			((ErrorHandler) UI.getCurrent()).showAndLogError("Error displaying annotated KWIC query results", e);
 		}
+		return childRowItems;
 	}
 
 	@Override
@@ -144,45 +142,6 @@ public class CollectionQueryResultRowItem implements QueryResultRowItem {
 		return true;
 	}
 	
-	@Override
-	public void addQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
-		
-		if ((row instanceof TagQueryResultRow) 
-				&& this.collectionId.equals(((TagQueryResultRow)row).getMarkupCollectionId())) {
-			rows.add(row);
-
-			// update existing
-			treeData.getChildren(this).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.addQueryResultRow(row, treeData, kwicProviderCache);
-				}
-			});
-			
-			if (!treeData.getChildren(this).get(0).isExpansionDummy()) {
-				// check for missing child row
-				addChildRowItems(treeData, kwicProviderCache);
-			}
-		}		
-		
-	}
-	
-	@Override
-	public void removeQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData) {
-		if (rows.remove(row)) {
-			//update existing rows
-			new ArrayList<>(treeData.getChildren(this)).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.removeQueryResultRow(row, treeData);
-					if (child.getRows().isEmpty()) {
-						treeData.removeItem(child);
-					}
-				}
-			});			
-		}
-	}
-
-
 	@Override
 	public boolean startsWith(String searchValue) {
 		for (QueryResultRow row : rows) {
@@ -1,7 +1,5 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
-import de.catma.queryengine.result.QueryResultRowArray;
-
 public enum DisplaySetting {
 	GROUPED_BY_PHRASE(new QueryResultPanelHandler() {
 
@@ -9,11 +7,6 @@ public enum DisplaySetting {
 		public void init(QueryResultPanel queryResultPanel) {
 			queryResultPanel.initPhraseBasedData();
 		}
-
-		@Override
-		public void addQueryResultRootItems(QueryResultPanel queryResultPanel, QueryResultRowArray rows) {
-			queryResultPanel.addPhraseBasedRootItems(rows);
-		}
 		
 	}),
 	GROUPED_BY_TAG(new QueryResultPanelHandler() {
@@ -22,11 +15,6 @@ public enum DisplaySetting {
 		public void init(QueryResultPanel queryResultPanel) {
 			queryResultPanel.initTagBasedData();
 		}
-
-		@Override
-		public void addQueryResultRootItems(QueryResultPanel queryResultPanel, QueryResultRowArray rows) {
-			queryResultPanel.addTagBasedRootItems(rows);
-		}
 		
 	}),
 	ANNOTATIONS_AS_FLAT_TABLE(new QueryResultPanelHandler() {
@@ -35,11 +23,6 @@ public enum DisplaySetting {
 		public void init(QueryResultPanel queryResultPanel) {
 			queryResultPanel.initFlatTagBasedData();
 		}
-
-		@Override
-		public void addQueryResultRootItems(QueryResultPanel queryResultPanel, QueryResultRowArray rows) {
-			queryResultPanel.addFlatTagBasedRootItems(rows);
-		}
 		
 	}),
 	PROPERTIES_AS_COLUMNS(new QueryResultPanelHandler() {
@@ -48,17 +31,11 @@ public enum DisplaySetting {
 		public void init(QueryResultPanel queryResultPanel) {
 			queryResultPanel.initPropertiesAsColumnsTagBasedData();
 		}
-
-		@Override
-		public void addQueryResultRootItems(QueryResultPanel queryResultPanel, QueryResultRowArray rows) {
-			queryResultPanel.addPropertiesAsColumnsTagBasedRootItems(rows);
-		}
 		
 	}),
 	;
 	private static interface QueryResultPanelHandler {
 		public void init(QueryResultPanel queryResultPanel);
-		public void addQueryResultRootItems(QueryResultPanel queryResultPanel, QueryResultRowArray rows);
 	}
 	
 	private QueryResultPanelHandler initializationHandler;
@@ -71,8 +48,4 @@ public enum DisplaySetting {
 		initializationHandler.init(queryResultPanel);
 	}
 	
-	public void addQueryResultRootItems(QueryResultPanel queryResultPanel, QueryResultRowArray rows) {
-		initializationHandler.addQueryResultRootItems(queryResultPanel, rows);
-	}
-	
 }
@@ -1,9 +1,9 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import com.google.common.cache.LoadingCache;
-import com.vaadin.data.TreeData;
 import com.vaadin.ui.UI;
 
 import de.catma.indexer.KwicProvider;
@@ -78,32 +78,32 @@ public class DocumentQueryResultRowItem implements QueryResultRowItem {
 	}
 
 	@Override
-	public boolean isExpansionDummy() {
-		return false;
+	public boolean hasChildRowItems() {
+		return true;
 	}
 
 	@Override
-	public void addChildRowItems(TreeData<QueryResultRowItem> treeData, LoadingCache<String, KwicProvider> kwicProviderCache) {
+	public List<QueryResultRowItem> createChildRowItems(LoadingCache<String, KwicProvider> kwicProviderCache) {
+		List<QueryResultRowItem> childRowItems = new ArrayList<>();
 		try {
 			for (QueryResultRow row : getRows()) {
-				KwicQueryResultRowItem item = new KwicQueryResultRowItem(
+				KwicProvider kwicProvider = kwicProviderCache.get(row.getSourceDocumentId());
+				childRowItems.add(new KwicQueryResultRowItem(
 						row, 
-						AnnotatedTextProvider.buildKeywordInContext(
-								row.getPhrase(), row.getRange(), kwicProviderCache.get(row.getSourceDocumentId()), contextSize),
-						(row instanceof CommentQueryResultRow)?
+						() -> AnnotatedTextProvider.buildKeywordInContext(
+								row.getPhrase(), row.getRange(), kwicProvider, contextSize),
+						() -> (row instanceof CommentQueryResultRow)?
 							AnnotatedTextProvider.buildCommentedKeyword(row.getPhrase(), ((CommentQueryResultRow) row).getComment())
 							:AnnotatedTextProvider.buildKeywordInContextLarge(
-								row.getPhrase(), row.getRange(), kwicProviderCache.get(row.getSourceDocumentId()), contextSize),
-						false);
-				if (!treeData.contains(item)) {
-					treeData.addItem(this, item);
-				}
+								row.getPhrase(), row.getRange(), kwicProvider, contextSize),
+						false));
 			}
 		}
 		catch (Exception e) {
 			((ErrorHandler) UI.getCurrent()).showAndLogError(
 				"Error displaying annotated KWIC query results", e);
 		}
+		return childRowItems;
 	}
 
 	@Override
@@ -131,50 +131,6 @@ public class DocumentQueryResultRowItem implements QueryResultRowItem {
 		return true;
 	}
 	
-	@Override
-	public void addQueryResultRow(
-			QueryResultRow row, TreeData<QueryResultRowItem> treeData, 
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
-		
-		if (this.documentId.equals(row.getSourceDocumentId())) {
-			groupedQueryResult.add(row);
-
-			if (rows != null) {
-				rows.add(row);
-			}
-			// update existing
-			treeData.getChildren(this).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.addQueryResultRow(row, treeData, kwicProviderCache);
-				}
-			});
-			
-			if (!treeData.getChildren(this).get(0).isExpansionDummy()) {
-				// check for missing child row
-				addChildRowItems(treeData, kwicProviderCache);
-			}
-		}
-	}
-	
-	@Override
-	public void removeQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData) {
-		if (groupedQueryResult.remove(row)) {
-			if (rows != null) {
-				rows.remove(row);
-			}
-
-			//update existing rows
-			new ArrayList<>(treeData.getChildren(this)).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.removeQueryResultRow(row, treeData);
-					if (child.getRows().isEmpty()) {
-						treeData.removeItem(child);
-					}
-				}
-			});			
-		}
-	}
-	
 	@Override
 	public boolean startsWith(String searchValue) {
 		for (QueryResultRow row : groupedQueryResult) {
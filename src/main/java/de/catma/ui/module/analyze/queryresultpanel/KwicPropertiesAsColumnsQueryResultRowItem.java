@@ -1,12 +1,15 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Suppliers;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
-import com.vaadin.data.TreeData;
 
 import de.catma.indexer.KwicProvider;
 import de.catma.queryengine.result.QueryResultRow;
@@ -16,20 +19,24 @@ import de.catma.queryengine.result.TagQueryResultRow;
 public class KwicPropertiesAsColumnsQueryResultRowItem implements QueryResultRowItem {
 
 	private final QueryResultRow masterRow;
-	private String kwic;
-	private String detailedKwic;
+	private Supplier<String> kwic;
+	private Supplier<String> detailedKwic;
 	private String documentName;
 	private String collectionName;
 	private QueryResultRowArray rows;
 	private Multimap<String,String> propertyValueByName;
 
+	/**
+	 * @param kwic gets called once when the KWIC is displayed for the first time
+	 * @param detailedKwic gets called once when the detailed KWIC is displayed for the first time
+	 */
 	public KwicPropertiesAsColumnsQueryResultRowItem(
-			QueryResultRowArray rows, String kwic, String detailedKwic, 
+			QueryResultRowArray rows, Supplier<String> kwic, Supplier<String> detailedKwic, 
 			String documentName, String collectionName) {
 		this.masterRow = rows.get(0);
 		this.rows = rows;
-		this.kwic = kwic;
-		this.detailedKwic = detailedKwic;
+		this.kwic = Suppliers.memoize(kwic::get);
+		this.detailedKwic = Suppliers.memoize(detailedKwic::get);
 		this.documentName = documentName;
 		this.collectionName = collectionName;
 		initPropertyValueByName();
@@ -49,12 +56,18 @@ public class KwicPropertiesAsColumnsQueryResultRowItem implements QueryResultRow
 
 	@Override
 	public String getKey() {
-		return this.kwic;
+		return this.kwic.get();
 	}
 	
 	@Override
 	public String getFilterKey() {
-		return this.kwic;
+		// the key that is matched by startsWith, the KWIC is only built for the rows that get displayed
+		return getTagPath();
+	}
+	
+	@Override
+	public String getSortKey() {
+		return masterRow.getPhrase();
 	}
 
 	@Override
@@ -79,19 +92,17 @@ public class KwicPropertiesAsColumnsQueryResultRowItem implements QueryResultRow
 
 	@Override
 	public String getDetailedKeyInContext() {
-		return detailedKwic;
+		return detailedKwic.get();
 	}
 
 	@Override
-	public boolean isExpansionDummy() {
+	public boolean hasChildRowItems() {
 		return false;
 	}
 
-
 	@Override
-	public void addChildRowItems(TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
-		// no children
+	public List<QueryResultRowItem> createChildRowItems(LoadingCache<String, KwicProvider> kwicProviderCache) {
+		return Collections.emptyList(); // no children
 	}
 	
 	@Override
@@ -142,24 +153,6 @@ public class KwicPropertiesAsColumnsQueryResultRowItem implements QueryResultRow
 		return true;
 	}
 	
-	@Override
-	public void addQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
-
-		if (row instanceof TagQueryResultRow) {
-			TagQueryResultRow tRow = (TagQueryResultRow) row;
-			if (tRow.getTagInstanceId().equals(((TagQueryResultRow) masterRow).getTagInstanceId())) {
-				rows.add(tRow);
-				initPropertyValueByName();
-			}
-		}
-	}
-	
-	@Override
-	public void removeQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData) {
-		rows.remove(row);
-	}
-	
 	@Override
 	public boolean startsWith(String searchValue) {
 		return masterRow instanceof TagQueryResultRow?
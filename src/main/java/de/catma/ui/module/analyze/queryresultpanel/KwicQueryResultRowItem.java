@@ -1,7 +1,11 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.google.common.base.Suppliers;
 import com.google.common.cache.LoadingCache;
-import com.vaadin.data.TreeData;
 
 import de.catma.indexer.KwicProvider;
 import de.catma.queryengine.result.QueryResultRow;
@@ -11,21 +15,24 @@ import de.catma.queryengine.result.TagQueryResultRow;
 public class KwicQueryResultRowItem implements QueryResultRowItem {
 
 	private final QueryResultRow row;
-	private String kwic;
-	private String detailedKwic;
+	private Supplier<String> kwic;
+	private Supplier<String> detailedKwic;
 	private String documentName;
 	private String collectionName;
-	private boolean removed = false;
 	private boolean matchTag;
 
-	public KwicQueryResultRowItem(QueryResultRow row, String kwic, String detailedKwic, boolean matchTag) {
+	/**
+	 * @param kwic gets called once when the KWIC is displayed for the first time
+	 * @param detailedKwic gets called once when the detailed KWIC is displayed for the first time
+	 */
+	public KwicQueryResultRowItem(QueryResultRow row, Supplier<String> kwic, Supplier<String> detailedKwic, boolean matchTag) {
 		this.row = row;
-		this.kwic = kwic;
-		this.detailedKwic = detailedKwic;
+		this.kwic = Suppliers.memoize(kwic::get);
+		this.detailedKwic = Suppliers.memoize(detailedKwic::get);
 		this.matchTag = matchTag;
 	}
 	
-	public KwicQueryResultRowItem(QueryResultRow row, String kwic, String detailedKwic, 
+	public KwicQueryResultRowItem(QueryResultRow row, Supplier<String> kwic, Supplier<String> detailedKwic, 
 			String documentName, String collectionName, boolean matchTag) {
 		this(row, kwic, detailedKwic, matchTag);
 		this.documentName = documentName;
@@ -34,12 +41,18 @@ public class KwicQueryResultRowItem implements QueryResultRowItem {
 
 	@Override
 	public String getKey() {
-		return this.kwic;
+		return this.kwic.get();
 	}
 	
 	@Override
 	public String getFilterKey() {
-		return this.kwic;
+		// the key that is matched by startsWith, the KWIC is only built for the rows that get displayed
+		return matchTag?((TagQueryResultRow)row).getTagDefinitionPath():row.getPhrase();
+	}
+	
+	@Override
+	public String getSortKey() {
+		return row.getPhrase();
 	}
 
 	@Override
@@ -50,9 +63,7 @@ public class KwicQueryResultRowItem implements QueryResultRowItem {
 	@Override
 	public QueryResultRowArray getRows() {
 		QueryResultRowArray array = new QueryResultRowArray();
-		if (!removed) {
-			array.add(row);
-		}
+		array.add(row);
 		return array;
 	}
 
@@ -68,11 +79,11 @@ public class KwicQueryResultRowItem implements QueryResultRowItem {
 
 	@Override
 	public String getDetailedKeyInContext() {
-		return detailedKwic;
+		return detailedKwic.get();
 	}
 
 	@Override
-	public boolean isExpansionDummy() {
+	public boolean hasChildRowItems() {
 		return false;
 	}
 	
@@ -93,9 +104,8 @@ public class KwicQueryResultRowItem implements QueryResultRowItem {
 	}
 
 	@Override
-	public void addChildRowItems(TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
-		// no children
+	public List<QueryResultRowItem> createChildRowItems(LoadingCache<String, KwicProvider> kwicProviderCache) {
+		return Collections.emptyList(); // no children
 	}
 	
 	@Override
@@ -141,20 +151,6 @@ public class KwicQueryResultRowItem implements QueryResultRowItem {
 		return true;
 	}
 	
-	@Override
-	public void addQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
-		// noop
-	}
-	
-	@Override
-	public void removeQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData) {
-		if ((this.row != null) && this.row.equals(row)) {
-			this.removed = true;
-		}
-		
-	}
-	
 	@Override
 	public boolean startsWith(String searchValue) {
 		return matchTag?((TagQueryResultRow)row).getTagDefinitionPath().startsWith(searchValue):row.getPhrase().startsWith(searchValue);
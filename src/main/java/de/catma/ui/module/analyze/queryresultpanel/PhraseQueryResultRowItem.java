@@ -1,15 +1,14 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.cache.LoadingCache;
-import com.vaadin.data.TreeData;
 import com.vaadin.ui.UI;
 
 import de.catma.indexer.KwicProvider;
 import de.catma.queryengine.result.GroupedQueryResult;
-import de.catma.queryengine.result.QueryResultRow;
 import de.catma.queryengine.result.QueryResultRowArray;
 import de.catma.ui.module.main.ErrorHandler;
 import de.catma.ui.util.Cleaner;
@@ -70,12 +69,13 @@ public class PhraseQueryResultRowItem implements QueryResultRowItem {
 	}
 
 	@Override
-	public boolean isExpansionDummy() {
-		return false;
+	public boolean hasChildRowItems() {
+		return true;
 	}
 
 	@Override
-	public void addChildRowItems(TreeData<QueryResultRowItem> treeData, LoadingCache<String, KwicProvider> kwicProviderCache) {
+	public List<QueryResultRowItem> createChildRowItems(LoadingCache<String, KwicProvider> kwicProviderCache) {
+		List<QueryResultRowItem> childRowItems = new ArrayList<>();
 		try {
 			if (includeQueryId) {
 				Set<GroupedQueryResult> groupedQueryResults = getRows().asGroupedSet(row -> {
@@ -83,32 +83,23 @@ public class PhraseQueryResultRowItem implements QueryResultRowItem {
 				});
 				
 				for (GroupedQueryResult groupedQueryResult : groupedQueryResults) {
-					QueryIdQueryResultRowItem queryIdQueryResultRowItem = 
-							new QueryIdQueryResultRowItem(identity, groupedQueryResult, contextSize);
-					if (!treeData.contains(queryIdQueryResultRowItem)) {
-						treeData.addItem(this, queryIdQueryResultRowItem);
-						treeData.addItem(queryIdQueryResultRowItem, new DummyQueryResultRowItem());
-					}
+					childRowItems.add(new QueryIdQueryResultRowItem(identity, groupedQueryResult, contextSize));
 				}			
 			}
 			else {
 				for (String documentId : groupedQueryResult.getSourceDocumentIDs()) {
 					String documentName = kwicProviderCache.get(documentId).getSourceDocumentName();
-					DocumentQueryResultRowItem item = 
+					childRowItems.add(
 							new DocumentQueryResultRowItem(
 								identity,
-								documentName, documentId, groupedQueryResult.getSubResult(documentId), contextSize);
-					if (!treeData.contains(item)) {
-						treeData.addItem(this, item);
-						treeData.addItem(item, new DummyQueryResultRowItem());
-					}
-					
+								documentName, documentId, groupedQueryResult.getSubResult(documentId), contextSize));
 				}
 			}
 		}
 		catch (Exception e) {
 			((ErrorHandler) UI.getCurrent()).showAndLogError("Error displaying query results", e);
 		}
+		return childRowItems;
 	}
 
 	@Override
@@ -136,45 +127,6 @@ public class PhraseQueryResultRowItem implements QueryResultRowItem {
 		return true;
 	}
 	
-	@Override
-	public void addQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData, LoadingCache<String, KwicProvider> kwicProviderCache) {
-		if (groupedQueryResult.getGroup().toString().equals(row.getPhrase())) {
-			groupedQueryResult.add(row);
-			
-			//update existing rows
-			treeData.getChildren(this).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.addQueryResultRow(row, treeData, kwicProviderCache);
-				}
-			});
-			
-			if (rows != null) {
-				rows.add(row);
-				
-				// check for missing child row
-				addChildRowItems(treeData, kwicProviderCache);
-			}
-		}
-	}
-	
-	@Override
-	public void removeQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData) {
-		if (groupedQueryResult.remove(row)) {
-			if (rows != null) {
-				rows.remove(row);
-			}
-			//update existing rows
-			new ArrayList<>(treeData.getChildren(this)).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.removeQueryResultRow(row, treeData);
-					if (child.getRows().isEmpty()) {
-						treeData.removeItem(child);
-					}
-				}
-			});			
-		}
-	}
-	
 	@Override
 	public boolean startsWith(String searchValue) {
 		return groupedQueryResult.getGroup().toString().startsWith(searchValue);
@@ -1,9 +1,9 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import com.google.common.cache.LoadingCache;
-import com.vaadin.data.TreeData;
 import com.vaadin.ui.UI;
 
 import de.catma.indexer.KwicProvider;
@@ -70,55 +70,28 @@ public class QueryIdQueryResultRowItem implements QueryResultRowItem {
 	}
 
 	@Override
-	public boolean isExpansionDummy() {
-		return false;
+	public boolean hasChildRowItems() {
+		return true;
 	}
 
 	@Override
-	public void addChildRowItems(TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
+	public List<QueryResultRowItem> createChildRowItems(LoadingCache<String, KwicProvider> kwicProviderCache) {
+		List<QueryResultRowItem> childRowItems = new ArrayList<>();
 		try {
 			for (String documentId : groupedQueryResult.getSourceDocumentIDs()) {
 				String documentName = kwicProviderCache.get(documentId).getSourceDocumentName();
-				DocumentQueryResultRowItem item = 
+				childRowItems.add(
 						new DocumentQueryResultRowItem(
 							identity,
-							documentName, documentId, groupedQueryResult.getSubResult(documentId), contextSize);
-				if (!treeData.contains(item)) {
-					treeData.addItem(this, item);
-					treeData.addItem(item, new DummyQueryResultRowItem());
-				}
+							documentName, documentId, groupedQueryResult.getSubResult(documentId), contextSize));
 			}
 		}
 		catch (Exception e) {
 			((ErrorHandler) UI.getCurrent()).showAndLogError("Error displaying query results", e);
 		}
+		return childRowItems;
 	}
 	
-	@Override
-	public void addQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
-		if (this.queryId.equals(row.getQueryId())) {
-			groupedQueryResult.add(row);
-
-			if (rows != null) {
-				rows.add(row);
-			}
-			
-			// update existing
-			treeData.getChildren(this).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.addQueryResultRow(row, treeData, kwicProviderCache);
-				}
-			});
-			
-			if (!treeData.getChildren(this).get(0).isExpansionDummy()) {
-				// check for missing child row
-				addChildRowItems(treeData, kwicProviderCache);
-			}
-		}
-	}
-
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -144,25 +117,6 @@ public class QueryIdQueryResultRowItem implements QueryResultRowItem {
 		return true;
 	}
 
-	@Override
-	public void removeQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData) {
-		if (groupedQueryResult.remove(row)) {
-			if (rows != null) {
-				rows.remove(row);
-			}
-
-			//update existing rows
-			new ArrayList<>(treeData.getChildren(this)).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.removeQueryResultRow(row, treeData);
-					if (child.getRows().isEmpty()) {
-						treeData.removeItem(child);
-					}
-				}
-			});			
-		}
-	}	
-	
 	@Override
 	public boolean startsWith(String searchValue) {
 		for (QueryResultRow row : groupedQueryResult) {
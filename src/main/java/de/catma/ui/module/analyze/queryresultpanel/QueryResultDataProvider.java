@@ -0,0 +1,294 @@
+package de.catma.ui.module.analyze.queryresultpanel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.google.common.cache.LoadingCache;
+import com.vaadin.data.provider.AbstractBackEndHierarchicalDataProvider;
+import com.vaadin.data.provider.HierarchicalQuery;
+import com.vaadin.data.provider.QuerySortOrder;
+import com.vaadin.server.SerializablePredicate;
+import com.vaadin.shared.data.sort.SortDirection;
+
+import de.catma.indexer.KwicProvider;
+
+/**
+ * Provides the items of the {@link QueryResultPanel} level by level and page by page.
+ * <p>
+ * The root items are created on demand by index from the query result, so that a result with hundreds of thousands of
+ * rows does not need an item per row up front. The children of an item get created when the item is expanded for the
+ * first time and are kept until the root items are reloaded.
+ * <p>
+ * Filtering and sorting is done on demand for each level, the resulting order is kept until the root items, the filter
+ * or the sort order change, so that paging through the grid does not filter or sort again. Sorting computes the sort
+ * keys of each item once and then sorts by the keys. The views are kept on {@link #refreshAll()}, which the tree grid
+ * calls on every expansion.
+ */
+class QueryResultDataProvider extends AbstractBackEndHierarchicalDataProvider<QueryResultRowItem, Void> {
+
+	/**
+	 * The root items by index, the index is only valid until the next {@link QueryResultDataProvider#reload()}.
+	 */
+	static interface RootItems {
+		public int size();
+		public QueryResultRowItem get(int idx);
+
+		public static RootItems of(List<? extends QueryResultRowItem> items) {
+			return new RootItems() {
+				@Override
+				public int size() {
+					return items.size();
+				}
+
+				@Override
+				public QueryResultRowItem get(int idx) {
+					return items.get(idx);
+				}
+			};
+		}
+	}
+
+	private static final RootItems NO_ROOT_ITEMS = RootItems.of(Collections.emptyList());
+
+	private final Supplier<RootItems> rootItemsLoader;
+	private final LoadingCache<String, KwicProvider> kwicProviderCache;
+	private final Map<String, Function<QueryResultRowItem, ? extends Comparable<?>>> sortKeyProvidersBySortProperty = new HashMap<>();
+	private final Map<QueryResultRowItem, List<QueryResultRowItem>> childRowItemsByParent = new HashMap<>();
+
+	private RootItems rootItems;
+	private SerializablePredicate<QueryResultRowItem> filter;
+
+	// the indices of the filtered and sorted root items and the filtered and sorted children of the last queries
+	private int[] rootView;
+	private Integer rootViewFrequency;
+	private final Map<QueryResultRowItem, List<QueryResultRowItem>> childViewsByParent = new HashMap<>();
+	private List<QuerySortOrder> viewSortOrders = Collections.emptyList();
+
+	private static record SortableItem(int index, QueryResultRowItem item, Comparable<?>[] sortKeys) {}
+
+	/**
+	 * @param rootItemsLoader gets called for the initial root items and again on every {@link #reload()}
+	 * @param kwicProviderCache passed on to {@link QueryResultRowItem#createChildRowItems(LoadingCache)}
+	 */
+	QueryResultDataProvider(Supplier<RootItems> rootItemsLoader, LoadingCache<String, KwicProvider> kwicProviderCache) {
+		this.rootItemsLoader = rootItemsLoader;
+		this.kwicProviderCache = kwicProviderCache;
+		this.rootItems = rootItemsLoader.get();
+	}
+
+	/**
+	 * @param sortProperty the ID of a sortable column
+	 * @param sortKeyProvider the value of an item that column is sorted by, <code>null</code> values come last
+	 */
+	void setSortKeyProvider(String sortProperty, Function<QueryResultRowItem, ? extends Comparable<?>> sortKeyProvider) {
+		sortKeyProvidersBySortProperty.put(sortProperty, sortKeyProvider);
+	}
+
+	/**
+	 * @param filter applied to the items of every level, <code>null</code> shows all items
+	 */
+	void setFilter(SerializablePredicate<QueryResultRowItem> filter) {
+		this.filter = filter;
+		invalidateViews();
+		refreshAll();
+	}
+
+	@Override
+	protected Stream<QueryResultRowItem> fetchChildrenFromBackEnd(HierarchicalQuery<QueryResultRowItem, Void> query) {
+		checkSortOrders(query.getSortOrders());
+
+		if (query.getParent() == null) {
+			int[] currentRootView = getRootView();
+			int fromIndex = Math.min(query.getOffset(), currentRootView.length);
+			int toIndex = (int)Math.min((long)query.getOffset() + query.getLimit(), currentRootView.length);
+
+			return IntStream.range(fromIndex, toIndex).mapToObj(idx -> rootItems.get(currentRootView[idx]));
+		}
+
+		List<QueryResultRowItem> childView = getChildView(query.getParent());
+		int fromIndex = Math.min(query.getOffset(), childView.size());
+		int toIndex = (int)Math.min((long)query.getOffset() + query.getLimit(), childView.size());
+
+		return new ArrayList<>(childView.subList(fromIndex, toIndex)).stream();
+	}
+
+	@Override
+	public int getChildCount(HierarchicalQuery<QueryResultRowItem, Void> query) {
+		// the grid counts without sort orders, the count doesn't depend on the order anyway
+		if (query.getParent() == null) {
+			return getRootView().length;
+		}
+
+		return getChildView(query.getParent()).size();
+	}
+
+	@Override
+	public boolean hasChildren(QueryResultRowItem item) {
+		return item.hasChildRowItems();
+	}
+
+	/**
+	 * @return the filtered root items in the order of the last query, e.g. for totals or an export
+	 */
+	Stream<QueryResultRowItem> fetchRootItems() {
+		return Arrays.stream(getRootView()).mapToObj(rootItems::get);
+	}
+
+	int getFilteredRootItemCount() {
+		return getRootView().length;
+	}
+
+	/**
+	 * @return the sum of the frequencies of the filtered root items, kept like the order so that the totals don't
+	 * create all root items again whenever the grid refreshes
+	 */
+	int getFilteredRootItemFrequency() {
+		if (rootViewFrequency == null) {
+			rootViewFrequency = fetchRootItems().mapToInt(QueryResultRowItem::getFrequency).sum();
+		}
+		return rootViewFrequency;
+	}
+
+	/**
+	 * @return the number of root items regardless of the current filter
+	 */
+	int getRootItemCount() {
+		return rootItems.size();
+	}
+
+	/**
+	 * Loads the root items again, e.g. because rows have been added to or removed from the query result. Expanded items
+	 * get new children.
+	 */
+	void reload() {
+		rootItems = rootItemsLoader.get();
+		childRowItemsByParent.clear();
+		invalidateViews();
+		refreshAll();
+	}
+
+	void clear() {
+		rootItems = NO_ROOT_ITEMS;
+		childRowItemsByParent.clear();
+		invalidateViews();
+		refreshAll();
+	}
+
+	private void invalidateViews() {
+		rootView = null;
+		rootViewFrequency = null;
+		childViewsByParent.clear();
+	}
+
+	private void checkSortOrders(List<QuerySortOrder> sortOrders) {
+		if (!isSameSortOrder(viewSortOrders, sortOrders)) {
+			invalidateViews();
+			viewSortOrders = new ArrayList<>(sortOrders);
+		}
+	}
+
+	private int[] getRootView() {
+		if (rootView == null) {
+			List<SortableItem> sortableItems = new ArrayList<>();
+			for (int idx = 0; idx < rootItems.size(); idx++) {
+				QueryResultRowItem item = rootItems.get(idx);
+				if ((filter == null) || filter.test(item)) {
+					sortableItems.add(new SortableItem(idx, item, null));
+				}
+			}
+
+			rootView = sort(sortableItems).stream().mapToInt(SortableItem::index).toArray();
+		}
+
+		return rootView;
+	}
+
+	private List<QueryResultRowItem> getChildView(QueryResultRowItem parent) {
+		List<QueryResultRowItem> childView = childViewsByParent.get(parent);
+
+		if (childView == null) {
+			List<QueryResultRowItem> childRowItems =
+					childRowItemsByParent.computeIfAbsent(parent, item -> item.createChildRowItems(kwicProviderCache));
+
+			List<SortableItem> sortableItems = new ArrayList<>();
+			for (QueryResultRowItem item : childRowItems) {
+				if ((filter == null) || filter.test(item)) {
+					sortableItems.add(new SortableItem(sortableItems.size(), item, null));
+				}
+			}
+
+			childView = sort(sortableItems).stream().map(SortableItem::item).collect(Collectors.toList());
+			childViewsByParent.put(parent, childView);
+		}
+
+		return childView;
+	}
+
+	private boolean isSameSortOrder(List<QuerySortOrder> sortOrders1, List<QuerySortOrder> sortOrders2) {
+		if (sortOrders1.size() != sortOrders2.size()) {
+			return false;
+		}
+
+		for (int idx = 0; idx < sortOrders1.size(); idx++) {
+			if (!Objects.equals(sortOrders1.get(idx).getSorted(), sortOrders2.get(idx).getSorted())
+					|| sortOrders1.get(idx).getDirection() != sortOrders2.get(idx).getDirection()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private List<SortableItem> sort(List<SortableItem> itemsToBeSorted) {
+		List<Function<QueryResultRowItem, ? extends Comparable<?>>> sortKeyProviders = new ArrayList<>();
+		Comparator<SortableItem> comparator = null;
+
+		for (QuerySortOrder sortOrder : viewSortOrders) {
+			Function<QueryResultRowItem, ? extends Comparable<?>> sortKeyProvider =
+					sortKeyProvidersBySortProperty.get(sortOrder.getSorted());
+			if (sortKeyProvider != null) {
+				Comparator<SortableItem> keyComparator = compareSortKeys(sortKeyProviders.size());
+				if (sortOrder.getDirection() == SortDirection.DESCENDING) {
+					keyComparator = keyComparator.reversed();
+				}
+				comparator = (comparator == null) ? keyComparator : comparator.thenComparing(keyComparator);
+				sortKeyProviders.add(sortKeyProvider);
+			}
+		}
+
+		if (comparator == null) {
+			return itemsToBeSorted;
+		}
+
+		List<SortableItem> sortableItems = new ArrayList<>(itemsToBeSorted.size());
+		for (SortableItem sortableItem : itemsToBeSorted) {
+			Comparable<?>[] sortKeys = new Comparable<?>[sortKeyProviders.size()];
+			for (int idx = 0; idx < sortKeys.length; idx++) {
+				sortKeys[idx] = sortKeyProviders.get(idx).apply(sortableItem.item());
+			}
+			sortableItems.add(new SortableItem(sortableItem.index(), sortableItem.item(), sortKeys));
+		}
+
+		sortableItems.sort(comparator);
+
+		return sortableItems;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Comparator<SortableItem> compareSortKeys(int sortKeyIndex) {
+		Comparator<Comparable> keyComparator = Comparator.nullsLast(Comparator.naturalOrder());
+		return (sortableItem1, sortableItem2) -> keyComparator.compare(
+				sortableItem1.sortKeys()[sortKeyIndex], sortableItem2.sortKeys()[sortKeyIndex]);
+	}
+}
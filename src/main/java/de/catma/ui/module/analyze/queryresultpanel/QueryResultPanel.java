@@ -7,23 +7,15 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.google.common.cache.LoadingCache;
 import com.vaadin.contextmenu.ContextMenu;
-import com.vaadin.data.TreeData;
 import com.vaadin.data.provider.GridSortOrderBuilder;
-import com.vaadin.data.provider.HierarchicalQuery;
-import com.vaadin.data.provider.InMemoryDataProvider;
-import com.vaadin.data.provider.TreeDataProvider;
-import com.vaadin.event.ExpandEvent;
 import com.vaadin.event.selection.SelectionListener;
 import com.vaadin.icons.VaadinIcons;
 import com.vaadin.server.FileDownloader;
-import com.vaadin.server.SerializablePredicate;
 import com.vaadin.server.StreamResource;
 import com.vaadin.shared.Registration;
 import com.vaadin.shared.ui.ContentMode;
@@ -51,6 +43,7 @@ import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.indexer.KwicProvider;
 import de.catma.project.Project;
 import de.catma.queryengine.QueryId;
+import de.catma.queryengine.result.ColumnarQueryResult;
 import de.catma.queryengine.result.GroupedQueryResult;
 import de.catma.queryengine.result.QueryResult;
 import de.catma.queryengine.result.QueryResultRow;
@@ -62,6 +55,7 @@ import de.catma.ui.component.TreeGridFactory;
 import de.catma.ui.module.analyze.CSVExportFlatStreamSource;
 import de.catma.ui.module.analyze.CSVExportGroupedStreamSource;
 import de.catma.ui.module.analyze.CSVExportPropertiesAsColumnsFlatStreamSource;
+import de.catma.ui.module.analyze.queryresultpanel.QueryResultDataProvider.RootItems;
 import de.catma.ui.module.annotate.annotationpanel.AnnotatedTextProvider;
 import de.catma.ui.module.annotate.annotationpanel.AnnotatedTextProvider.ContextSizeEditCommand;
 import de.catma.ui.module.main.ErrorHandler;
@@ -91,16 +85,13 @@ public class QueryResultPanel extends VerticalLayout {
 	private Button removeBt;
 	private Button optionsBt;
 
-	private final QueryResult queryResult;
+	private final ColumnarQueryResult queryResult;
 
 	private final Project project;
 
 	private VerticalLayout treeGridPanel;
 
-	private TreeData<QueryResultRowItem> phraseBasedTreeData;
-	private TreeData<QueryResultRowItem> tagBasedTreeData;
-	private TreeData<QueryResultRowItem> flatTagBasedTreeData;
-	private TreeData<QueryResultRowItem> propertiesAsColumnsTagBasedTreeData;
+	private QueryResultDataProvider queryResultDataProvider;
 
 	private boolean resultContainsProperties = false;
 	private TreeSet<String> propertyNames;
@@ -169,7 +160,10 @@ public class QueryResultPanel extends VerticalLayout {
 			boolean cardStyle, boolean includeQueryId) {
 
 		this.project = project;
-		this.queryResult = result;
+		// the panel keeps the result as long as it is shown, the columnar form is much smaller than the rows
+		this.queryResult = (result instanceof ColumnarQueryResult) 
+				? (ColumnarQueryResult) result 
+				: new ColumnarQueryResult(result);
 		this.kwicProviderCache= kwicProviderCache;
 		this.itemSelectionListener = itemSelectionListener;
 		this.itemRemovedListener = itemRemovedListener;
@@ -180,7 +174,6 @@ public class QueryResultPanel extends VerticalLayout {
 		this.itemSelectionListeners = new ArrayList<>();
 		this.contextSizeEditCommand = new ContextSizeEditCommand((newContextSize) -> { 
 			contextSize = newContextSize;
-			clearTreeData();
 			displaySetting.init(QueryResultPanel.this);
 		});
 		initComponents();
@@ -203,6 +196,11 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		initQueryResultGrid();
 		
+		queryResultDataProvider = new QueryResultDataProvider(() -> loadPhraseBasedRootItems(), kwicProviderCache);
+		queryResultDataProvider.setSortKeyProvider("phrase", QueryResultRowItem::getSortKey);
+		queryResultDataProvider.setSortKeyProvider("frequency", QueryResultRowItem::getFrequency);
+		handleSearchValueInput(searchField.getValue());
+		
 		queryResultGrid
 			.addColumn(QueryResultRowItem::getKey)
 			.setCaption("Phrase")
@@ -250,10 +248,6 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		FooterRow footer = queryResultGrid.prependFooterRow();
 		queryResultGrid.setFooterVisible(true);
-		TreeDataProvider<QueryResultRowItem> queryResultDataProvider = 
-				new TreeDataProvider<QueryResultRowItem>(getPhraseBasedTreeData());
-		
-		queryResultDataProvider.addFilter(punctuationFilter);
 		
 		queryResultGrid.setDataProvider(queryResultDataProvider);
 
@@ -285,12 +279,11 @@ public class QueryResultPanel extends VerticalLayout {
 		FooterCell typeFooterCell, 
 		String tokens,
 		FooterCell tokenFooterCell, 
-		TreeDataProvider<QueryResultRowItem> queryResultDataProvider) {
-		List<QueryResultRowItem> filteredItems = getFilteredQueryResultRowItems();
+		QueryResultDataProvider queryResultDataProvider) {
 		if (typeFooterCell != null) {
-			typeFooterCell.setText(types + ": " + filteredItems.size());
+			typeFooterCell.setText(types + ": " + queryResultDataProvider.getFilteredRootItemCount());
 		}
-		tokenCount = filteredItems.stream().map(item -> item.getFrequency()).reduce(0, Integer::sum).intValue();
+		tokenCount = queryResultDataProvider.getFilteredRootItemFrequency();
 		tokenFooterCell.setText(tokens + ": " + tokenCount);
 	}
 
@@ -300,13 +293,12 @@ public class QueryResultPanel extends VerticalLayout {
 		}
 	}
 
-	private TreeData<QueryResultRowItem> getPhraseBasedTreeData() {
-		if (phraseBasedTreeData == null) {
-			phraseBasedTreeData = new TreeData<QueryResultRowItem>();
-			
-			addPhraseBasedRootItems(queryResult);
+	private RootItems loadPhraseBasedRootItems() {
+		List<QueryResultRowItem> rootItems = new ArrayList<>();
+		for (GroupedQueryResult groupedQueryResult : queryResult.asGroupedSet()) {
+			rootItems.add(new PhraseQueryResultRowItem(includeQueryId, groupedQueryResult, contextSize));
 		}
-		return phraseBasedTreeData;
+		return RootItems.of(rootItems);
 	}
 	
 
@@ -322,13 +314,18 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		initQueryResultGrid();
 		
-		TreeDataProvider<QueryResultRowItem> queryResultDataProvider = 
-				new TreeDataProvider<QueryResultRowItem>(getPropertiesAsColumnsTagBasedTreeData());
-		queryResultDataProvider.addFilter(punctuationFilter);
+		queryResultDataProvider = 
+				new QueryResultDataProvider(() -> loadPropertiesAsColumnsTagBasedRootItems(), kwicProviderCache);
+		queryResultDataProvider.setSortKeyProvider("tagPath", QueryResultRowItem::getTagPath);
+		queryResultDataProvider.setSortKeyProvider("annotation", QueryResultRowItem::getSortKey);
+		queryResultDataProvider.setSortKeyProvider("document", QueryResultRowItem::getDocumentName);
+		queryResultDataProvider.setSortKeyProvider("collection", QueryResultRowItem::getCollectionName);
+		handleSearchValueInput(searchField.getValue());
 		
 		Column<QueryResultRowItem, ?> tagPathColumn = queryResultGrid
 			.addColumn(QueryResultRowItem::getTagPath)
 			.setCaption("Tag Path")
+			.setId("tagPath")
 			.setWidth(200);
 
 		if (includeQueryId) {
@@ -344,19 +341,24 @@ public class QueryResultPanel extends VerticalLayout {
 			.setWidth(200);
 		
 		for (String propertyName : propertyNames) {
+			queryResultDataProvider.setSortKeyProvider(
+					"property:" + propertyName, item -> item.getPropertyValue(propertyName));
 			queryResultGrid.addColumn(item -> item.getPropertyValue(propertyName))
 				.setCaption(propertyName)
+				.setId("property:" + propertyName)
 				.setWidth(200);
 		}
 		
 		queryResultGrid
 			.addColumn(QueryResultRowItem::getDocumentName)
 			.setCaption("Document")
+			.setId("document")
 			.setWidth(200);		
 		
 		queryResultGrid
 			.addColumn(QueryResultRowItem::getCollectionName)
 			.setCaption("Collection")
+			.setId("collection")
 			.setWidth(200);
 		
 		if (itemSelectionListener != null) {
@@ -404,7 +406,7 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		treeGridPanel.addComponent(queryResultGrid);
 		
-		if (queryResultDataProvider.getTreeData().getRootItems().size() == 0) {
+		if (queryResultDataProvider.getRootItemCount() == 0) {
 			Notification.show(
 				"Info", "Your query result does not contain annotated occurrences!", Type.HUMANIZED_MESSAGE);
 		}
@@ -429,14 +431,20 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		initQueryResultGrid();
 		
-		TreeDataProvider<QueryResultRowItem> queryResultDataProvider = 
-				new TreeDataProvider<QueryResultRowItem>(getFlatTagBasedTreeData());
-		queryResultDataProvider.addFilter(punctuationFilter);
+		queryResultDataProvider = new QueryResultDataProvider(() -> loadFlatTagBasedRootItems(), kwicProviderCache);
+		queryResultDataProvider.setSortKeyProvider("tagPath", QueryResultRowItem::getTagPath);
+		queryResultDataProvider.setSortKeyProvider("document", QueryResultRowItem::getDocumentName);
+		queryResultDataProvider.setSortKeyProvider("collection", QueryResultRowItem::getCollectionName);
+		queryResultDataProvider.setSortKeyProvider("annotation", QueryResultRowItem::getSortKey);
+		queryResultDataProvider.setSortKeyProvider("propertyname", QueryResultRowItem::getPropertyName);
+		queryResultDataProvider.setSortKeyProvider("propertyvalue", QueryResultRowItem::getPropertyValue);
+		handleSearchValueInput(searchField.getValue());
 		
 		Column<QueryResultRowItem, ?> tagPathColumn = queryResultGrid
 			.addColumn(QueryResultRowItem::getTagPath)
 			.setCaption("Tag Path")
 			.setDescriptionGenerator(item -> item.getDetailedKeyInContext(), ContentMode.HTML)			
+			.setId("tagPath")
 			.setWidth(200);
 		
 		if (includeQueryId) {
@@ -446,11 +454,13 @@ public class QueryResultPanel extends VerticalLayout {
 		queryResultGrid
 			.addColumn(QueryResultRowItem::getDocumentName)
 			.setCaption("Document")
+			.setId("document")
 			.setWidth(200);		
 		
 		queryResultGrid
 			.addColumn(QueryResultRowItem::getCollectionName)
 			.setCaption("Collection")
+			.setId("collection")
 			.setWidth(200);
 		
 		queryResultGrid
@@ -462,6 +472,7 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		if (resultContainsProperties) {
 			queryResultGrid.addColumn(QueryResultRowItem::getPropertyName)
+			.setId("propertyname")
 			.setCaption("Property")
 			.setWidth(100);
 			queryResultGrid.addColumn(QueryResultRowItem::getPropertyValue)
@@ -529,7 +540,7 @@ public class QueryResultPanel extends VerticalLayout {
 		}
 		treeGridPanel.addComponent(queryResultGrid);
 		
-		if (queryResultDataProvider.getTreeData().getRootItems().size() == 0) {
+		if (queryResultDataProvider.getRootItemCount() == 0) {
 			Notification.show(
 				"Info", "Your query result does not contain annotated occurrences!", Type.HUMANIZED_MESSAGE);
 		}
@@ -553,9 +564,12 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		initQueryResultGrid();
 
-		TreeDataProvider<QueryResultRowItem> queryResultDataProvider = 
-				new TreeDataProvider<QueryResultRowItem>(getTagBasedTreeData());
-		queryResultDataProvider.addFilter(punctuationFilter);
+		queryResultDataProvider = new QueryResultDataProvider(() -> loadTagBasedRootItems(), kwicProviderCache);
+		queryResultDataProvider.setSortKeyProvider("tagPath", QueryResultRowItem::getSortKey);
+		queryResultDataProvider.setSortKeyProvider("propertyname", QueryResultRowItem::getPropertyName);
+		queryResultDataProvider.setSortKeyProvider("propertyvalue", QueryResultRowItem::getPropertyValue);
+		queryResultDataProvider.setSortKeyProvider("frequency", QueryResultRowItem::getFrequency);
+		handleSearchValueInput(searchField.getValue());
 		
 		Column<QueryResultRowItem, ?> tagPathColumn = queryResultGrid
 			.addColumn(QueryResultRowItem::getKey)
@@ -567,9 +581,11 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		if (resultContainsProperties) {
 			queryResultGrid.addColumn(QueryResultRowItem::getPropertyName)
+			.setId("propertyname")
 			.setCaption("Property")
 			.setWidth(100);
 			queryResultGrid.addColumn(QueryResultRowItem::getPropertyValue)
+			.setId("propertyvalue")
 			.setCaption("Property Value")
 			.setWidth(300);
 			
@@ -632,7 +648,7 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		treeGridPanel.addComponent(queryResultGrid);
 		
-		if (queryResultDataProvider.getTreeData().getRootItems().size() == 0) {
+		if (queryResultDataProvider.getRootItemCount() == 0) {
 			Notification.show(
 				"Info", "Your query result does not contain annotated occurrences!", Type.HUMANIZED_MESSAGE);
 		}
@@ -645,36 +661,154 @@ public class QueryResultPanel extends VerticalLayout {
 	}
 	
 	
-	private TreeData<QueryResultRowItem> getPropertiesAsColumnsTagBasedTreeData() {
-		
-		if (propertiesAsColumnsTagBasedTreeData == null) {
-			propertiesAsColumnsTagBasedTreeData = new TreeData<QueryResultRowItem>();
-			propertyNames = new TreeSet<String>();
-			addPropertiesAsColumnsTagBasedRootItems(queryResult);
+	private RootItems loadTagBasedRootItems() {
+		resultContainsProperties = false;
+		List<QueryResultRowItem> rootItems = new ArrayList<>();
+		for (GroupedQueryResult groupedQueryResult : queryResult.asGroupedSet(row -> {
+			if (row instanceof TagQueryResultRow) {
+				if (((TagQueryResultRow) row).getPropertyDefinitionId() != null) {
+					resultContainsProperties = true;
+				}
+				return ((TagQueryResultRow) row).getTagDefinitionPath();
+			}
+			return TagQueryResultRowItem.getNoTagAvailableKey();
+		})) {
+			rootItems.add(new TagQueryResultRowItem(includeQueryId, groupedQueryResult, project, contextSize));
 		}
-		
-		return propertiesAsColumnsTagBasedTreeData;
+		return RootItems.of(rootItems);
 	}
-	
-	
-	private TreeData<QueryResultRowItem> getFlatTagBasedTreeData() {
-		if (flatTagBasedTreeData == null) {
-			resultContainsProperties = false;
-			flatTagBasedTreeData = new TreeData<QueryResultRowItem>();
-			addFlatTagBasedRootItems(queryResult);
+
+	/**
+	 * @return <code>true</code> if the KWIC providers of all documents of the result could be loaded, the root items
+	 * that are created by index get their providers from the cache then
+	 */
+	private boolean loadKwicProviders() {
+		try {
+			for (String documentId : queryResult.getSourceDocumentIDs()) {
+				kwicProviderCache.get(documentId);
+			}
+			return true;
+		}
+		catch (Exception e) {
+			((ErrorHandler) UI.getCurrent()).showAndLogError("Error adding query results", e);
+			return false;
 		}
-		return flatTagBasedTreeData;
 	}
 
-	private TreeData<QueryResultRowItem> getTagBasedTreeData() {
-		if (tagBasedTreeData == null) {
-			resultContainsProperties = false;
-			tagBasedTreeData = new TreeData<QueryResultRowItem>();
-			
-			addTagBasedRootItems(queryResult);
+	private RootItems loadFlatTagBasedRootItems() {
+		resultContainsProperties = false;
+		if (!loadKwicProviders()) {
+			return RootItems.of(new ArrayList<>());
 		}
-		
-		return tagBasedTreeData;
+
+		// only the indices of the tag rows are kept, the items are created when they are fetched
+		IntStream.Builder tagRowIndicesBuilder = IntStream.builder();
+		for (int idx = 0; idx < queryResult.size(); idx++) {
+			QueryResultRow row = queryResult.get(idx);
+			if (row instanceof TagQueryResultRow) {
+				if (((TagQueryResultRow) row).getPropertyDefinitionId() != null) {
+					resultContainsProperties = true;
+				}
+				tagRowIndicesBuilder.add(idx);
+			}
+		}
+		int[] tagRowIndices = tagRowIndicesBuilder.build().toArray();
+
+		return new RootItems() {
+			@Override
+			public int size() {
+				return tagRowIndices.length;
+			}
+
+			@Override
+			public QueryResultRowItem get(int idx) {
+				TagQueryResultRow tRow = (TagQueryResultRow) queryResult.get(tagRowIndices[idx]);
+				KwicProvider kwicProvider = kwicProviderCache.getUnchecked(tRow.getSourceDocumentId());
+
+				return new KwicQueryResultRowItem(
+						tRow, 
+						() -> AnnotatedTextProvider.buildAnnotatedText(
+								new ArrayList<>(tRow.getRanges()), 
+								kwicProvider, 
+								getTagDefinition(tRow), 
+								contextSize),
+						() -> AnnotatedTextProvider.buildAnnotatedKeywordInContext(
+								new ArrayList<>(tRow.getRanges()), 
+								kwicProvider, 
+								getTagDefinition(tRow), 
+								tRow.getTagDefinitionPath(),
+								contextSize),
+						kwicProvider.getSourceDocumentName(),
+						kwicProvider.getSourceDocumentReference()
+							.getUserMarkupCollectionReference(tRow.getMarkupCollectionId())
+							.getName(),
+						true
+					);
+			}
+		};
+	}
+
+	private RootItems loadPropertiesAsColumnsTagBasedRootItems() {
+		propertyNames = new TreeSet<String>();
+		if (!loadKwicProviders()) {
+			return RootItems.of(new ArrayList<>());
+		}
+
+		HashMap<String, List<Integer>> rowIndicesByTagInstance = new HashMap<>();
+		for (int idx = 0; idx < queryResult.size(); idx++) {
+			QueryResultRow row = queryResult.get(idx);
+			if (row instanceof TagQueryResultRow) {
+				TagQueryResultRow tRow = (TagQueryResultRow) row;
+				rowIndicesByTagInstance.computeIfAbsent(tRow.getTagInstanceId(), key -> new ArrayList<>()).add(idx);
+				if (tRow.getPropertyName() != null) {
+					propertyNames.add(tRow.getPropertyName());
+				}
+			}
+		}
+		// only the indices of the rows of each tag instance are kept, the items are created when they are fetched
+		int[][] rowIndicesByItem = rowIndicesByTagInstance.values().stream()
+				.map(rowIndices -> rowIndices.stream().mapToInt(Integer::intValue).toArray())
+				.toArray(int[][]::new);
+
+		return new RootItems() {
+			@Override
+			public int size() {
+				return rowIndicesByItem.length;
+			}
+
+			@Override
+			public QueryResultRowItem get(int idx) {
+				QueryResultRowArray rows = new QueryResultRowArray();
+				for (int rowIdx : rowIndicesByItem[idx]) {
+					rows.add(queryResult.get(rowIdx));
+				}
+				TagQueryResultRow masterRow = (TagQueryResultRow) rows.get(0);
+				KwicProvider kwicProvider = kwicProviderCache.getUnchecked(masterRow.getSourceDocumentId());
+
+				return new KwicPropertiesAsColumnsQueryResultRowItem(
+						rows, 
+						() -> AnnotatedTextProvider.buildAnnotatedText(
+								new ArrayList<>(masterRow.getRanges()), 
+								kwicProvider, 
+								getTagDefinition(masterRow),
+								contextSize),
+						() -> AnnotatedTextProvider.buildAnnotatedKeywordInContext(
+								new ArrayList<>(masterRow.getRanges()), 
+								kwicProvider, 
+								getTagDefinition(masterRow), 
+								masterRow.getTagDefinitionPath(),
+								contextSize),
+						kwicProvider.getSourceDocumentName(),
+						kwicProvider.getSourceDocumentReference()
+							.getUserMarkupCollectionReference(masterRow.getMarkupCollectionId())
+							.getName()
+					);
+			}
+		};
+	}
+
+	private TagDefinition getTagDefinition(TagQueryResultRow tRow) {
+		return project.getTagManager().getTagLibrary().getTagDefinition(tRow.getTagDefinitionId());
 	}
 	
 	private void initQueryResultGrid() {
@@ -704,10 +838,6 @@ public class QueryResultPanel extends VerticalLayout {
 				registrationIterator.next().remove();
 				registrationIterator.remove();
 			}
-			
-			if (queryResultGrid.getDataProvider() instanceof InMemoryDataProvider) {
-				((InMemoryDataProvider<?>)queryResultGrid.getDataProvider()).clearFilters();
-			}
 		}
 		
 		queryResultGrid = TreeGridFactory.createDefaultTreeGrid();
@@ -718,9 +848,6 @@ public class QueryResultPanel extends VerticalLayout {
 		
 		queryResultGrid.addStyleNames("annotation-details-panel-annotation-details-grid",
 				"flat-undecorated-icon-buttonrenderer");
-		
-		
-		queryResultGrid.addExpandListener(event -> handleExpandRequest(event));
 	}
 
 	public void addItemSelectionListener(
@@ -821,7 +948,7 @@ public class QueryResultPanel extends VerticalLayout {
 
 		MenuItem miFilterPunctuation = optionsMenu.addItem(
 				"Filter Punctuation",
-				mi -> queryResultGrid.getDataProvider().refreshAll());
+				mi -> handleSearchValueInput(searchField.getValue()));
 		miFilterPunctuation.setCheckable(true);
 		miFilterPunctuation.setChecked(true);
 		punctuationFilter = new PunctuationFilter(() -> miFilterPunctuation.isChecked());
@@ -900,42 +1027,19 @@ public class QueryResultPanel extends VerticalLayout {
 		searchField.addValueChangeListener(event -> handleSearchValueInput(event.getValue()));
 	}
 
-	private void clearTreeData() {
-		this.phraseBasedTreeData = null;
-		this.flatTagBasedTreeData = null;
-		this.propertiesAsColumnsTagBasedTreeData = null;
-		this.tagBasedTreeData = null;		
-	}
-	
 	private void handleSearchValueInput(String searchValue) {
-		@SuppressWarnings("unchecked")
-		TreeDataProvider<QueryResultRowItem> dataProvider = 
-				(TreeDataProvider<QueryResultRowItem>) this.queryResultGrid.getDataProvider();
+		if (queryResultDataProvider == null) {
+			return;
+		}
+		
 		if ((searchValue == null) || searchValue.isEmpty()) {
-			dataProvider.setFilter(null);
+			queryResultDataProvider.setFilter(punctuationFilter);
 		}
 		else {
-			dataProvider.setFilter(
+			queryResultDataProvider.setFilter(
 				row -> 
-				row.startsWith(searchValue));
-		}
-		
-		dataProvider.addFilter(punctuationFilter);
-	}
-
-	private void handleExpandRequest(ExpandEvent<QueryResultRowItem> event) {
-		QueryResultRowItem expandedItem = event.getExpandedItem();
-		@SuppressWarnings("unchecked")
-		TreeData<QueryResultRowItem> currentData = 
-				((TreeDataProvider<QueryResultRowItem>)queryResultGrid.getDataProvider()).getTreeData();
-		QueryResultRowItem firstChild = currentData.getChildren(expandedItem).get(0);
-		if (firstChild.isExpansionDummy()) {
-			currentData.removeItem(firstChild);
-			
-			expandedItem.addChildRowItems(currentData, kwicProviderCache);
+				punctuationFilter.test(row) && row.startsWith(searchValue));
 		}
-
-		queryResultGrid.getDataProvider().refreshAll();
 	}
 
 	public QueryResultPanelSetting getQueryResultPanelSetting() {
@@ -944,64 +1048,30 @@ public class QueryResultPanel extends VerticalLayout {
 	
 	public QueryResultRowArray getFilteredQueryResult() {
 		QueryResultRowArray result = new QueryResultRowArray();
-		@SuppressWarnings("unchecked")
-		final TreeDataProvider<QueryResultRowItem> dataProvider = 
-				((TreeDataProvider<QueryResultRowItem>) queryResultGrid.getDataProvider());
-		dataProvider.fetch(
-				new HierarchicalQuery<QueryResultRowItem, SerializablePredicate<QueryResultRowItem>>(null , null))
-		.forEach(item -> result.addAll(item.getRows()));
+		queryResultDataProvider.fetchRootItems().forEach(item -> result.addAll(item.getRows()));
 
 		return result;
 	}
 	
-	private List<QueryResultRowItem> getFilteredQueryResultRowItems() {
-		@SuppressWarnings("unchecked")
-		final TreeDataProvider<QueryResultRowItem> dataProvider = 
-				((TreeDataProvider<QueryResultRowItem>) queryResultGrid.getDataProvider());
-		return dataProvider.fetch(
-				new HierarchicalQuery<QueryResultRowItem, SerializablePredicate<QueryResultRowItem>>(null , null))
-		.collect(Collectors.toList());
-	}
-
 	public QueryId getQueryId() {
 		return queryId;
 	}
 
 	public void addQueryResultRows(QueryResultRowArray rows) {
-		@SuppressWarnings("unchecked")
-		final TreeDataProvider<QueryResultRowItem> dataProvider = 
-				((TreeDataProvider<QueryResultRowItem>) queryResultGrid.getDataProvider());
 		boolean rowsAdded = false;
 		for (QueryResultRow row : rows) {
-			if (!((QueryResultRowArray)queryResult).contains(row)) {
-				((QueryResultRowArray)queryResult).add(row);
+			if (!queryResult.contains(row)) {
+				queryResult.add(row);
 				rowsAdded = true;
-				// update existing items
-				dataProvider.getTreeData().getRootItems().forEach(
-					item -> item.addQueryResultRow(row, dataProvider.getTreeData(), kwicProviderCache));
 			}
-		};
+		}
 		if (rowsAdded) {
-			if (!dataProvider.getTreeData().equals(phraseBasedTreeData)) {
-				phraseBasedTreeData = null;
-			}
-			if (!dataProvider.getTreeData().equals(tagBasedTreeData)) {
-				tagBasedTreeData = null;
-			}
-			if (!dataProvider.getTreeData().equals(flatTagBasedTreeData)) {
-				flatTagBasedTreeData = null;
-			}
-			if (!dataProvider.getTreeData().equals(propertiesAsColumnsTagBasedTreeData)) {
-				propertiesAsColumnsTagBasedTreeData = null;
-			}
+			// the root items are created from the result, expanded items get their children again
+			queryResultDataProvider.reload();
 		}
+		tokenCount = queryResult.size();
 		
-		// add new root items
-		displaySetting.addQueryResultRootItems(this, rows);
-		tokenCount = ((QueryResultRowArray)queryResult).size();
-		dataProvider.refreshAll();
-		
-		if (!dataProvider.getTreeData().getRootItems().isEmpty() 
+		if ((queryResultDataProvider.getRootItemCount() > 0) 
 				&& queryResultGrid.getSelectedItems().isEmpty()) {
 			queryResultGrid.getDataCommunicator().fetchItemsWithRange(0,1)
 				.stream()
@@ -1011,188 +1081,11 @@ public class QueryResultPanel extends VerticalLayout {
 		}
 	}
 
-	void addPhraseBasedRootItems(QueryResult result) {
-		Set<GroupedQueryResult> groupedQueryResults = result.asGroupedSet();
-		tokenCount = 0;
-		for (GroupedQueryResult groupedQueryResult : groupedQueryResults) {
-			PhraseQueryResultRowItem phraseQueryResultRowItem = 
-					new PhraseQueryResultRowItem(includeQueryId, groupedQueryResult, contextSize);
-			if (!phraseBasedTreeData.contains(phraseQueryResultRowItem)) {
-				tokenCount += groupedQueryResult.getTotalFrequency();
-				phraseBasedTreeData.addItem(null, phraseQueryResultRowItem);
-				phraseBasedTreeData.addItem(phraseQueryResultRowItem, new DummyQueryResultRowItem());
-			}
-		}
-	}
-
-	void addTagBasedRootItems(QueryResult result) {
-		tokenCount = 0;
-		Set<GroupedQueryResult> groupedQueryResults = result.asGroupedSet(row -> {
-			if (row instanceof TagQueryResultRow) {
-				if (((TagQueryResultRow) row).getPropertyDefinitionId() != null) {
-					resultContainsProperties = true;
-				}
-				return ((TagQueryResultRow) row).getTagDefinitionPath();
-			}
-			return TagQueryResultRowItem.getNoTagAvailableKey();
-		});
-		for (GroupedQueryResult groupedQueryResult : groupedQueryResults) {
-			TagQueryResultRowItem tagQueryResultRowItem = 
-					new TagQueryResultRowItem(includeQueryId, groupedQueryResult, project, contextSize);
-			if (!tagBasedTreeData.contains(tagQueryResultRowItem)) {
-				tokenCount += groupedQueryResult.getTotalFrequency();
-				tagBasedTreeData.addItem(null, tagQueryResultRowItem);
-				tagBasedTreeData.addItem(tagQueryResultRowItem, new DummyQueryResultRowItem());
-			}
-		}
-	}
-	
-	void addFlatTagBasedRootItems(QueryResult result) {
-		try {
-			for (QueryResultRow row : result) {
-				if (row instanceof TagQueryResultRow) {
-					if (((TagQueryResultRow) row).getPropertyDefinitionId() != null) {
-						resultContainsProperties = true;
-					}
-
-					TagQueryResultRow tRow = (TagQueryResultRow)row;
-					
-					KwicProvider kwicProvider = kwicProviderCache.get(row.getSourceDocumentId());
-					TagDefinition tagDefinition = 
-						project.getTagManager().getTagLibrary().getTagDefinition(tRow.getTagDefinitionId());
-					KwicQueryResultRowItem item =
-						new KwicQueryResultRowItem(
-							tRow, 
-							AnnotatedTextProvider.buildAnnotatedText(
-									new ArrayList<>(tRow.getRanges()), 
-									kwicProvider, 
-									tagDefinition, 
-									contextSize),
-							AnnotatedTextProvider.buildAnnotatedKeywordInContext(
-									new ArrayList<>(tRow.getRanges()), 
-									kwicProvider, 
-									tagDefinition, 
-									tRow.getTagDefinitionPath(),
-									contextSize),
-							kwicProvider.getSourceDocumentName(),
-							kwicProvider.getSourceDocumentReference()
-								.getUserMarkupCollectionReference(tRow.getMarkupCollectionId())
-								.getName(),
-							true
-						);
-					if (!flatTagBasedTreeData.contains(item)) {
-						flatTagBasedTreeData.addItem(null, item);
-					}
-				}
-			}
-			
-			tokenCount = flatTagBasedTreeData.getRootItems().size();
-		}
-		catch (Exception e) {
-			((ErrorHandler) UI.getCurrent()).showAndLogError("Error adding query results", e);
-        }
-	}
-
-	void addPropertiesAsColumnsTagBasedRootItems(QueryResult result) {
-		try {
-			
-			HashMap<String, QueryResultRowArray> rowsGroupedByTagInstance = 
-					new HashMap<String, QueryResultRowArray>();
-			for (QueryResultRow row : result) {
-				
-				if (row instanceof TagQueryResultRow) {
-					TagQueryResultRow tRow = (TagQueryResultRow) row;
-					QueryResultRowArray rows = 
-							rowsGroupedByTagInstance.get(tRow.getTagInstanceId());
-					
-					if (rows == null) {
-						rows = new QueryResultRowArray();
-						rowsGroupedByTagInstance.put(tRow.getTagInstanceId(), rows);
-					}
-					rows.add(tRow);
-					if (tRow.getPropertyName() != null) {
-						propertyNames.add(tRow.getPropertyName());
-					}
-				}
-			}
-			
-			
-			for (Map.Entry<String, QueryResultRowArray> entry : rowsGroupedByTagInstance.entrySet()) {
-				
-				QueryResultRowArray rows = entry.getValue();
-				TagQueryResultRow masterRow = (TagQueryResultRow) rows.get(0);
-				
-				KwicProvider kwicProvider = 
-						kwicProviderCache.get(masterRow.getSourceDocumentId());
-				TagDefinition tagDefinition = 
-						project.getTagManager().getTagLibrary().getTagDefinition(
-								masterRow.getTagDefinitionId());
-				KwicPropertiesAsColumnsQueryResultRowItem item = 
-					new KwicPropertiesAsColumnsQueryResultRowItem(
-						rows, 
-						AnnotatedTextProvider.buildAnnotatedText(
-								new ArrayList<>(masterRow.getRanges()), 
-								kwicProvider, 
-								tagDefinition,
-								contextSize),
-						AnnotatedTextProvider.buildAnnotatedKeywordInContext(
-								new ArrayList<>(masterRow.getRanges()), 
-								kwicProvider, 
-								tagDefinition, 
-								masterRow.getTagDefinitionPath(),
-								contextSize),
-						kwicProvider.getSourceDocumentName(),
-						kwicProvider.getSourceDocumentReference()
-							.getUserMarkupCollectionReference(masterRow.getMarkupCollectionId())
-							.getName()
-					);
-				if (!propertiesAsColumnsTagBasedTreeData.contains(item)) {
-					propertiesAsColumnsTagBasedTreeData.addItem(null, item);
-				}
-			}				
-			
-			tokenCount = propertiesAsColumnsTagBasedTreeData.getRootItems().size();
-		}
-		catch (Exception e) {
-			((ErrorHandler) UI.getCurrent()).showAndLogError("Error adding query results", e);
-		}			
-	}
-
 	public void removeQueryResultRows(QueryResultRowArray rows) {
-
-		@SuppressWarnings("unchecked")
-		final TreeDataProvider<QueryResultRowItem> dataProvider = 
-				((TreeDataProvider<QueryResultRowItem>) queryResultGrid.getDataProvider());
-		
-		if (((QueryResultRowArray)queryResult).removeAll(rows)) {
-			tokenCount = ((QueryResultRowArray)queryResult).size();
-			if (!dataProvider.getTreeData().equals(phraseBasedTreeData)) {
-				phraseBasedTreeData = null;
-			}
-			if (!dataProvider.getTreeData().equals(tagBasedTreeData)) {
-				tagBasedTreeData = null;
-			}
-			if (!dataProvider.getTreeData().equals(flatTagBasedTreeData)) {
-				flatTagBasedTreeData = null;
-			}
-			if (!dataProvider.getTreeData().equals(propertiesAsColumnsTagBasedTreeData)) {
-				propertiesAsColumnsTagBasedTreeData = null;
-			}
+		if (queryResult.removeAll(rows)) {
+			tokenCount = queryResult.size();
+			queryResultDataProvider.reload();
 		}
-		
-		new ArrayList<>(rows).forEach(row -> {
-			// update existing items
-			dataProvider.getTreeData().getRootItems().forEach(
-				item -> item.removeQueryResultRow(row, dataProvider.getTreeData()));
-		});
-		
-		new ArrayList<>(dataProvider.getTreeData().getRootItems()).forEach(item -> {
-			if (item.getRows().isEmpty()) {
-				dataProvider.getTreeData().removeItem(item);
-			}
-		});
-
-		dataProvider.refreshAll();
 	}
 
 	public void addToButtonBarLeft(Component component) {
@@ -1214,20 +1107,8 @@ public class QueryResultPanel extends VerticalLayout {
 	}
 	
 	public void clear() {
-		if (phraseBasedTreeData != null) {
-			phraseBasedTreeData.clear();
-		}
-		if (tagBasedTreeData != null) {
-			tagBasedTreeData.clear();
-		}
-		if (flatTagBasedTreeData != null) {
-			flatTagBasedTreeData.clear();
-		}
-		if (propertiesAsColumnsTagBasedTreeData != null) {
-			propertiesAsColumnsTagBasedTreeData.clear();
-		}
+		queryResultDataProvider.clear();
 		optionsBt.setEnabled(false);
-		queryResultGrid.getDataProvider().refreshAll();
 	}
 
 	public MenuItem addOptionsMenuItem(String caption, Command command) {
@@ -1236,8 +1117,7 @@ public class QueryResultPanel extends VerticalLayout {
 	}
 	
 	public boolean isEmpty() {
-		return ((TreeDataProvider<QueryResultRowItem>) queryResultGrid.getDataProvider()).getTreeData().getRootItems()
-				.isEmpty();
+		return queryResultDataProvider.getRootItemCount() == 0;
 	}
 
 	
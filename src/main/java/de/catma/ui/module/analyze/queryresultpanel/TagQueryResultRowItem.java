@@ -1,18 +1,16 @@
 package de.catma.ui.module.analyze.queryresultpanel;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.cache.LoadingCache;
-import com.vaadin.data.TreeData;
 import com.vaadin.ui.UI;
 
 import de.catma.indexer.KwicProvider;
 import de.catma.project.Project;
 import de.catma.queryengine.result.GroupedQueryResult;
-import de.catma.queryengine.result.QueryResultRow;
 import de.catma.queryengine.result.QueryResultRowArray;
-import de.catma.queryengine.result.TagQueryResultRow;
 import de.catma.ui.module.main.ErrorHandler;
 import de.catma.ui.util.Cleaner;
 
@@ -75,12 +73,13 @@ public class TagQueryResultRowItem implements QueryResultRowItem {
 	}
 
 	@Override
-	public boolean isExpansionDummy() {
-		return false;
+	public boolean hasChildRowItems() {
+		return true;
 	}
 
 	@Override
-	public void addChildRowItems(TreeData<QueryResultRowItem> treeData, LoadingCache<String, KwicProvider> kwicProviderCache) {
+	public List<QueryResultRowItem> createChildRowItems(LoadingCache<String, KwicProvider> kwicProviderCache) {
+		List<QueryResultRowItem> childRowItems = new ArrayList<>();
 		try {
 			if (includeQueryId) {
 				Set<GroupedQueryResult> groupedQueryResults = getRows().asGroupedSet(row -> {
@@ -88,34 +87,27 @@ public class TagQueryResultRowItem implements QueryResultRowItem {
 				});
 				
 				for (GroupedQueryResult groupedQueryResult : groupedQueryResults) {
-					AnnotatedQueryIdQueryResultRowItem queryIdQueryResultRowItem = 
-							new AnnotatedQueryIdQueryResultRowItem(identity, groupedQueryResult, project, contextSize);
-					if (!treeData.contains(queryIdQueryResultRowItem)) {
-						treeData.addItem(this, queryIdQueryResultRowItem);
-						treeData.addItem(queryIdQueryResultRowItem, new DummyQueryResultRowItem());
-					}
+					childRowItems.add(
+							new AnnotatedQueryIdQueryResultRowItem(identity, groupedQueryResult, project, contextSize));
 				}			
 			}
 			else {
 				for (String documentId : groupedQueryResult.getSourceDocumentIDs()) {
 				
 					String documentName = kwicProviderCache.get(documentId).getSourceDocumentName();
-					AnnotatedDocumentQueryResultRowItem item = new AnnotatedDocumentQueryResultRowItem(
+					childRowItems.add(new AnnotatedDocumentQueryResultRowItem(
 							identity,
 							documentName, documentId, 
 							groupedQueryResult.getSubResult(documentId), 
 							project,
-							contextSize);
-					if (!treeData.contains(item)) {
-						treeData.addItem(this, item);
-						treeData.addItem(item, new DummyQueryResultRowItem());
-					}
+							contextSize));
 				}
 			}
 		}
 		catch (Exception e) {
 			((ErrorHandler) UI.getCurrent()).showAndLogError("Error displaying annotated query results", e);
 		}
+		return childRowItems;
 	}
 
 	@Override
@@ -143,69 +135,6 @@ public class TagQueryResultRowItem implements QueryResultRowItem {
 		return true;
 	}
 	
-	@Override
-	public void addQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData,
-			LoadingCache<String, KwicProvider> kwicProviderCache) {
-		
-		if (row instanceof TagQueryResultRow) {
-			if (groupedQueryResult.getGroup().toString().equals(
-						((TagQueryResultRow)row).getTagDefinitionPath())) {
-				groupedQueryResult.add(row);
-				
-				//update existing rows
-				treeData.getChildren(this).forEach(child -> {
-					if (!child.isExpansionDummy()) {
-						child.addQueryResultRow(row, treeData, kwicProviderCache);
-					}
-				});
-				
-				if (rows != null) {
-					rows.add(row);
-					
-					// check for missing child row
-					addChildRowItems(treeData, kwicProviderCache);
-				}
-			}
-		}
-		else if (groupedQueryResult.getGroup().toString().equals(getNoTagAvailableKey())) {
-			groupedQueryResult.add(row);
-			
-			//update existing rows
-			treeData.getChildren(this).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.addQueryResultRow(row, treeData, kwicProviderCache);
-				}
-			});
-			
-			if (rows != null) {
-				rows.add(row);
-				
-				// check for missing child row
-				addChildRowItems(treeData, kwicProviderCache);
-			}			
-		}
-		
-	}
-	
-	@Override
-	public void removeQueryResultRow(QueryResultRow row, TreeData<QueryResultRowItem> treeData) {
-		if (groupedQueryResult.remove(row)) {
-			if (rows != null) {
-				rows.remove(row);
-			}
-
-			//update existing rows
-			new ArrayList<>(treeData.getChildren(this)).forEach(child -> {
-				if (!child.isExpansionDummy()) {
-					child.removeQueryResultRow(row, treeData);
-					if (child.getRows().isEmpty()) {
-						treeData.removeItem(child);
-					}
-				}
-			});			
-		}
-	}	
-	
 	@Override
 	public boolean startsWith(String searchValue) {
 		return groupedQueryResult.getGroup().toString().startsWith(searchValue);
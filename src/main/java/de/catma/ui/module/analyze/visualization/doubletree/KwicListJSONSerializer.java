@@ -1,11 +1,14 @@
 package de.catma.ui.module.analyze.visualization.doubletree;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.List;
 
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 import de.catma.document.source.KeywordInContext;
 import de.catma.indexer.KeywordInSpanContext;
@@ -14,62 +17,87 @@ import de.catma.ui.client.ui.visualization.doubletree.shared.KwicSerializationFi
 
 public class KwicListJSONSerializer {
 	
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	
 	public String toJSON(
 			List<KeywordInContext> kwicList, 
 			boolean caseSensitive) {
+		StringWriter writer = new StringWriter();
+		try {
+			toJSON(kwicList, caseSensitive, writer);
+		}
+		catch (IOException e) {
+			// a StringWriter does not fail
+			throw new UncheckedIOException(e);
+		}
+		return writer.toString();
+	}
+	
+	/**
+	 * Writes the KWICs with a streaming generator, so that no JSON tree of the whole list is built.
+	 * The writer is flushed but not closed.
+	 */
+	public void toJSON(
+			List<KeywordInContext> kwicList, 
+			boolean caseSensitive,
+			Writer writer) throws IOException {
 		
-		JsonNodeFactory factory = JsonNodeFactory.instance;
-		
-		ObjectNode kwicListJson = factory.objectNode();
-		ArrayNode prefixArraysJson = factory.arrayNode();
-		ArrayNode tokenArray = factory.arrayNode();
-		ArrayNode postfixArraysJson = factory.arrayNode();
-		
-		kwicListJson.set(KwicSerializationField.prefixArrays.name(), prefixArraysJson);
-		kwicListJson.set(KwicSerializationField.tokenArray.name(), tokenArray);
-		kwicListJson.set(KwicSerializationField.postfixArrays.name(), postfixArraysJson);
-		kwicListJson.put(
-				KwicSerializationField.caseSensitive.name(), 
-				Boolean.toString(caseSensitive));
-
-		int rtlCount = 0;
-		
-		for (KeywordInContext kwic : kwicList) {
-			if (kwic instanceof KeywordInSpanContext) {
-				KeywordInSpanContext spanKwic = (KeywordInSpanContext)kwic;
-				
-				ArrayNode prefixArrayJson = factory.arrayNode();
-				prefixArraysJson.add(prefixArrayJson);
-				
-				for (TermInfo ti : spanKwic.getSpanContext().getBackwardTokens()) {
-					prefixArrayJson.add(ti.getTerm());
+		try (JsonGenerator jsonGenerator = JSON_FACTORY.createGenerator(writer)) {
+			jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			
+			jsonGenerator.writeStartObject();
+			
+			jsonGenerator.writeArrayFieldStart(KwicSerializationField.prefixArrays.name());
+			for (KeywordInContext kwic : kwicList) {
+				if (kwic instanceof KeywordInSpanContext) {
+					jsonGenerator.writeStartArray();
+					for (TermInfo ti : ((KeywordInSpanContext)kwic).getSpanContext().getBackwardTokens()) {
+						jsonGenerator.writeString(ti.getTerm());
+					}
+					jsonGenerator.writeEndArray();
 				}
-				
-				tokenArray.add(spanKwic.getKeyword());
-				
-				ArrayNode postfixArrayJson = factory.arrayNode();
-				postfixArraysJson.add(postfixArrayJson);
-				
-				for (TermInfo ti : spanKwic.getSpanContext().getForwardTokens()) {
-					postfixArrayJson.add(ti.getTerm());
+			}
+			jsonGenerator.writeEndArray();
+			
+			int rtlCount = 0;
+			
+			jsonGenerator.writeArrayFieldStart(KwicSerializationField.tokenArray.name());
+			for (KeywordInContext kwic : kwicList) {
+				if (kwic instanceof KeywordInSpanContext) {
+					jsonGenerator.writeString(((KeywordInSpanContext)kwic).getKeyword());
+					
+					if (kwic.isRightToLeft()) {
+						rtlCount++;
+					}
 				}
-				
-				if (kwic.isRightToLeft()) {
-					rtlCount++;
+			}
+			jsonGenerator.writeEndArray();
+			
+			jsonGenerator.writeArrayFieldStart(KwicSerializationField.postfixArrays.name());
+			for (KeywordInContext kwic : kwicList) {
+				if (kwic instanceof KeywordInSpanContext) {
+					jsonGenerator.writeStartArray();
+					for (TermInfo ti : ((KeywordInSpanContext)kwic).getSpanContext().getForwardTokens()) {
+						jsonGenerator.writeString(ti.getTerm());
+					}
+					jsonGenerator.writeEndArray();
 				}
 			}
+			jsonGenerator.writeEndArray();
+			
+			jsonGenerator.writeStringField(
+					KwicSerializationField.caseSensitive.name(), 
+					Boolean.toString(caseSensitive));
+			
+			// rightToLeftLanaguage->true if more than half of the kwics stem from RTL documents
+			jsonGenerator.writeStringField(
+					KwicSerializationField.rightToLeftLanguage.name(), 
+					Boolean.toString(
+						rtlCount > (BigDecimal.valueOf(kwicList.size())
+								.divide(BigDecimal.valueOf(2), BigDecimal.ROUND_HALF_UP)
+								.intValue())));
+			
+			jsonGenerator.writeEndObject();
 		}
-		
-		// rightToLeftLanaguage->true if more than half of the kwics stem from RTL documents
-		kwicListJson.put(
-				KwicSerializationField.rightToLeftLanguage.name(), 
-				Boolean.toString(
-					rtlCount > (BigDecimal.valueOf(kwicList.size())
-							.divide(BigDecimal.valueOf(2), BigDecimal.ROUND_HALF_UP)
-							.intValue())));
-		
-
-		
-		return kwicListJson.toString();
 	}
 }
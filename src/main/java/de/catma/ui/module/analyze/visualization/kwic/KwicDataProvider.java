@@ -0,0 +1,185 @@
+package de.catma.ui.module.analyze.visualization.kwic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.vaadin.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.data.provider.Query;
+import com.vaadin.data.provider.QuerySortOrder;
+import com.vaadin.server.SerializablePredicate;
+import com.vaadin.shared.data.sort.SortDirection;
+
+import de.catma.queryengine.result.QueryResultRow;
+
+/**
+ * Provides the rows of the {@link KwicPanel} page by page.
+ * <p>
+ * Only the rows themselves are kept. Everything that is displayed, i.e. the KWIC in particular, gets computed by the
+ * grid for the rows that are actually visible. Filtering and sorting is done on demand, the resulting order is kept
+ * until the rows, the filter or the sort order change, so that paging through the grid does not filter or sort again.
+ * <p>
+ * Sorting computes the sort keys of each row once and then sorts by the keys, so that the KWIC a context column is
+ * sorted by is not computed again for every comparison. Filtering by KWIC content needs the KWIC of every row.
+ */
+class KwicDataProvider extends AbstractBackEndDataProvider<QueryResultRow, SerializablePredicate<QueryResultRow>> {
+
+	private final Set<QueryResultRow> rows = new LinkedHashSet<>();
+	private final Map<String, Function<QueryResultRow, ? extends Comparable<?>>> sortKeyProvidersBySortProperty = new HashMap<>();
+
+	// the filtered and sorted rows of the last query
+	private List<QueryResultRow> view;
+	private SerializablePredicate<QueryResultRow> viewFilter;
+	private List<QuerySortOrder> viewSortOrders;
+
+	private static record SortableRow(QueryResultRow row, Comparable<?>[] sortKeys) {}
+
+	/**
+	 * @param sortProperty the ID of a sortable column
+	 * @param sortKeyProvider the value of a row that column is sorted by, <code>null</code> values come last
+	 */
+	void setSortKeyProvider(String sortProperty, Function<QueryResultRow, ? extends Comparable<?>> sortKeyProvider) {
+		sortKeyProvidersBySortProperty.put(sortProperty, sortKeyProvider);
+	}
+
+	@Override
+	protected Stream<QueryResultRow> fetchFromBackEnd(
+			Query<QueryResultRow, SerializablePredicate<QueryResultRow>> query) {
+		List<QueryResultRow> currentView = getView(query);
+
+		int fromIndex = Math.min(query.getOffset(), currentView.size());
+		int toIndex = (int)Math.min((long)query.getOffset() + query.getLimit(), currentView.size());
+
+		return new ArrayList<>(currentView.subList(fromIndex, toIndex)).stream();
+	}
+
+	@Override
+	protected int sizeInBackEnd(Query<QueryResultRow, SerializablePredicate<QueryResultRow>> query) {
+		return getView(query).size();
+	}
+
+	private List<QueryResultRow> getView(Query<QueryResultRow, SerializablePredicate<QueryResultRow>> query) {
+		SerializablePredicate<QueryResultRow> filter = query.getFilter().orElse(null);
+		List<QuerySortOrder> sortOrders = query.getSortOrders();
+
+		if (view == null || viewFilter != filter || !isSameSortOrder(viewSortOrders, sortOrders)) {
+			Stream<QueryResultRow> rowStream = rows.stream();
+			if (filter != null) {
+				rowStream = rowStream.filter(filter);
+			}
+
+			view = sort(rowStream.collect(Collectors.toList()), sortOrders);
+			viewFilter = filter;
+			viewSortOrders = new ArrayList<>(sortOrders);
+		}
+
+		return view;
+	}
+
+	private boolean isSameSortOrder(List<QuerySortOrder> sortOrders1, List<QuerySortOrder> sortOrders2) {
+		if (sortOrders1.size() != sortOrders2.size()) {
+			return false;
+		}
+
+		for (int idx = 0; idx < sortOrders1.size(); idx++) {
+			if (!Objects.equals(sortOrders1.get(idx).getSorted(), sortOrders2.get(idx).getSorted())
+					|| sortOrders1.get(idx).getDirection() != sortOrders2.get(idx).getDirection()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private List<QueryResultRow> sort(List<QueryResultRow> rowsToBeSorted, List<QuerySortOrder> sortOrders) {
+		List<Function<QueryResultRow, ? extends Comparable<?>>> sortKeyProviders = new ArrayList<>();
+		Comparator<SortableRow> comparator = null;
+
+		for (QuerySortOrder sortOrder : sortOrders) {
+			Function<QueryResultRow, ? extends Comparable<?>> sortKeyProvider =
+					sortKeyProvidersBySortProperty.get(sortOrder.getSorted());
+			if (sortKeyProvider != null) {
+				Comparator<SortableRow> keyComparator = compareSortKeys(sortKeyProviders.size());
+				if (sortOrder.getDirection() == SortDirection.DESCENDING) {
+					keyComparator = keyComparator.reversed();
+				}
+				comparator = (comparator == null) ? keyComparator : comparator.thenComparing(keyComparator);
+				sortKeyProviders.add(sortKeyProvider);
+			}
+		}
+
+		if (comparator == null) {
+			return rowsToBeSorted;
+		}
+
+		List<SortableRow> sortableRows = new ArrayList<>(rowsToBeSorted.size());
+		for (QueryResultRow row : rowsToBeSorted) {
+			Comparable<?>[] sortKeys = new Comparable<?>[sortKeyProviders.size()];
+			for (int idx = 0; idx < sortKeys.length; idx++) {
+				sortKeys[idx] = sortKeyProviders.get(idx).apply(row);
+			}
+			sortableRows.add(new SortableRow(row, sortKeys));
+		}
+
+		sortableRows.sort(comparator);
+
+		return sortableRows.stream().map(SortableRow::row).collect(Collectors.toList());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Comparator<SortableRow> compareSortKeys(int sortKeyIndex) {
+		Comparator<Comparable> keyComparator = Comparator.nullsLast(Comparator.naturalOrder());
+		return (sortableRow1, sortableRow2) -> keyComparator.compare(
+				sortableRow1.sortKeys()[sortKeyIndex], sortableRow2.sortKeys()[sortKeyIndex]);
+	}
+
+	/**
+	 * Discards the current order, e.g. because the displayed content of the rows has changed.
+	 */
+	@Override
+	public void refreshAll() {
+		view = null;
+		super.refreshAll();
+	}
+
+	/**
+	 * @param row the row to add
+	 * @return <code>true</code> if the row has not been part of the rows yet
+	 */
+	boolean add(QueryResultRow row) {
+		view = null;
+		return rows.add(row);
+	}
+
+	void remove(QueryResultRow row) {
+		view = null;
+		rows.remove(row);
+	}
+
+	void removeAll(Collection<QueryResultRow> rowsToBeRemoved) {
+		view = null;
+		rows.removeAll(rowsToBeRemoved);
+	}
+
+	void clear() {
+		view = null;
+		rows.clear();
+	}
+
+	/**
+	 * @return all rows regardless of the current filter
+	 */
+	Collection<QueryResultRow> getItems() {
+		return Collections.unmodifiableSet(rows);
+	}
+}
@@ -23,6 +23,10 @@ import de.catma.ui.module.annotate.annotationpanel.AnnotatedTextProvider;
 import de.catma.ui.util.Cleaner;
 
 public class KwicItemHandler {
+	// the KWICs of the rows that are visible or have been visible recently, 
+	// the KWIC of any other row gets computed again when needed
+	private static final int MAX_CACHED_SPAN_CONTEXTS = 10000;
+	
 	private Logger logger = Logger.getLogger(KwicItemHandler.class.getName());
 	
 	private LoadingCache<String, KwicProvider> kwicProviderCache;
@@ -33,7 +37,7 @@ public class KwicItemHandler {
 		super();
 		this.project = project;
 		this.kwicProviderCache = kwicProviderCache;
-		this.spanContextCache = CacheBuilder.newBuilder().build(new CacheLoader<QueryResultRow, KeywordInSpanContext>() {
+		this.spanContextCache = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_SPAN_CONTEXTS).build(new CacheLoader<QueryResultRow, KeywordInSpanContext>() {
 			@Override
 			public KeywordInSpanContext load(QueryResultRow row) throws Exception {
 				KwicProvider kwicProvider = kwicProviderCache.get(row.getSourceDocumentId());
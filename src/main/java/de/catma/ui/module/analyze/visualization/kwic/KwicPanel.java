@@ -21,7 +21,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.vaadin.contextmenu.ContextMenu;
-import com.vaadin.data.provider.ListDataProvider;
+import com.vaadin.data.provider.ConfigurableFilterDataProvider;
 import com.vaadin.data.provider.Query;
 import com.vaadin.icons.VaadinIcons;
 import com.vaadin.server.FileDownloader;
@@ -92,13 +92,15 @@ import de.catma.util.Pair;
 
 public class KwicPanel extends VerticalLayout implements Visualization {
 	private enum ColumnId {
-		COLLECION_NAME, TAG, PROPERTY_NAME, PROPERTY_VALUE, START_POS,
+		DOCUMENT_NAME, COLLECION_NAME, BACKWARD_CONTEXT, KEYWORD, FORWARD_CONTEXT, 
+		START_POS, END_POS, TAG, PROPERTY_NAME, PROPERTY_VALUE,
 		;
 	}
 
 	private Grid<QueryResultRow> kwicGrid;
 	private ActionGridComponent<Grid<QueryResultRow>> kwicGridComponent;
-	private ListDataProvider<QueryResultRow> kwicDataProvider;
+	private KwicDataProvider kwicDataProvider;
+	private ConfigurableFilterDataProvider<QueryResultRow, Void, SerializablePredicate<QueryResultRow>> filterableKwicDataProvider;
 	private KwicItemHandler kwicItemHandler;
 
 	private Project project;
@@ -217,8 +219,8 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 	
 	public QueryResultRowArray getFilteredQueryResult() {
 		QueryResultRowArray result = new QueryResultRowArray();
-		kwicDataProvider.fetch(
-				new Query<QueryResultRow, SerializablePredicate<QueryResultRow>>())
+		filterableKwicDataProvider.fetch(
+				new Query<>())
 		.forEach(row -> result.add(row));
 
 		return result;
@@ -321,7 +323,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 			}
 			
 			collectionManager.removeTagInstances(tagInstanceIdsToBeRemoved, true);
-			kwicDataProvider.getItems().removeAll(rowsToBeRemoved);
+			kwicDataProvider.removeAll(rowsToBeRemoved);
 			kwicDataProvider.refreshAll();
 		}
 		catch (Exception e) {
@@ -627,13 +629,15 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 		btExpandCompress = new IconButton(expandResource);
 		btExpandCompress.setVisible(false);
 
-		kwicDataProvider = new ListDataProvider<>(new HashSet<>());
-		kwicGrid = new Grid<>(kwicDataProvider);
+		kwicDataProvider = new KwicDataProvider();
+		filterableKwicDataProvider = kwicDataProvider.withConfigurableFilter();
+		kwicGrid = new Grid<>(filterableKwicDataProvider);
 
 		kwicGrid.setSizeFull();
 
 		kwicGrid.addColumn(row -> kwicItemHandler.getDocumentName(row))
 				.setCaption("Document")
+				.setId(ColumnId.DOCUMENT_NAME.name())
 				.setWidth(200)
 				.setHidable(true);
 
@@ -646,11 +650,13 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 
 		Column<QueryResultRow, ?> backwardCtxColumn = kwicGrid.addColumn(row -> kwicItemHandler.getBackwardContext(row))
 				.setCaption("Left Context")
+				.setId(ColumnId.BACKWARD_CONTEXT.name())
 				.setStyleGenerator(row -> kwicItemHandler.getBackwardContextStyle(row))
 				.setWidth(200);
 
 		Column<QueryResultRow, ?> keywordColumn = kwicGrid.addColumn(row -> kwicItemHandler.getKeyword(row, contextSizeSupplier.get()))
 				.setCaption("Keyword")
+				.setId(ColumnId.KEYWORD.name())
 				.setWidth(200)
 				.setRenderer(new HtmlRenderer())
 				.setStyleGenerator(row -> kwicItemHandler.getKeywordStyle(row))
@@ -658,6 +664,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 
 		kwicGrid.addColumn(row -> kwicItemHandler.getForwardContext(row))
 				.setCaption("Right Context")
+				.setId(ColumnId.FORWARD_CONTEXT.name())
 				.setStyleGenerator(row -> kwicItemHandler.getForwardContextStyle(row))
 				.setWidth(200);
 
@@ -669,6 +676,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 
 		kwicGrid.addColumn(row -> row.getRange().getEndPoint())
 				.setCaption("End Point")
+				.setId(ColumnId.END_POS.name())
 				.setWidth(100)
 				.setHidable(true);
 
@@ -693,6 +701,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 				.setId(ColumnId.PROPERTY_VALUE.name())
 				.setWidth(200);
 
+		initSorting();
 		kwicGrid.sort(startPointColumn);
 
 		kwicGrid.getDefaultHeaderRow().getCell(keywordColumn).setStyleName("kwic-panel-keyword-header");
@@ -712,6 +721,31 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 		btnClearSelectedRows.setDescription("Remove the selected rows from this list");
 	}
 
+	private void initSorting() {
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.DOCUMENT_NAME.name(), row -> kwicItemHandler.getDocumentName(row));
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.COLLECION_NAME.name(), row -> kwicItemHandler.getCollectionName(row));
+		// needs the KWIC of every row, once per sort
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.BACKWARD_CONTEXT.name(), row -> kwicItemHandler.getBackwardContext(row));
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.KEYWORD.name(), row -> row.getPhrase());
+		// needs the KWIC of every row, once per sort
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.FORWARD_CONTEXT.name(), row -> kwicItemHandler.getForwardContext(row));
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.START_POS.name(), row -> row.getRange().getStartPoint());
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.END_POS.name(), row -> row.getRange().getEndPoint());
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.TAG.name(), row -> kwicItemHandler.getTagPath(row));
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.PROPERTY_NAME.name(), row -> kwicItemHandler.getPropertyName(row));
+		kwicDataProvider.setSortKeyProvider(
+				ColumnId.PROPERTY_VALUE.name(), row -> kwicItemHandler.getPropertyValueDescription(row));
+	}
+
 	public void setBtnClearSelectedRowsVisible(boolean visible) {
 		btnClearSelectedRows.setVisible(visible);
 	}
@@ -722,7 +756,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 		boolean showPropertyColumns = false;
 		
 		for (QueryResultRow row : queryResult) {
-			if (kwicDataProvider.getItems().add(row)) {
+			if (kwicDataProvider.add(row)) {
 				if (row instanceof TagQueryResultRow) {
 					showTagColumns = true;
 					
@@ -748,7 +782,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 
 	public void removeQueryResultRows(Iterable<QueryResultRow> queryResult) {
 		for (QueryResultRow row : queryResult) {
-			kwicDataProvider.getItems().remove(row);
+			kwicDataProvider.remove(row);
 		}
 		kwicGrid.getDataProvider().refreshAll();
 	}
@@ -779,7 +813,7 @@ public class KwicPanel extends VerticalLayout implements Visualization {
 	}
 	
 	public void clear() {
-		kwicDataProvider.getItems().clear();
+		kwicDataProvider.clear();
 		kwicGrid.getDataProvider().refreshAll();
 	}
 	
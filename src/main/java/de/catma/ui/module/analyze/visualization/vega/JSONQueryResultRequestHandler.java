@@ -4,9 +4,13 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URLDecoder;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.vaadin.server.RequestHandler;
 import com.vaadin.server.VaadinRequest;
@@ -18,10 +22,15 @@ import de.catma.queryengine.QueryJob;
 import de.catma.queryengine.result.QueryResult;
 import de.catma.queryengine.result.QueryResultRow;
 import de.catma.queryengine.result.QueryResultRowArray;
+import de.catma.queryengine.result.json.JSONQueryResultAggregator;
+import de.catma.queryengine.result.json.JSONQueryResultAggregator.Aggregation;
 import de.catma.queryengine.result.json.JSONQueryResultBuilder;
 import de.catma.ui.module.analyze.QueryOptionsProvider;
 
 public class JSONQueryResultRequestHandler implements RequestHandler {
+	private static final String JSON_PATH_SUFFIX = ".json";
+	private static final String ROWS_PATH_SUFFIX = "/rows.json";
+
 	private Logger logger = Logger.getLogger(JSONQueryResultRequestHandler.class.getName());
 	
 	private CopyOnWriteArrayList<QueryResultRow> queryResult; // concurrent access!
@@ -29,6 +38,7 @@ public class JSONQueryResultRequestHandler implements RequestHandler {
 	private final QueryOptionsProvider queryOptionsProvider;
 	private final String vegaViewIdPath;
 	private final String queryUrlPath;
+	private final String aggregateUrlPath;
 	
 	public JSONQueryResultRequestHandler(
 			QueryOptionsProvider queryOptionsProvider, 
@@ -38,6 +48,7 @@ public class JSONQueryResultRequestHandler implements RequestHandler {
 		this.queryResultUrlPath = "/"+queryResultUrlPath.toLowerCase();
 		this.vegaViewIdPath = "/"+vegaViewId.toLowerCase();
 		this.queryUrlPath = vegaViewIdPath + "/query/"; 
+		this.aggregateUrlPath = vegaViewIdPath + "/queryresult/aggregate/";
 	}
 
 	@Override
@@ -51,6 +62,45 @@ public class JSONQueryResultRequestHandler implements RequestHandler {
 				
 				return true;
 			}
+			else if (request.getPathInfo().toLowerCase().startsWith(aggregateUrlPath)) {
+				// <aggregation>.json for the counts or <aggregation>/rows.json?key=<selectionKey> for the rows of one count
+				String aggregationPath = request.getPathInfo().substring(aggregateUrlPath.length()).toLowerCase();
+				boolean rows = aggregationPath.endsWith(ROWS_PATH_SUFFIX);
+
+				JSONQueryResultAggregator aggregator;
+				try {
+					if (!aggregationPath.endsWith(JSON_PATH_SUFFIX)) {
+						throw new IllegalArgumentException(String.format("Invalid aggregation path: %s", aggregationPath));
+					}
+					String aggregationName = aggregationPath.substring(
+							0, aggregationPath.length() - (rows ? ROWS_PATH_SUFFIX.length() : JSON_PATH_SUFFIX.length()));
+
+					aggregator = new JSONQueryResultAggregator(
+							Aggregation.parse(aggregationName),
+							request.getParameter("by") == null ? Aggregation.phrase : Aggregation.parse(request.getParameter("by")),
+							request.getParameter("bins") == null ? JSONQueryResultAggregator.DEFAULT_BIN_COUNT : Integer.parseInt(request.getParameter("bins")));
+				}
+				catch (IllegalArgumentException e) {
+					response.sendError(400, e.getMessage());
+					return true;
+				}
+
+				if (rows) {
+					String selectionKey = request.getParameter("key");
+					writeResponse(
+						selectionKey == null ? 
+							Collections.emptyList() 
+							: aggregator.getRows(queryResult, queryOptionsProvider.getQueryOptions().getRepository(), selectionKey), 
+						response);
+				}
+				else {
+					writeResponse(
+						aggregator.createJSONAggregation(queryResult, queryOptionsProvider.getQueryOptions().getRepository()), 
+						response);
+				}
+
+				return true;
+			}
 			else if (request.getPathInfo().toLowerCase().startsWith(queryUrlPath)) {
 				String pathInfo = request.getPathInfo();
 				String encodedQuery = pathInfo.substring(queryUrlPath.length());
@@ -73,17 +123,28 @@ public class JSONQueryResultRequestHandler implements RequestHandler {
 		return false;
 	}
 
-	private void writeResponse(Iterable<QueryResultRow> queryResult, VaadinResponse response) throws IOException {
-		//TODO:
-//		response.setContentType("json");
-		OutputStream outputStream = response.getOutputStream();
-		ArrayNode jsonValues = 
-				new JSONQueryResultBuilder().createJSONQueryResult(
-						queryResult, 
-						queryOptionsProvider.getQueryOptions().getRepository());
+	private void prepareJSONResponse(VaadinResponse response) {
+		response.setContentType("application/json; charset=UTF-8");
 		response.setCacheTime(-1);
 		response.setHeader("Access-Control-Allow-Origin", "https://vega.github.io");
-		outputStream.write(jsonValues.toString().getBytes("UTF-8"));
+	}
+
+	private void writeResponse(Iterable<QueryResultRow> queryResult, VaadinResponse response) throws IOException {
+		prepareJSONResponse(response);
+		// rows go straight to the response instead of being collected in a JSON tree and a String first
+		new JSONQueryResultBuilder().createJSONQueryResult(
+				queryResult, 
+				queryOptionsProvider.getQueryOptions().getRepository(),
+				response.getOutputStream());
+	}
+
+	private void writeResponse(ArrayNode jsonValues, VaadinResponse response) throws IOException {
+		prepareJSONResponse(response);
+		OutputStream outputStream = response.getOutputStream();
+		try (JsonGenerator jsonGenerator = new ObjectMapper().getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+			jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			jsonGenerator.writeTree(jsonValues);
+		}
 	}
 
 	public void addQuerResultRows(Iterable<QueryResultRow> rows) {
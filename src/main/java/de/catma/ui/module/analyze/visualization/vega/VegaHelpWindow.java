@@ -46,6 +46,13 @@ public class VegaHelpWindow extends Window {
 				"</ul> \\\n" + 
 				"</p>\\\n" + 
 				"<p>If the annotation has more than one reference to the text, i.e. there are more than one startOffset - endOffset pair, a row for each text range is included.</p>\\\n" +
+				"<p>Instead of the rows you can let the server count them with the placeholder CATMA_AGGREGATE_URL/&lt;aggregation&gt;.json, \\\n" +
+				"where the aggregation is one of phrase, tag, document or distribution. A distribution counts the relative start offsets \\\n" +
+				"in equally sized bins, the parameters by=phrase|tag|document and bins=10 control the grouping and the number of bins. \\\n" +
+				"Each entry provides sourceDocumentId, sourceDocumentTitle, sourceDocumentSize, count and selectionKey and, depending on the aggregation, \\\n" +
+				"phrase, tagPath, tagColor, binStart and binEnd. \\\n" +
+				"CATMA_AGGREGATE_URL/&lt;aggregation&gt;/rows.json?key=&lt;selectionKey&gt; with the same parameters provides the rows of an entry, \\\n" +
+				"use it as a signal expression to load the rows of a user selection.</p>\\\n" +
 				"For infos on how to construct a visalization specification see the <a href=\"https://vega.github.io/vega-lite/docs/\" target=\"_blank\">Vega-Lite documentation</a>. \\\n" + 
 				"If you need more flexibility and power see the <a href=\"https://vega.github.io/vega/docs/\" target=\"_blank\">Vega documentation></a>.", 
 				ContentMode.HTML);
@@ -39,9 +39,11 @@ import java.text.MessageFormat;
 
 public class VegaPanel extends HorizontalSplitPanel implements Visualization {
 	private static final String CATMA_QUERY_URL = "CATMA_QUERY_URL";
+	private static final String CATMA_AGGREGATE_URL = "CATMA_AGGREGATE_URL";
 
 	private final String vegaViewId;
 	private final String queryResultUrl;
+	private final String aggregateUrl;
 	private final JSONQueryResultRequestHandler queryResultRequestHandler;
 	private final Project project;
 
@@ -73,6 +75,7 @@ public class VegaPanel extends HorizontalSplitPanel implements Visualization {
 
 		String queryResultPath = this.vegaViewId + "/queryresult/selection.json";
 		this.queryResultUrl = CATMAPropertyKey.BASE_URL.getValue() + queryResultPath;
+		this.aggregateUrl = CATMAPropertyKey.BASE_URL.getValue() + this.vegaViewId + "/queryresult/aggregate";
 
 		this.queryResultRequestHandler = new JSONQueryResultRequestHandler(
 				queryOptionsProvider, queryResultPath, this.vegaViewId
@@ -225,10 +228,20 @@ public class VegaPanel extends HorizontalSplitPanel implements Visualization {
 	}
 
 	private void setQueryUrl(ObjectNode dataNode) throws UnsupportedEncodingException {
-		if (dataNode.has("url")) {
+		if (dataNode.has("url") && dataNode.get("url").has("signal")) {
+			// e.g. CATMA_AGGREGATE_URL + '/tag/rows.json?key=' + selectionKeyClick
+			String urlExpression = dataNode.get("url").get("signal").asText();
+			((ObjectNode) dataNode.get("url")).set(
+					"signal", new TextNode(urlExpression.replace(CATMA_AGGREGATE_URL, "'" + aggregateUrl + "'")));
+		}
+		else if (dataNode.has("url")) {
 			String catmaQuery = dataNode.get("url").asText();
 
-			if (catmaQuery.startsWith(CATMA_QUERY_URL)) {
+			if (catmaQuery.startsWith(CATMA_AGGREGATE_URL)) {
+				// e.g. CATMA_AGGREGATE_URL/distribution.json?by=phrase&bins=10
+				dataNode.set("url", new TextNode(aggregateUrl + catmaQuery.substring(CATMA_AGGREGATE_URL.length())));
+			}
+			else if (catmaQuery.startsWith(CATMA_QUERY_URL)) {
 				if (catmaQuery.equals(CATMA_QUERY_URL)) {
 					dataNode.set("url", new TextNode(queryResultUrl));
 				}
@@ -20,6 +20,7 @@ package de.catma.ui.module.annotate;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -27,6 +28,7 @@ import java.util.Set;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import de.catma.ui.client.ui.tagger.shared.ClientTagInstance;
@@ -63,6 +65,34 @@ public class ClientTagInstanceJSONSerializer {
 		
 		return tagInstanceIDs;
 	}
+
+	public String toInstanceIDsArray(Collection<String> tagInstanceIDs) {
+		ArrayNode instanceIDArray = JsonNodeFactory.instance.arrayNode();
+		for (String tagInstanceID : tagInstanceIDs) {
+			instanceIDArray.add(tagInstanceID);
+		}
+		
+		return instanceIDArray.toString();
+	}
+	
+	public String toJSONArray(Collection<ClientTagInstance> tagInstances) {
+		ArrayNode tagInstancesJSON = JsonNodeFactory.instance.arrayNode();
+		for (ClientTagInstance tagInstance : tagInstances) {
+			ObjectNode tagInstanceJSON = tagInstancesJSON.addObject();
+			tagInstanceJSON.put(SerializationField.tagDefinitionID.name(), tagInstance.getTagDefinitionID());
+			tagInstanceJSON.put(SerializationField.instanceID.name(), tagInstance.getInstanceID());
+			tagInstanceJSON.put(SerializationField.color.name(), tagInstance.getColor());
+			
+			ArrayNode rangesJSON = tagInstanceJSON.putArray(SerializationField.ranges.name());
+			for (TextRange tr : tagInstance.getRanges()) {
+				ObjectNode trJSON = rangesJSON.addObject();
+				trJSON.put(SerializationField.startPos.name(), tr.getStartPos());
+				trJSON.put(SerializationField.endPos.name(), tr.getEndPos());
+			}
+		}
+		
+		return tagInstancesJSON.toString();
+	}
 
 	
 	public ClientTagInstance fromJSON(String json) throws IOException {
@@ -2,7 +2,6 @@ package de.catma.ui.module.annotate;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -11,38 +10,64 @@ import com.vaadin.ui.UI;
 
 import de.catma.document.comment.Comment;
 import de.catma.document.comment.Reply;
-import de.catma.document.source.SourceDocumentReference;
+import de.catma.hazelcast.HazelcastConfiguration;
 import de.catma.project.Project;
 import de.catma.ui.UIMessageListener;
 import de.catma.ui.component.IconButton;
 import de.catma.ui.events.CommentMessage;
-import de.catma.user.User;
 
+/**
+ * Handles the comment messages of a project's comment topic, see {@link #getTopicName(Project)}.
+ * <p>
+ * The topic carries the comments of all documents of the project, messages for other documents than the one that is
+ * currently shown and messages sent by the current user are dropped before the session gets locked.
+ */
 public class CommentMessageListener extends UIMessageListener<CommentMessage> {
 	
 	private final Logger logger = Logger.getLogger(this.getClass().getName());
 	
-	private final Supplier<SourceDocumentReference> documentSupplier;
-
 	private final IconButton cbAutoShowComments;
 
-	private final Project project;
-
 	private final List<Comment> comments;
 
 	private final Tagger tagger;
 
+	private final Long receiverId;
+
+	// read on the listener thread, see accept
+	private volatile String documentId;
 
-	
 	public CommentMessageListener(
 			UI ui, Project project, IconButton cbAutoShowComments, List<Comment> comments,
-			Tagger tagger, Supplier<SourceDocumentReference> documentSupplier) {
+			Tagger tagger) {
 		super(ui);
-		this.project = project;
 		this.cbAutoShowComments = cbAutoShowComments;
 		this.comments = comments;
 		this.tagger = tagger;
-		this.documentSupplier = documentSupplier;
+		this.receiverId = project.getCurrentUser().getUserId();
+	}
+
+	/**
+	 * @param project the project
+	 * @return the name of the topic that carries the comment messages of all documents of the given project
+	 */
+	public static String getTopicName(Project project) {
+		return HazelcastConfiguration.TopicName.COMMENT + "_" + project.getId();
+	}
+
+	/**
+	 * @param documentId the ID of the document that is currently shown, <code>null</code> if there is none
+	 */
+	public void setDocumentId(String documentId) {
+		this.documentId = documentId;
+	}
+
+	@Override
+	protected boolean accept(Message<CommentMessage> message) {
+		CommentMessage commentMessage = message.getMessageObject();
+		return (documentId != null)
+				&& documentId.equals(commentMessage.getDocumentId())
+				&& !receiverId.equals(commentMessage.getSenderId());
 	}
 
 
@@ -59,12 +84,8 @@ public class CommentMessageListener extends UIMessageListener<CommentMessage> {
 			final boolean replyMessage = commentMessage.isReplyMessage();
 			final long senderId = commentMessage.getSenderId();
 			final boolean deleted= commentMessage.isDeleted();
-			final SourceDocumentReference document = documentSupplier.get();
-			if ((document != null) 
-					&& document.getUuid().equals(documentId)) {
-				User user = project.getCurrentUser();
-				Long receiverId = user.getUserId();
-				
+			// the document might have changed since the message got accepted
+			if (documentId.equals(this.documentId)) {
 				if (!receiverId.equals(senderId)) {
 					final Comment comment = commentMessage.toComment();
 					Optional<Comment> optionalExistingComment = 
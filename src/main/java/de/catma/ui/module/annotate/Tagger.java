@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -202,6 +203,9 @@ public class Tagger extends AbstractComponent {
 	private Project project;
 
 	private boolean forceClientRefresh = false;
+	// annotations whose tag instances on the current page changed since the last response, 
+	// they get sent as an update instead of the whole page
+	private Set<String> changedAnnotationIds = new LinkedHashSet<>();
 
 	public Tagger(int taggerID, Pager pager, TaggerListener taggerListener, Project project) {
 		registerRpc(rpc);
@@ -235,6 +239,38 @@ public class Tagger extends AbstractComponent {
 			forceClientRefresh = false;
 			setPage(pager.getCurrentPageNumber());
 		}
+		
+		if (!changedAnnotationIds.isEmpty() && pager.hasPages()) {
+			sendTagInstanceUpdates();
+		}
+	}
+	
+	private void sendTagInstanceUpdates() {
+		Page currentPage = pager.getCurrentPage();
+		List<ClientTagInstance> relativeTagInstances = new ArrayList<>();
+		List<String> removedAnnotationIds = new ArrayList<>();
+		
+		for (String annotationId : changedAnnotationIds) {
+			ClientTagInstance relativeTagInstance = currentPage.getRelativeTagInstance(annotationId);
+			if (relativeTagInstance == null) {
+				removedAnnotationIds.add(annotationId);
+			}
+			else {
+				relativeTagInstances.add(relativeTagInstance);
+			}
+		}
+		changedAnnotationIds.clear();
+		
+		getRpcProxy(TaggerClientRpc.class).updateTagInstances(
+				tagInstanceJSONSerializer.toJSONArray(relativeTagInstances),
+				tagInstanceJSONSerializer.toInstanceIDsArray(removedAnnotationIds));
+	}
+	
+	private void addChangedAnnotationId(Page page, String annotationId) {
+		if (page == pager.getCurrentPage()) {
+			changedAnnotationIds.add(annotationId);
+			markAsDirty();
+		}
 	}
 
 	private void setPage(String pageContent, int lineCount, Collection<Comment> relativeComments) {
@@ -247,6 +283,9 @@ public class Tagger extends AbstractComponent {
 					"Error serializing comments", e);
 		}
 		
+		// the page content already contains all changes
+		changedAnnotationIds.clear();
+		
 		getRpcProxy(TaggerClientRpc.class).setTaggerId(this.taggerID);
 		getRpcProxy(TaggerClientRpc.class).setPage(
 				pageContent, 
@@ -269,15 +308,10 @@ public class Tagger extends AbstractComponent {
 			for (String annotationId : annotationIds) {
 				for (Page page : pager.getPagesForAnnotationId(annotationId)) {
 					page.removeRelativeTagInstance(annotationId);
+					addChangedAnnotationId(page, annotationId);
 				}
 				getState().tagInstanceIdToTooltipInfo.remove(annotationId);
 			}
-			if (pager.getCurrentPage().isDirty()) {
-				setPage(
-					pager.getCurrentPage().toHTML(), 
-					pager.getCurrentPage().getLineCount(), 
-					pager.getCurrentPage().getRelativeCommentsCopy());
-			}
 		}
 	}
 	
@@ -291,6 +325,7 @@ public class Tagger extends AbstractComponent {
 					if (visible) {
 						for (Page page : pages) {
 							page.addAbsoluteTagInstance(ti);
+							addChangedAnnotationId(page, ti.getInstanceID());
 						}
 						Annotation tagInstanceInfo = 
 								taggerListener.getTagInstanceInfo(ti.getInstanceID());
@@ -306,17 +341,12 @@ public class Tagger extends AbstractComponent {
 					else {
 						for (Page page : pages) {
 							page.removeRelativeTagInstance(ti.getInstanceID());
+							addChangedAnnotationId(page, ti.getInstanceID());
 						}
 						getState().tagInstanceIdToTooltipInfo.remove(ti.getInstanceID());
 					}
 				}	
 			}
-			if (pager.getCurrentPage().isDirty()) {
-				setPage(
-					pager.getCurrentPage().toHTML(), 
-					pager.getCurrentPage().getLineCount(), 
-					pager.getCurrentPage().getRelativeCommentsCopy());
-			}
 		}
 	}
 
@@ -75,7 +75,6 @@ import de.catma.document.corpus.Corpus;
 import de.catma.document.source.SourceDocument;
 import de.catma.document.source.SourceDocumentReference;
 import de.catma.hazelcast.HazelCastService;
-import de.catma.hazelcast.HazelcastConfiguration;
 import de.catma.indexer.IndexedProject;
 import de.catma.indexer.KwicProvider;
 import de.catma.project.Project;
@@ -93,7 +92,6 @@ import de.catma.tag.TagManager.TagManagerEvent;
 import de.catma.tag.TagsetDefinition;
 import de.catma.tag.Version;
 import de.catma.ui.CatmaApplication;
-import de.catma.ui.UIMessageListener;
 import de.catma.ui.client.ui.tagger.shared.ClientComment;
 import de.catma.ui.client.ui.tagger.shared.ClientCommentReply;
 import de.catma.ui.client.ui.tagger.shared.ClientTagInstance;
@@ -238,7 +236,7 @@ public class TaggerView extends HorizontalLayout
 	private final List<Comment> comments = new ArrayList<Comment>();
 	private TaggerSplitPanel splitPanel;
 	private ITopic<CommentMessage> commentTopic;
-	private UIMessageListener<CommentMessage> commentMessageListener;
+	private CommentMessageListener commentMessageListener;
 	private UUID commentMessageListenerRegId;
 	private IconButton cbAutoShowComments;
 	
@@ -278,24 +276,27 @@ public class TaggerView extends HorizontalLayout
 				project, 
 				cbAutoShowComments, 
 				comments, 
-				tagger, 
-				() -> getSourceDocumentReference());
+				tagger);
+		if (this.sourceDocument != null) {
+			commentMessageListener.setDocumentId(this.sourceDocument.getUuid());
+		}
 		
 		addCommentMessageListener();
 	}
 
+	/**
+	 * Subscribes to the comment topic of the project, the listener drops the messages for other documents.
+	 * A single topic per project keeps the number of topics independent of the number of documents.
+	 */
 	private void addCommentMessageListener() {
 		try {
-			removeCommentMessageListener();
-			if (this.sourceDocument != null) {
-				HazelCastService hazelcastService = ((CatmaApplication)UI.getCurrent()).getHazelCastService();
-				this.commentTopic = 
-					hazelcastService.getHazelcastClient().getTopic(
-							HazelcastConfiguration.TopicName.COMMENT + "_" + this.sourceDocument.getUuid());
-				
-				this.commentMessageListenerRegId = 
-					this.commentTopic.addMessageListener(this.commentMessageListener);
-			}
+			HazelCastService hazelcastService = ((CatmaApplication)UI.getCurrent()).getHazelCastService();
+			this.commentTopic = 
+				hazelcastService.getHazelcastClient().getTopic(
+						CommentMessageListener.getTopicName(project));
+			
+			this.commentMessageListenerRegId = 
+				this.commentTopic.addMessageListener(this.commentMessageListener);
 		}
 		catch (Exception e) {
 			logger.log(Level.WARNING, "Error registering listener for comment messages", e);
@@ -1213,7 +1214,7 @@ public class TaggerView extends HorizontalLayout
 			}
 			this.drawer.collapse();
 			
-			addCommentMessageListener();
+			commentMessageListener.setDocumentId(sdRef.getUuid());
 		} catch (Exception e) {
 			errorHandler.showAndLogError("Error opening document", e);
 		}
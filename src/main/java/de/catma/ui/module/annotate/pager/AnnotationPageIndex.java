@@ -0,0 +1,48 @@
+package de.catma.ui.module.annotate.pager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The {@link Page}s that show an annotation by annotation ID, maintained by the pages themselves whenever their tag
+ * instances change, so that annotations can be looked up without visiting every page.
+ */
+class AnnotationPageIndex {
+
+	// pages by page start by annotation ID
+	private final Map<String, TreeMap<Integer, Page>> pagesByAnnotationId = new HashMap<>();
+
+	void add(String annotationId, Page page) {
+		pagesByAnnotationId.computeIfAbsent(annotationId, id -> new TreeMap<>()).put(page.getPageStart(), page);
+	}
+
+	void remove(String annotationId, Page page) {
+		TreeMap<Integer, Page> pages = pagesByAnnotationId.get(annotationId);
+		if (pages != null) {
+			pages.remove(page.getPageStart(), page);
+			if (pages.isEmpty()) {
+				pagesByAnnotationId.remove(annotationId);
+			}
+		}
+	}
+
+	/**
+	 * @param annotationId the ID of an annotation
+	 * @return the pages that show the annotation in page order
+	 */
+	List<Page> getPages(String annotationId) {
+		TreeMap<Integer, Page> pages = pagesByAnnotationId.get(annotationId);
+		if (pages == null) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(pages.values());
+	}
+
+	void clear() {
+		pagesByAnnotationId.clear();
+	}
+}
@@ -89,7 +89,8 @@ public class Page {
 	private int pageStart;
 	private int pageEnd;
 	private int approxMaxLineLength;
-	private String text;
+	// the text of the whole document, the page only covers [pageStart, pageEnd)
+	private String documentText;
 	private Map<String, ClientTagInstance> relativeTagInstances = 
 			new HashMap<String,ClientTagInstance>();
 	private int lineCount;
@@ -97,20 +98,24 @@ public class Page {
 	private ArrayList<Line> lines;
 	private Element pageDiv;
 	private Set<Comment> absoluteComments;
+	private final AnnotationPageIndex annotationPageIndex;
 	
-	public Page(int taggerID, String text, int pageStart, int pageEnd, int approxMaxLineLength, boolean rightToLeftWriting) {
+	Page(
+			int taggerID, String documentText, int pageStart, int pageEnd, int approxMaxLineLength, boolean rightToLeftWriting, 
+			AnnotationPageIndex annotationPageIndex) {
 		this.taggerID = taggerID;
+		this.annotationPageIndex = annotationPageIndex;
 		this.pageStart = pageStart;
 		this.pageEnd = pageEnd;
 		this.approxMaxLineLength = approxMaxLineLength;
-		this.text = text;
+		this.documentText = documentText;
 		this.rightToLeftWriting = rightToLeftWriting;
 		this.absoluteComments = new HashSet<Comment>();
 	}
 	
 	@Override
 	public String toString() {
-		return "Page["+pageStart+","+pageEnd+"]\n"+text; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		return "Page["+pageStart+","+pageEnd+"]\n"+documentText.substring(pageStart, pageEnd); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 	}
 	
 	private ArrayList<Line> getLines() {
@@ -127,7 +132,8 @@ public class Page {
 	private void buildLines() {
 		this.lines = new ArrayList<>();
 		
-		Matcher matcher = Pattern.compile(Pager.LINE_CONTENT_PATTERN).matcher(text);
+		Matcher matcher = Pattern.compile(Pager.LINE_CONTENT_PATTERN).matcher(documentText);
+		matcher.region(pageStart, pageEnd);
 		
 		Line currentLine = new Line(rightToLeftWriting);
 		int lineLength = 0;
@@ -227,6 +233,7 @@ public class Page {
 		else {
 			this.relativeTagInstances.put(
 					relativeTagInstance.getInstanceID(),relativeTagInstance);
+			annotationPageIndex.add(relativeTagInstance.getInstanceID(), this);
 		}
 		
 		if (this.lines != null) {
@@ -248,7 +255,9 @@ public class Page {
 
 	public void removeRelativeTagInstance(String tagInstanceID) {
 		pageDiv = null; // page needs rebuild
-		this.relativeTagInstances.remove(tagInstanceID);
+		if (this.relativeTagInstances.remove(tagInstanceID) != null) {
+			annotationPageIndex.remove(tagInstanceID, this);
+		}
 		if (this.lines != null) {
 			removeRelativeTagInstanceFromLine(tagInstanceID);
 		}
@@ -302,6 +311,7 @@ public class Page {
 	public void clearRelativeTagInstances() {
 		pageDiv = null; // page needs rebuild
 		
+		relativeTagInstances.keySet().forEach(tagInstanceID -> annotationPageIndex.remove(tagInstanceID, this));
 		relativeTagInstances.clear();
 		for (Line line : getLines()) {
 			line.clearRelativeTagInstanes();
@@ -340,6 +350,7 @@ public class Page {
 					iterator.next();
 			if (tagDefUUIds.contains(entry.getValue().getTagDefinitionID())) {
 				iterator.remove();
+				annotationPageIndex.remove(entry.getKey(), this);
 				removeRelativeTagInstanceFromLine(entry.getKey());
 			}
 		}
@@ -398,11 +409,23 @@ public class Page {
 		
 	}
 
+	/**
+	 * Releases the {@link Line}s and the HTML of this page, they get rebuilt with the next access.
+	 * Tag instances and comments are kept, highlights are dropped.
+	 */
+	void releaseLines() {
+		lines = null;
+		pageDiv = null;
+	}
+
 	public boolean isDirty() {
 		return pageDiv==null;
 	}
 
 	public void removeHighlights() {
+		if (lines == null) {
+			return; // no lines, no highlights
+		}
 		for (Line line : getLines()) {
 			if (line.hasHighlights()) {
 				line.removeHighlights();
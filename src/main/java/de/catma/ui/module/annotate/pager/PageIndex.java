@@ -0,0 +1,178 @@
+package de.catma.ui.module.annotate.pager;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The boundaries of the {@link Page}s of a text.
+ * <p>
+ * Only the page end offsets are kept, the text itself is not copied. The text is scanned incrementally, i.e. only as
+ * far as the requested pages or offsets require, and pages are broken exactly the way {@link Page} breaks its lines.
+ */
+class PageIndex {
+
+	private static final Pattern LINE_CONTENT = Pattern.compile(Pager.LINE_CONTENT_PATTERN);
+
+	private final int approxMaxLineLength;
+	private final int maxPageLengthInLines;
+	private final Matcher matcher;
+
+	private int[] pageEnds = new int[16];
+	private int pageCount = 0;
+
+	// scanner state
+	private int pageEnd = 0;
+	private int pageLines = 0;
+	private int lineLength = 0;
+	private int totalLineCount = 0;
+	private boolean complete = false;
+
+	PageIndex(String text, int approxMaxLineLength, int maxPageLengthInLines) {
+		this.approxMaxLineLength = approxMaxLineLength;
+		this.maxPageLengthInLines = maxPageLengthInLines;
+		this.matcher = LINE_CONTENT.matcher(text);
+	}
+
+	private void scanNext() {
+		//TODO: always break after blanks and directly before the next word
+
+		if (matcher.find()) {
+			// lengths and group starts instead of groups, this avoids a substring per match
+			int length = matcher.end() - matcher.start();
+
+			if (lineLength + length > approxMaxLineLength) {
+				pageLines++;
+				totalLineCount++;
+				pageEnd+=lineLength;
+				lineLength = 0;
+			}
+
+			if (pageLines >= maxPageLengthInLines) {
+				addPage(pageEnd);
+				pageLines = 0;
+			}
+
+			lineLength += length;
+
+			if (matcher.start(Pager.LINE_SEPARATOR_GROUP) != -1) {
+				pageLines++;
+				totalLineCount++;
+				pageEnd+=lineLength;
+				lineLength = 0;
+			}
+		}
+		else {
+			if (lineLength != 0) {
+				pageEnd+=lineLength;
+				pageLines++;
+				totalLineCount++;
+			}
+
+			if (pageLines != 0) {
+				addPage(pageEnd);
+			}
+			complete = true;
+		}
+	}
+
+	private void addPage(int end) {
+		if (pageCount == pageEnds.length) {
+			pageEnds = Arrays.copyOf(pageEnds, pageCount*2);
+		}
+		pageEnds[pageCount++] = end;
+	}
+
+	private void scanAll() {
+		while (!complete) {
+			scanNext();
+		}
+	}
+
+	/**
+	 * @param pageIndex the zero based index of a page
+	 * @return <code>true</code> if the text has a page with the given index
+	 */
+	boolean hasPage(int pageIndex) {
+		while (!complete && pageCount <= pageIndex) {
+			scanNext();
+		}
+		return pageIndex >= 0 && pageIndex < pageCount;
+	}
+
+	int getPageCount() {
+		scanAll();
+		return pageCount;
+	}
+
+	int getTotalLineCount() {
+		scanAll();
+		return totalLineCount;
+	}
+
+	int getPageStart(int pageIndex) {
+		if (!hasPage(pageIndex)) {
+			throw new IndexOutOfBoundsException(String.format("No such page: %d", pageIndex));
+		}
+		return pageIndex == 0 ? 0 : pageEnds[pageIndex-1];
+	}
+
+	int getPageEnd(int pageIndex) {
+		if (!hasPage(pageIndex)) {
+			throw new IndexOutOfBoundsException(String.format("No such page: %d", pageIndex));
+		}
+		return pageEnds[pageIndex];
+	}
+
+	/**
+	 * @param point an absolute offset
+	 * @return the index of the first page whose inclusive range contains the offset or -1 if there is no such page
+	 */
+	int getPageIndexFor(int point) {
+		if (point < 0) {
+			return -1;
+		}
+
+		while (!complete && (pageCount == 0 || pageEnds[pageCount-1] < point)) {
+			scanNext();
+		}
+
+		int pageIndex = getFirstPageIndexEndingAtOrAfter(point);
+		return pageIndex < pageCount ? pageIndex : -1;
+	}
+
+	/**
+	 * @param startPoint an absolute start offset
+	 * @param endPoint an absolute end offset
+	 * @return the index range [first, last] of the pages whose inclusive ranges intersect with the given range,
+	 * first &gt; last if there are none
+	 */
+	int[] getPageIndexRange(int startPoint, int endPoint) {
+		while (!complete && (pageCount == 0 || pageEnds[pageCount-1] <= endPoint)) {
+			scanNext();
+		}
+
+		int first = getFirstPageIndexEndingAtOrAfter(Math.max(0, startPoint));
+		int last = first-1;
+		while (last+1 < pageCount && (last+1 == 0 ? 0 : pageEnds[last]) <= endPoint) {
+			last++;
+		}
+
+		return new int[] {first, last};
+	}
+
+	private int getFirstPageIndexEndingAtOrAfter(int point) {
+		int low = 0;
+		int high = pageCount;
+		while (low < high) {
+			int mid = (low+high) >>> 1;
+			if (pageEnds[mid] < point) {
+				low = mid+1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -20,16 +20,17 @@ package de.catma.ui.module.annotate.pager;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.zip.CRC32;
 
 import de.catma.document.Range;
 import de.catma.document.comment.Comment;
@@ -40,6 +41,12 @@ import de.catma.ui.client.ui.tagger.shared.TextRange;
 import de.catma.ui.component.PagerListener;
 
 /**
+ * Splits a text into {@link Page}s.
+ * <p>
+ * Only the page boundaries are kept in a {@link PageIndex} that is built as far as it is needed. {@link Page}s are
+ * created when they are visited or when tag instances, comments or highlights get added to them, and only the
+ * {@link #MAX_RENDERED_PAGES} most recently visited pages keep their rendered lines.
+ * 
  * @author marco.petris@web.de
  *
  */
@@ -52,21 +59,38 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 	static int WHITESPACE_GROUP = 2;
 	static int LINE_SEPARATOR_GROUP = 3;
 
+	private static final int MAX_RENDERED_PAGES = 10;
 
-	private ArrayList<Page> pages;
+	private String text;
+	private PageIndex pageIndex;
+	private boolean layoutChanged = false;
+	// pages by index, pages that have never been visited or annotated don't exist
+	private TreeMap<Integer, Page> pages;
+	// the most recently visited pages in access order, older pages release their lines
+	private LinkedHashMap<Integer, Page> renderedPages;
+	private AnnotationPageIndex annotationPageIndex;
 	private int currentPageIndex=0;
 
 	private int approxMaxLineLength;
 	private int maxPageLengthInLines;
 	private PagerListener pagerListener;
-	private Long checksum = null;
 	private int taggerID;
-	private int totalLineCount = 0;
 
 	private boolean rightToLeftWriting;
 	
 	public Pager(int taggerID, int approxMaxLineLength, int maxPageLengthInLines, boolean rightToLeftWriting) {
-		pages = new ArrayList<Page>();
+		pages = new TreeMap<Integer, Page>();
+		annotationPageIndex = new AnnotationPageIndex();
+		renderedPages = new LinkedHashMap<Integer, Page>(MAX_RENDERED_PAGES, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+				if (size() > MAX_RENDERED_PAGES) {
+					eldest.getValue().releaseLines();
+					return true;
+				}
+				return false;
+			}
+		};
 		this.taggerID = taggerID;
 		this.approxMaxLineLength = approxMaxLineLength;
 		this.maxPageLengthInLines = maxPageLengthInLines;
@@ -74,10 +98,15 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 	}
 	
 	public void setText(String text, Collection<Comment> comments) {
-		if (!matchChecksum(text)) {
+		// the text is usually the very same instance, so the comparison is cheap
+		if (layoutChanged || pageIndex == null || !text.equals(this.text)) {
+			layoutChanged = false;
 			currentPageIndex = 0;
 			pages.clear();
-			buildPages(text);
+			renderedPages.clear();
+			annotationPageIndex.clear();
+			this.text = text;
+			pageIndex = new PageIndex(text, approxMaxLineLength, maxPageLengthInLines);
 			this.setComments(comments);
 			if (pagerListener != null) {
 				pagerListener.textChanged();
@@ -87,91 +116,51 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 	}
 	
 	public boolean hasPages() {
-		return !pages.isEmpty();
+		return pageIndex != null && pageIndex.hasPage(0);
 	}
 
-	private boolean matchChecksum(String text) {
-		
-		CRC32 crc32 = new CRC32();
-		crc32.update(text.getBytes());
-		if ( (checksum != null) && (crc32.getValue() == checksum)) {
-			return true;
+	private Page getOrCreatePage(int index) {
+		Page page = pages.get(index);
+		if (page == null) {
+			page = new Page(
+					taggerID, 
+					text, 
+					pageIndex.getPageStart(index), pageIndex.getPageEnd(index), approxMaxLineLength,
+					rightToLeftWriting, annotationPageIndex);
+			pages.put(index, page);
 		}
-		
-		checksum = crc32.getValue();
-
-		return false;
+		return page;
+	}
+	
+	private Page getRenderedPage(int index) {
+		Page page = getOrCreatePage(index);
+		renderedPages.put(index, page);
+		return page;
 	}
 
-	private void buildPages(String text) {
-		
-		//TODO: always break after blanks and directly before the next word
-		
-		Matcher matcher = Pattern.compile(LINE_CONTENT_PATTERN).matcher(text);
-
-		int pageStart = 0;
-		int pageEnd = 0;
-		int pageLines = 0;
-		
-		int lineLength = 0;
-		
-		totalLineCount = 0;
-		
-		while(matcher.find()) {
-			if (lineLength + matcher.group().length()>approxMaxLineLength) {
-				pageLines++;
-				totalLineCount++;
-				pageEnd+=lineLength;
-				lineLength = 0;
-			}			
-			
-			if (pageLines >= maxPageLengthInLines) {
-				pages.add(new Page(
-						taggerID, 
-						text.substring(pageStart, pageEnd), 
-						pageStart, pageEnd, approxMaxLineLength,
-						rightToLeftWriting));
-				pageLines = 0;
-				pageStart = pageEnd;
-			}
-
-			lineLength += matcher.group().length();
-			
-			if (matcher.group(LINE_SEPARATOR_GROUP) != null) {
-				pageLines++;
-				totalLineCount++;
-				pageEnd+=lineLength;
-				lineLength = 0;
+	private TreeSet<Integer> getPageIndicesFor(TextRange absoluteTextRange) {
+		TreeSet<Integer> result = new TreeSet<Integer>();
+		int[] candidates = pageIndex.getPageIndexRange(absoluteTextRange.getStartPos(), absoluteTextRange.getEndPos());
+		for (int index = candidates[0]; index <= candidates[1]; index++) {
+			TextRange pageRange = new TextRange(pageIndex.getPageStart(index), pageIndex.getPageEnd(index));
+			if (pageRange.hasOverlappingRange(absoluteTextRange)) {
+				result.add(index);
 			}
 		}
-		
-		if (lineLength != 0) {
-			pageEnd+=lineLength;
-			pageLines++;
-			totalLineCount++;
-		}
-		
-		if (pageLines != 0) {
-			pages.add(
-				new Page(
-					taggerID, 
-					text.substring(pageStart, pageEnd), 
-					pageStart, pageEnd, approxMaxLineLength,
-					rightToLeftWriting));
-		}		
+		return result;
 	}
-	
+
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
-		for (Page page : pages) {
+		for (Page page : this) {
 			builder.append(page);
 		}
 		return builder.toString();
 	}
 
 	public Page getCurrentPage() {
-		return pages.get(currentPageIndex);
+		return getRenderedPage(currentPageIndex);
 	}
 	
 	public int getCurrentPageNumber() {
@@ -183,19 +172,19 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 		if (index < 0) {
 			index = 0;
 		}
-		else if (index >= pages.size()) {
-			index = pages.size()-1;
+		else if (!pageIndex.hasPage(index)) {
+			index = pageIndex.getPageCount()-1;
 		}
 		currentPageIndex = index;
-		return pages.get(index);
+		return getRenderedPage(index);
 	}
 
 	public boolean isEmpty() {
-		return pages.isEmpty();
+		return !hasPages();
 	}
 	
 	public int getLastPageNumber() {
-		return pages.size();
+		return pageIndex == null ? 0 : pageIndex.getPageCount();
 	}
 	
 	public void setPagerListener(PagerListener pagerListener) {
@@ -203,23 +192,19 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 	}
 
 	public List<Page> getPagesForAbsoluteTagInstance(ClientTagInstance absoluteTagInstance) {
-		List<Page> result = new ArrayList<Page>();
-		
-		for (Page p : pages) {
-			if (p.hasOverlappingRange(absoluteTagInstance)) {
-				result.add(p);
-			}
-		}
-		
-		return result;
+		return getPagesForAbsoluteTextRanges(absoluteTagInstance.getRanges());
 	}
 	
 	public List<Page> getPagesForAbsoluteTextRanges(List<TextRange> textRanges) {
 		List<Page> result = new ArrayList<Page>();
 		
-		for (Page p : pages) {
-			if (p.hasOverlappingRange(textRanges)) {
-				result.add(p);
+		if (hasPages()) {
+			TreeSet<Integer> indices = new TreeSet<Integer>();
+			for (TextRange textRange : textRanges) {
+				indices.addAll(getPageIndicesFor(textRange));
+			}
+			for (int index : indices) {
+				result.add(getOrCreatePage(index));
 			}
 		}
 		
@@ -230,7 +215,7 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 		List<ClientTagInstance> absoluteTagInstances = 
 				new ArrayList<ClientTagInstance>();
 		
-		for (Page p : pages) {
+		for (Page p : pages.values()) {
 			absoluteTagInstances.addAll(p.getAbsoluteTagInstances());
 		}
 		
@@ -242,40 +227,60 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 	}
 
 	public int getPageNumberFor(int point) {
+		if (pageIndex == null) {
+			return -1;
+		}
 		
-		for (Page p: pages) {
-			if (p.hasPoint(point)) {
-				return pages.indexOf(p)+1;
-			}
+		int index = pageIndex.getPageIndexFor(point);
+		if (index != -1) {
+			return index+1;
 		}
 		return -1;
 	}
 	
+	/**
+	 * Iterates over all pages, this creates the pages that haven't been created yet.
+	 */
 	public Iterator<Page> iterator() {
-		return Collections.unmodifiableCollection(pages).iterator();
+		return new Iterator<Page>() {
+			private int index = 0;
+			
+			@Override
+			public boolean hasNext() {
+				return pageIndex != null && pageIndex.hasPage(index);
+			}
+			
+			@Override
+			public Page next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return getOrCreatePage(index++);
+			}
+		};
 	}
 	
 	public void setMaxPageLengthInLines(int maxPageLengthInLines) {
-		this.checksum = null; //recalculate pages
+		this.layoutChanged = true; //recalculate pages
 		this.maxPageLengthInLines = maxPageLengthInLines;
 		this.currentPageIndex = 0;
 	}
 	
 	public void setApproxMaxLineLength(int approxMaxLineLength) {
-		this.checksum = null; //recalculate pages
+		this.layoutChanged = true; //recalculate pages
 		this.approxMaxLineLength = approxMaxLineLength;
 		this.currentPageIndex = 0;
 	}
 
 	public void removeTagInstances(Set<TagDefinition> tagDefinitions) {
-		for (Page p : pages) {
+		for (Page p : pages.values()) {
 			p.removeTagInstances(tagDefinitions);
 		}
 		
 	}
 	
 	public int getTotalLineCount() {
-		return totalLineCount;
+		return pageIndex == null ? 0 : pageIndex.getTotalLineCount();
 	}
 	
 	public int getApproxMaxLineLength() {
@@ -289,10 +294,19 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 	public int highlight(Range absoluteHighlightRange) {
 		int firstLineId = -1;
 		
-		for (Page page : pages) {
-
-			Range overlappingAbsoluteRange = page.getOverlappingRange(absoluteHighlightRange);
+		if (!hasPages()) {
+			return firstLineId;
+		}
+		
+		int[] candidates = pageIndex.getPageIndexRange(
+				absoluteHighlightRange.getStartPoint(), absoluteHighlightRange.getEndPoint());
+		
+		for (int index = candidates[0]; index <= candidates[1]; index++) {
+			Range pageRange = new Range(pageIndex.getPageStart(index), pageIndex.getPageEnd(index));
+			Range overlappingAbsoluteRange = pageRange.getOverlappingRange(absoluteHighlightRange);
 			if (overlappingAbsoluteRange != null) {
+				// highlighting builds the lines of the page
+				Page page = getRenderedPage(index);
 				int lineId = page.addHighlight(overlappingAbsoluteRange);
 				
 				if (lineId != -1 && firstLineId == -1) {
@@ -305,7 +319,7 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 	}
 
 	public void removeHighlights() {
-		for (Page page : pages) {
+		for (Page page : pages.values()) {
 			page.removeHighlights();
 		}
 		
@@ -313,14 +327,7 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 	}
 
 	public List<Page> getPagesForAnnotationId(String annotationId) {
-		List<Page> result = new ArrayList<>();
-		for (Page page : pages) {
-			if (page.contains(annotationId)) {
-				result.add(page);
-			}
-		}
-		
-		return result;
+		return annotationPageIndex.getPages(annotationId);
 	}
 
 	public void setRightToLeftWriting(boolean rightToLeftWriting) {
@@ -379,7 +386,7 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 
 	private Optional<Comment> findComment(String uuid) {
 		if (hasPages()) {
-			for (Page page : pages) {
+			for (Page page : pages.values()) {
 				Optional<Comment> optionalComment = page.getAbsoluteComment(uuid);
 				if (optionalComment.isPresent()) {
 					return optionalComment;
@@ -394,13 +401,13 @@ public class Pager implements Iterable<Page>, Consumer<PagerListener> {
 	}
 
 	public void removeComment(Comment comment) {
-		for (Page page : pages) {
+		for (Page page : pages.values()) {
 			page.removeAbsoluteComment(comment);
 		}
 	}
 
 	public void updateComments(Collection<Comment> comments) {
-		for (Page page : pages) {
+		for (Page page : pages.values()) {
 			page.clearComments();
 		}
 		setComments(comments);
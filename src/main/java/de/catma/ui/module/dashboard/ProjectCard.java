@@ -76,7 +76,7 @@ public class ProjectCard extends VerticalFlexLayout  {
 
     private void initData() {
 		try {
-			RBACRole projectRole = rbacManager.getRoleOnProject(projectManager.getUser(), projectReference);
+			RBACRole projectRole = rbacManager.getRoleOnProject(projectReference); // usually preloaded along with the project references
 			rbacEnforcer.enforceConstraints(projectRole); // normally done in reload();
 		} catch (IOException e) {
             errorLogger.showAndLogError(String.format("Can't fetch permissions for project \"%s\"", projectReference.getName()), e);
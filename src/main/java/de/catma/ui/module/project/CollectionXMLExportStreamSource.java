@@ -1,9 +1,10 @@
 package de.catma.ui.module.project;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -60,12 +61,18 @@ public class CollectionXMLExportStreamSource implements StreamSource {
 			collectionReferences.forEach(ref -> corpus.addUserMarkupCollectionReference(ref));
 			
 			
+			// the export has to finish while the session is locked, streaming it from another thread
+			// during the download would access the project without that lock
 			File tempFile = File.createTempFile(new IDGenerator().generate() + "_AnnotationCollection_Export", "tgz");
 			try (FileOutputStream fos = new FileOutputStream(tempFile)) {
 				new CorpusExporter(project, true).export(project.getName(), corpus, fos);
 			}
+			catch (Exception e) {
+				tempFile.delete();
+				throw e;
+			}
 	
-	        return new FileInputStream(tempFile);
+	        return Files.newInputStream(tempFile.toPath(), StandardOpenOption.DELETE_ON_CLOSE);
 		} catch (Exception e) {
 			((ErrorHandler) ui).showAndLogError("Error exporting documents and collections", e);
 		}		
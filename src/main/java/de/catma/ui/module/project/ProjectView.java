@@ -59,6 +59,8 @@ import de.catma.document.source.contenthandler.SourceContentHandler;
 import de.catma.document.source.contenthandler.TikaContentHandler;
 import de.catma.document.source.contenthandler.XML2ContentHandler;
 import de.catma.indexer.IndexedProject;
+import de.catma.indexer.TermExtractor;
+import de.catma.indexer.TermIndex;
 import de.catma.project.OpenProjectListener;
 import de.catma.project.Project;
 import de.catma.project.Project.ProjectEvent;
@@ -107,6 +109,7 @@ import de.catma.ui.module.dashboard.ForkProjectDialog;
 import de.catma.ui.module.main.CanReloadAll;
 import de.catma.ui.module.main.ErrorHandler;
 import de.catma.ui.module.project.InviteMembersWithGroupDialog.MemberData;
+import de.catma.ui.module.project.documentwizard.DocumentImportPipeline;
 import de.catma.ui.module.project.documentwizard.DocumentWizard;
 import de.catma.ui.module.project.documentwizard.TagsetImport;
 import de.catma.ui.module.project.documentwizard.TagsetImportState;
@@ -144,6 +147,13 @@ import java.util.zip.CRC32;
  * Renders a single project with all of its resources and members
  */
 public class ProjectView extends HugeCard implements CanReloadAll {
+	// the number of documents that get committed and pushed at once when importing documents
+	private static final int DOCUMENT_IMPORT_BATCH_SIZE = 10;
+	// a batch gets committed early once the content of its documents reaches this number of characters
+	private static final long DOCUMENT_IMPORT_MAX_BATCH_CONTENT_LENGTH = 32 * 1024 * 1024;
+	// the total size in bytes of the uploaded files that are loaded at once when importing documents
+	private static final long DOCUMENT_IMPORT_MAX_PENDING_FILE_LENGTH = 64 * 1024 * 1024;
+
 	private final Logger logger = Logger.getLogger(ProjectView.class.getName());
 
 	private final ProjectsManager projectsManager;
@@ -1300,14 +1310,9 @@ public class ProjectView extends HugeCard implements CanReloadAll {
 						String collectionNamePattern = (String) result.get(DocumentWizard.WizardContextKey.COLLECTION_NAME_PATTERN);
 						boolean simpleXml = (boolean) result.get(DocumentWizard.WizardContextKey.SIMPLE_XML);
 
-						for (UploadFile uploadFile : uploadFiles) {
-							getProgressListener().setProgress("Importing document \"%s\"", uploadFile.getTitle());
-
-							ui.accessSynchronously(() -> {
-								addUploadFile(uploadFile, useApostropheAsSeparator, collectionNamePattern, simpleXml);
-								ui.push();
-							});
-						}
+						importUploadFiles(
+								ui, uploadFiles, useApostropheAsSeparator, collectionNamePattern, simpleXml, getProgressListener()
+						);
 
 						return null;
 					}
@@ -1330,7 +1335,140 @@ public class ProjectView extends HugeCard implements CanReloadAll {
 		);
 	}
 
-	private void addUploadFile(UploadFile uploadFile, boolean useApostropheAsSeparator, String collectionNamePattern, boolean simpleXml) {
+	/**
+	 * Loads and tokenizes the documents in parallel and adds them to the project in batches of
+	 * {@link #DOCUMENT_IMPORT_BATCH_SIZE}, see {@link DocumentImportPipeline}. Documents that cannot be loaded are
+	 * skipped.
+	 * <p>
+	 * The loaded content is bounded by size rather than by the number of documents: the uploaded files that are being
+	 * loaded may total {@link #DOCUMENT_IMPORT_MAX_PENDING_FILE_LENGTH} bytes and a batch is added early once its content
+	 * reaches {@link #DOCUMENT_IMPORT_MAX_BATCH_CONTENT_LENGTH} characters.
+	 */
+	private void importUploadFiles(
+			UI ui, List<UploadFile> uploadFiles,
+			boolean useApostropheAsSeparator, String collectionNamePattern, boolean simpleXml,
+			ProgressListener progressListener
+	) throws Exception {
+		final List<UploadFile> batch = new ArrayList<>();
+		final List<SourceDocument> batchSourceDocuments = new ArrayList<>();
+		// the term indices may be spilled to temp files and have to be closed once their batch has been added
+		final Map<String, TermIndex> batchTermIndicesBySourceDocumentId = new HashMap<>();
+
+		Runnable addBatch = () -> {
+			try {
+				ui.accessSynchronously(() -> {
+					addUploadFiles(batch, batchSourceDocuments, batchTermIndicesBySourceDocumentId, collectionNamePattern);
+					ui.push();
+				});
+			}
+			finally {
+				closeTermIndices(batchTermIndicesBySourceDocumentId);
+				batch.clear();
+				batchSourceDocuments.clear();
+			}
+		};
+
+		try {
+			new DocumentImportPipeline().process(
+					uploadFiles,
+					UploadFile::getFileLength,
+					DOCUMENT_IMPORT_MAX_PENDING_FILE_LENGTH,
+					uploadFile -> {
+						SourceDocument sourceDocument = loadUploadFile(uploadFile, useApostropheAsSeparator, simpleXml);
+						return new Pair<>(sourceDocument, TermExtractor.extractTermIndex(sourceDocument));
+					},
+					new DocumentImportPipeline.ResultConsumer<UploadFile, Pair<SourceDocument, TermIndex>>() {
+						private int processedFileCount = 0;
+
+						@Override
+						public void accept(UploadFile uploadFile, Pair<SourceDocument, TermIndex> result) throws IOException {
+							batch.add(uploadFile);
+							batchSourceDocuments.add(result.getFirst());
+							batchTermIndicesBySourceDocumentId.put(result.getFirst().getUuid(), result.getSecond());
+
+							progress();
+
+							long batchContentLength = 0;
+							for (SourceDocument sourceDocument : batchSourceDocuments) {
+								// the content is loaded, the length is cheap
+								batchContentLength += sourceDocument.getLength();
+							}
+
+							if (batch.size() == DOCUMENT_IMPORT_BATCH_SIZE
+									|| batchContentLength >= DOCUMENT_IMPORT_MAX_BATCH_CONTENT_LENGTH) {
+								addBatch.run();
+							}
+						}
+
+						@Override
+						public void failed(UploadFile uploadFile, Exception e) {
+							logger.log(
+									Level.SEVERE,
+									String.format("Failed to load document content from file %s", uploadFile.getTempFilename().toString()),
+									e
+							);
+
+							ui.accessSynchronously(() -> {
+								Notification.show(
+										"Error",
+										String.format(
+												"Failed to load document content from file \"%s\"! This document will be skipped.\n" +
+														"The underlying error message was:\n%s",
+												uploadFile.getTitle(),
+												e.getMessage()
+										),
+										Notification.Type.ERROR_MESSAGE
+								);
+								ui.push();
+							});
+
+							progress();
+						}
+
+						@Override
+						public void discard(UploadFile uploadFile, Pair<SourceDocument, TermIndex> result) {
+							try {
+								result.getSecond().close();
+							}
+							catch (IOException e) {
+								logger.log(Level.WARNING, "Failed to delete the temp files of a term index", e);
+							}
+						}
+
+						private void progress() {
+							processedFileCount++;
+							progressListener.setProgress(
+									"Importing documents (%1$d of %2$d loaded)", processedFileCount, uploadFiles.size()
+							);
+						}
+					}
+			);
+
+			if (!batch.isEmpty()) {
+				addBatch.run();
+			}
+		}
+		finally {
+			closeTermIndices(batchTermIndicesBySourceDocumentId);
+		}
+	}
+
+	private void closeTermIndices(Map<String, TermIndex> termIndicesBySourceDocumentId) {
+		for (TermIndex termIndex : termIndicesBySourceDocumentId.values()) {
+			try {
+				termIndex.close();
+			}
+			catch (IOException e) {
+				logger.log(Level.WARNING, "Failed to delete the temp files of a term index", e);
+			}
+		}
+		termIndicesBySourceDocumentId.clear();
+	}
+
+	/**
+	 * Loads the content of the given file, called concurrently for several files, must not access the UI or the project.
+	 */
+	private SourceDocument loadUploadFile(UploadFile uploadFile, boolean useApostropheAsSeparator, boolean simpleXml) throws IOException {
 		SourceDocumentInfo sourceDocumentInfo = new SourceDocumentInfo(
 				uploadFile.getIndexInfoSet(useApostropheAsSeparator),
 				uploadFile.getContentInfoSet(),
@@ -1344,44 +1482,75 @@ public class ProjectView extends HugeCard implements CanReloadAll {
 
 		SourceDocument sourceDocument = new SourceDocument(uploadFile.getUuid(), sourceContentHandler);
 
-		try {
-			String documentContent = sourceDocument.getContent();
-
-			sourceDocumentInfo.getTechInfoSet().setFileOSType(FileOSType.getFileOSType(documentContent));
+		String documentContent = sourceDocument.getContent();
 
-			CRC32 checksum = new CRC32();
-			checksum.update(documentContent.getBytes());
-			sourceDocumentInfo.getTechInfoSet().setChecksum(checksum.getValue());
+		sourceDocumentInfo.getTechInfoSet().setFileOSType(FileOSType.getFileOSType(documentContent));
 
-			project.addSourceDocument(sourceDocument);
+		CRC32 checksum = new CRC32();
+		checksum.update(documentContent.getBytes());
+		sourceDocumentInfo.getTechInfoSet().setChecksum(checksum.getValue());
 
-			AnnotationCollection intrinsicAnnotationCollection = uploadFile.getIntrinsicMarkupCollection();
-			if (intrinsicAnnotationCollection != null) {
-				project.importAnnotationCollection(Collections.emptyList(), intrinsicAnnotationCollection);
-			}
+		return sourceDocument;
+	}
 
-			if (!StringUtils.isBlank(collectionNamePattern)) {
-				String collectionName = collectionNamePattern.replace("{{Title}}", uploadFile.getTitle());
-				project.createAnnotationCollection(collectionName, project.getSourceDocumentReference(sourceDocument.getUuid()));
-			}
+	private void addUploadFiles(
+			List<UploadFile> uploadFiles, List<SourceDocument> sourceDocuments,
+			Map<String, TermIndex> termIndicesBySourceDocumentId, String collectionNamePattern
+	) {
+		try {
+			project.addSourceDocuments(sourceDocuments, termIndicesBySourceDocumentId);
 		}
 		catch (Exception e) {
-			logger.log(
-					Level.SEVERE,
-					String.format("Failed to load document content from file %s", uploadFile.getTempFilename().toString()),
-					e
-			);
+			String titles = uploadFiles.stream().map(UploadFile::getTitle).collect(Collectors.joining("\", \""));
+
+			logger.log(Level.SEVERE, String.format("Failed to add documents \"%s\"", titles), e);
 
 			Notification.show(
 					"Error",
 					String.format(
-							"Failed to load document content from file \"%s\"! This document will be skipped.\n" +
+							"Failed to add documents \"%s\"! These documents will be skipped.\n" +
 									"The underlying error message was:\n%s",
-							uploadFile.getTitle(),
+							titles,
 							e.getMessage()
 					),
 					Notification.Type.ERROR_MESSAGE
 			);
+			return;
+		}
+
+		for (int idx = 0; idx < uploadFiles.size(); idx++) {
+			UploadFile uploadFile = uploadFiles.get(idx);
+			SourceDocument sourceDocument = sourceDocuments.get(idx);
+
+			try {
+				AnnotationCollection intrinsicAnnotationCollection = uploadFile.getIntrinsicMarkupCollection();
+				if (intrinsicAnnotationCollection != null) {
+					project.importAnnotationCollection(Collections.emptyList(), intrinsicAnnotationCollection);
+				}
+
+				if (!StringUtils.isBlank(collectionNamePattern)) {
+					String collectionName = collectionNamePattern.replace("{{Title}}", uploadFile.getTitle());
+					project.createAnnotationCollection(collectionName, project.getSourceDocumentReference(sourceDocument.getUuid()));
+				}
+			}
+			catch (Exception e) {
+				logger.log(
+						Level.SEVERE,
+						String.format("Failed to add the collections of document \"%s\"", uploadFile.getTitle()),
+						e
+				);
+
+				Notification.show(
+						"Error",
+						String.format(
+								"Failed to add the collections of document \"%s\"!\n" +
+										"The underlying error message was:\n%s",
+								uploadFile.getTitle(),
+								e.getMessage()
+						),
+						Notification.Type.ERROR_MESSAGE
+				);
+			}
 		}
 	}
 
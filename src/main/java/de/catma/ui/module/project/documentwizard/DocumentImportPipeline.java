@@ -0,0 +1,179 @@
+package de.catma.ui.module.project.documentwizard;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.ToLongFunction;
+
+import de.catma.backgroundservice.SharedExecutionService;
+import de.catma.backgroundservice.TaskType;
+
+/**
+ * Processes the files of a document import in parallel and hands the results to a single consumer in the original
+ * order of the files.
+ * <p>
+ * Every file is processed by a {@link TaskType#BULK} task of the {@link SharedExecutionService}, so that large imports
+ * don't slow down queries of other users. At most {@link #MAX_PENDING_FILES} files are processed or waiting for the
+ * consumer at any time, the results, e.g. loaded documents, don't need to fit into memory all at once. As the size of
+ * a result usually depends on the size of its file rather than on the number of files, the pending files can be limited
+ * by their total size as well.
+ * <p>
+ * A file that cannot be processed doesn't stop the import, the consumer gets the failure of that file and the
+ * remaining files are processed as usual. If the consumer fails, the remaining files are cancelled and results that
+ * are ready or still get finished are handed to {@link ResultConsumer#discard(Object, Object)} instead, so that
+ * resources like temp files can be released.
+ */
+public class DocumentImportPipeline {
+
+	/**
+	 * Processes a single file. Processors are called concurrently and must not access the UI or the project.
+	 */
+	public static interface FileProcessor<T, R> {
+		public R process(T file) throws Exception;
+	}
+
+	/**
+	 * Consumes the results, called on the importing thread in the original order of the files.
+	 */
+	public static interface ResultConsumer<T, R> {
+		public void accept(T file, R result) throws Exception;
+
+		public void failed(T file, Exception e);
+
+		/**
+		 * Releases a result that won't be accepted because processing has been aborted, may be called on any thread.
+		 */
+		public default void discard(T file, R result) {
+		}
+	}
+
+	/**
+	 * The result of a file goes either to the consumer or, once processing has been aborted, gets discarded, no matter
+	 * whether the file is finished before or after the abort.
+	 */
+	private static class PendingResult<T, R> {
+		private final T file;
+		private final ResultConsumer<T, R> resultConsumer;
+		private Future<?> future;
+		// guarded by this
+		private R result;
+		private boolean aborted = false;
+
+		public PendingResult(T file, ResultConsumer<T, R> resultConsumer) {
+			this.file = file;
+			this.resultConsumer = resultConsumer;
+		}
+
+		public void set(R result) {
+			synchronized (this) {
+				if (!aborted) {
+					this.result = result;
+					return;
+				}
+			}
+			resultConsumer.discard(file, result);
+		}
+
+		public synchronized R take() {
+			R result = this.result;
+			this.result = null;
+			return result;
+		}
+
+		public void abort() {
+			R result;
+			synchronized (this) {
+				aborted = true;
+				result = take();
+			}
+			if (result != null) {
+				resultConsumer.discard(file, result);
+			}
+		}
+	}
+
+	private static final int MAX_PENDING_FILES = 16;
+
+	/**
+	 * @param files the files to process
+	 * @param fileProcessor processes a single file
+	 * @param resultConsumer consumes the results in the original order of the files
+	 * @throws Exception if the consumer fails, processing stops in that case
+	 */
+	public <T, R> void process(
+			List<T> files, FileProcessor<T, R> fileProcessor, ResultConsumer<T, R> resultConsumer) throws Exception {
+		process(files, file -> 0L, Long.MAX_VALUE, fileProcessor, resultConsumer);
+	}
+
+	/**
+	 * @param files the files to process
+	 * @param fileSize the size of a file, e.g. its length in bytes
+	 * @param maxPendingSize the maximum total size of the files that are processed or waiting for the consumer, a single
+	 *        larger file is processed on its own
+	 * @param fileProcessor processes a single file
+	 * @param resultConsumer consumes the results in the original order of the files
+	 * @throws Exception if the consumer fails, processing stops in that case
+	 */
+	public <T, R> void process(
+			List<T> files, ToLongFunction<T> fileSize, long maxPendingSize,
+			FileProcessor<T, R> fileProcessor, ResultConsumer<T, R> resultConsumer) throws Exception {
+
+		SharedExecutionService.Session session = SharedExecutionService.getInstance().openSession();
+		ArrayDeque<PendingResult<T, R>> pendingResults = new ArrayDeque<>();
+		try {
+			long pendingSize = 0;
+			int nextIdx = 0;
+
+			for (int idx = 0; idx < files.size(); idx++) {
+				while (nextIdx < files.size() && pendingResults.size() < MAX_PENDING_FILES
+						&& (pendingResults.isEmpty()
+								|| pendingSize + fileSize.applyAsLong(files.get(nextIdx)) <= maxPendingSize)) {
+					final T file = files.get(nextIdx++);
+					pendingSize += fileSize.applyAsLong(file);
+					final PendingResult<T, R> pendingResult = new PendingResult<>(file, resultConsumer);
+					pendingResults.add(pendingResult);
+					pendingResult.future = session.submit(
+							() -> {
+								pendingResult.set(fileProcessor.process(file));
+								return null;
+							},
+							TaskType.BULK
+					);
+				}
+
+				T file = files.get(idx);
+				pendingSize -= fileSize.applyAsLong(file);
+				// stays pending until its result has been taken, so that it gets discarded if waiting is interrupted
+				PendingResult<T, R> pendingResult = pendingResults.peek();
+				R result;
+				try {
+					pendingResult.future.get();
+					result = pendingResult.take();
+					pendingResults.poll();
+				}
+				catch (ExecutionException e) {
+					pendingResults.poll();
+					resultConsumer.failed(
+							file, (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e);
+					continue;
+				}
+				catch (CancellationException e) {
+					pendingResults.poll();
+					resultConsumer.failed(file, e);
+					continue;
+				}
+
+				resultConsumer.accept(file, result);
+			}
+		}
+		finally {
+			session.closeNow();
+
+			for (PendingResult<T, R> pendingResult : pendingResults) {
+				pendingResult.abort();
+			}
+		}
+	}
+}
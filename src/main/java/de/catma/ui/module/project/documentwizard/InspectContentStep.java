@@ -4,18 +4,18 @@ import com.vaadin.data.Binder.Binding;
 import com.vaadin.data.provider.ListDataProvider;
 import com.vaadin.ui.*;
 import com.vaadin.ui.Notification.Type;
+import de.catma.backgroundservice.BackgroundService;
 import de.catma.backgroundservice.BackgroundServiceProvider;
 import de.catma.backgroundservice.DefaultProgressCallable;
 import de.catma.backgroundservice.ExecutionListener;
+import de.catma.backgroundservice.ProgressListener;
 import de.catma.document.source.*;
 import de.catma.document.source.contenthandler.XML2ContentHandler;
 import de.catma.ui.component.actiongrid.ActionGridComponent;
 import de.catma.ui.dialog.SingleOptionInputDialog;
 import de.catma.ui.dialog.wizard.*;
-import de.catma.ui.module.main.ErrorHandler;
 import org.apache.tika.Tika;
-import org.apache.tika.language.detect.LanguageDetector;
-import org.apache.tika.language.detect.LanguageResult;
+import org.apache.tika.exception.TikaException;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 
@@ -27,6 +27,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -164,7 +166,7 @@ public class InspectContentStep extends VerticalLayout implements WizardStep {
 		setExpandRatio(contentLayout, 1f);
 	}
 
-	private String loadXmlFileContent(UploadFile uploadFile) throws IOException {
+	private String loadXmlFileContent(UploadFile uploadFile, boolean simpleXml) throws IOException {
 		SourceDocumentInfo sourceDocumentInfo = new SourceDocumentInfo();
 		sourceDocumentInfo.setTechInfoSet(new TechInfoSet(
 				uploadFile.getOriginalFilename(),
@@ -172,7 +174,7 @@ public class InspectContentStep extends VerticalLayout implements WizardStep {
 				uploadFile.getTempFilename()
 		));
 
-		XML2ContentHandler xmlContentHandler = new XML2ContentHandler(cbSimpleXml.getValue());
+		XML2ContentHandler xmlContentHandler = new XML2ContentHandler(simpleXml);
 		xmlContentHandler.setSourceDocumentInfo(sourceDocumentInfo);
 
 		xmlContentHandler.load();
@@ -186,7 +188,7 @@ public class InspectContentStep extends VerticalLayout implements WizardStep {
 
 			if (uploadFile.getMimetype().equals(FileType.XML2.getMimeType())) {
 				// handle XML
-				previewContent = loadXmlFileContent(uploadFile);
+				previewContent = loadXmlFileContent(uploadFile, cbSimpleXml.getValue());
 			}
 			else {
 				// handle non-XML (parse with Tika)
@@ -239,6 +241,42 @@ public class InspectContentStep extends VerticalLayout implements WizardStep {
 		}
 	}
 
+	/**
+	 * Detects the charset and the language of the given file, called concurrently for several files.
+	 */
+	private void inspect(UploadFile uploadFile, boolean simpleXml, Queue<DocumentInspector> documentInspectors) throws IOException, TikaException {
+		DocumentInspector documentInspector = documentInspectors.poll();
+		if (documentInspector == null) {
+			documentInspector = new DocumentInspector();
+		}
+
+		try {
+			LanguageItem language;
+
+			if (uploadFile.getMimetype().equals(FileType.XML2.getMimeType())) {
+				// handle XML
+				language = documentInspector.detectLanguage(loadXmlFileContent(uploadFile, simpleXml));
+			}
+			else {
+				// handle non-XML, only the charset of text files and samples of the text are needed
+				DocumentInspector.Inspection inspection =
+						documentInspector.inspect(new File(uploadFile.getTempFilename()), uploadFile.getMimetype());
+
+				if (inspection.charset() != null) {
+					uploadFile.setCharset(inspection.charset());
+				}
+				language = inspection.language();
+			}
+
+			if (language != null) {
+				uploadFile.setLanguage(language);
+			}
+		}
+		finally {
+			documentInspectors.add(documentInspector);
+		}
+	}
+
 	private void initActions() {
 		fileGrid.addItemClickListener(event -> updatePreview(event.getItem()));
 		fileGrid.getEditor().addOpenListener(event -> {
@@ -303,72 +341,63 @@ public class InspectContentStep extends VerticalLayout implements WizardStep {
 		}
 
 		contentLayout.setEnabled(false);
+		progressBar.setCaption("Inspecting files...");
 		progressBar.setVisible(true);
 		progressBar.setIndeterminate(true);
 
 		@SuppressWarnings("unchecked")
 		final List<UploadFile> files = (List<UploadFile>) wizardContext.get(DocumentWizard.WizardContextKey.UPLOAD_FILE_LIST);
 
-		BackgroundServiceProvider backgroundServiceProvider = (BackgroundServiceProvider) UI.getCurrent();
+		final boolean simpleXml = cbSimpleXml.getValue();
+		final UI ui = UI.getCurrent();
 
-		backgroundServiceProvider.submit(
-				"inspecting-files",
+		BackgroundService backgroundService = ((BackgroundServiceProvider) ui).acquireBackgroundService();
+
+		backgroundService.submit(
 				new DefaultProgressCallable<List<UploadFile>>() {
 					@Override
 					public List<UploadFile> call() throws Exception {
-						LanguageDetector languageDetector = LanguageDetector.getDefaultLanguageDetector();
-						try {
-							languageDetector.loadModels();
-						}
-						catch (IOException e) {
-							((ErrorHandler) UI.getCurrent()).showAndLogError("Failed to load language detection models", e);
-						}
-
-						for (UploadFile uploadFile : files) {
-							if (uploadFile.getMimetype().equals(FileType.XML2.getMimeType())) {
-								// handle XML
-								String content = loadXmlFileContent(uploadFile);
+						// inspectors are not thread-safe, every inspection takes an inspector of its own from this pool
+						final Queue<DocumentInspector> documentInspectors = new ConcurrentLinkedQueue<>();
+
+						new DocumentImportPipeline().process(
+								files,
+								uploadFile -> {
+									inspect(uploadFile, simpleXml, documentInspectors);
+									return uploadFile;
+								},
+								new DocumentImportPipeline.ResultConsumer<UploadFile, UploadFile>() {
+									private int inspectedFileCount = 0;
+
+									@Override
+									public void accept(UploadFile uploadFile, UploadFile result) {
+										progress();
+									}
 
-								LanguageResult languageResult = languageDetector.detect(content);
-								if (languageResult.isReasonablyCertain() && languageResult.getLanguage() != null) {
-									uploadFile.setLanguage(new LanguageItem(new Locale(languageResult.getLanguage())));
-								}
-							}
-							else {
-								// handle non-XML (parse with Tika)
-								// TODO: figure out and document why this works differently than in updatePreview & TikaContentHandler
-								try (FileInputStream fileInputStream = new FileInputStream(new File(uploadFile.getTempFilename()))) {
-									Metadata metadata = new Metadata();
-									String content = new Tika().parseToString(fileInputStream, metadata);
-
-									String contentType = metadata.get(Metadata.CONTENT_TYPE);
-									MediaType mediaType = MediaType.parse(contentType);
-									String charset = mediaType.getParameters().get("charset");
-									if (charset != null) {
-										uploadFile.setCharset(Charset.forName(charset));
+									@Override
+									public void failed(UploadFile uploadFile, Exception e) {
+										logger.log(Level.SEVERE, String.format("Error inspecting %s", uploadFile.getOriginalFilename()), e);
+
+										ui.access(() -> Notification.show(
+												"Error",
+												String.format(
+														"Failed to load content of %s! Adding this file to your project might fail.\n" +
+																"The underlying error message was:\n%s",
+														uploadFile.getOriginalFilename(),
+														e.getMessage()
+												),
+												Type.ERROR_MESSAGE
+										));
+
+										progress();
 									}
 
-									LanguageResult languageResult = languageDetector.detect(content);
-									if (languageResult.isReasonablyCertain() && languageResult.getLanguage() != null) {
-										uploadFile.setLanguage(new LanguageItem(new Locale(languageResult.getLanguage())));
+									private void progress() {
+										inspectedFileCount++;
+										getProgressListener().setProgress("Inspecting files (%1$d of %2$d)...", inspectedFileCount, files.size());
 									}
 								}
-								catch (Exception e) {
-									logger.log(Level.SEVERE, String.format("Error inspecting %s", uploadFile.getOriginalFilename()), e);
-
-									Notification.show(
-											"Error",
-											String.format(
-													"Failed to load content of %s! Adding this file to your project might fail.\n" +
-															"The underlying error message was:\n%s",
-													uploadFile.getOriginalFilename(),
-													e.getMessage()
-											),
-											Type.ERROR_MESSAGE
-									);
-								}
-							}
-						}
+						);
 
 						return files;
 					}
@@ -407,6 +436,12 @@ public class InspectContentStep extends VerticalLayout implements WizardStep {
 								Type.ERROR_MESSAGE
 						);
 					}
+				},
+				new ProgressListener() {
+					@Override
+					public void setProgress(String value, Object... args) {
+						ui.access(() -> progressBar.setCaption(String.format(value, args)));
+					}
 				}
 		);
 	}
@@ -433,27 +433,30 @@ class UploadStep extends VerticalLayout implements WizardStep {
 				entryDestination.mkdirs();
 			}
 			else {
+				String type;
 				try (BufferedInputStream bis = new BufferedInputStream(zipFile.getInputStream(entry)); 
 						BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(entryDestination))) {
+					// detection only peeks at the beginning of the entry and resets the stream,
+					// so the entry gets read just once
+					type = tika.detect(bis, fileName);
 					IOUtils.copy(bis, bos);
 				}
 				
-				try (FileInputStream fis = new FileInputStream(entryDestination)) {
-					String type = tika.detect(fis, fileName);
-					UploadFile extractedUploadFile = 
-							new UploadFile(
-									fileId,
-									entryDestination.toURI(), 
-									fileName, type, entry.getSize());
-					
-					fileList.add(extractedUploadFile);
-					fileDataProvider.refreshAll();
-					stepChangeListener.stepChanged(this);
-				}
+				UploadFile extractedUploadFile = 
+						new UploadFile(
+								fileId,
+								entryDestination.toURI(), 
+								fileName, type, entry.getSize());
+				
+				fileList.add(extractedUploadFile);
 			}
 		}
 		
 		ZipFile.closeQuietly(zipFile);
+
+		// refreshing once per archive instead of once per entry keeps large archives from flooding the client
+		fileDataProvider.refreshAll();
+		stepChangeListener.stepChanged(this);
 	}
 
 	@Override
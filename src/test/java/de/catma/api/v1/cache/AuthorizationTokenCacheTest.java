@@ -0,0 +1,68 @@
+package de.catma.api.v1.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class AuthorizationTokenCacheTest {
+	private static final String ISSUER = "http://localhost/api/v1/";
+
+	@Test
+	void concurrentBackendTokenResolutionsShareOneLookup() throws Exception {
+		AuthorizationTokenCache cache = new AuthorizationTokenCache(TimeUnit.MINUTES.toMillis(5));
+		AtomicInteger lookupCount = new AtomicInteger();
+		CountDownLatch lookupStarted = new CountDownLatch(1);
+		CountDownLatch finishLookup = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> first = executor.submit(() -> cache.resolveBackendToken(ISSUER, "token", () -> {
+				lookupCount.incrementAndGet();
+				lookupStarted.countDown();
+				finishLookup.await();
+				return "user";
+			}));
+
+			assertTrue(lookupStarted.await(5, TimeUnit.SECONDS));
+
+			Future<String> second = executor.submit(() -> cache.resolveBackendToken(ISSUER, "token", () -> {
+				lookupCount.incrementAndGet();
+				return "other";
+			}));
+
+			finishLookup.countDown();
+
+			assertEquals("user", first.get(5, TimeUnit.SECONDS));
+			assertEquals("user", second.get(5, TimeUnit.SECONDS));
+			assertEquals(1, lookupCount.get());
+			assertEquals("user", cache.getUserIdentifier(ISSUER, "token"));
+			assertNull(cache.getUserIdentifier("http://elsewhere/api/v1/", "token"));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void expiredTokensAreNotReturned() throws Exception {
+		AuthorizationTokenCache cache = new AuthorizationTokenCache(0);
+
+		cache.putValidatedJwt(ISSUER, "jwt", "user", System.currentTimeMillis() - 1);
+		assertNull(cache.getUserIdentifier(ISSUER, "jwt"));
+
+		cache.putValidatedJwt(ISSUER, "jwt", "user", System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+		assertEquals("user", cache.getUserIdentifier(ISSUER, "jwt"));
+
+		AtomicInteger lookupCount = new AtomicInteger();
+		cache.resolveBackendToken(ISSUER, "token", () -> "user" + lookupCount.incrementAndGet());
+		assertNull(cache.getUserIdentifier(ISSUER, "token"));
+		assertEquals("user2", cache.resolveBackendToken(ISSUER, "token", () -> "user" + lookupCount.incrementAndGet()));
+	}
+}
@@ -0,0 +1,128 @@
+package de.catma.api.v1.cache;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import de.catma.api.v1.cache.ProjectExportSerializerCache.CacheKey;
+import de.catma.api.v1.serialization.ProjectExportSerializer;
+import de.catma.properties.CATMAProperties;
+import de.catma.properties.CATMAPropertyKey;
+
+class ProjectExportSerializerCacheTest {
+	private static final CacheKey KEY = new CacheKey("user", "namespace", "project");
+
+	@BeforeAll
+	static void setup() {
+		Properties properties = new Properties();
+		// check the remote head with every access
+		properties.setProperty(CATMAPropertyKey.API_PROJECT_CACHE_REVISION_CHECK_INTERVAL_SECONDS.name(), "0");
+
+		CATMAProperties.INSTANCE.setProperties(properties);
+	}
+
+	@Test
+	void concurrentMissesLoadOnce() throws Exception {
+		ProjectExportSerializerCache cache = new ProjectExportSerializerCache();
+		ProjectExportSerializer serializer = Mockito.mock(ProjectExportSerializer.class);
+		AtomicInteger loadCount = new AtomicInteger();
+		CountDownLatch loadStarted = new CountDownLatch(1);
+		CountDownLatch finishLoad = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<ProjectExportSerializer> first = executor.submit(() -> cache.get(KEY, () -> "a", () -> {
+				loadCount.incrementAndGet();
+				loadStarted.countDown();
+				finishLoad.await();
+				return serializer;
+			}, false));
+
+			assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+			Future<ProjectExportSerializer> second = executor.submit(() -> cache.get(KEY, () -> "a", () -> {
+				loadCount.incrementAndGet();
+				return Mockito.mock(ProjectExportSerializer.class);
+			}, false));
+
+			await().atMost(Duration.ofSeconds(5)).until(() -> cache.getStats().coalescedLoadCount() == 1);
+			finishLoad.countDown();
+
+			assertSame(serializer, first.get(5, TimeUnit.SECONDS));
+			assertSame(serializer, second.get(5, TimeUnit.SECONDS));
+			assertEquals(1, loadCount.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void previousRevisionIsServedWhileRefreshing() throws Exception {
+		ProjectExportSerializerCache cache = new ProjectExportSerializerCache();
+		ProjectExportSerializer previous = Mockito.mock(ProjectExportSerializer.class);
+		ProjectExportSerializer next = Mockito.mock(ProjectExportSerializer.class);
+		AtomicReference<String> remoteHead = new AtomicReference<>("a");
+		AtomicReference<ProjectExportSerializer> loaded = new AtomicReference<>(previous);
+		CountDownLatch finishRefresh = new CountDownLatch(1);
+
+		assertSame(previous, cache.get(KEY, remoteHead::get, loaded::get, false));
+
+		// unchanged head, no refresh
+		Thread.sleep(5);
+		assertSame(previous, cache.get(KEY, remoteHead::get, loaded::get, false));
+		await().atMost(Duration.ofSeconds(5)).until(() -> cache.getStats().revisionCheckCount() == 1);
+		assertEquals(0, cache.getStats().refreshCount());
+
+		remoteHead.set("b");
+		loaded.set(next);
+		Thread.sleep(5);
+
+		assertSame(previous, cache.get(KEY, remoteHead::get, () -> {
+			finishRefresh.await();
+			return loaded.get();
+		}, false));
+		await().atMost(Duration.ofSeconds(5)).until(() -> cache.getStats().refreshCount() == 1);
+		// still loading
+		assertSame(previous, cache.get(KEY, remoteHead::get, loaded::get, false));
+
+		finishRefresh.countDown();
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> cache.get(KEY, remoteHead::get, loaded::get, false) == next);
+		assertEquals(2, cache.getStats().loadCount());
+	}
+
+	@Test
+	void replacedRevisionIsClosedAfterRetirementDelay() throws Exception {
+		ProjectExportSerializerCache cache = new ProjectExportSerializerCache(100);
+		ProjectExportSerializer previous = Mockito.mock(ProjectExportSerializer.class);
+		ProjectExportSerializer next = Mockito.mock(ProjectExportSerializer.class);
+		AtomicReference<String> remoteHead = new AtomicReference<>("a");
+		AtomicReference<ProjectExportSerializer> loaded = new AtomicReference<>(previous);
+
+		assertSame(previous, cache.get(KEY, remoteHead::get, loaded::get, false));
+
+		remoteHead.set("b");
+		loaded.set(next);
+
+		assertSame(next, cache.get(KEY, remoteHead::get, loaded::get, true));
+		// requests that still use the previous revision get to finish
+		Mockito.verify(previous, Mockito.never()).close();
+
+		Mockito.verify(previous, Mockito.timeout(5000)).close();
+		Mockito.verify(next, Mockito.never()).close();
+	}
+}
@@ -0,0 +1,117 @@
+package de.catma.api.v1.cache;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import de.catma.api.v1.cache.QueryResultCache.CacheKey;
+import de.catma.queryengine.result.QueryResultRow;
+
+class QueryResultCacheTest {
+
+	private static CacheKey key(String query) {
+		return new CacheKey("user", "namespace", "project", "a", query, List.of(), List.of());
+	}
+
+	private static List<QueryResultRow> rows(int count) {
+		return Collections.nCopies(count, Mockito.mock(QueryResultRow.class));
+	}
+
+	@Test
+	void resultsAreWeighedByRowCount() throws Exception {
+		QueryResultCache cache = new QueryResultCache(1, 1, 10);
+		AtomicInteger runCount = new AtomicInteger();
+
+		cache.get(key("first"), () -> {
+			runCount.incrementAndGet();
+			return rows(8);
+		}, 5, TimeUnit.SECONDS);
+		cache.get(key("second"), () -> rows(8), 5, TimeUnit.SECONDS);
+
+		// the second result doesn't fit in beside the first one
+		cache.get(key("first"), () -> {
+			runCount.incrementAndGet();
+			return rows(8);
+		}, 5, TimeUnit.SECONDS);
+
+		assertEquals(2, runCount.get());
+	}
+
+	@Test
+	void timedOutQueryIsCancelledWhenNobodyWaits() throws Exception {
+		QueryResultCache cache = new QueryResultCache(1, 1, 10);
+		AtomicBoolean interrupted = new AtomicBoolean();
+
+		assertThrows(TimeoutException.class, () -> cache.get(key("slow"), () -> {
+			try {
+				Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+			}
+			catch (InterruptedException e) {
+				interrupted.set(true);
+			}
+			return rows(1);
+		}, 100, TimeUnit.MILLISECONDS));
+
+		await().atMost(Duration.ofSeconds(5)).untilTrue(interrupted);
+
+		// a new attempt runs the query again
+		assertEquals(2, cache.get(key("slow"), () -> rows(2), 5, TimeUnit.SECONDS).size());
+	}
+
+	@Test
+	void queriesBeyondTheQueueAreRejected() throws Exception {
+		QueryResultCache cache = new QueryResultCache(1, 1, 10);
+		CountDownLatch queryStarted = new CountDownLatch(1);
+		CountDownLatch finishQuery = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<List<QueryResultRow>> running = executor.submit(() -> cache.get(key("running"), () -> {
+				queryStarted.countDown();
+				finishQuery.await();
+				return rows(1);
+			}, 5, TimeUnit.SECONDS));
+			assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+
+			AtomicInteger queuedRowCount = new AtomicInteger();
+			Thread queuedCaller = new Thread(() -> {
+				try {
+					queuedRowCount.set(cache.get(key("queued"), () -> rows(2), 5, TimeUnit.SECONDS).size());
+				}
+				catch (Exception e) {
+					queuedRowCount.set(-1);
+				}
+			});
+			queuedCaller.start();
+			// waiting for the result means the query has been queued
+			await().atMost(Duration.ofSeconds(5)).until(() -> queuedCaller.getState() == Thread.State.TIMED_WAITING);
+
+			assertThrows(
+					RejectedExecutionException.class,
+					() -> cache.get(key("rejected"), () -> rows(1), 5, TimeUnit.SECONDS));
+
+			finishQuery.countDown();
+			assertEquals(1, running.get(5, TimeUnit.SECONDS).size());
+			queuedCaller.join(TimeUnit.SECONDS.toMillis(5));
+			assertEquals(2, queuedRowCount.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
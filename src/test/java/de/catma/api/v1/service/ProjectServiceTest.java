@@ -8,6 +8,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
@@ -22,12 +23,15 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 
 import de.catma.api.v1.AuthConstants;
 import de.catma.api.v1.ApiApplication;
 import de.catma.api.v1.backend.interfaces.RemoteGitManagerRestrictedFactory;
 import de.catma.api.v1.fixture.ProjectFixtures;
+import de.catma.api.v1.serialization.ProjectExportSerializer;
 import de.catma.api.v1.serialization.model_wrappers.ProjectExportAnnotation;
 import de.catma.api.v1.serialization.model_wrappers.ProjectExportAnnotationProperty;
 import de.catma.api.v1.serialization.models.ProjectExport;
@@ -350,6 +354,323 @@ public class ProjectServiceTest extends JerseyTest {
 		assertTrue(projectExport2.getPrevPage().contains("includeExtendedMetadata=true"));
 	}
 	
+	@Test
+	void shouldProduceProjectExportPagesWithCursor() throws Exception {
+		
+		IDGenerator idGenerator = new IDGenerator();
+
+		String namespace = "test_namespace";
+		String projectName = "test_project_ForExportCursor";
+		String projectId = idGenerator.generate(projectName);
+		String sourceDocumentUuid = idGenerator.generateDocumentId();
+		String tagId = idGenerator.generate();
+		String tagName = "my tag";
+		String annotationId = idGenerator.generate();
+		String propertyName = "my property";
+		String propertyValue = "value1";
+		String tagsetId = idGenerator.generateTagsetId();
+		String tagsetName = "my tagset";
+
+		List<String> annotatedPhrasesSortedByAnnotationId = 
+			ProjectFixtures.setUpFullProject(
+					remoteGitManagerRestrictedFactoryMock, 
+					namespace, projectId, projectName, 
+					sourceDocumentUuid, 
+					tagsetId, tagsetName,
+					tagId, tagName, 
+					annotationId, propertyName, propertyValue);
+		
+		Response authResponse = target(AUTH_TARGET)
+				.request()
+				.header(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded")
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + DUMMY_PERSONAL_ACCESS_TOKEN)
+				.post(null);
+		
+		String apiToken = IOUtils.toString((InputStream)authResponse.getEntity(), StandardCharsets.UTF_8);
+
+		// an empty cursor starts at the beginning
+		Response response = target("projects/"+namespace+"/"+projectId+"/export")
+				.queryParam("cursor", "")
+				.queryParam("pageSize", 3)
+				.request(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.get();
+		
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		
+		ProjectExport projectExport = new SerializationHelper<ProjectExport>().deserialize(IOUtils.toString((InputStream)response.getEntity(), StandardCharsets.UTF_8), ProjectExport.class);
+		assertEquals(2, projectExport.getTotalPages());
+		assertEquals(1, projectExport.getPageNo());
+		assertNull(projectExport.getPrevPage());
+		assertTrue(projectExport.getNextPage().contains("cursor="));
+		assertFalse(projectExport.getNextPage().contains("page="));
+		// start of the export, so we should also get extended metadata by default
+		assertNotNull(projectExport.getExtendedMetadata());
+		assertEquals(3, projectExport.getDocuments().get(0).getAnnotations().size());
+
+		Response response2 = client().target(projectExport.getNextPage())
+				.request(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.get();
+
+		assertEquals(Status.OK.getStatusCode(), response2.getStatus());
+
+		ProjectExport projectExport2 = new SerializationHelper<ProjectExport>().deserialize(IOUtils.toString((InputStream)response2.getEntity(), StandardCharsets.UTF_8), ProjectExport.class);
+		assertEquals(2, projectExport2.getPageNo());
+		assertTrue(projectExport2.getPrevPage().contains("cursor="));
+		assertNull(projectExport2.getNextPage());
+		assertNull(projectExport2.getExtendedMetadata());
+
+		List<ProjectExportAnnotation> annotations = projectExport2.getDocuments().get(0).getAnnotations();
+		assertEquals(1, annotations.size());
+		assertEquals(annotatedPhrasesSortedByAnnotationId.get(3), annotations.get(0).getPhrases().get(0).getPhrase());
+
+		Response response3 = target("projects/"+namespace+"/"+projectId+"/export")
+				.queryParam("cursor", "not a cursor")
+				.request(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.get();
+
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), response3.getStatus());
+	}
+	
+	@Test
+	void shouldStreamProjectExportAsNdjson() throws Exception {
+		
+		IDGenerator idGenerator = new IDGenerator();
+
+		String namespace = "test_namespace";
+		String projectName = "test_project_ForExportNdjson";
+		String projectId = idGenerator.generate(projectName);
+		String sourceDocumentUuid = idGenerator.generateDocumentId();
+		String tagId = idGenerator.generate();
+		String tagName = "my tag";
+		String annotationId = idGenerator.generate();
+		String propertyName = "my property";
+		String propertyValue = "value1";
+		String tagsetId = idGenerator.generateTagsetId();
+		String tagsetName = "my tagset";
+
+		ProjectFixtures.setUpFullProject(
+				remoteGitManagerRestrictedFactoryMock, 
+				namespace, projectId, projectName, 
+				sourceDocumentUuid, 
+				tagsetId, tagsetName,
+				tagId, tagName, 
+				annotationId, propertyName, propertyValue);
+		
+		Response authResponse = target(AUTH_TARGET)
+				.request()
+				.header(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded")
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + DUMMY_PERSONAL_ACCESS_TOKEN)
+				.post(null);
+		
+		String apiToken = IOUtils.toString((InputStream)authResponse.getEntity(), StandardCharsets.UTF_8);
+
+		Response response = target("projects/"+namespace+"/"+projectId+"/export")
+				.request(ProjectExportSerializer.APPLICATION_NDJSON)
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.get();
+		
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals(ProjectExportSerializer.APPLICATION_NDJSON, response.getMediaType().getType() + "/" + response.getMediaType().getSubtype());
+
+		List<String> lines = IOUtils.readLines((InputStream)response.getEntity(), StandardCharsets.UTF_8);
+		// page header, one document and four annotations
+		assertEquals(6, lines.size());
+
+		JsonObject pageEntry = JsonParser.parseString(lines.get(0)).getAsJsonObject();
+		assertEquals("page", pageEntry.get("type").getAsString());
+		assertEquals(1, pageEntry.getAsJsonObject("data").get("pageNo").getAsInt());
+		assertEquals("document", JsonParser.parseString(lines.get(1)).getAsJsonObject().get("type").getAsString());
+
+		for (String line : lines.subList(2, lines.size())) {
+			JsonObject annotationEntry = JsonParser.parseString(line).getAsJsonObject();
+			assertEquals("annotation", annotationEntry.get("type").getAsString());
+			assertEquals(sourceDocumentUuid, annotationEntry.get("documentId").getAsString());
+		}
+
+		// the query parameter selects the same mode
+		Response response2 = target("projects/"+namespace+"/"+projectId+"/export")
+				.queryParam("format", "ndjson")
+				.request()
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.get();
+
+		assertEquals(Status.OK.getStatusCode(), response2.getStatus());
+		assertEquals(lines, IOUtils.readLines((InputStream)response2.getEntity(), StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	void shouldStreamQueryResultPages() throws Exception {
+		
+		IDGenerator idGenerator = new IDGenerator();
+
+		String namespace = "test_namespace";
+		String projectName = "test_project_ForQuery";
+		String projectId = idGenerator.generate(projectName);
+		String sourceDocumentUuid = idGenerator.generateDocumentId();
+		String tagId = idGenerator.generate();
+		String tagName = "my tag";
+		String annotationId = idGenerator.generate();
+		String propertyName = "my property";
+		String propertyValue = "value1";
+		String tagsetId = idGenerator.generateTagsetId();
+		String tagsetName = "my tagset";
+
+		ProjectFixtures.setUpFullProject(
+				remoteGitManagerRestrictedFactoryMock, 
+				namespace, projectId, projectName, 
+				sourceDocumentUuid, 
+				tagsetId, tagsetName,
+				tagId, tagName, 
+				annotationId, propertyName, propertyValue);
+		
+		Response authResponse = target(AUTH_TARGET)
+				.request()
+				.header(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded")
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + DUMMY_PERSONAL_ACCESS_TOKEN)
+				.post(null);
+		
+		String apiToken = IOUtils.toString((InputStream)authResponse.getEntity(), StandardCharsets.UTF_8);
+
+		Response invalidQueryResponse = target("projects/"+namespace+"/"+projectId+"/query")
+				.queryParam("q", "tag=")
+				.request()
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.get();
+
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), invalidQueryResponse.getStatus());
+
+		Response response = target("projects/"+namespace+"/"+projectId+"/query")
+				.queryParam("q", "tag=\"%\"")
+				.queryParam("limit", 1)
+				.request()
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.get();
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+
+		int totalCount = Integer.parseInt(response.getHeaderString("X-Total-Count"));
+		assertTrue(totalCount > 1);
+
+		List<String> rows = new ArrayList<>(IOUtils.readLines((InputStream)response.getEntity(), StandardCharsets.UTF_8));
+		assertEquals(1, rows.size());
+
+		Link next = response.getLink("next");
+		while (next != null) {
+			Response nextResponse = client().target(next).request()
+					.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+					.get();
+			assertEquals(Status.OK.getStatusCode(), nextResponse.getStatus());
+			rows.addAll(IOUtils.readLines((InputStream)nextResponse.getEntity(), StandardCharsets.UTF_8));
+			next = nextResponse.getLink("next");
+		}
+
+		assertEquals(totalCount, rows.size());
+		assertEquals(totalCount, rows.stream().distinct().count());
+
+		for (String row : rows) {
+			JsonObject rowObject = JsonParser.parseString(row).getAsJsonObject();
+			assertEquals(sourceDocumentUuid, rowObject.get("sourceDocumentId").getAsString());
+		}
+	}
+	
+	@Test
+	void shouldHonorConditionalAndRangeRequests() throws Exception {
+		
+		IDGenerator idGenerator = new IDGenerator();
+
+		String namespace = "test_namespace";
+		String projectName = "test_project_ForConditionalRequests";
+		String projectId = idGenerator.generate(projectName);
+		String sourceDocumentUuid = idGenerator.generateDocumentId();
+		
+		String expectedContent = 
+			ProjectFixtures.setUpProjectWithDocument(
+					remoteGitManagerRestrictedFactoryMock, 
+					namespace, projectId, projectName, 
+					sourceDocumentUuid);
+		
+		Response authResponse = target(AUTH_TARGET)
+				.request()
+				.header(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded")
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + DUMMY_PERSONAL_ACCESS_TOKEN)
+				.post(null);
+		
+		String apiToken = IOUtils.toString((InputStream)authResponse.getEntity(), StandardCharsets.UTF_8);
+
+		// export pages
+		Response exportResponse = target("projects/"+namespace+"/"+projectId+"/export")
+				.request(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.get();
+		
+		assertEquals(Status.OK.getStatusCode(), exportResponse.getStatus());
+		EntityTag exportEntityTag = exportResponse.getEntityTag();
+		assertNotNull(exportEntityTag);
+
+		Response notModifiedExportResponse = target("projects/"+namespace+"/"+projectId+"/export")
+				.request(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.header(HttpHeaders.IF_NONE_MATCH, exportEntityTag.toString())
+				.get();
+
+		assertEquals(Status.NOT_MODIFIED.getStatusCode(), notModifiedExportResponse.getStatus());
+
+		Response otherPageResponse = target("projects/"+namespace+"/"+projectId+"/export")
+				.queryParam("pageSize", 1)
+				.request(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.header(HttpHeaders.IF_NONE_MATCH, exportEntityTag.toString())
+				.get();
+
+		assertEquals(Status.OK.getStatusCode(), otherPageResponse.getStatus());
+		assertNotEquals(exportEntityTag, otherPageResponse.getEntityTag());
+
+		// documents
+		Response documentResponse = target("projects/"+namespace+"/"+projectId+"/export/doc/"+sourceDocumentUuid)
+				.request()
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.get();
+
+		assertEquals(Status.OK.getStatusCode(), documentResponse.getStatus());
+		assertEquals("bytes", documentResponse.getHeaderString("Accept-Ranges"));
+		EntityTag documentEntityTag = documentResponse.getEntityTag();
+		assertNotNull(documentEntityTag);
+		byte[] content = IOUtils.toByteArray((InputStream)documentResponse.getEntity());
+		assertEquals(expectedContent.substring(0, 10), new String(content, StandardCharsets.UTF_8).substring(0, 10));
+
+		Response notModifiedDocumentResponse = target("projects/"+namespace+"/"+projectId+"/export/doc/"+sourceDocumentUuid)
+				.request()
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.header(HttpHeaders.IF_NONE_MATCH, documentEntityTag.toString())
+				.get();
+
+		assertEquals(Status.NOT_MODIFIED.getStatusCode(), notModifiedDocumentResponse.getStatus());
+
+		Response partialDocumentResponse = target("projects/"+namespace+"/"+projectId+"/export/doc/"+sourceDocumentUuid)
+				.request()
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.header("Range", "bytes=5-14")
+				.get();
+
+		assertEquals(Status.PARTIAL_CONTENT.getStatusCode(), partialDocumentResponse.getStatus());
+		assertEquals(String.format("bytes 5-14/%d", content.length), partialDocumentResponse.getHeaderString("Content-Range"));
+		assertArrayEquals(
+				Arrays.copyOfRange(content, 5, 15),
+				IOUtils.toByteArray((InputStream)partialDocumentResponse.getEntity())
+		);
+
+		Response unsatisfiableDocumentResponse = target("projects/"+namespace+"/"+projectId+"/export/doc/"+sourceDocumentUuid)
+				.request()
+				.header(HttpHeaders.AUTHORIZATION, AuthConstants.AUTHENTICATION_SCHEME_BEARER_PREFIX + apiToken)
+				.header("Range", String.format("bytes=%d-", content.length))
+				.get();
+
+		assertEquals(Status.REQUESTED_RANGE_NOT_SATISFIABLE.getStatusCode(), unsatisfiableDocumentResponse.getStatus());
+	}
+	
 	@Test
 	void shouldProduceDocumentContentWithJwtAccessTokenInBearerHeader() throws Exception {
 		
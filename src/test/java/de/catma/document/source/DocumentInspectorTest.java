@@ -0,0 +1,308 @@
+package de.catma.document.source;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.tika.Tika;
+import org.apache.tika.language.detect.LanguageDetector;
+import org.apache.tika.language.detect.LanguageResult;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DocumentInspectorTest {
+
+	private static final String ENGLISH =
+			"It was the best of times, it was the worst of times, it was the age of wisdom, it was the age of "
+			+ "foolishness, it was the epoch of belief, it was the epoch of incredulity, it was the season of Light, "
+			+ "it was the season of Darkness, it was the spring of hope, it was the winter of despair.\n";
+
+	private static final String GERMAN =
+			"Als Gregor Samsa eines Morgens aus unruhigen Träumen erwachte, fand er sich in seinem Bett zu einem "
+			+ "ungeheueren Ungeziefer verwandelt. Er lag auf seinem panzerartig harten Rücken und sah, wenn er den "
+			+ "Kopf ein wenig hob, seinen gewölbten, braunen, von bogenförmigen Versteifungen geteilten Bauch.\n";
+
+	private static final String CHINESE =
+			"天下大势，分久必合，合久必分。周末七国分争，"
+			+ "并入于秦。及秦灭之后，楚、汉分争，又并入于汉。"
+			+ "汉朝自高祖斩白蛇而起义，一统天下。\n";
+
+	private static final int PDF_LINE_LENGTH = 80;
+	private static final int PDF_LINES_PER_PAGE = 60;
+
+	@TempDir
+	Path tempDir;
+
+	/**
+	 * The inspection has to give the same results as parsing the full file and detecting the language of the full text.
+	 */
+	private void assertSameAsFullInspection(File file, String mimeType) throws Exception {
+		Metadata metadata = new Metadata();
+		String content;
+		try (InputStream inputStream = new FileInputStream(file)) {
+			// no limit, the inspection itself only parses the start of PDFs or EPUBs
+			content = new Tika().parseToString(inputStream, metadata, -1);
+		}
+		String charsetName = MediaType.parse(metadata.get(Metadata.CONTENT_TYPE)).getParameters().get("charset");
+		Charset expectedCharset = (charsetName == null) ? null : Charset.forName(charsetName);
+
+		LanguageDetector languageDetector = LanguageDetector.getDefaultLanguageDetector();
+		languageDetector.loadModels();
+		LanguageResult expectedLanguage = languageDetector.detect(content);
+		assertTrue(expectedLanguage.isReasonablyCertain());
+
+		DocumentInspector.Inspection inspection = new DocumentInspector().inspect(file, mimeType);
+
+		assertEquals(expectedCharset, inspection.charset());
+		// the language is turned into a locale the same way the document wizard has always done it, e.g. zh-CN into zh-cn
+		assertEquals(new Locale(expectedLanguage.getLanguage()), inspection.language().getLocale());
+	}
+
+	private void assertSameAsFullInspection(String text, Charset charset) throws Exception {
+		File file = tempDir.resolve("document.txt").toFile();
+		Files.write(file.toPath(), text.getBytes(charset));
+
+		assertSameAsFullInspection(file, "text/plain");
+	}
+
+	/**
+	 * Writes a PDF with the given text in Helvetica, {@link #PDF_LINE_LENGTH} characters per line.
+	 */
+	private File writePdf(String text) throws IOException {
+		List<String> lines = new ArrayList<>();
+		for (String paragraph : text.split("\n")) {
+			StringBuilder line = new StringBuilder();
+			for (String word : paragraph.split(" ")) {
+				if ((line.length() > 0) && (line.length() + 1 + word.length() > PDF_LINE_LENGTH)) {
+					lines.add(line.toString());
+					line.setLength(0);
+				}
+				if (line.length() > 0) {
+					line.append(' ');
+				}
+				line.append(word);
+			}
+			lines.add(line.toString());
+		}
+
+		int pageCount = (lines.size() + PDF_LINES_PER_PAGE - 1) / PDF_LINES_PER_PAGE;
+
+		// 1 catalog, 2 page tree, 3 font, then a page and its content stream for each page
+		List<byte[]> objects = new ArrayList<>();
+		StringBuilder kids = new StringBuilder();
+		for (int pageIdx = 0; pageIdx < pageCount; pageIdx++) {
+			kids.append(4 + 2 * pageIdx).append(" 0 R ");
+		}
+		objects.add("<< /Type /Catalog /Pages 2 0 R >>".getBytes(StandardCharsets.ISO_8859_1));
+		objects.add(String.format("<< /Type /Pages /Kids [%s] /Count %d >>", kids, pageCount)
+				.getBytes(StandardCharsets.ISO_8859_1));
+		objects.add("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>"
+				.getBytes(StandardCharsets.ISO_8859_1));
+
+		for (int pageIdx = 0; pageIdx < pageCount; pageIdx++) {
+			StringBuilder content = new StringBuilder("BT /F1 8 Tf 12 TL 40 772 Td\n");
+			for (String line : lines.subList(
+					pageIdx * PDF_LINES_PER_PAGE, Math.min(lines.size(), (pageIdx + 1) * PDF_LINES_PER_PAGE))) {
+				content.append("T* (")
+					.append(line.replace("\\", "\\\\").replace("(", "\\(").replace(")", "\\)"))
+					.append(") Tj\n");
+			}
+			content.append("ET");
+			// WinAnsiEncoding matches ISO-8859-1 for the characters of the texts
+			byte[] contentBytes = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+
+			objects.add(String.format(
+					"<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] /Resources << /Font << /F1 3 0 R >> >> "
+					+ "/Contents %d 0 R >>", 5 + 2 * pageIdx).getBytes(StandardCharsets.ISO_8859_1));
+
+			ByteArrayOutputStream stream = new ByteArrayOutputStream();
+			stream.write(String.format("<< /Length %d >>\nstream\n", contentBytes.length)
+					.getBytes(StandardCharsets.ISO_8859_1));
+			stream.write(contentBytes);
+			stream.write("\nendstream".getBytes(StandardCharsets.ISO_8859_1));
+			objects.add(stream.toByteArray());
+		}
+
+		ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+		pdf.write("%PDF-1.4\n".getBytes(StandardCharsets.ISO_8859_1));
+		List<Integer> offsets = new ArrayList<>();
+		for (int idx = 0; idx < objects.size(); idx++) {
+			offsets.add(pdf.size());
+			pdf.write(String.format("%d 0 obj\n", idx + 1).getBytes(StandardCharsets.ISO_8859_1));
+			pdf.write(objects.get(idx));
+			pdf.write("\nendobj\n".getBytes(StandardCharsets.ISO_8859_1));
+		}
+
+		int xrefOffset = pdf.size();
+		StringBuilder xref = new StringBuilder(String.format("xref\n0 %d\n0000000000 65535 f \n", objects.size() + 1));
+		for (int offset : offsets) {
+			xref.append(String.format("%010d 00000 n \n", offset));
+		}
+		xref.append(String.format(
+				"trailer\n<< /Size %d /Root 1 0 R >>\nstartxref\n%d\n%%%%EOF\n", objects.size() + 1, xrefOffset));
+		pdf.write(xref.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+		File file = tempDir.resolve("document.pdf").toFile();
+		Files.write(file.toPath(), pdf.toByteArray());
+		return file;
+	}
+
+	/**
+	 * Writes an EPUB with a chapter for each of the given texts.
+	 */
+	private File writeEpub(List<String> chapters) throws IOException {
+		File file = tempDir.resolve("document.epub").toFile();
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(file))) {
+			// the mimetype comes first and uncompressed
+			byte[] mimeType = "application/epub+zip".getBytes(StandardCharsets.US_ASCII);
+			CRC32 crc = new CRC32();
+			crc.update(mimeType);
+			ZipEntry mimeTypeEntry = new ZipEntry("mimetype");
+			mimeTypeEntry.setMethod(ZipEntry.STORED);
+			mimeTypeEntry.setSize(mimeType.length);
+			mimeTypeEntry.setCrc(crc.getValue());
+			zipOutputStream.putNextEntry(mimeTypeEntry);
+			zipOutputStream.write(mimeType);
+			zipOutputStream.closeEntry();
+
+			addZipEntry(zipOutputStream, "META-INF/container.xml",
+					"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+					+ "<container version=\"1.0\" xmlns=\"urn:oasis:names:tc:opendocument:xmlns:container\">"
+					+ "<rootfiles><rootfile full-path=\"OEBPS/content.opf\" media-type=\"application/oebps-package+xml\"/>"
+					+ "</rootfiles></container>\n");
+
+			StringBuilder manifest = new StringBuilder();
+			StringBuilder spine = new StringBuilder();
+			for (int idx = 0; idx < chapters.size(); idx++) {
+				manifest.append(String.format(
+						"<item id=\"chapter%1$d\" href=\"chapter%1$d.xhtml\" media-type=\"application/xhtml+xml\"/>", idx));
+				spine.append(String.format("<itemref idref=\"chapter%d\"/>", idx));
+
+				StringBuilder paragraphs = new StringBuilder();
+				for (String paragraph : chapters.get(idx).split("\n")) {
+					paragraphs.append("<p>")
+						.append(paragraph.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"))
+						.append("</p>\n");
+				}
+				addZipEntry(zipOutputStream, String.format("OEBPS/chapter%d.xhtml", idx),
+						"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+						+ "<html xmlns=\"http://www.w3.org/1999/xhtml\"><head><title>Chapter " + (idx + 1) + "</title></head>"
+						+ "<body>\n" + paragraphs + "</body></html>\n");
+			}
+
+			addZipEntry(zipOutputStream, "OEBPS/content.opf",
+					"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+					+ "<package xmlns=\"http://www.idpf.org/2007/opf\" version=\"2.0\" unique-identifier=\"id\">"
+					+ "<metadata xmlns:dc=\"http://purl.org/dc/elements/1.1/\">"
+					+ "<dc:title>Document</dc:title><dc:identifier id=\"id\">document</dc:identifier></metadata>"
+					+ "<manifest>" + manifest + "</manifest>"
+					+ "<spine>" + spine + "</spine></package>\n");
+		}
+
+		return file;
+	}
+
+	private static void addZipEntry(ZipOutputStream zipOutputStream, String name, String content) throws IOException {
+		zipOutputStream.putNextEntry(new ZipEntry(name));
+		zipOutputStream.write(content.getBytes(StandardCharsets.UTF_8));
+		zipOutputStream.closeEntry();
+	}
+
+	@Test
+	void shouldInspectShortTexts() throws Exception {
+		assertSameAsFullInspection(ENGLISH.repeat(3), StandardCharsets.UTF_8);
+		assertSameAsFullInspection(GERMAN.repeat(3), StandardCharsets.ISO_8859_1);
+	}
+
+	@Test
+	void shouldInspectLongTextsBySamples() throws Exception {
+		assertSameAsFullInspection(ENGLISH.repeat(5000), StandardCharsets.UTF_8);
+		assertSameAsFullInspection(GERMAN.repeat(5000), StandardCharsets.UTF_8);
+		// with a byte order mark, the samples have to start at a code unit
+		assertSameAsFullInspection("\uFEFF" + GERMAN.repeat(5000), StandardCharsets.UTF_16LE);
+	}
+
+	@Test
+	void shouldInspectMixedLanguageTexts() throws Exception {
+		// the first sample only sees the preface in the other language
+		assertSameAsFullInspection(ENGLISH.repeat(20) + GERMAN.repeat(400), StandardCharsets.UTF_8);
+		assertSameAsFullInspection(GERMAN.repeat(20) + ENGLISH.repeat(400), StandardCharsets.ISO_8859_1);
+		// the languages alternate every few paragraphs, the dominant one has to win
+		assertSameAsFullInspection((GERMAN.repeat(3) + ENGLISH).repeat(400), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void shouldInspectTextsInDecodeOnlyCharsets() throws Exception {
+		// there is no ISO-2022-CN encoder, so the GB2312 bytes get shifted in by hand with their high bits cleared, each
+		// line designates GB2312 before it shifts out for the first time
+		byte[] gb2312 = CHINESE.repeat(500).getBytes("GB2312");
+		ByteArrayOutputStream iso2022cn = new ByteArrayOutputStream();
+		// the encoding detectors that look at the bytes don't recognize it, but a declared charset gets picked up
+		iso2022cn.write("<meta charset=\"ISO-2022-CN\">\n".getBytes(StandardCharsets.US_ASCII));
+		boolean designated = false;
+		boolean shiftedOut = false;
+		for (int idx = 0; idx < gb2312.length; idx++) {
+			boolean doubleByte = (gb2312[idx] & 0x80) != 0;
+			if (doubleByte && !designated) {
+				iso2022cn.write(new byte[] {0x1B, '$', ')', 'A'});
+				designated = true;
+			}
+			if (doubleByte != shiftedOut) {
+				iso2022cn.write(doubleByte ? 0x0E : 0x0F);
+				shiftedOut = doubleByte;
+			}
+			iso2022cn.write(gb2312[idx] & 0x7F);
+			if (doubleByte) {
+				iso2022cn.write(gb2312[++idx] & 0x7F);
+			}
+			else if (gb2312[idx] == '\n') {
+				designated = false;
+			}
+		}
+
+		File file = tempDir.resolve("document.txt").toFile();
+		Files.write(file.toPath(), iso2022cn.toByteArray());
+
+		assertSameAsFullInspection(file, "text/plain");
+	}
+
+	@Test
+	void shouldInspectPdfs() throws Exception {
+		assertSameAsFullInspection(writePdf(GERMAN.repeat(3)), "application/pdf");
+		// longer than the part that gets parsed
+		assertSameAsFullInspection(writePdf(ENGLISH.repeat(600)), "application/pdf");
+		assertSameAsFullInspection(writePdf(ENGLISH.repeat(20) + GERMAN.repeat(600)), "application/pdf");
+	}
+
+	@Test
+	void shouldInspectEpubs() throws Exception {
+		assertSameAsFullInspection(writeEpub(List.of(GERMAN.repeat(3))), "application/epub+zip");
+		// longer than the part that gets parsed
+		assertSameAsFullInspection(
+				writeEpub(List.of(ENGLISH.repeat(20), GERMAN.repeat(200), GERMAN.repeat(200), GERMAN.repeat(200))),
+				"application/epub+zip");
+	}
+
+	@Test
+	void shouldDetectLanguageOfContent() throws IOException {
+		assertEquals("de", new DocumentInspector().detectLanguage(GERMAN.repeat(1000)).getLocale().getLanguage());
+	}
+}
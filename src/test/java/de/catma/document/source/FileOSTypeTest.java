@@ -0,0 +1,130 @@
+package de.catma.document.source;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class FileOSTypeTest {
+
+	private static final String[] INTERESTING_SNIPPETS = {"\r\n", "\n", "\r", "\r\r", "\n\n", "\n\r", "a", " ", "😀"};
+
+	/**
+	 * Hands out the text in chunks of random size, including empty reads, so that CR/LF pairs get split across reads.
+	 */
+	private static class ChunkedReader extends Reader {
+		private final String text;
+		private final Random random;
+		private final int maxChunkSize;
+		private int position = 0;
+
+		ChunkedReader(String text, Random random, int maxChunkSize) {
+			this.text = text;
+			this.random = random;
+			this.maxChunkSize = maxChunkSize;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			if (position == text.length()) {
+				return -1;
+			}
+			int count = Math.min(Math.min(len, random.nextInt(maxChunkSize + 1)), text.length() - position);
+			text.getChars(position, position + count, cbuf, off);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * The way the type was determined before the content could be read chunk by chunk, the reader has to come to the
+	 * very same result.
+	 */
+	private static FileOSType expected(String fileContent) {
+		int dosPatternCounter = getPatternCount("\\r\\n", fileContent);
+		int unixPatternCounter = getPatternCount("[^\\r]\\n", fileContent);
+		int macPatternCounter = getPatternCount("\\r[^\\n]", fileContent);
+
+		if (dosPatternCounter >= unixPatternCounter) {
+			return dosPatternCounter >= macPatternCounter ? FileOSType.DOS : FileOSType.MAC;
+		}
+		else {
+			return unixPatternCounter >= macPatternCounter ? FileOSType.UNIX : FileOSType.MAC;
+		}
+	}
+
+	private static int getPatternCount(String patternString, String fileContent) {
+		Matcher patternMatcher = Pattern.compile(patternString).matcher(fileContent);
+		int patternCounter = 0;
+		while (patternMatcher.find()) {
+			patternCounter++;
+		}
+		return patternCounter;
+	}
+
+	private static void assertSameAsRegularExpression(String text) throws IOException {
+		FileOSType expected = expected(text);
+		assertEquals(expected, FileOSType.getFileOSType(text));
+		assertEquals(expected, FileOSType.getFileOSType(new StringReader(text)));
+		assertEquals(expected, FileOSType.getFileOSType(new ChunkedReader(text, new Random(text.length()), 3)));
+	}
+
+	@Test
+	void shouldDetectTheLineSeparator() throws IOException {
+		assertEquals(FileOSType.DOS, FileOSType.getFileOSType(new StringReader("a\r\nb\r\nc")));
+		assertEquals(FileOSType.UNIX, FileOSType.getFileOSType(new StringReader("a\nb\nc")));
+		assertEquals(FileOSType.MAC, FileOSType.getFileOSType(new StringReader("a\rb\rc")));
+		// no separator at all
+		assertEquals(FileOSType.DOS, FileOSType.getFileOSType(new StringReader("abc")));
+
+		for (String text : new String[] {
+				"a\r\nb\r\nc", "a\nb\nc", "a\rb\rc", "abc", "", "\n", "\r", "\r\n",
+				// mixed, the majority wins
+				"a\r\nb\nc\nd", "a\r\nb\r\nc\nd", "a\rb\rc\nd\r\n", "\n\n\r\r\r",
+				// separators at the very start or end, or right after each other
+				"\na\n", "\r\r\r", "\n\n\n", "\r\n\r\n\n", "\n\r\n\r", "\r\r\n\n"}) {
+			assertSameAsRegularExpression(text);
+		}
+	}
+
+	@Test
+	void shouldCountCrLfPairsAcrossBufferBoundaries() throws IOException {
+		// the pair straddles the end of the method's internal buffer
+		for (int prefixLength = 8189; prefixLength <= 8193; prefixLength++) {
+			String text = "x".repeat(prefixLength) + "\r\n" + "y\rz\rw";
+			assertSameAsRegularExpression(text);
+			assertEquals(FileOSType.MAC, FileOSType.getFileOSType(new StringReader(text)));
+
+			text = "x".repeat(prefixLength) + "\r\n" + "y\nz\r\n";
+			assertSameAsRegularExpression(text);
+			assertEquals(FileOSType.DOS, FileOSType.getFileOSType(new StringReader(text)));
+		}
+	}
+
+	@Test
+	void shouldMatchTheRegularExpressionForRandomTexts() throws IOException {
+		Random random = new Random(42);
+		for (int run = 0; run < 2000; run++) {
+			StringBuilder text = new StringBuilder();
+			int length = random.nextInt(run % 100 == 0 ? 10000 : 32);
+			for (int idx = 0; idx < length; idx++) {
+				text.append(INTERESTING_SNIPPETS[random.nextInt(INTERESTING_SNIPPETS.length)]);
+			}
+
+			assertEquals(
+					expected(text.toString()),
+					FileOSType.getFileOSType(new ChunkedReader(text.toString(), random, 1 + random.nextInt(8))),
+					"run " + run);
+		}
+	}
+}
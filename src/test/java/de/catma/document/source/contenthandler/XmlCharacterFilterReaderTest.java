@@ -0,0 +1,132 @@
+package de.catma.document.source.contenthandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class XmlCharacterFilterReaderTest {
+
+	// the expression the content handlers used before the reader, the reader has to produce the very same content
+	private static final String INVALID_XML_CHARACTERS = "[^\\x09\\x0A\\x0D\\x20-\\uD7FF\\uE000-\\uFFFD\\u10000-\\u10FFFF]";
+
+	private static final char[] INTERESTING_CHARACTERS = {
+			'a', ' ', '\t', '\n', '\r', '\u0000', '\u0008', '\u001F', '\uD7FF', '\uE000', '\uFFFD', '\uFFFE', '\uFFFF',
+			'\uD800', '\uDBFF', '\uDC00', '\uDFFF', '\u00E4', '\u1000', '\u10FF'
+	};
+
+	/**
+	 * Hands out the text in chunks of random size, including empty reads, so that surrogate pairs get split across
+	 * reads.
+	 */
+	private static class ChunkedReader extends Reader {
+		private final String text;
+		private final Random random;
+		private final int maxChunkSize;
+		private int position = 0;
+
+		ChunkedReader(String text, Random random, int maxChunkSize) {
+			this.text = text;
+			this.random = random;
+			this.maxChunkSize = maxChunkSize;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			if (position == text.length()) {
+				return -1;
+			}
+			int count = Math.min(Math.min(len, random.nextInt(maxChunkSize + 1)), text.length() - position);
+			text.getChars(position, position + count, cbuf, off);
+			position += count;
+			return count;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static String filter(Reader reader, Random random, int maxReadSize) throws IOException {
+		try (Reader filterReader = new XmlCharacterFilterReader(reader)) {
+			StringBuilder builder = new StringBuilder();
+			char[] buffer = new char[maxReadSize];
+			int count;
+			while ((count = filterReader.read(buffer, 0, 1 + random.nextInt(maxReadSize))) != -1) {
+				builder.append(buffer, 0, count);
+			}
+			return builder.toString();
+		}
+	}
+
+	private static String filter(String text) throws IOException {
+		return filter(new StringReader(text), new Random(0), 16);
+	}
+
+	private static String expected(String text) {
+		return text.replaceAll(INVALID_XML_CHARACTERS, "?");
+	}
+
+	@Test
+	void shouldReplaceLikeTheRegularExpression() throws IOException {
+		assertEquals("a?b", filter("a\u0000b"));
+		assertEquals("\t\n\r", filter("\t\n\r"));
+		assertEquals("\uD7FF\uE000\uFFFD??", filter("\uD7FF\uE000\uFFFD\uFFFE\uFFFF"));
+		// a surrogate pair becomes a single '?'
+		assertEquals("a?b", filter("a\uD83D\uDE00b"));
+		// lone surrogates become a '?' each
+		assertEquals("??", filter("\uDE00\uD83D"));
+		assertEquals("??b", filter("\uD83D\uD83D\uDE00b"));
+		assertEquals("?", filter("\uD83D"));
+
+		for (String text : new String[] {"a\u0000b", "a\uD83D\uDE00b", "\uDE00\uD83D", "\uD83D\uD83D\uDE00b"}) {
+			assertEquals(expected(text), filter(text));
+		}
+	}
+
+	@Test
+	void shouldKeepSurrogatePairsTogetherAcrossBufferBoundaries() throws IOException {
+		// the pair straddles the end of the reader's internal buffer
+		for (int prefixLength = 8190; prefixLength <= 8193; prefixLength++) {
+			String text = "x".repeat(prefixLength) + "\uD83D\uDE00" + "y";
+			assertEquals(expected(text), filter(new StringReader(text), new Random(prefixLength), 10000));
+		}
+	}
+
+	@Test
+	void shouldMatchTheRegularExpressionForRandomTexts() throws IOException {
+		Random random = new Random(42);
+		for (int run = 0; run < 2000; run++) {
+			StringBuilder text = new StringBuilder();
+			int length = random.nextInt(run % 100 == 0 ? 20000 : 64);
+			for (int idx = 0; idx < length; idx++) {
+				text.append(
+						random.nextBoolean()
+						? INTERESTING_CHARACTERS[random.nextInt(INTERESTING_CHARACTERS.length)]
+						: (char) random.nextInt(Character.MAX_VALUE + 1));
+			}
+
+			assertEquals(
+					expected(text.toString()),
+					filter(new ChunkedReader(text.toString(), random, 1 + random.nextInt(8)), random, 1 + random.nextInt(32)),
+					"run " + run);
+		}
+	}
+
+	@Test
+	void shouldReadSingleCharacters() throws IOException {
+		String text = "a\uD83D\uDE00\u0000\uDE00b";
+		StringBuilder builder = new StringBuilder();
+		try (Reader reader = new XmlCharacterFilterReader(new StringReader(text))) {
+			int c;
+			while ((c = reader.read()) != -1) {
+				builder.append((char) c);
+			}
+		}
+		assertEquals(expected(text), builder.toString());
+	}
+}
@@ -0,0 +1,85 @@
+package de.catma.indexer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TermIndexTest {
+
+	private static record Position(int startOffset, int endOffset, int tokenOffset) {
+	}
+
+	/**
+	 * Adds the same random tokens to the index and to a map, the index has to hand out the terms in the order of their
+	 * first occurrence with the positions in the order they have been added.
+	 */
+	private static void assertSameAsMap(TermIndex termIndex, int tokenCount) throws IOException {
+		Random random = new Random(tokenCount);
+		Map<String, List<Position>> expected = new LinkedHashMap<>();
+
+		int offset = 0;
+		for (int tokenOffset = 0; tokenOffset < tokenCount; tokenOffset++) {
+			// a few frequent and many rare terms
+			String term = "term" + random.nextInt(1 + random.nextInt(1000));
+			Position position = new Position(offset, offset + term.length(), tokenOffset);
+			offset += term.length() + 1;
+
+			expected.computeIfAbsent(term, key -> new ArrayList<>()).add(position);
+			termIndex.add(term, position.startOffset(), position.endOffset(), position.tokenOffset());
+		}
+
+		Map<String, List<Position>> actual = new LinkedHashMap<>();
+		termIndex.forEachTerm((term, positions) -> {
+			List<Position> termPositions = new ArrayList<>();
+			for (int idx = 0; idx < positions.size(); idx++) {
+				termPositions.add(new Position(
+						positions.getStartOffset(idx), positions.getEndOffset(idx), positions.getTokenOffset(idx)));
+			}
+			assertNull(actual.put(term, termPositions), term);
+		});
+
+		assertEquals(tokenCount, termIndex.getTokenCount());
+		assertEquals(expected.size(), termIndex.getTermCount());
+		assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+	}
+
+	@Test
+	void shouldGroupBufferedTokens() throws IOException {
+		try (TermIndex termIndex = new TermIndex()) {
+			assertSameAsMap(termIndex, 0);
+		}
+		try (TermIndex termIndex = new TermIndex()) {
+			assertSameAsMap(termIndex, 10000);
+		}
+		// exactly a full buffer
+		try (TermIndex termIndex = new TermIndex(16, 1L << 20)) {
+			assertSameAsMap(termIndex, 16);
+		}
+	}
+
+	@Test
+	void shouldGroupSpilledTokens() throws IOException {
+		// one token more than the buffer holds
+		try (TermIndex termIndex = new TermIndex(16, 1L << 20)) {
+			assertSameAsMap(termIndex, 17);
+		}
+		try (TermIndex termIndex = new TermIndex(16, 1L << 20)) {
+			assertSameAsMap(termIndex, 10000);
+		}
+	}
+
+	@Test
+	void shouldGroupSpilledTokensAcrossRegions() throws IOException {
+		// the grouped positions span many regions, the positions of a single term cross region boundaries
+		try (TermIndex termIndex = new TermIndex(16, 64)) {
+			assertSameAsMap(termIndex, 10000);
+		}
+	}
+}
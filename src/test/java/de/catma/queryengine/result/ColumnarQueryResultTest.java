@@ -0,0 +1,145 @@
+package de.catma.queryengine.result;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import de.catma.document.Range;
+import de.catma.document.comment.Comment;
+import de.catma.queryengine.QueryId;
+
+class ColumnarQueryResultTest {
+
+	private static QueryResultRowArray createRows() {
+		QueryId queryId = new QueryId("tag=\"%\"");
+		QueryResultRowArray rows = new QueryResultRowArray();
+
+		QueryResultRow plainRow = new QueryResultRow(queryId, "doc1", new Range(0, 5), "Hello");
+		rows.add(plainRow);
+		rows.add(new QueryResultRow(queryId, "doc2", new Range(10, 15), "Hello"));
+
+		TagQueryResultRow tagRow = new TagQueryResultRow(
+				queryId, "doc1", List.of(new Range(20, 25), new Range(2, 8)),
+				"collection1", "tag1", "/parent/tag1", "1", "annotation1");
+		tagRow.setPhrase("llo W[...]world");
+		rows.add(tagRow);
+		rows.add(new TagQueryResultRow(
+				queryId, "doc1", List.of(new Range(2, 8)),
+				"collection1", "tag1", "/parent/tag1", "1", "annotation2",
+				"property1", "color", "red"));
+
+		CommentQueryResultRow commentRow = new CommentQueryResultRow(
+				queryId, new Comment("comment1", "user", 1L, "a comment", List.of(new Range(30, 35)), "doc2"));
+		commentRow.setPhrase("comment phrase");
+		rows.add(commentRow);
+
+		return rows;
+	}
+
+	@Test
+	void shouldReturnRowsEqualToTheAddedRows() {
+		QueryResultRowArray rows = createRows();
+		ColumnarQueryResult result = new ColumnarQueryResult(rows);
+
+		assertEquals(rows.size(), result.size());
+		for (int idx = 0; idx < rows.size(); idx++) {
+			QueryResultRow expected = rows.get(idx);
+			QueryResultRow actual = result.get(idx);
+
+			assertEquals(expected, actual);
+			assertEquals(expected.getClass(), actual.getClass());
+			assertEquals(expected.getPhrase(), actual.getPhrase());
+			assertEquals(expected.getRange(), actual.getRange());
+			assertEquals(expected.getRanges(), actual.getRanges());
+			assertSame(expected.getQueryId(), actual.getQueryId());
+		}
+
+		TagQueryResultRow tagRow = (TagQueryResultRow) result.get(3);
+		assertEquals("/parent/tag1", tagRow.getTagDefinitionPath());
+		assertEquals("color", tagRow.getPropertyName());
+		assertEquals("red", tagRow.getPropertyValue());
+
+		assertEquals("a comment", ((CommentQueryResultRow) result.get(4)).getComment().getBody());
+
+		assertEquals(rows, result.asQueryResultRowArray());
+	}
+
+	@Test
+	void shouldAddAndRemoveRowsByEquality() {
+		QueryResultRowArray rows = createRows();
+		ColumnarQueryResult result = new ColumnarQueryResult(rows);
+
+		assertTrue(result.contains(rows.get(2)));
+		assertFalse(result.contains(new QueryResultRow(rows.get(0).getQueryId(), "doc3", new Range(0, 5))));
+
+		assertTrue(result.remove(rows.get(0)));
+		assertFalse(result.remove(rows.get(0)));
+		assertFalse(result.contains(rows.get(0)));
+		assertEquals(rows.size() - 1, result.size());
+
+		assertTrue(result.removeAll(List.of(rows.get(2), rows.get(4))));
+		assertEquals(List.of(rows.get(1), rows.get(3)), result.asQueryResultRowArray());
+
+		result.add(rows.get(0));
+		assertEquals(rows.get(0), result.get(result.size() - 1));
+	}
+
+	@Test
+	void shouldRemoveRowsWhileIterating() {
+		QueryResultRowArray rows = createRows();
+		ColumnarQueryResult result = new ColumnarQueryResult(rows);
+
+		Iterator<QueryResultRow> iterator = result.iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().getSourceDocumentId().equals("doc1")) {
+				iterator.remove();
+			}
+		}
+
+		assertEquals(2, result.size());
+		assertEquals(List.of(rows.get(1), rows.get(4)), result.asQueryResultRowArray());
+		assertEquals(0, result.getFrequency("doc1"));
+		assertEquals(Set.of("doc2"), result.getSourceDocumentIDs());
+		assertFalse(result.contains(rows.get(0)));
+		assertEquals(rows.get(4), result.get(1));
+
+		Iterator<QueryResultRow> staleIterator = result.iterator();
+		result.remove(rows.get(1));
+		result.get(0);
+		assertThrows(ConcurrentModificationException.class, () -> staleIterator.hasNext());
+	}
+
+	@Test
+	void shouldGroupLikeQueryResultRowArray() {
+		QueryResultRowArray rows = createRows();
+		ColumnarQueryResult result = new ColumnarQueryResult(rows);
+
+		Set<GroupedQueryResult> groupedQueryResults = result.asGroupedSet();
+		assertEquals(rows.asGroupedSet().size(), groupedQueryResults.size());
+
+		GroupedQueryResult hello = groupedQueryResults.stream()
+				.filter(groupedQueryResult -> "Hello".equals(groupedQueryResult.getGroup()))
+				.findFirst()
+				.orElseThrow();
+		assertEquals(2, hello.getTotalFrequency());
+		assertEquals(1, hello.getFrequency("doc1"));
+		assertEquals(Set.of("doc1", "doc2"), hello.getSourceDocumentIDs());
+
+		GroupedQueryResult subResult = hello.getSubResult("doc2");
+		assertEquals(1, subResult.getTotalFrequency());
+		List<QueryResultRow> subResultRows = new ArrayList<>();
+		subResult.forEach(subResultRows::add);
+		assertEquals(List.of(rows.get(1)), subResultRows);
+
+		// groups share the columns but not the rows
+		assertTrue(hello.remove(rows.get(0)));
+		assertEquals(1, hello.getTotalFrequency());
+		assertTrue(result.contains(rows.get(0)));
+	}
+}
@@ -0,0 +1,94 @@
+package de.catma.queryengine.result.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import de.catma.document.Range;
+import de.catma.document.source.SourceDocument;
+import de.catma.project.Project;
+import de.catma.queryengine.QueryId;
+import de.catma.queryengine.result.QueryResultRow;
+import de.catma.queryengine.result.json.JSONQueryResultAggregator.Aggregation;
+
+class JSONQueryResultAggregatorTest {
+	private static final QueryId QUERY_ID = new QueryId("wild=\"%\"");
+
+	private Project project;
+	private List<QueryResultRow> rows;
+
+	@BeforeEach
+	void setup() throws Exception {
+		project = Mockito.mock(Project.class);
+
+		SourceDocument sourceDocument = Mockito.mock(SourceDocument.class, Mockito.RETURNS_DEEP_STUBS);
+		Mockito.when(sourceDocument.isLoaded()).thenReturn(true);
+		Mockito.when(sourceDocument.getLength()).thenReturn(100);
+		Mockito.when(sourceDocument.getSourceContentHandler().getSourceDocumentInfo().getContentInfoSet().getTitle()).thenReturn("doc");
+		Mockito.when(project.getSourceDocument("d1")).thenReturn(sourceDocument);
+
+		rows = List.of(
+				new QueryResultRow(QUERY_ID, "d1", new Range(0, 3), "one"),
+				new QueryResultRow(QUERY_ID, "d1", new Range(5, 8), "one"),
+				new QueryResultRow(QUERY_ID, "d1", new Range(55, 58), "one"),
+				new QueryResultRow(QUERY_ID, "d1", new Range(60, 63), "two"),
+				new QueryResultRow(QUERY_ID, "d1", new Range(99, 100), "two")
+		);
+	}
+
+	@Test
+	void shouldCountByPhrase() throws Exception {
+		JSONQueryResultAggregator aggregator = new JSONQueryResultAggregator(Aggregation.phrase, Aggregation.phrase, 10);
+
+		ArrayNode counts = aggregator.createJSONAggregation(rows, project);
+
+		assertEquals(2, counts.size());
+		assertEquals("one", counts.get(0).get("phrase").asText());
+		assertEquals(3, counts.get(0).get("count").asInt());
+		assertEquals("doc", counts.get(0).get("sourceDocumentTitle").asText());
+		assertEquals("two", counts.get(1).get("phrase").asText());
+		assertEquals(2, counts.get(1).get("count").asInt());
+
+		List<QueryResultRow> selectedRows = aggregator.getRows(rows, project, counts.get(1).get("selectionKey").asText());
+		assertEquals(rows.subList(3, 5), selectedRows);
+	}
+
+	@Test
+	void shouldCountDistributionBins() throws Exception {
+		JSONQueryResultAggregator aggregator = new JSONQueryResultAggregator(Aggregation.distribution, Aggregation.document, 2);
+
+		ArrayNode counts = aggregator.createJSONAggregation(rows, project);
+
+		assertEquals(2, counts.size());
+		JsonNode firstHalf = counts.get(0);
+		assertEquals(0.0, firstHalf.get("binStart").asDouble());
+		assertEquals(50.0, firstHalf.get("binEnd").asDouble());
+		assertEquals(2, firstHalf.get("count").asInt());
+		JsonNode secondHalf = counts.get(1);
+		assertEquals(50.0, secondHalf.get("binStart").asDouble());
+		assertEquals(3, secondHalf.get("count").asInt());
+
+		assertTrue(aggregator.getRows(rows, project, "unknown").isEmpty());
+	}
+
+	@Test
+	void shouldRejectInvalidParameters() {
+		assertThrows(IllegalArgumentException.class, () -> new JSONQueryResultAggregator(Aggregation.distribution, Aggregation.distribution, 10));
+		assertThrows(IllegalArgumentException.class, () -> new JSONQueryResultAggregator(Aggregation.distribution, Aggregation.phrase, 0));
+	}
+
+	@Test
+	void shouldParseAggregationNamesCaseInsensitively() {
+		assertEquals(Aggregation.distribution, Aggregation.parse("Distribution"));
+		assertEquals(Aggregation.tag, Aggregation.parse("TAG"));
+		assertThrows(IllegalArgumentException.class, () -> Aggregation.parse(""));
+		assertThrows(IllegalArgumentException.class, () -> Aggregation.parse("rows"));
+	}
+}
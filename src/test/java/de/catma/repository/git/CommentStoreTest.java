@@ -0,0 +1,121 @@
+package de.catma.repository.git;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.catma.document.Range;
+import de.catma.document.comment.Comment;
+import de.catma.document.comment.Reply;
+import de.catma.project.ProjectReference;
+import de.catma.repository.git.managers.InMemoryGitManagerRestricted;
+import de.catma.util.IDGenerator;
+
+class CommentStoreTest {
+	private final IDGenerator idGenerator = new IDGenerator();
+
+	private InMemoryGitManagerRestricted backend;
+	private ProjectReference projectReference;
+
+	@BeforeEach
+	void setUp() {
+		backend = new InMemoryGitManagerRestricted(1L, "commentstoretest");
+		// a unique project per test, the store's cache is shared
+		projectReference = new ProjectReference(idGenerator.generate(), "commentstoretest", "Comment Store Test", "");
+		backend.addProjectReference(projectReference);
+	}
+
+	private Comment addComment(String documentId, String body) throws Exception {
+		Comment comment = new Comment(
+				idGenerator.generate(), null, null, body, Collections.singletonList(new Range(0, 5)), documentId
+		);
+		backend.addComment(projectReference, comment);
+		return comment;
+	}
+
+	private void addReply(Comment comment, String body) throws Exception {
+		backend.addReply(projectReference, comment, new Reply(idGenerator.generate(), body, null, null, comment.getUuid()));
+	}
+
+	/**
+	 * Comments of all documents are fetched with a single listing and replies are only fetched once per changed comment.
+	 */
+	@Test
+	void testCommentsWithRepliesUseOneListing() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			Comment comment = addComment("doc" + (i % 3), "comment " + i);
+			if (i % 2 == 0) {
+				addReply(comment, "reply to comment " + i);
+			}
+		}
+		backend.resetRequestCounts();
+
+		CommentStore commentStore = new CommentStore(projectReference, backend);
+
+		List<Comment> comments = commentStore.getCommentsWithReplies(Arrays.asList("doc0", "doc1", "doc2"));
+		assertEquals(10, comments.size());
+		assertEquals(1, backend.getCommentListRequestCount());
+		assertEquals(5, backend.getReplyListRequestCount());
+		assertEquals(5, comments.stream().filter(comment -> comment.getReplies().size() == 1).count());
+
+		backend.resetRequestCounts();
+
+		comments = commentStore.getCommentsWithReplies(Arrays.asList("doc0", "doc1", "doc2"));
+		assertEquals(10, comments.size());
+		assertEquals(1, backend.getCommentListRequestCount());
+		assertEquals(0, backend.getReplyListRequestCount());
+	}
+
+	/**
+	 * Changes made through the backend show up with the next call and only replies of the changed comment are re-fetched.
+	 */
+	@Test
+	void testRefreshOnChange() throws Exception {
+		Comment first = addComment("doc", "first");
+		addReply(first, "first reply");
+		Comment second = addComment("doc", "second");
+		addReply(second, "second reply");
+
+		CommentStore commentStore = new CommentStore(projectReference, backend);
+		commentStore.getCommentsWithReplies(Collections.singletonList("doc"));
+
+		addReply(first, "another reply");
+		backend.removeComment(projectReference, second);
+		Comment third = addComment("doc", "third");
+		backend.resetRequestCounts();
+
+		List<Comment> comments = commentStore.getCommentsWithReplies(Collections.singletonList("doc"));
+
+		assertEquals(2, comments.size());
+		assertTrue(comments.contains(first));
+		assertTrue(comments.contains(third));
+		assertFalse(comments.contains(second));
+		assertEquals(2, comments.get(comments.indexOf(first)).getReplies().size());
+		assertEquals(1, backend.getCommentListRequestCount());
+		assertEquals(1, backend.getReplyListRequestCount());
+	}
+
+	/**
+	 * Comments handed out by the store are copies, changes by one caller don't leak into the cache.
+	 */
+	@Test
+	void testReturnedCommentsAreCopies() throws Exception {
+		Comment comment = addComment("doc", "original");
+		addReply(comment, "reply");
+
+		CommentStore commentStore = new CommentStore(projectReference, backend);
+
+		Comment copy = commentStore.getComments("doc").get(0);
+		copy.setBody("changed locally");
+		commentStore.getCommentReplies(copy).get(0).setBody("changed locally");
+
+		Comment otherCopy = new CommentStore(projectReference, backend).getComments("doc").get(0);
+		assertEquals("original", otherCopy.getBody());
+		assertEquals("reply", new CommentStore(projectReference, backend).getCommentReplies(otherCopy).get(0).getBody());
+	}
+}
@@ -0,0 +1,492 @@
+package de.catma.repository.git.managers;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import de.catma.document.Range;
+import de.catma.document.comment.Comment;
+import de.catma.document.comment.Reply;
+import de.catma.project.BackendPager;
+import de.catma.project.CommitInfo;
+import de.catma.project.MergeRequestInfo;
+import de.catma.project.ProjectReference;
+import de.catma.rbac.RBACPermission;
+import de.catma.rbac.RBACRole;
+import de.catma.rbac.RBACSubject;
+import de.catma.repository.git.GitUser;
+import de.catma.repository.git.managers.interfaces.RemoteGitManagerRestricted;
+import de.catma.user.Group;
+import de.catma.user.Member;
+import de.catma.user.SharedGroup;
+import de.catma.user.User;
+
+/**
+ * An in-memory stand-in for {@link GitlabManagerRestricted} that keeps comments and replies the way GitLab keeps
+ * issues and notes, including update times and closed issues.
+ * <p>
+ * Every call that would be a REST request against GitLab is counted, so that tests and benchmarks can check the number
+ * of round trips. Operations that are not needed for the comment path are not supported.
+ */
+public class InMemoryGitManagerRestricted implements RemoteGitManagerRestricted {
+
+	private static class StoredComment {
+		private final String projectPath;
+		private final Comment comment;
+		private final List<Reply> replies = new ArrayList<>();
+		private ZonedDateTime updatedAt;
+		private boolean closed;
+
+		public StoredComment(String projectPath, Comment comment, ZonedDateTime updatedAt) {
+			this.projectPath = projectPath;
+			this.comment = comment;
+			this.updatedAt = updatedAt;
+		}
+	}
+
+	private final User user;
+	private final List<ProjectReference> projectReferences = new ArrayList<>();
+	private final Map<Long, StoredComment> commentsById = new HashMap<>();
+
+	private final AtomicInteger requestCount = new AtomicInteger();
+	private final AtomicInteger commentListRequestCount = new AtomicInteger();
+	private final AtomicInteger replyListRequestCount = new AtomicInteger();
+
+	private long lastId = 0;
+	private ZonedDateTime lastUpdatedAt = ZonedDateTime.now();
+
+	public InMemoryGitManagerRestricted(Long userId, String username) {
+		this.user = new GitUser(new org.gitlab4j.api.models.User().withId(userId).withUsername(username).withName(username));
+	}
+
+	public void addProjectReference(ProjectReference projectReference) {
+		projectReferences.add(projectReference);
+	}
+
+	/**
+	 * @return the total number of calls that would have been REST requests against GitLab
+	 */
+	public int getRequestCount() {
+		return requestCount.get();
+	}
+
+	public int getCommentListRequestCount() {
+		return commentListRequestCount.get();
+	}
+
+	public int getReplyListRequestCount() {
+		return replyListRequestCount.get();
+	}
+
+	public void resetRequestCounts() {
+		requestCount.set(0);
+		commentListRequestCount.set(0);
+		replyListRequestCount.set(0);
+	}
+
+	// GitLab's timestamps are unique enough for our purposes, we make sure they are strictly increasing
+	private synchronized ZonedDateTime nextUpdatedAt() {
+		ZonedDateTime now = ZonedDateTime.now();
+		lastUpdatedAt = now.isAfter(lastUpdatedAt) ? now : lastUpdatedAt.plusNanos(1000000);
+		return lastUpdatedAt;
+	}
+
+	private synchronized long nextId() {
+		return ++lastId;
+	}
+
+	private Comment toComment(StoredComment storedComment) {
+		Comment comment = new Comment(
+				storedComment.comment.getUuid(),
+				storedComment.comment.getUsername(),
+				storedComment.comment.getUserId(),
+				storedComment.comment.getBody(),
+				storedComment.comment.getRanges().stream()
+						.map(range -> new Range(range.getStartPoint(), range.getEndPoint()))
+						.collect(Collectors.toList()),
+				storedComment.comment.getDocumentId(),
+				storedComment.comment.getId(),
+				storedComment.comment.getIid()
+		);
+		comment.setReplyCount(storedComment.replies.size());
+		comment.setUpdatedAt(storedComment.updatedAt);
+		comment.setRemoved(storedComment.closed);
+		return comment;
+	}
+
+	private StoredComment getStoredComment(Comment comment) throws IOException {
+		StoredComment storedComment = commentsById.get(comment.getId());
+		if (storedComment == null) {
+			throw new IOException(String.format("404 Not found: comment with ID %s", comment.getUuid()));
+		}
+		return storedComment;
+	}
+
+
+	// RemoteGitManagerCommon implementations
+	@Override
+	public boolean existsUserOrEmail(String usernameOrEmail) throws IOException {
+		requestCount.incrementAndGet();
+		return user.getIdentifier().equals(usernameOrEmail) || usernameOrEmail.equals(user.getEmail());
+	}
+
+
+	// IRBACManager implementations
+	@Override
+	public boolean isAuthorizedOnProject(RBACSubject subject, RBACPermission permission, ProjectReference projectReference) {
+		requestCount.incrementAndGet();
+		return subject.getUserId().equals(user.getUserId()) && projectReferences.contains(projectReference);
+	}
+
+	@Override
+	public RBACSubject assignOnProject(RBACSubject subject, RBACRole role, ProjectReference projectReference, LocalDate expiresAt) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public void unassignFromProject(RBACSubject subject, ProjectReference projectReference) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public RBACRole getRoleOnProject(RBACSubject subject, ProjectReference projectReference) throws IOException {
+		requestCount.incrementAndGet();
+		return RBACRole.OWNER;
+	}
+
+	@Override
+	public RBACRole getRoleOnGroup(RBACSubject subject, Group group) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public RBACSubject assignOnGroup(RBACSubject subject, Long groupId, LocalDate expiresAt) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public SharedGroup assignOnProject(SharedGroup sharedGroup, RBACRole role, ProjectReference projectReference, LocalDate expiresAt, boolean reassign) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public void unassignFromProject(SharedGroup sharedGroup, ProjectReference projectReference) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public RBACSubject updateAssignmentOnGroup(Long userId, Long groupId, RBACRole role, LocalDate expiresAt) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+
+	// GitUserInformationProvider implementations
+	@Override
+	public String getUsername() {
+		return user.getIdentifier();
+	}
+
+	@Override
+	public String getPassword() {
+		return "in-memory";
+	}
+
+	@Override
+	public String getEmail() {
+		return user.getEmail();
+	}
+
+	@Override
+	public void refreshUserCredentials() throws IOException {
+		// noop
+	}
+
+
+	// RemoteGitManagerRestricted implementations
+	@Override
+	public void refreshUser() {
+		// noop
+	}
+
+	@Override
+	public User getUser() {
+		return user;
+	}
+
+	@Override
+	public List<User> findUser(String usernameOrEmail) throws IOException {
+		requestCount.incrementAndGet();
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<ProjectReference> getProjectReferences() throws IOException {
+		return getProjectReferences(false);
+	}
+
+	@Override
+	public ProjectReference getProjectReference(String namespace, String projectId) throws IOException {
+		requestCount.incrementAndGet();
+		return projectReferences.stream()
+				.filter(projectReference -> projectReference.getNamespace().equals(namespace) && projectReference.getProjectId().equals(projectId))
+				.findFirst()
+				.orElseThrow(() -> new IOException(String.format("404 Not found: project %s/%s", namespace, projectId)));
+	}
+
+	@Override
+	public List<ProjectReference> getProjectReferences(boolean forceRefetch) throws IOException {
+		requestCount.incrementAndGet();
+		return new ArrayList<>(projectReferences);
+	}
+
+	@Override
+	public List<String> getOwnedProjectIds(boolean forceRefetch) throws IOException {
+		requestCount.incrementAndGet();
+		return projectReferences.stream().map(ProjectReference::getProjectId).collect(Collectors.toList());
+	}
+
+	@Override
+	public List<Group> getGroups(boolean forceRefetch) throws IOException {
+		requestCount.incrementAndGet();
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<Group> getGroups(RBACRole minRole, boolean forceRefetch) throws IOException {
+		requestCount.incrementAndGet();
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<Long> getOwnedGroupIds(boolean forceRefetch) throws IOException {
+		requestCount.incrementAndGet();
+		return Collections.emptyList();
+	}
+
+	@Override
+	public Group createGroup(String name, String path, String description) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public void deleteGroup(Group group) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public Group updateGroup(String name, String description, Group group) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public void leaveGroup(Group group) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public void unassignFromGroup(RBACSubject subject, Group group) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public String getProjectRepositoryUrl(ProjectReference projectReference) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public Set<Member> getProjectMembers(ProjectReference projectReference) throws IOException {
+		requestCount.incrementAndGet();
+		return new HashSet<>();
+	}
+
+	@Override
+	public String createProject(String name, String description) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public void updateProjectDescription(ProjectReference projectReference, String description) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public void leaveProject(ProjectReference projectReference) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public void deleteProject(ProjectReference projectReference) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public synchronized List<Comment> getComments(ProjectReference projectReference, String documentId) throws IOException {
+		requestCount.incrementAndGet();
+		commentListRequestCount.incrementAndGet();
+
+		return commentsById.values().stream()
+				.filter(storedComment -> storedComment.projectPath.equals(projectReference.getFullPath()))
+				.filter(storedComment -> !storedComment.closed)
+				.filter(storedComment -> storedComment.comment.getDocumentId().equals(documentId))
+				.map(this::toComment)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public synchronized List<Comment> getProjectComments(ProjectReference projectReference, ZonedDateTime updatedAfter) throws IOException {
+		requestCount.incrementAndGet();
+		commentListRequestCount.incrementAndGet();
+
+		return commentsById.values().stream()
+				.filter(storedComment -> storedComment.projectPath.equals(projectReference.getFullPath()))
+				.filter(storedComment -> updatedAfter == null ? !storedComment.closed : !storedComment.updatedAt.isBefore(updatedAfter))
+				.map(this::toComment)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public synchronized void addComment(ProjectReference projectReference, Comment comment) throws IOException {
+		requestCount.incrementAndGet();
+
+		long id = nextId();
+		comment.setId(id);
+		comment.setIid(id);
+
+		commentsById.put(id, new StoredComment(projectReference.getFullPath(), toStorable(comment), nextUpdatedAt()));
+	}
+
+	private Comment toStorable(Comment comment) {
+		return new Comment(
+				comment.getUuid(),
+				comment.getUsername() == null ? user.getName() : comment.getUsername(),
+				comment.getUserId() == null ? user.getUserId() : comment.getUserId(),
+				comment.getBody(),
+				new ArrayList<>(comment.getRanges()),
+				comment.getDocumentId(),
+				comment.getId(),
+				comment.getIid()
+		);
+	}
+
+	@Override
+	public synchronized void updateComment(ProjectReference projectReference, Comment comment) throws IOException {
+		requestCount.incrementAndGet();
+
+		StoredComment storedComment = getStoredComment(comment);
+		storedComment.comment.setBody(comment.getBody());
+		storedComment.updatedAt = nextUpdatedAt();
+	}
+
+	@Override
+	public synchronized void removeComment(ProjectReference projectReference, Comment comment) throws IOException {
+		requestCount.incrementAndGet();
+
+		StoredComment storedComment = getStoredComment(comment);
+		storedComment.closed = true;
+		storedComment.updatedAt = nextUpdatedAt();
+	}
+
+	@Override
+	public synchronized List<Reply> getCommentReplies(ProjectReference projectReference, Comment comment) throws IOException {
+		requestCount.incrementAndGet();
+		replyListRequestCount.incrementAndGet();
+
+		List<Reply> replies = getStoredComment(comment).replies.stream()
+				.map(reply -> new Reply(reply.getUuid(), reply.getBody(), reply.getUsername(), reply.getUserId(), comment.getUuid(), reply.getId()))
+				.collect(Collectors.toList());
+
+		comment.setReplies(replies);
+
+		return replies;
+	}
+
+	@Override
+	public synchronized void addReply(ProjectReference projectReference, Comment comment, Reply reply) throws IOException {
+		requestCount.incrementAndGet();
+
+		StoredComment storedComment = getStoredComment(comment);
+		reply.setId(nextId());
+		storedComment.replies.add(
+				new Reply(
+						reply.getUuid(),
+						reply.getBody(),
+						reply.getUsername() == null ? user.getName() : reply.getUsername(),
+						reply.getUserId() == null ? user.getUserId() : reply.getUserId(),
+						comment.getUuid(),
+						reply.getId()
+				)
+		);
+		storedComment.updatedAt = nextUpdatedAt();
+
+		comment.addReply(reply);
+	}
+
+	@Override
+	public synchronized void updateReply(ProjectReference projectReference, Comment comment, Reply reply) throws IOException {
+		requestCount.incrementAndGet();
+
+		StoredComment storedComment = getStoredComment(comment);
+		for (Reply storedReply : storedComment.replies) {
+			if (storedReply.getId().equals(reply.getId())) {
+				storedReply.setBody(reply.getBody());
+			}
+		}
+		storedComment.updatedAt = nextUpdatedAt();
+	}
+
+	@Override
+	public synchronized void removeReply(ProjectReference projectReference, Comment comment, Reply reply) throws IOException {
+		requestCount.incrementAndGet();
+
+		StoredComment storedComment = getStoredComment(comment);
+		storedComment.replies.removeIf(storedReply -> storedReply.getId().equals(reply.getId()));
+		storedComment.updatedAt = nextUpdatedAt();
+
+		comment.removeReply(reply);
+	}
+
+	@Override
+	public List<MergeRequestInfo> getOpenMergeRequests(ProjectReference projectReference) throws IOException {
+		requestCount.incrementAndGet();
+		return Collections.emptyList();
+	}
+
+	@Override
+	public MergeRequestInfo getMergeRequest(ProjectReference projectReference, Long mergeRequestIid) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public MergeRequestInfo createMergeRequest(ProjectReference projectReference) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public MergeRequestInfo mergeMergeRequest(MergeRequestInfo mergeRequestInfo) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public void forkProject(ProjectReference projectReference, String targetProjectId) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+
+	@Override
+	public boolean isProjectImportFinished(ProjectReference projectReference) throws IOException {
+		return true;
+	}
+
+	@Override
+	public BackendPager<CommitInfo> getCommits(ProjectReference projectReference, LocalDate after, LocalDate before, String branch, String author) throws IOException {
+		throw new UnsupportedOperationException("Not supported by the in-memory backend");
+	}
+}
@@ -0,0 +1,93 @@
+package de.catma.repository.git.serialization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import de.catma.indexer.TermIndex;
+import de.catma.indexer.TermInfo;
+
+class TermIndexWriterTest {
+
+	/**
+	 * A copy of the wrapper the entries of the token file were serialized with before there was a
+	 * {@link TermIndexWriter}.
+	 */
+	@SuppressWarnings("unused") // fields are accessed by reflection
+	private static class GitTermInfo {
+
+		private int endOffset;
+		private int startOffset;
+		private int tokenOffset;
+
+		public GitTermInfo(TermInfo termInfo) {
+			this.endOffset = termInfo.getRange().getEndPoint();
+			this.startOffset = termInfo.getRange().getStartPoint();
+			this.tokenOffset = termInfo.getTokenOffset();
+		}
+	}
+
+	private static final String[] SPECIAL_TERMS = {
+			"<b>", "don't", "a&b", "x=y", "\"quoted\"", "back\\slash", "Grüße", " ", "😀"
+	};
+
+	/**
+	 * The writer has to produce the same JSON as serializing the map with the {@link SerializationHelper}.
+	 */
+	private static void assertSameAsSerializationHelper(Map<String, List<TermInfo>> terms) throws IOException {
+		Map<String, List<GitTermInfo>> gitTermInfos = new LinkedHashMap<>();
+		terms.forEach((term, termInfos) -> gitTermInfos.put(
+				term,
+				termInfos.stream().map(GitTermInfo::new).collect(Collectors.toList())
+		));
+		String expected = new SerializationHelper<Map<String, List<GitTermInfo>>>().serialize(gitTermInfos);
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		// the index keeps the order of the map
+		try (TermIndex termIndex = TermIndex.of(terms)) {
+			new TermIndexWriter().write(termIndex, outputStream);
+		}
+
+		assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8));
+	}
+
+	private static Map<String, List<TermInfo>> createTerms(int tokenCount) {
+		Random random = new Random(tokenCount);
+		Map<String, List<TermInfo>> terms = new LinkedHashMap<>();
+
+		int offset = 0;
+		for (int tokenOffset = 0; tokenOffset < tokenCount; tokenOffset++) {
+			String term = random.nextInt(10) == 0
+					? SPECIAL_TERMS[random.nextInt(SPECIAL_TERMS.length)]
+					: "term" + random.nextInt(1 + random.nextInt(1000));
+			terms.computeIfAbsent(term, key -> new ArrayList<>())
+				.add(new TermInfo(term, offset, offset + term.length(), tokenOffset));
+			offset += term.length() + 1;
+		}
+
+		return terms;
+	}
+
+	@Test
+	void shouldWriteLikeSerializationHelper() throws IOException {
+		assertSameAsSerializationHelper(new LinkedHashMap<>());
+		assertSameAsSerializationHelper(createTerms(1));
+		assertSameAsSerializationHelper(createTerms(10000));
+	}
+
+	@Test
+	void shouldWriteSpilledTermsLikeSerializationHelper() throws IOException {
+		// more tokens than the index buffers, so the positions get spilled and grouped in a memory mapped file
+		assertSameAsSerializationHelper(createTerms(200000));
+	}
+}
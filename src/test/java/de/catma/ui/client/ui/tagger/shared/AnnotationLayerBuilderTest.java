@@ -0,0 +1,174 @@
+package de.catma.ui.client.ui.tagger.shared;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Table;
+import com.google.common.collect.TreeMultimap;
+
+class AnnotationLayerBuilderTest {
+	private static final int LINE_LENGTH = 80;
+
+	private final Logger logger = Logger.getLogger(AnnotationLayerBuilderTest.class.getName());
+
+	/**
+	 * The layer assignment that tests every range part against every range and probes the occupied layers,
+	 * kept as the reference for the expected output.
+	 */
+	private static Table<Integer, TextRange, ClientTagInstance> buildPairwise(
+			Collection<ClientTagInstance> relativeTagInstances, List<TextRange> rangeParts) {
+		Multimap<TextRange, ClientTagInstance> relativeTagInstanceByTextRange = TreeMultimap.create(
+				(TextRange o1, TextRange o2) -> o1.compareTo(o2),
+				(ClientTagInstance o1, ClientTagInstance o2) -> {
+					int result = o2.getLongestRangeSize()-o1.getLongestRangeSize();
+					if (result == 0) {
+						return 1; //equal sized longest range
+					}
+					return result;
+				});
+
+		for (ClientTagInstance relativeTagInstance : relativeTagInstances) {
+			for (TextRange textRange : relativeTagInstance.getRanges()) {
+				for (TextRange rangePart : rangeParts) {
+					if (rangePart.isCoveredBy(textRange)) {
+						relativeTagInstanceByTextRange.put(rangePart, relativeTagInstance);
+					}
+				}
+			}
+		}
+
+		Table<Integer, TextRange, ClientTagInstance> layerTable = HashBasedTable.create();
+		for (TextRange textRange : rangeParts) {
+			for (ClientTagInstance relativeTagInstance : relativeTagInstanceByTextRange.get(textRange)) {
+				int rowIdx = 0;
+				while (layerTable.contains(rowIdx, textRange)) {
+					rowIdx++;
+				}
+				layerTable.put(rowIdx, textRange, relativeTagInstance);
+			}
+		}
+		return layerTable;
+	}
+
+	private static List<ClientTagInstance> createDenseTagInstances(Random random, int count) {
+		List<ClientTagInstance> tagInstances = new ArrayList<>();
+		for (int idx = 0; idx < count; idx++) {
+			List<TextRange> ranges = new ArrayList<>();
+			int rangeCount = 1 + random.nextInt(2);
+			int start = random.nextInt(LINE_LENGTH - 1);
+			for (int rangeIdx = 0; rangeIdx < rangeCount && start < LINE_LENGTH - 1; rangeIdx++) {
+				// few distinct lengths, so that there are plenty of equal sized longest ranges
+				int end = Math.min(LINE_LENGTH, start + 1 + 5 * random.nextInt(4));
+				ranges.add(new TextRange(start, end));
+				start = end + 1 + random.nextInt(5);
+			}
+			tagInstances.add(new ClientTagInstance("tag" + (idx % 7), "annotation" + idx, "#000000", ranges));
+		}
+		return tagInstances;
+	}
+
+	// splits the line at every range boundary, like the lines of the pager do
+	private static List<TextRange> createRangeParts(List<ClientTagInstance> tagInstances) {
+		TreeSet<Integer> boundaries = new TreeSet<>(List.of(0, LINE_LENGTH));
+		for (ClientTagInstance tagInstance : tagInstances) {
+			for (TextRange range : tagInstance.getRanges()) {
+				boundaries.add(range.getStartPos());
+				boundaries.add(range.getEndPos());
+			}
+		}
+
+		List<TextRange> rangeParts = new ArrayList<>();
+		Integer start = null;
+		for (Integer boundary : boundaries) {
+			if (start != null) {
+				rangeParts.add(new TextRange(start, boundary));
+			}
+			start = boundary;
+		}
+		return rangeParts;
+	}
+
+	@Test
+	void shouldAssignTheSameLayersAsThePairwiseAssignment() {
+		Random random = new Random(42);
+
+		for (int layout = 0; layout < 200; layout++) {
+			List<ClientTagInstance> tagInstances = createDenseTagInstances(random, 1 + random.nextInt(60));
+			List<TextRange> rangeParts = createRangeParts(tagInstances);
+
+			assertEquals(
+					buildPairwise(tagInstances, rangeParts),
+					new AnnotationLayerBuilder(tagInstances, rangeParts).getLayerTable(),
+					"layout " + layout);
+		}
+	}
+
+	@Test
+	void shouldStackEqualSizedTagInstancesInTheirOrder() {
+		ClientTagInstance longer = new ClientTagInstance("tag", "longer", "#000000", List.of(new TextRange(0, 10)));
+		ClientTagInstance first = new ClientTagInstance("tag", "first", "#000000", List.of(new TextRange(0, 5)));
+		ClientTagInstance second = new ClientTagInstance("tag", "second", "#000000", List.of(new TextRange(0, 5)));
+		List<TextRange> rangeParts = List.of(new TextRange(0, 5), new TextRange(5, 10));
+
+		Table<Integer, TextRange, ClientTagInstance> layerTable =
+				new AnnotationLayerBuilder(List.of(first, second, longer), rangeParts).getLayerTable();
+
+		assertSame(longer, layerTable.get(0, rangeParts.get(0)));
+		assertSame(first, layerTable.get(1, rangeParts.get(0)));
+		assertSame(second, layerTable.get(2, rangeParts.get(0)));
+		assertSame(longer, layerTable.get(0, rangeParts.get(1)));
+		assertEquals(1, layerTable.column(rangeParts.get(1)).size());
+	}
+
+	/**
+	 * Run with <code>mvn test -Dtest=AnnotationLayerBuilderTest -Dbenchmark=true</code>.
+	 */
+	@Test
+	@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+	void benchmarkDenseLayouts() {
+		for (int tagInstanceCount : new int[] {50, 200, 800}) {
+			Random random = new Random(tagInstanceCount);
+			List<List<ClientTagInstance>> layouts = new ArrayList<>();
+			for (int layout = 0; layout < 20; layout++) {
+				layouts.add(createDenseTagInstances(random, tagInstanceCount));
+			}
+			List<List<TextRange>> rangeParts = new ArrayList<>();
+			layouts.forEach(tagInstances -> rangeParts.add(createRangeParts(tagInstances)));
+
+			// warm up
+			for (int idx = 0; idx < layouts.size(); idx++) {
+				buildPairwise(layouts.get(idx), rangeParts.get(idx));
+				new AnnotationLayerBuilder(layouts.get(idx), rangeParts.get(idx));
+			}
+
+			long start = System.nanoTime();
+			for (int idx = 0; idx < layouts.size(); idx++) {
+				buildPairwise(layouts.get(idx), rangeParts.get(idx));
+			}
+			long pairwiseNanos = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int idx = 0; idx < layouts.size(); idx++) {
+				new AnnotationLayerBuilder(layouts.get(idx), rangeParts.get(idx));
+			}
+			long sweepNanos = System.nanoTime() - start;
+
+			logger.info(String.format(
+					"%d tag instances per line: pairwise %.2f ms/line, sweep %.2f ms/line",
+					tagInstanceCount,
+					pairwiseNanos / 1_000_000.0 / layouts.size(),
+					sweepNanos / 1_000_000.0 / layouts.size()));
+		}
+	}
+}